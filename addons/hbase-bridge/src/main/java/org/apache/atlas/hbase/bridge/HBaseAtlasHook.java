@@ -562,7 +562,19 @@ public class HBaseAtlasHook extends AtlasHook {
             ugi = ugi.getRealUser();
         }
 
-        notifyEntities(hbaseOperationContext.getMessages(), ugi);
+        notifyEntities(hbaseOperationContext.getMessages(), ugi, getMessageKey(hbaseOperationContext));
+    }
+
+    // notifications of all operations on a namespace and its tables share the key, hence are processed by Atlas in order
+    private String getMessageKey(HBaseOperationContext hbaseOperationContext) {
+        NamespaceDescriptor nameSpaceDesc = hbaseOperationContext.getNamespaceDescriptor();
+        String              nameSpaceName = nameSpaceDesc == null ? hbaseOperationContext.getNameSpace() : nameSpaceDesc.getName();
+
+        if (nameSpaceName == null && hbaseOperationContext.getTableName() != null) {
+            nameSpaceName = hbaseOperationContext.getTableName().getNamespaceAsString();
+        }
+
+        return getNameSpaceQualifiedName(getMetadataNamespace(), nameSpaceName);
     }
 
     private HBaseOperationContext handleHBaseNameSpaceOperation(NamespaceDescriptor namespaceDescriptor, String nameSpace, OPERATION operation, UserGroupInformation ugi, String userName) {
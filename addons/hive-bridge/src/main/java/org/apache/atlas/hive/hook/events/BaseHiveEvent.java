@@ -41,6 +41,13 @@ import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Order;
 import org.apache.hadoop.hive.metastore.api.SerDeInfo;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.events.AlterDatabaseEvent;
+import org.apache.hadoop.hive.metastore.events.AlterTableEvent;
+import org.apache.hadoop.hive.metastore.events.CreateDatabaseEvent;
+import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
+import org.apache.hadoop.hive.metastore.events.DropDatabaseEvent;
+import org.apache.hadoop.hive.metastore.events.DropTableEvent;
+import org.apache.hadoop.hive.metastore.events.ListenerEvent;
 import org.apache.hadoop.hive.metastore.utils.SecurityUtils;
 import org.apache.hadoop.hive.ql.hooks.*;
 import org.apache.hadoop.hive.ql.hooks.LineageInfo.BaseColumnInfo;
@@ -693,6 +700,23 @@ public abstract class BaseHiveEvent {
         return context.getMetadataNamespace();
     }
 
+    /**
+     * Returns the key to route notifications of this event with: qualifiedName of the database that owns the
+     * entities written by the operation (or read, when nothing is written). Notifications of all operations on
+     * a database share the key, hence are processed by Atlas in the order they were sent.
+     *
+     * @return qualifiedName of the owning database; null if the database can't be determined
+     */
+    public String getMessageKey() {
+        String dbName = context.isMetastoreHook() ? getMetastoreEventDbName() : getDbName(getOutputs());
+
+        if (dbName == null && !context.isMetastoreHook()) {
+            dbName = getDbName(getInputs());
+        }
+
+        return dbName != null ? (dbName + QNAME_SEP_METADATA_NAMESPACE).toLowerCase() + getMetadataNamespace() : null;
+    }
+
     protected Database getDatabases(String dbName) throws Exception {
         return context.isMetastoreHook() ? context.getMetastoreHandler().get_database(dbName) :
                                            context.getHive().getDatabase(dbName);
@@ -777,6 +801,52 @@ public abstract class BaseHiveEvent {
         return ret;
     }
 
+    private String getMetastoreEventDbName() {
+        ListenerEvent event = context.getMetastoreEvent();
+
+        if (event instanceof CreateDatabaseEvent) {
+            return ((CreateDatabaseEvent) event).getDatabase().getName();
+        } else if (event instanceof DropDatabaseEvent) {
+            return ((DropDatabaseEvent) event).getDatabase().getName();
+        } else if (event instanceof AlterDatabaseEvent) {
+            return ((AlterDatabaseEvent) event).getNewDatabase().getName();
+        } else if (event instanceof CreateTableEvent) {
+            return ((CreateTableEvent) event).getTable().getDbName();
+        } else if (event instanceof DropTableEvent) {
+            return ((DropTableEvent) event).getTable().getDbName();
+        } else if (event instanceof AlterTableEvent) {
+            return ((AlterTableEvent) event).getNewTable().getDbName();
+        }
+
+        return null;
+    }
+
+    private String getDbName(Set<? extends Entity> entities) {
+        if (entities != null) {
+            for (Entity entity : entities) {
+                String dbName = null;
+
+                switch (entity.getType()) {
+                    case DATABASE:
+                        dbName = entity.getDatabase() != null ? entity.getDatabase().getName() : null;
+                    break;
+
+                    case TABLE:
+                    case PARTITION:
+                    case DUMMYPARTITION:
+                        dbName = entity.getTable() != null ? entity.getTable().getDbName() : null;
+                    break;
+                }
+
+                if (dbName != null && !context.getIgnoreDummyDatabaseName().contains(dbName)) {
+                    return dbName;
+                }
+            }
+        }
+
+        return null;
+    }
+
     protected String getQualifiedName(Entity entity) throws Exception {
         switch (entity.getType()) {
             case DATABASE:
@@ -115,7 +115,7 @@ public class ImpalaLineageHook extends AtlasHook {
 
                 final UserGroupInformation ugi = getUgiFromUserName(lineageQuery.getUser());
 
-                super.notifyEntities(event.getNotificationMessages(), ugi);
+                super.notifyEntities(event.getNotificationMessages(), ugi, event.getMessageKey());
             }
         } catch (Throwable t) {
 
@@ -113,6 +113,43 @@ public abstract class BaseImpalaEvent {
 
     public String getUserName() { return context.getUserName(); }
 
+    /**
+     * Returns the key to route notifications of this event with: qualifiedName of the database that owns the
+     * entities written by the query. Notifications of all queries writing to a database share the key.
+     *
+     * @return qualifiedName of the owning database; null if the database can't be determined
+     */
+    public String getMessageKey() {
+        return null;
+    }
+
+    protected String getDbQualifiedName(LineageVertex node) {
+        if (node == null || node.getVertexType() == null || node.getVertexId() == null) {
+            return null;
+        }
+
+        String dbName = null;
+
+        switch (node.getVertexType()) {
+            case DATABASE:
+                dbName = node.getVertexId();
+                break;
+
+            case TABLE:
+                dbName = context.getDatabaseNameFromTable(node.getVertexId());
+                break;
+
+            case COLUMN: {
+                String tableName = getTableNameFromVertex(node);
+
+                dbName = tableName != null ? context.getDatabaseNameFromTable(tableName) : null;
+            }
+            break;
+        }
+
+        return dbName != null ? context.getQualifiedNameForDb(dbName) : null;
+    }
+
     public String getTableNameFromVertex(LineageVertex vertex) {
         if (vertex.getVertexType() == ImpalaVertexType.COLUMN) {
             LineageVertexMetadata metadata = vertex.getMetadata();
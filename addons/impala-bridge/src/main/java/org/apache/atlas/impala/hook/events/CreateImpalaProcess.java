@@ -45,10 +45,17 @@ import org.slf4j.LoggerFactory;
 public class CreateImpalaProcess extends BaseImpalaEvent {
     private static final Logger LOG = LoggerFactory.getLogger(CreateImpalaProcess.class);
 
+    private String messageKey;
+
     public CreateImpalaProcess(AtlasImpalaHookContext context) {
         super(context);
     }
 
+    @Override
+    public String getMessageKey() {
+        return messageKey;
+    }
+
     public List<HookNotification> getNotificationMessages() throws Exception {
         List<HookNotification>   ret      = null;
         AtlasEntitiesWithExtInfo entities = getEntities();
@@ -105,6 +112,10 @@ public class CreateImpalaProcess extends BaseImpalaEvent {
                 if (entity != null) {
                     outputs.add(entity);
 
+                    if (messageKey == null) {
+                        messageKey = getDbQualifiedName(output.getOwnVertex());
+                    }
+
                     if (isDdlOperation()) {
                         AtlasEntity ddlEntity = createHiveDDLEntity(entity);
                         if (ddlEntity != null) {
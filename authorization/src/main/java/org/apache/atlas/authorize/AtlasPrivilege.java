@@ -39,6 +39,7 @@ public enum AtlasPrivilege {
      RELATIONSHIP_REMOVE("remove-relationship"),
 
      ADMIN_PURGE("admin-purge"),
+     ADMIN_TASKS("admin-tasks"),
 
      ENTITY_ADD_LABEL("entity-add-label"),
      ENTITY_REMOVE_LABEL("entity-remove-label"),
@@ -104,6 +104,25 @@ public final class Constants {
     public static final String PATCH_ACTION_PROPERTY_KEY      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.action");
     public static final String PATCH_STATE_PROPERTY_KEY       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.state");
 
+    /**
+     * Entity counts snapshot vertex: identified by VERTEX_TYPE_PROPERTY_KEY.
+     */
+    public static final String ENTITY_COUNTS_VERTEX_TYPE  = "entityCounts";
+    public static final String ENTITY_COUNTS_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "entityCounts");
+
+    /**
+     * Task vertices: identified by VERTEX_TYPE_PROPERTY_KEY.
+     */
+    public static final String TASK_VERTEX_TYPE                 = "task";
+    public static final String TASK_GUID_PROPERTY_KEY           = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.guid");
+    public static final String TASK_TYPE_PROPERTY_KEY           = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.type");
+    public static final String TASK_STATUS_PROPERTY_KEY         = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.status");
+    public static final String TASK_PARAMETERS_PROPERTY_KEY     = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.parameters");
+    public static final String TASK_START_TIME_PROPERTY_KEY     = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.startTime");
+    public static final String TASK_END_TIME_PROPERTY_KEY       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.endTime");
+    public static final String TASK_ATTEMPT_COUNT_PROPERTY_KEY  = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.attemptCount");
+    public static final String TASK_ERROR_MESSAGE_PROPERTY_KEY  = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task.errorMessage");
+
     /**
      * The homeId field is used when saving into Atlas a copy of an object that is being imported from another
      * repository. The homeId will be set to a String that identifies the other repository. The specific format
@@ -15,16 +15,21 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.atlas.utils;
 
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-request metrics of internal operations. Metrics can be recorded concurrently, from parallel work within a request.
+ */
 public class AtlasPerfMetrics {
-    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
 
 
     public MetricRecorder getMetricRecorder(String name) {
@@ -33,20 +38,18 @@ public class AtlasPerfMetrics {
 
     public void recordMetric(MetricRecorder recorder) {
         if (recorder != null) {
-            final String name      = recorder.name;
-            final long   timeTaken = recorder.getElapsedTime();
-
-            Metric metric = metrics.get(name);
-
-            if (metric == null) {
-                metric = new Metric(name);
+            recordMetric(recorder.name, recorder.getElapsedTimeNanos());
+        }
+    }
 
-                metrics.put(name, metric);
-            }
+    public void recordMetric(String name, long timeTakenNanos) {
+        Metric metric = metrics.get(name);
 
-            metric.invocations++;
-            metric.totalTimeMSecs += timeTaken;
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(name, Metric::new);
         }
+
+        metric.record(timeTakenNanos);
     }
 
     public void clear() {
@@ -65,6 +68,10 @@ public class AtlasPerfMetrics {
         return metrics.get(name);
     }
 
+    public Collection<Metric> getMetrics() {
+        return metrics.values();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -86,21 +93,32 @@ public class AtlasPerfMetrics {
 
     public class MetricRecorder {
         private final String name;
-        private final long   startTimeMs = System.currentTimeMillis();
+        private final long   startTimeNanos = System.nanoTime();
 
         MetricRecorder(String name) {
             this.name = name;
         }
 
-        long getElapsedTime() {
-            return System.currentTimeMillis() - startTimeMs;
+        long getElapsedTimeNanos() {
+            return System.nanoTime() - startTimeNanos;
         }
     }
 
+    /**
+     * Invocation count and time taken by an operation, with a log-linear histogram of invocation times to estimate
+     * percentiles: 2 buckets for each power of 2 between 1 microsecond and ~70 minutes, i.e. within 25% of actual value.
+     */
     public static class Metric {
+        private static final int MIN_EXPONENT = 10; // 1024 ns
+        private static final int MAX_EXPONENT = 42; // ~73 minutes
+        private static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT + 1) * 2;
+
         private final String name;
-        private       short  invocations    = 0;
-        private       long   totalTimeMSecs = 0;
+        private final long[] histogram      = new long[BUCKET_COUNT];
+        private       long   invocations    = 0;
+        private       long   totalTimeNanos = 0;
+        private       long   minTimeNanos   = Long.MAX_VALUE;
+        private       long   maxTimeNanos   = 0;
 
         public Metric(String name) {
             this.name = name;
@@ -110,12 +128,148 @@ public class AtlasPerfMetrics {
             return name;
         }
 
-        public short getInvocations() {
+        public synchronized long getInvocations() {
             return invocations;
         }
 
+        public synchronized long getTotalTimeNanos() {
+            return totalTimeNanos;
+        }
+
         public long getTotalTimeMSecs() {
-            return totalTimeMSecs;
+            return TimeUnit.NANOSECONDS.toMillis(getTotalTimeNanos());
+        }
+
+        public synchronized long getMinTimeNanos() {
+            return invocations > 0 ? minTimeNanos : 0;
+        }
+
+        public synchronized long getMaxTimeNanos() {
+            return maxTimeNanos;
+        }
+
+        public synchronized long getAvgTimeNanos() {
+            return invocations > 0 ? totalTimeNanos / invocations : 0;
+        }
+
+        /**
+         * @param percentile  percentile to estimate, between 0 and 100
+         *
+         * @return estimated invocation time at the given percentile, in nanoseconds
+         */
+        public synchronized long getPercentileNanos(double percentile) {
+            if (invocations == 0) {
+                return 0;
+            } else if (percentile <= 0) {
+                return minTimeNanos;
+            } else if (percentile >= 100) {
+                return maxTimeNanos;
+            }
+
+            long rank = (long) Math.ceil((percentile / 100) * invocations);
+
+            if (rank < 1) {
+                rank = 1;
+            }
+
+            long count = 0;
+
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                count += histogram[i];
+
+                if (count >= rank) {
+                    return Math.max(minTimeNanos, Math.min(maxTimeNanos, getBucketMidPoint(i)));
+                }
+            }
+
+            return maxTimeNanos;
+        }
+
+        public synchronized void record(long timeTakenNanos) {
+            if (timeTakenNanos < 0) {
+                timeTakenNanos = 0;
+            }
+
+            invocations++;
+            totalTimeNanos += timeTakenNanos;
+
+            if (timeTakenNanos < minTimeNanos) {
+                minTimeNanos = timeTakenNanos;
+            }
+
+            if (timeTakenNanos > maxTimeNanos) {
+                maxTimeNanos = timeTakenNanos;
+            }
+
+            histogram[getBucketIndex(timeTakenNanos)]++;
+        }
+
+        public void merge(Metric other) {
+            final long   otherInvocations;
+            final long   otherTotalTimeNanos;
+            final long   otherMinTimeNanos;
+            final long   otherMaxTimeNanos;
+            final long[] otherHistogram;
+
+            synchronized (other) {
+                otherInvocations    = other.invocations;
+                otherTotalTimeNanos = other.totalTimeNanos;
+                otherMinTimeNanos   = other.minTimeNanos;
+                otherMaxTimeNanos   = other.maxTimeNanos;
+                otherHistogram      = other.histogram.clone();
+            }
+
+            synchronized (this) {
+                invocations    += otherInvocations;
+                totalTimeNanos += otherTotalTimeNanos;
+                minTimeNanos    = Math.min(minTimeNanos, otherMinTimeNanos);
+                maxTimeNanos    = Math.max(maxTimeNanos, otherMaxTimeNanos);
+
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    histogram[i] += otherHistogram[i];
+                }
+            }
+        }
+
+        /**
+         * @return count, and total/avg/min/max/percentile times in milliseconds
+         */
+        public synchronized Map<String, Object> getStats() {
+            Map<String, Object> ret = new LinkedHashMap<>();
+
+            ret.put("count", invocations);
+            ret.put("totalTimeMs", toMillis(totalTimeNanos));
+            ret.put("avgTimeMs", toMillis(getAvgTimeNanos()));
+            ret.put("minTimeMs", toMillis(getMinTimeNanos()));
+            ret.put("maxTimeMs", toMillis(maxTimeNanos));
+            ret.put("p50TimeMs", toMillis(getPercentileNanos(50)));
+            ret.put("p95TimeMs", toMillis(getPercentileNanos(95)));
+            ret.put("p99TimeMs", toMillis(getPercentileNanos(99)));
+
+            return ret;
+        }
+
+        static int getBucketIndex(long timeNanos) {
+            int exponent = 63 - Long.numberOfLeadingZeros(timeNanos);
+
+            if (exponent < MIN_EXPONENT) {
+                return 0;
+            } else if (exponent > MAX_EXPONENT) {
+                return BUCKET_COUNT - 1;
+            }
+
+            return ((exponent - MIN_EXPONENT) * 2) + (int) ((timeNanos >>> (exponent - 1)) & 1);
+        }
+
+        static long getBucketMidPoint(int bucketIndex) {
+            int  exponent = MIN_EXPONENT + (bucketIndex / 2);
+            long width    = 1L << (exponent - 1);
+
+            return (1L << exponent) + ((bucketIndex % 2) * width) + (width / 2);
+        }
+
+        private static double toMillis(long nanos) {
+            return Math.round(nanos / 1000.0) / 1000.0;
         }
     }
 }
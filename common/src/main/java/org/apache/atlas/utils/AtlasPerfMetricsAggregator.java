@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.apache.atlas.utils.AtlasPerfMetrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-wide view of metrics recorded by requests over a rolling window. Metrics are kept in two windows - current and
+ * previous; the view includes both, hence covers between 1 and 2 window lengths of the most recent requests.
+ */
+public class AtlasPerfMetricsAggregator {
+    private final    long                windowMs;
+    private volatile Map<String, Metric> currentWindow  = new ConcurrentHashMap<>();
+    private volatile Map<String, Metric> previousWindow = Collections.emptyMap();
+    private volatile long                windowStartMs  = System.currentTimeMillis();
+
+    public AtlasPerfMetricsAggregator(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void add(AtlasPerfMetrics metrics) {
+        if (metrics == null || metrics.isEmpty()) {
+            return;
+        }
+
+        Map<String, Metric> window = getCurrentWindow();
+
+        for (Metric metric : metrics.getMetrics()) {
+            Metric aggregate = window.get(metric.getName());
+
+            if (aggregate == null) {
+                aggregate = window.computeIfAbsent(metric.getName(), Metric::new);
+            }
+
+            aggregate.merge(metric);
+        }
+    }
+
+    /**
+     * @return metrics in the rolling window, in descending order of total time taken
+     */
+    public List<Metric> getMetrics() {
+        Map<String, Metric> current  = getCurrentWindow();
+        Map<String, Metric> previous = previousWindow;
+        Map<String, Metric> merged   = new LinkedHashMap<>();
+
+        for (Map<String, Metric> window : Arrays.asList(previous, current)) {
+            for (Metric metric : window.values()) {
+                merged.computeIfAbsent(metric.getName(), Metric::new).merge(metric);
+            }
+        }
+
+        List<Metric> ret = new ArrayList<>(merged.values());
+
+        ret.sort((m1, m2) -> Long.compare(m2.getTotalTimeNanos(), m1.getTotalTimeNanos()));
+
+        return ret;
+    }
+
+    /**
+     * @return stats of metrics in the rolling window, keyed by metric name, in descending order of total time taken
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> ret = new LinkedHashMap<>();
+
+        for (Metric metric : getMetrics()) {
+            ret.put(metric.getName(), metric.getStats());
+        }
+
+        return ret;
+    }
+
+    public synchronized void clear() {
+        currentWindow  = new ConcurrentHashMap<>();
+        previousWindow = Collections.emptyMap();
+        windowStartMs  = System.currentTimeMillis();
+    }
+
+    private Map<String, Metric> getCurrentWindow() {
+        long now = System.currentTimeMillis();
+
+        if (now - windowStartMs >= windowMs) {
+            synchronized (this) {
+                long elapsedMs = now - windowStartMs;
+
+                if (elapsedMs >= windowMs) {
+                    // previous window is dropped as well if no request was recorded in the last window
+                    previousWindow = elapsedMs < (2 * windowMs) ? currentWindow : Collections.<String, Metric>emptyMap();
+                    currentWindow  = new ConcurrentHashMap<>();
+                    windowStartMs  = now;
+                }
+            }
+        }
+
+        return currentWindow;
+    }
+}
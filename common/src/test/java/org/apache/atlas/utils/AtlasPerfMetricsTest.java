@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.apache.atlas.utils.AtlasPerfMetrics.Metric;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasPerfMetricsTest {
+    @Test
+    public void testInvocationCountDoesNotOverflow() {
+        AtlasPerfMetrics metrics = new AtlasPerfMetrics();
+        int              count   = Short.MAX_VALUE + 10;
+
+        for (int i = 0; i < count; i++) {
+            metrics.recordMetric("getOrCreateEdge", 1000);
+        }
+
+        Metric metric = metrics.getMetric("getOrCreateEdge");
+
+        assertEquals(metric.getInvocations(), count);
+        assertEquals(metric.getTotalTimeNanos(), count * 1000L);
+        assertEquals(metric.getTotalTimeMSecs(), TimeUnit.NANOSECONDS.toMillis(count * 1000L));
+    }
+
+    @Test
+    public void testSubMillisecondTimes() {
+        AtlasPerfMetrics metrics = new AtlasPerfMetrics();
+
+        metrics.recordMetric("findByGuid", TimeUnit.MICROSECONDS.toNanos(150));
+        metrics.recordMetric("findByGuid", TimeUnit.MICROSECONDS.toNanos(250));
+
+        Metric metric = metrics.getMetric("findByGuid");
+
+        assertEquals(metric.getMinTimeNanos(), TimeUnit.MICROSECONDS.toNanos(150));
+        assertEquals(metric.getMaxTimeNanos(), TimeUnit.MICROSECONDS.toNanos(250));
+        assertEquals(metric.getAvgTimeNanos(), TimeUnit.MICROSECONDS.toNanos(200));
+        assertEquals(metric.getStats().get("totalTimeMs"), 0.4);
+    }
+
+    @Test
+    public void testPercentiles() {
+        Metric metric = new Metric("entityAudit");
+
+        for (int i = 1; i <= 1000; i++) {
+            metric.record(TimeUnit.MICROSECONDS.toNanos(i * 10));
+        }
+
+        assertPercentile(metric, 50, TimeUnit.MILLISECONDS.toNanos(5));
+        assertPercentile(metric, 95, TimeUnit.MICROSECONDS.toNanos(9500));
+        assertPercentile(metric, 99, TimeUnit.MICROSECONDS.toNanos(9900));
+
+        assertEquals(metric.getPercentileNanos(100), metric.getMaxTimeNanos());
+        assertEquals(metric.getPercentileNanos(0), metric.getMinTimeNanos());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        final AtlasPerfMetrics metrics          = new AtlasPerfMetrics();
+        final int              threadCount      = 8;
+        final int              recordsPerThread = 10000;
+        List<Thread>           threads          = new ArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < recordsPerThread; j++) {
+                    metrics.recordMetric(metrics.getMetricRecorder("metric-" + (j % 4)));
+                }
+            });
+
+            threads.add(thread);
+
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = 0;
+
+        for (Metric metric : metrics.getMetrics()) {
+            total += metric.getInvocations();
+        }
+
+        assertEquals(metrics.getMetricsNames().size(), 4);
+        assertEquals(total, threadCount * recordsPerThread);
+    }
+
+    @Test
+    public void testAggregator() throws Exception {
+        AtlasPerfMetricsAggregator aggregator = new AtlasPerfMetricsAggregator(TimeUnit.HOURS.toMillis(1));
+        AtlasPerfMetrics           request1   = new AtlasPerfMetrics();
+        AtlasPerfMetrics           request2   = new AtlasPerfMetrics();
+
+        request1.recordMetric("findByGuid", TimeUnit.MILLISECONDS.toNanos(2));
+        request1.recordMetric("entityAudit", TimeUnit.MILLISECONDS.toNanos(20));
+        request2.recordMetric("findByGuid", TimeUnit.MILLISECONDS.toNanos(4));
+
+        aggregator.add(request1);
+        aggregator.add(request2);
+
+        List<Metric> metrics = aggregator.getMetrics();
+
+        assertEquals(metrics.size(), 2);
+        assertEquals(metrics.get(0).getName(), "entityAudit"); // highest total time first
+        assertEquals(metrics.get(1).getInvocations(), 2);
+        assertEquals(metrics.get(1).getMinTimeNanos(), TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(metrics.get(1).getMaxTimeNanos(), TimeUnit.MILLISECONDS.toNanos(4));
+
+        Map<String, Map<String, Object>> stats = aggregator.getStats();
+
+        assertEquals(stats.get("findByGuid").get("count"), 2L);
+        assertEquals(stats.get("findByGuid").get("totalTimeMs"), 6.0);
+
+        aggregator.clear();
+
+        assertTrue(aggregator.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void testAggregatorWindowRollover() throws Exception {
+        AtlasPerfMetricsAggregator aggregator = new AtlasPerfMetricsAggregator(50);
+        AtlasPerfMetrics           request    = new AtlasPerfMetrics();
+
+        request.recordMetric("findByGuid", 1000);
+
+        aggregator.add(request);
+
+        assertEquals(aggregator.getMetrics().size(), 1);
+
+        Thread.sleep(150); // longer than 2 windows
+
+        assertTrue(aggregator.getMetrics().isEmpty());
+    }
+
+    // histogram buckets are within 25% of the recorded value
+    private void assertPercentile(Metric metric, double percentile, long expectedNanos) {
+        long actual = metric.getPercentileNanos(percentile);
+
+        assertTrue(Math.abs(actual - expectedNanos) <= expectedNanos / 4, "p" + percentile + ": expected ~" + expectedNanos + ", actual " + actual);
+    }
+}
@@ -26,6 +26,8 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -96,6 +98,29 @@ public interface AtlasGraph<V, E> {
      */
     Iterable<AtlasEdge<V, E>> getEdges();
 
+    /**
+     * Gets the edges of the given vertices, in the given direction and with the given labels. Implementations
+     * may retrieve the edges of all the vertices from the storage backend in a single batch, instead of one
+     * round-trip per vertex.
+     *
+     * @param vertices vertices to get the edges of
+     * @param direction direction of the edges
+     * @param edgeLabels labels of the edges to get; edges with any label if empty
+     * @return map of vertex to its edges; vertices without matching edges may not be present in the map
+     */
+    Map<AtlasVertex<V, E>, List<AtlasEdge<V, E>>> getEdges(Collection<AtlasVertex<V, E>> vertices, AtlasEdgeDirection direction, String... edgeLabels);
+
+    /**
+     * Loads the properties of the given vertices, and their edges with the given labels, into the current transaction
+     * in bulk; subsequent reads of these from the vertices are then served without a backend round-trip per vertex.
+     *
+     * @param vertices vertices to prefetch
+     * @param direction direction of the edges to prefetch
+     * @param edgeLabels labels of the edges to prefetch; no edges are prefetched if empty
+     * @return vertices at the other end of the prefetched edges
+     */
+    Set<AtlasVertex<V, E>> prefetch(Collection<AtlasVertex<V, E>> vertices, AtlasEdgeDirection direction, String... edgeLabels);
+
     /**
      * Gets all the vertices in the graph.
      * @return
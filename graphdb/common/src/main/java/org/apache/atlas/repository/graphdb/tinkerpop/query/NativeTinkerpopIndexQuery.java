@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.tinkerpop.query;
+
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.AndCondition;
+
+/**
+ * Index query that the AndConditions of an OrCondition are added to, so that
+ * they can be evaluated with a single query against the mixed index instead
+ * of one graph query per AndCondition.
+ *
+ * @param <V>
+ * @param <E>
+ */
+public interface NativeTinkerpopIndexQuery<V, E> {
+
+    /**
+     * Adds the given AndCondition as an alternative (OR) to the conditions already added.
+     *
+     * @param andCondition
+     * @return false if the condition can't be evaluated by the index; the query is left unchanged in this case
+     */
+    boolean addAndCondition(AndCondition andCondition);
+
+    /**
+     * @return number of AndConditions added to this query
+     */
+    int getAndConditionCount();
+
+    /**
+     * Executes the query, with offset and limit applied by the index backend.
+     *
+     * @param offset
+     * @param limit
+     * @return
+     */
+    Iterable<AtlasVertex<V, E>> vertices(int offset, int limit);
+}
@@ -31,4 +31,12 @@ public interface NativeTinkerpopQueryFactory<V, E> {
      * @return
      */
     NativeTinkerpopGraphQuery<V, E> createNativeTinkerpopQuery();
+
+    /**
+     * Creates a NativeTinkerpopIndexQuery.
+     * @return null if conditions can't be pushed down to an index query
+     */
+    default NativeTinkerpopIndexQuery<V, E> createNativeTinkerpopIndexQuery() {
+        return null;
+    }
 }
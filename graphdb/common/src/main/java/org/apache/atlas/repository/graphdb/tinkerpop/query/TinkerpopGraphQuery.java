@@ -30,6 +30,7 @@ import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.OrderByPredicate
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -85,15 +86,33 @@ import java.util.Set;
  *
  *               result
  * </pre>
+ * <p>
+ * For vertices(offset, limit), the AndConditions that the graph can evaluate with its
+ * mixed index are first combined into a single index query (see NativeTinkerpopIndexQuery),
+ * so that paging is done by the index backend; only the remaining AndConditions are
+ * evaluated and unioned as shown above. getExecutionPath() tells which path was taken.
  *
  *
  */
 public abstract class TinkerpopGraphQuery<V, E> implements AtlasGraphQuery<V, E> {
 
+    /**
+     * How vertices(offset, limit) evaluated the query.
+     */
+    public enum ExecutionPath {
+        /** each AndCondition evaluated by a graph query, results merged in memory */
+        GRAPH_QUERY,
+        /** all AndConditions evaluated by a single index query, with offset and limit applied by the index */
+        INDEX_QUERY,
+        /** indexable AndConditions evaluated by a single index query, the rest by graph queries, results merged in memory */
+        INDEX_AND_GRAPH_QUERY
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(TinkerpopGraphQuery.class);
     protected final AtlasGraph<V, E> graph;
     private final OrCondition queryCondition = new OrCondition();
     private final boolean isChildQuery;
+    private ExecutionPath executionPath;
     protected abstract NativeTinkerpopQueryFactory<V, E> getQueryFactory();
 
     /**
@@ -211,31 +230,78 @@ public abstract class TinkerpopGraphQuery<V, E> implements AtlasGraphQuery<V, E>
         Preconditions.checkArgument(offset >= 0, "Offset must be non-negative");
         Preconditions.checkArgument(limit >= 0, "Limit must be non-negative");
 
+        List<AndCondition>              andTerms        = queryCondition.getAndTerms();
+        List<AndCondition>              graphQueryTerms = andTerms;
+        NativeTinkerpopIndexQuery<V, E> indexQuery      = null;
+
+        // push the OR of indexable AndConditions down to a single index query, so that the index backend
+        // applies offset and limit instead of each AndCondition fetching offset + limit vertices
+        if (andTerms.size() > 1) {
+            indexQuery = getQueryFactory().createNativeTinkerpopIndexQuery();
+
+            if (indexQuery != null) {
+                graphQueryTerms = new ArrayList<>();
+
+                for (AndCondition andExpr : andTerms) {
+                    if (!indexQuery.addAndCondition(andExpr)) {
+                        graphQueryTerms.add(andExpr);
+                    }
+                }
+
+                if (indexQuery.getAndConditionCount() < 2) { // no gain over a graph query
+                    indexQuery      = null;
+                    graphQueryTerms = andTerms;
+                }
+            }
+        }
+
+        if (indexQuery == null) {
+            executionPath = ExecutionPath.GRAPH_QUERY;
+        } else if (graphQueryTerms.isEmpty()) {
+            executionPath = ExecutionPath.INDEX_QUERY;
+        } else {
+            executionPath = ExecutionPath.INDEX_AND_GRAPH_QUERY;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("vertices({}, {}): executionPath={}, indexQueryConditions={}, graphQueryConditions={}", offset, limit, executionPath,
+                      (indexQuery != null ? indexQuery.getAndConditionCount() : 0), graphQueryTerms.size());
+        }
+
+        if (executionPath == ExecutionPath.INDEX_QUERY) {
+            return indexQuery.vertices(offset, limit);
+        }
+
         // Compute the overall result by combining the results of all the AndConditions (nested within OR) together.
-        Set<AtlasVertex<V, E>> result = new LinkedHashSet<>();
-        long resultIdx = 0;
-        for(AndCondition andExpr : queryCondition.getAndTerms()) {
+        Set<AtlasVertex<V, E>> result    = new LinkedHashSet<>();
+        long                   resultIdx = 0;
+
+        if (indexQuery != null) {
+            resultIdx = addVertices(indexQuery.vertices(0, offset + limit), result, resultIdx, offset, limit);
+        }
+
+        for(AndCondition andExpr : graphQueryTerms) {
             if (result.size() == limit) {
                 break;
             }
 
             NativeTinkerpopGraphQuery<V, E> andQuery = andExpr.create(getQueryFactory());
-            for(AtlasVertex<V, E> vertex : andQuery.vertices(offset + limit)) {
-                if (resultIdx >= offset) {
-                    result.add(vertex);
 
-                    if (result.size() == limit) {
-                        break;
-                    }
-                }
-
-                resultIdx++;
-            }
+            resultIdx = addVertices(andQuery.vertices(offset + limit), result, resultIdx, offset, limit);
         }
 
         return result;
     }
 
+    /**
+     * Gets the path taken by the last execution of vertices(offset, limit) on this query.
+     *
+     * @return null if vertices(offset, limit) was not executed yet
+     */
+    public ExecutionPath getExecutionPath() {
+        return executionPath;
+    }
+
     @Override
     public Iterable<Object> vertexIds() {
         if (LOG.isDebugEnabled()) {
@@ -334,6 +400,22 @@ public abstract class TinkerpopGraphQuery<V, E> implements AtlasGraphQuery<V, E>
         return this;
     }
 
+    private long addVertices(Iterable<AtlasVertex<V, E>> vertices, Set<AtlasVertex<V, E>> result, long resultIdx, int offset, int limit) {
+        for (AtlasVertex<V, E> vertex : vertices) {
+            if (resultIdx >= offset) {
+                result.add(vertex);
+
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+
+            resultIdx++;
+        }
+
+        return resultIdx;
+    }
+
     private OrCondition getOrCondition() {
         return queryCondition;
     }
@@ -36,6 +36,18 @@ public class HasPredicate implements QueryPredicate {
         this.value = value;
     }
 
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public QueryOperator getOperator() {
+        return op;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
     @Override
     public void addTo(NativeTinkerpopGraphQuery query) {
         query.has(propertyName, op, value);
@@ -36,6 +36,14 @@ public class InPredicate implements QueryPredicate {
         this.values = values;
     }
 
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public Collection<?> getValues() {
+        return values;
+    }
+
     @Override
     public void addTo(NativeTinkerpopGraphQuery query) {
         query.in(propertyName, values);
@@ -29,6 +29,14 @@ public class OrderByPredicate implements QueryPredicate {
         this.sortOrder = sortOrder;
     }
 
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public AtlasGraphQuery.SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
     @Override
     public void addTo(final NativeTinkerpopGraphQuery query) {
         query.orderBy(propertyKey, sortOrder);
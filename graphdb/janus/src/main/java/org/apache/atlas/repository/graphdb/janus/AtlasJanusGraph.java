@@ -28,6 +28,7 @@ import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.groovy.GroovyExpression;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphIndexClient;
 import org.apache.atlas.repository.graphdb.AtlasGraphManagement;
@@ -59,15 +60,21 @@ import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONWriter;
 import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraph;
+import org.janusgraph.core.JanusGraphEdge;
 import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphMultiVertexQuery;
+import org.janusgraph.core.JanusGraphVertex;
 import org.janusgraph.core.PropertyKey;
 import org.janusgraph.core.SchemaViolationException;
 import org.janusgraph.core.schema.JanusGraphIndex;
 import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.core.schema.Mapping;
 import org.janusgraph.core.schema.Parameter;
+import org.janusgraph.core.schema.SchemaStatus;
 import org.janusgraph.diskstorage.BackendException;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.types.ParameterType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,15 +83,19 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.apache.atlas.repository.Constants.INDEX_SEARCH_VERTEX_PREFIX_DEFAULT;
 import static org.apache.atlas.repository.Constants.INDEX_SEARCH_VERTEX_PREFIX_PROPERTY;
+import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
 import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGraphDatabase.getGraphInstance;
 import static org.apache.atlas.type.Constants.STATE_PROPERTY_KEY;
 
@@ -101,6 +112,7 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
     private final ConvertGremlinValueFunction GREMLIN_VALUE_CONVERSION_FUNCTION = new ConvertGremlinValueFunction();
     private final Set<String>                 multiProperties                   = new HashSet<>();
     private final StandardJanusGraph          janusGraph;
+    private volatile Map<String, Class<?>>    vertexIndexQueryKeys              = null;
     private final ThreadLocal<GremlinGroovyScriptEngine> scriptEngine = ThreadLocal.withInitial(() -> {
         DefaultImportCustomizer.Builder builder = DefaultImportCustomizer.build()
                                                                          .addClassImports(java.util.function.Function.class)
@@ -212,6 +224,78 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return wrapEdges(edges);
     }
 
+    @Override
+    public Map<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>, List<AtlasEdge<AtlasJanusVertex, AtlasJanusEdge>>> getEdges(Collection<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> vertices,
+                                                                                                                      AtlasEdgeDirection direction, String... edgeLabels) {
+        Map<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>, List<AtlasEdge<AtlasJanusVertex, AtlasJanusEdge>>> ret = new HashMap<>();
+
+        if (vertices == null || vertices.isEmpty()) {
+            return ret;
+        }
+
+        Map<JanusGraphVertex, AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> janusVertices = new HashMap<>(vertices.size());
+
+        for (AtlasVertex<AtlasJanusVertex, AtlasJanusEdge> vertex : vertices) {
+            janusVertices.put((JanusGraphVertex) vertex.getV().getWrappedElement(), vertex);
+        }
+
+        JanusGraphMultiVertexQuery query = getGraph().multiQuery(janusVertices.keySet()).direction(AtlasJanusObjectFactory.createDirection(direction));
+
+        if (edgeLabels != null && edgeLabels.length > 0) {
+            query.labels(edgeLabels);
+        }
+
+        Map<JanusGraphVertex, Iterable<JanusGraphEdge>> edges = query.edges();
+
+        for (Map.Entry<JanusGraphVertex, Iterable<JanusGraphEdge>> entry : edges.entrySet()) {
+            List<AtlasEdge<AtlasJanusVertex, AtlasJanusEdge>> vertexEdges = new ArrayList<>();
+
+            for (AtlasEdge<AtlasJanusVertex, AtlasJanusEdge> edge : wrapEdges(entry.getValue())) {
+                vertexEdges.add(edge);
+            }
+
+            if (!vertexEdges.isEmpty()) {
+                ret.put(janusVertices.get(entry.getKey()), vertexEdges);
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public Set<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> prefetch(Collection<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> vertices,
+                                                                       AtlasEdgeDirection direction, String... edgeLabels) {
+        Set<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> ret = new LinkedHashSet<>();
+
+        if (vertices == null || vertices.isEmpty()) {
+            return ret;
+        }
+
+        Set<JanusGraphVertex> janusVertices = new LinkedHashSet<>(vertices.size());
+
+        for (AtlasVertex<AtlasJanusVertex, AtlasJanusEdge> vertex : vertices) {
+            janusVertices.add((JanusGraphVertex) vertex.getV().getWrappedElement());
+        }
+
+        // results of multi-vertex queries are added to the query cache of each vertex in the transaction
+        getGraph().multiQuery(janusVertices).properties();
+
+        if (edgeLabels != null && edgeLabels.length > 0) {
+            Map<JanusGraphVertex, Iterable<JanusGraphEdge>> edges = getGraph().multiQuery(janusVertices)
+                                                                              .direction(AtlasJanusObjectFactory.createDirection(direction))
+                                                                              .labels(edgeLabels)
+                                                                              .edges();
+
+            for (Map.Entry<JanusGraphVertex, Iterable<JanusGraphEdge>> entry : edges.entrySet()) {
+                for (JanusGraphEdge edge : entry.getValue()) {
+                    ret.add(GraphDbObjectFactory.createVertex(this, edge.otherVertex(entry.getKey())));
+                }
+            }
+        }
+
+        return ret;
+    }
+
     @Override
     public Iterable<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> getVertices() {
         Iterator<Vertex> vertices = getGraph().vertices();
@@ -456,6 +540,49 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         multiProperties.addAll(names);
     }
 
+    /**
+     * Gets the property keys that can be used in index queries on the vertex mixed index, with their data types.
+     * String keys are included only when indexed with STRING mapping, where the index matches values exactly like
+     * graph queries do; keys that are not yet enabled in the index are excluded.
+     *
+     * @return map of property key name to data type
+     */
+    public Map<String, Class<?>> getVertexIndexQueryKeys() {
+        Map<String, Class<?>> ret = vertexIndexQueryKeys;
+
+        if (ret == null) {
+            ret = new HashMap<>();
+
+            JanusGraphManagement mgmt = getGraph().openManagement();
+
+            try {
+                JanusGraphIndex index = mgmt.getGraphIndex(VERTEX_INDEX);
+
+                if (index != null && index.isMixedIndex()) {
+                    for (PropertyKey key : index.getFieldKeys()) {
+                        if (index.getIndexStatus(key) != SchemaStatus.ENABLED) {
+                            continue;
+                        }
+
+                        if (key.dataType() != String.class || isStringMapping(index.getParametersFor(key))) {
+                            ret.put(key.name(), key.dataType());
+                        }
+                    }
+                }
+            } finally {
+                mgmt.rollback();
+            }
+
+            vertexIndexQueryKeys = ret;
+        }
+
+        return ret;
+    }
+
+    void invalidateVertexIndexQueryKeys() {
+        vertexIndexQueryKeys = null;
+    }
+
 
     String getIndexFieldName(AtlasPropertyKey propertyKey, JanusGraphIndex graphIndex, Parameter ... parameters) {
         PropertyKey janusKey = AtlasJanusObjectFactory.createPropertyKey(propertyKey);
@@ -466,7 +593,7 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
     }
 
 
-    private String getIndexQueryPrefix() {
+    public String getIndexQueryPrefix() {
         final String ret;
 
         initApplicationProperties();
@@ -480,6 +607,18 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return ret;
     }
 
+    private static boolean isStringMapping(Parameter[] parameters) {
+        if (parameters != null) {
+            for (Parameter parameter : parameters) {
+                if (ParameterType.MAPPING.getName().equals(parameter.key()) && Mapping.STRING.name().equals(String.valueOf(parameter.value()))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     private Iterable<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> wrapVertices(Iterator<? extends Vertex> it) {
         Iterable<? extends Vertex> iterable = new IteratorToIterableAdapter<>(it);
 
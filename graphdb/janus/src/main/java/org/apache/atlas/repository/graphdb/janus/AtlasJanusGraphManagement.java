@@ -130,6 +130,7 @@ public class AtlasJanusGraphManagement implements AtlasGraphManagement {
         graph.addMultiProperties(newMultProperties);
         newMultProperties.clear();
         management.commit();
+        graph.invalidateVertexIndexQueryKeys();
     }
 
     private static void checkName(String name) {
@@ -17,9 +17,11 @@
  */
 package org.apache.atlas.repository.graphdb.janus.query;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.tinkerpop.query.TinkerpopGraphQuery;
 import org.apache.atlas.repository.graphdb.tinkerpop.query.NativeTinkerpopGraphQuery;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.NativeTinkerpopIndexQuery;
 import org.apache.atlas.repository.graphdb.tinkerpop.query.NativeTinkerpopQueryFactory;
 import org.apache.atlas.repository.graphdb.janus.AtlasJanusEdge;
 import org.apache.atlas.repository.graphdb.janus.AtlasJanusGraph;
@@ -30,6 +32,7 @@ import org.apache.atlas.repository.graphdb.janus.AtlasJanusVertex;
  */
 public class AtlasJanusGraphQuery extends TinkerpopGraphQuery<AtlasJanusVertex, AtlasJanusEdge>
         implements NativeTinkerpopQueryFactory<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final boolean INDEX_PUSHDOWN_ENABLED = AtlasConfiguration.GRAPH_QUERY_INDEX_PUSHDOWN_ENABLED.getBoolean();
 
     public AtlasJanusGraphQuery(AtlasJanusGraph graph, boolean isChildQuery) {
         super(graph, isChildQuery);
@@ -53,4 +56,9 @@ public class AtlasJanusGraphQuery extends TinkerpopGraphQuery<AtlasJanusVertex,
     public NativeTinkerpopGraphQuery<AtlasJanusVertex, AtlasJanusEdge> createNativeTinkerpopQuery() {
         return new NativeJanusGraphQuery((AtlasJanusGraph) graph);
     }
+
+    @Override
+    public NativeTinkerpopIndexQuery<AtlasJanusVertex, AtlasJanusEdge> createNativeTinkerpopIndexQuery() {
+        return INDEX_PUSHDOWN_ENABLED ? new NativeJanusGraphIndexQuery((AtlasJanusGraph) graph) : null;
+    }
 }
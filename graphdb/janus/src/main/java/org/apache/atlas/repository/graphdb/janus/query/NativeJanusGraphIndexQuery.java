@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.janus.query;
+
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.MatchingOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.QueryOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.SortOrder;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.graphdb.janus.AtlasJanusEdge;
+import org.apache.atlas.repository.graphdb.janus.AtlasJanusGraph;
+import org.apache.atlas.repository.graphdb.janus.AtlasJanusVertex;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.NativeTinkerpopIndexQuery;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.AndCondition;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.HasPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.InPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.OrderByPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.QueryPredicate;
+import org.apache.commons.lang.StringUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
+
+/**
+ * Janus implementation of NativeTinkerpopIndexQuery: translates AndConditions to a query on the vertex mixed index.
+ *
+ * Only predicates whose index query returns the same vertices as the graph query are translated:
+ * equality, ranges on numbers, prefix match on strings, IN, and null checks, on keys that are in the mixed index.
+ * All AndConditions must have the same sort order, as the index query returns a single sorted result.
+ */
+public class NativeJanusGraphIndexQuery implements NativeTinkerpopIndexQuery<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final Logger LOG = LoggerFactory.getLogger(NativeJanusGraphIndexQuery.class);
+
+    static final int MAX_CLAUSES = 512; // well below the default maxBooleanClauses (1024) of index backends
+
+    private final AtlasJanusGraph       graph;
+    private final String                prefix;
+    private final Map<String, Class<?>> indexKeys;
+    private final List<String>          andQueries = new ArrayList<>();
+    private       int                   clauseCount;
+    private       OrderByPredicate      orderBy;
+
+    public NativeJanusGraphIndexQuery(AtlasJanusGraph graph) {
+        this(graph, graph.getIndexQueryPrefix(), graph.getVertexIndexQueryKeys());
+    }
+
+    NativeJanusGraphIndexQuery(AtlasJanusGraph graph, String prefix, Map<String, Class<?>> indexKeys) {
+        this.graph     = graph;
+        this.prefix    = prefix;
+        this.indexKeys = indexKeys;
+    }
+
+    @Override
+    public boolean addAndCondition(AndCondition andCondition) {
+        List<String>     clauses         = new ArrayList<>();
+        int              condClauseCount = 0;
+        OrderByPredicate condOrder       = null;
+
+        for (QueryPredicate predicate : andCondition.getTerms()) {
+            if (predicate instanceof OrderByPredicate) {
+                if (condOrder != null) {
+                    return false;
+                }
+
+                condOrder = (OrderByPredicate) predicate;
+            } else {
+                int count = addClause(predicate, clauses);
+
+                if (count == 0) {
+                    return false;
+                }
+
+                condClauseCount += count;
+            }
+        }
+
+        if (clauses.isEmpty() || clauseCount + condClauseCount > MAX_CLAUSES) {
+            return false;
+        }
+
+        if (andQueries.isEmpty()) {
+            if (condOrder != null && !isSortable(condOrder.getPropertyKey())) {
+                return false;
+            }
+
+            orderBy = condOrder;
+        } else if (!isSameOrder(orderBy, condOrder)) {
+            return false;
+        }
+
+        andQueries.add("(" + StringUtils.join(clauses, " AND ") + ")");
+
+        clauseCount += condClauseCount;
+
+        return true;
+    }
+
+    @Override
+    public int getAndConditionCount() {
+        return andQueries.size();
+    }
+
+    @Override
+    public Iterable<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> vertices(int offset, int limit) {
+        String                                                              queryString = getQueryString();
+        AtlasIndexQuery<AtlasJanusVertex, AtlasJanusEdge>                   indexQuery  = graph.indexQuery(VERTEX_INDEX, queryString);
+        Iterator<AtlasIndexQuery.Result<AtlasJanusVertex, AtlasJanusEdge>> results;
+
+        if (orderBy != null) {
+            Order order = orderBy.getSortOrder() == SortOrder.ASC ? Order.asc : Order.desc;
+
+            results = indexQuery.vertices(offset, limit, orderBy.getPropertyKey(), order);
+        } else {
+            results = indexQuery.vertices(offset, limit);
+        }
+
+        List<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> ret = new ArrayList<>(limit);
+
+        while (results.hasNext()) {
+            ret.add(results.next().getVertex());
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("NativeJanusGraphIndexQuery.vertices({}, {}): resultSize={}, {}", offset, limit, ret.size(), queryString);
+        }
+
+        return ret;
+    }
+
+    String getQueryString() {
+        return StringUtils.join(andQueries, " OR ");
+    }
+
+    /**
+     * @return number of boolean clauses added to the index query for the predicate; 0 if the predicate can't be translated
+     */
+    private int addClause(QueryPredicate predicate, List<String> clauses) {
+        final String clause;
+        final int    count;
+
+        if (predicate instanceof HasPredicate) {
+            HasPredicate hasPredicate = (HasPredicate) predicate;
+
+            clause = toClause(hasPredicate.getPropertyName(), hasPredicate.getOperator(), hasPredicate.getValue());
+            count  = 1;
+        } else if (predicate instanceof InPredicate) {
+            InPredicate inPredicate = (InPredicate) predicate;
+
+            clause = toInClause(inPredicate.getPropertyName(), inPredicate.getValues());
+            count  = clause != null ? inPredicate.getValues().size() : 0;
+        } else {
+            clause = null;
+            count  = 0;
+        }
+
+        if (clause == null) {
+            return 0;
+        }
+
+        clauses.add(clause);
+
+        return count;
+    }
+
+    private String toClause(String propertyName, QueryOperator op, Object value) {
+        Class<?> keyType = indexKeys.get(propertyName);
+
+        if (keyType == null) {
+            return null;
+        }
+
+        String field = prefix + "\"" + propertyName + "\":";
+
+        if (value == null) {
+            if (op == ComparisionOperator.EQUAL) {
+                return "(*:* -" + field + "[* TO *])";
+            } else if (op == ComparisionOperator.NOT_EQUAL) {
+                return field + "[* TO *]";
+            }
+
+            return null;
+        }
+
+        if (value instanceof String) {
+            if (keyType != String.class) {
+                return null;
+            }
+
+            if (op == ComparisionOperator.EQUAL) {
+                return field + quote((String) value);
+            } else if (op == MatchingOperator.PREFIX && !((String) value).isEmpty()) {
+                return field + escape((String) value) + "*";
+            }
+        } else if (value instanceof Number) {
+            if (!Number.class.isAssignableFrom(keyType) || isNaNOrInfinite((Number) value)) {
+                return null;
+            }
+
+            if (op instanceof ComparisionOperator) {
+                switch ((ComparisionOperator) op) {
+                    case EQUAL:
+                        return field + "[" + value + " TO " + value + "]";
+                    case GREATER_THAN:
+                        return field + "{" + value + " TO *]";
+                    case GREATER_THAN_EQUAL:
+                        return field + "[" + value + " TO *]";
+                    case LESS_THAN:
+                        return field + "[* TO " + value + "}";
+                    case LESS_THAN_EQUAL:
+                        return field + "[* TO " + value + "]";
+                }
+            }
+        } else if (value instanceof Boolean) {
+            if (keyType == Boolean.class && op == ComparisionOperator.EQUAL) {
+                return field + value;
+            }
+        }
+
+        return null;
+    }
+
+    private String toInClause(String propertyName, Collection<?> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+
+        List<String> clauses = new ArrayList<>(values.size());
+
+        for (Object value : values) {
+            String clause = value != null ? toClause(propertyName, ComparisionOperator.EQUAL, value) : null;
+
+            if (clause == null) {
+                return null;
+            }
+
+            clauses.add(clause);
+        }
+
+        return clauses.size() == 1 ? clauses.get(0) : "(" + StringUtils.join(clauses, " OR ") + ")";
+    }
+
+    private boolean isSortable(String propertyName) {
+        return indexKeys.containsKey(propertyName) && !graph.isMultiProperty(propertyName);
+    }
+
+    private static boolean isSameOrder(OrderByPredicate o1, OrderByPredicate o2) {
+        if (o1 == null || o2 == null) {
+            return o1 == o2;
+        }
+
+        return Objects.equals(o1.getPropertyKey(), o2.getPropertyKey()) && o1.getSortOrder() == o2.getSortOrder();
+    }
+
+    private static boolean isNaNOrInfinite(Number value) {
+        double d = value.doubleValue();
+
+        return (value instanceof Double || value instanceof Float) && (Double.isNaN(d) || Double.isInfinite(d));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\' || c == '+' || c == '-' || c == '!' || c == '(' || c == ')' || c == ':' || c == '^' || c == '[' || c == ']' ||
+                c == '"' || c == '{' || c == '}' || c == '~' || c == '*' || c == '?' || c == '|' || c == '&' || c == ';' || c == '/' ||
+                Character.isWhitespace(c)) {
+                sb.append('\\');
+            }
+
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+}
@@ -38,9 +38,11 @@ import org.testng.annotations.Test;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -276,6 +278,39 @@ public class AtlasJanusDatabaseTest {
         assertEdgesMatch(v2.getEdges(AtlasEdgeDirection.BOTH, "delivers"));
     }
 
+    @Test
+    public <V, E> void testPrefetch() {
+        AtlasGraph<V, E> graph = (AtlasGraph<V, E>) getGraph();
+        AtlasVertex<V, E> v1 = graph.addVertex();
+        AtlasVertex<V, E> v2 = graph.addVertex();
+        AtlasVertex<V, E> v3 = graph.addVertex();
+        AtlasVertex<V, E> v4 = graph.addVertex();
+
+        v1.setProperty("name", "v1");
+        v2.setProperty("name", "v2");
+
+        graph.addEdge(v3, v1, "knows");
+        graph.addEdge(v1, v4, "eats");
+        graph.addEdge(v2, v4, "drives");
+
+        graph.commit();
+
+        v1 = graph.getVertex(v1.getId().toString());
+        v2 = graph.getVertex(v2.getId().toString());
+
+        assertEquals(graph.prefetch(Arrays.asList(v1, v2), AtlasEdgeDirection.BOTH), Collections.emptySet());
+
+        assertEquals(graph.prefetch(Arrays.asList(v1, v2), AtlasEdgeDirection.BOTH, "knows", "eats"),
+                     new HashSet<>(Arrays.asList(graph.getVertex(v3.getId().toString()), graph.getVertex(v4.getId().toString()))));
+
+        assertEquals(graph.prefetch(Arrays.asList(v1, v2), AtlasEdgeDirection.IN, "knows", "eats"),
+                     Collections.singleton(graph.getVertex(v3.getId().toString())));
+
+        assertEquals(v1.getProperty("name", String.class), "v1");
+        assertEquals(v2.getProperty("name", String.class), "v2");
+        assertEquals(toList(v1.getEdges(AtlasEdgeDirection.OUT, "eats")).size(), 1);
+    }
+
     private <V, E> void assertEdgesMatch(Iterable<AtlasEdge<V, E>> edgesIt, AtlasEdge<V, E>... expected) {
         List<AtlasEdge<V, E>> edges = toList(edgesIt);
         assertEquals(expected.length, edges.size());
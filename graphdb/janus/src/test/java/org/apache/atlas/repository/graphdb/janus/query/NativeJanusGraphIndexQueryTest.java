@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.janus.query;
+
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.MatchingOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.SortOrder;
+import org.apache.atlas.repository.graphdb.janus.AtlasJanusGraph;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.AndCondition;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.HasPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.InPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.OrderByPredicate;
+import org.apache.atlas.repository.graphdb.tinkerpop.query.expr.QueryPredicate;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class NativeJanusGraphIndexQueryTest {
+    private static final String PREFIX = "$v$";
+
+    private NativeJanusGraphIndexQuery query;
+
+    @BeforeMethod
+    public void setup() {
+        Map<String, Class<?>> indexKeys = new HashMap<>();
+
+        indexKeys.put("__typeName", String.class);
+        indexKeys.put("__traitNames", String.class);
+        indexKeys.put("__timestamp", Long.class);
+        indexKeys.put("__isIncomplete", Boolean.class);
+
+        AtlasJanusGraph graph = mock(AtlasJanusGraph.class);
+
+        when(graph.isMultiProperty("__traitNames")).thenReturn(true);
+
+        query = new NativeJanusGraphIndexQuery(graph, PREFIX, indexKeys);
+    }
+
+    @Test
+    public void testOrOfAndConditions() {
+        assertTrue(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "hive_table"),
+                                             new HasPredicate("__timestamp", ComparisionOperator.GREATER_THAN, 100L))));
+        assertTrue(query.addAndCondition(and(new HasPredicate("__typeName", MatchingOperator.PREFIX, "hive col"),
+                                             new HasPredicate("__isIncomplete", ComparisionOperator.EQUAL, Boolean.FALSE))));
+        assertTrue(query.addAndCondition(and(new InPredicate("__typeName", Arrays.asList("a\"b", "c\\d")))));
+
+        assertEquals(query.getAndConditionCount(), 3);
+        assertEquals(query.getQueryString(),
+                     "($v$\"__typeName\":\"hive_table\" AND $v$\"__timestamp\":{100 TO *])" +
+                     " OR ($v$\"__typeName\":hive\\ col* AND $v$\"__isIncomplete\":false)" +
+                     " OR (($v$\"__typeName\":\"a\\\"b\" OR $v$\"__typeName\":\"c\\\\d\"))");
+    }
+
+    @Test
+    public void testNullChecks() {
+        assertTrue(query.addAndCondition(and(new HasPredicate("__traitNames", ComparisionOperator.NOT_EQUAL, null))));
+        assertTrue(query.addAndCondition(and(new HasPredicate("__traitNames", ComparisionOperator.EQUAL, null),
+                                             new HasPredicate("__timestamp", ComparisionOperator.EQUAL, 5))));
+
+        assertEquals(query.getQueryString(),
+                     "($v$\"__traitNames\":[* TO *]) OR ((*:* -$v$\"__traitNames\":[* TO *]) AND $v$\"__timestamp\":[5 TO 5])");
+    }
+
+    @Test
+    public void testNonIndexableConditions() {
+        assertFalse(query.addAndCondition(and(new HasPredicate("notIndexed", ComparisionOperator.EQUAL, "x"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.NOT_EQUAL, "x"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", MatchingOperator.CONTAINS, "x"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.GREATER_THAN, "x"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__timestamp", ComparisionOperator.EQUAL, "x"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__timestamp", ComparisionOperator.EQUAL, Double.NaN))));
+        assertFalse(query.addAndCondition(and(new InPredicate("__typeName", Collections.emptyList()))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "x"),
+                                              new HasPredicate("notIndexed", ComparisionOperator.EQUAL, "y"))));
+        assertFalse(query.addAndCondition(new AndCondition()));
+
+        assertEquals(query.getAndConditionCount(), 0);
+        assertEquals(query.getQueryString(), "");
+    }
+
+    @Test
+    public void testOrderBy() {
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "a"),
+                                              new OrderByPredicate("__traitNames", SortOrder.ASC))));
+
+        assertTrue(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "a"),
+                                             new OrderByPredicate("__timestamp", SortOrder.DESC))));
+        assertTrue(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "b"),
+                                             new OrderByPredicate("__timestamp", SortOrder.DESC))));
+
+        // all conditions must be sorted the same way
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "c"))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "c"),
+                                              new OrderByPredicate("__timestamp", SortOrder.ASC))));
+
+        assertEquals(query.getAndConditionCount(), 2);
+    }
+
+    @Test
+    public void testClauseLimit() {
+        Object[] values = new Object[NativeJanusGraphIndexQuery.MAX_CLAUSES];
+
+        Arrays.fill(values, "x");
+
+        assertTrue(query.addAndCondition(and(new InPredicate("__typeName", Arrays.asList(values)))));
+        assertFalse(query.addAndCondition(and(new HasPredicate("__typeName", ComparisionOperator.EQUAL, "y"))));
+    }
+
+    private static AndCondition and(QueryPredicate... predicates) {
+        AndCondition ret = new AndCondition();
+
+        ret.andWith(Arrays.asList(predicates));
+
+        return ret;
+    }
+}
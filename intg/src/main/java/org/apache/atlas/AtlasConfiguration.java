@@ -45,9 +45,17 @@ public enum AtlasConfiguration {
 
     NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES("atlas.notification.message.max.length.bytes", (1000 * 1000)),
     NOTIFICATION_MESSAGE_COMPRESSION_ENABLED("atlas.notification.message.compression.enabled", true),
+    NOTIFICATION_MESSAGE_COMPRESSION_CODEC("atlas.notification.message.compression.codec", "gzip"),
+    NOTIFICATION_MESSAGE_COMPRESSION_MIN_LENGTH_BYTES("atlas.notification.message.compression.min.length.bytes", 16 * 1024),
+    NOTIFICATION_HOOK_MESSAGE_BINARY_ENABLED("atlas.notification.hook.message.binary.enabled", false),
     NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS("atlas.notification.split.message.segments.wait.time.seconds", 15 * 60),
     NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS("atlas.notification.split.message.buffer.purge.interval.seconds", 5 * 60),
     NOTIFICATION_FIXED_BUFFER_ITEMS_INCREMENT_COUNT("atlas.notification.fixed.buffer.items.increment.count", 10),
+    NOTIFICATION_OUTBOX_ENABLED("atlas.notification.outbox.enabled", false),
+    NOTIFICATION_OUTBOX_DIRECTORY("atlas.notification.outbox.directory", ""),
+    NOTIFICATION_OUTBOX_BATCH_SIZE("atlas.notification.outbox.batch.size", 500),
+    NOTIFICATION_OUTBOX_SEGMENT_SIZE_MB("atlas.notification.outbox.segment.size.mb", 64),
+    NOTIFICATION_OUTBOX_RETRY_INTERVAL_MS("atlas.notification.outbox.retry.interval.ms", 5000),
 
     NOTIFICATION_CREATE_SHELL_ENTITY_FOR_NON_EXISTING_REF("atlas.notification.consumer.create.shell.entity.for.non-existing.ref", true),
     REST_API_CREATE_SHELL_ENTITY_FOR_NON_EXISTING_REF("atlas.rest.create.shell.entity.for.non-existing.ref", false),
@@ -62,6 +70,13 @@ public enum AtlasConfiguration {
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
     SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100),
+    SEARCH_DSL_TRAVERSAL_ENABLED("atlas.search.dsl.traversal.enabled", true),
+    SEARCH_DSL_TRAVERSAL_COMPARE_ENABLED("atlas.search.dsl.traversal.compare.enabled", false),
+    SEARCH_DSL_QUERY_CACHE_ENABLED("atlas.search.dsl.query.cache.enabled", true),
+    SEARCH_DSL_QUERY_CACHE_MAX_SIZE("atlas.search.dsl.query.cache.max.size", 1000),
+    SEARCH_SUGGESTIONS_INDEX_ENABLED("atlas.search.suggestions.index.enabled", true),
+    SEARCH_SUGGESTIONS_INDEX_MAX_MEMORY_MB("atlas.search.suggestions.index.max.memory.mb", 256),
+    SEARCH_RESULT_PREFETCH_ENABLED("atlas.search.result.prefetch.enabled", true),
 
     CUSTOM_ATTRIBUTE_KEY_MAX_LENGTH("atlas.custom.attribute.key.max.length", 50),
     CUSTOM_ATTRIBUTE_VALUE_MAX_LENGTH("atlas.custom.attribute.value.max.length", 500),
@@ -69,11 +84,35 @@ public enum AtlasConfiguration {
 
     LABEL_MAX_LENGTH("atlas.entity.label.max.length", 50),
     IMPORT_TEMP_DIRECTORY("atlas.import.temp.directory", ""),
+    IMPORT_ZIP_RANDOM_ACCESS_ENABLED("atlas.import.zip.random.access.enabled", true),
+    IMPORT_ZIP_LOOKAHEAD_COUNT("atlas.import.zip.lookahead.count", 64),
+    EXPORT_EXTRACTOR_THREADS("atlas.export.extractor.threads", 4),
+    EXPORT_EXTRACTOR_WINDOW_SIZE("atlas.export.extractor.window.size", 128),
+    EXPORT_WRITER_QUEUE_SIZE("atlas.export.writer.queue.size", 256),
+    AUDIT_ASYNC_WRITER_ENABLED("atlas.audit.async.writer.enabled", false),
+    AUDIT_ASYNC_WRITER_QUEUE_SIZE("atlas.audit.async.writer.queue.size", 10000),
+    AUDIT_ASYNC_WRITER_BATCH_SIZE("atlas.audit.async.writer.batch.size", 500),
+    AUDIT_ASYNC_WRITER_FLUSH_INTERVAL_MS("atlas.audit.async.writer.flush.interval.ms", 1000),
+    AUDIT_ASYNC_WRITER_SPILL_DIRECTORY("atlas.audit.async.writer.spill.directory", ""),
     MIGRATION_IMPORT_START_POSITION("atlas.migration.import.start.position", 0),
     LINEAGE_USING_GREMLIN("atlas.lineage.query.use.gremlin", false),
+    LINEAGE_DEFAULT_RELATIONS_LIMIT("atlas.lineage.default.relations.limit", 0),
+    LINEAGE_MAX_NODE_COUNT("atlas.lineage.max.node.count", 0),
 
     HTTP_HEADER_SERVER_VALUE("atlas.http.header.server.value","Apache Atlas"),
-    STORAGE_CONSISTENCY_LOCK_ENABLED("atlas.graph.storage.consistency-lock.enabled", true);
+    STORAGE_CONSISTENCY_LOCK_ENABLED("atlas.graph.storage.consistency-lock.enabled", true),
+    GRAPH_QUERY_INDEX_PUSHDOWN_ENABLED("atlas.graph.query.index.pushdown.enabled", true),
+    ENTITY_VERTEX_ID_CACHE_ENABLED("atlas.entity.vertex.id.cache.enabled", true),
+    ENTITY_VERTEX_ID_CACHE_MAX_SIZE("atlas.entity.vertex.id.cache.max.size", 100000),
+
+    TASKS_ENABLED("atlas.tasks.enabled", false),
+    TASKS_WORKER_COUNT("atlas.tasks.worker.count", 4),
+    TASKS_BATCH_SIZE("atlas.tasks.batch.size", 1000),
+    TASKS_MAX_ATTEMPTS("atlas.tasks.max.attempts", 3),
+    TASKS_POLL_INTERVAL_MS("atlas.tasks.poll.interval.ms", 60 * 1000),
+
+    REQUEST_METRICS_AGGREGATION_ENABLED("atlas.metrics.request.aggregation.enabled", false),
+    REQUEST_METRICS_AGGREGATION_WINDOW_SECONDS("atlas.metrics.request.aggregation.window.seconds", 5 * 60);
 
     private static final Configuration APPLICATION_PROPERTIES;
 
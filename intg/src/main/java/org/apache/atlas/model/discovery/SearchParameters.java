@@ -57,6 +57,7 @@ public class SearchParameters implements Serializable {
     private FilterCriteria tagFilters;
     private Set<String>    attributes;
     private SortOrder      sortOrder;
+    private String         continuationToken;
 
     public static final String WILDCARD_CLASSIFICATIONS = "*";
     public static final String ALL_CLASSIFICATIONS      = "_CLASSIFIED";
@@ -287,6 +288,21 @@ public class SearchParameters implements Serializable {
      */
     public void setSortOrder(SortOrder sortOrder) { this.sortOrder = sortOrder; }
 
+    /**
+     * @return Token, returned in an earlier search result, from where the results should continue
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Continue the search from the position recorded in the given token; offset is ignored when a token is specified
+     * @param continuationToken continuationToken from the previous page of results
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -304,13 +320,14 @@ public class SearchParameters implements Serializable {
                 Objects.equals(tagFilters, that.tagFilters) &&
                 Objects.equals(attributes, that.attributes) &&
                 Objects.equals(sortBy, that.sortBy) &&
-                Objects.equals(sortOrder, that.sortOrder);
+                Objects.equals(sortOrder, that.sortOrder) &&
+                Objects.equals(continuationToken, that.continuationToken);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(query, typeName, classification, termName, excludeDeletedEntities, includeClassificationAttributes,
-                            limit, offset, entityFilters, tagFilters, attributes, sortBy, sortOrder);
+                            limit, offset, entityFilters, tagFilters, attributes, sortBy, sortOrder, continuationToken);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -332,6 +349,7 @@ public class SearchParameters implements Serializable {
         sb.append(", attributes=").append(attributes);
         sb.append(", sortBy=").append(sortBy).append('\'');
         sb.append(", sortOrder=").append(sortOrder).append('\'');
+        sb.append(", continuationToken='").append(continuationToken).append('\'');
         sb.append('}');
 
         return sb;
@@ -41,11 +41,12 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.PROPERTY)
 public class AtlasLineageInfo implements Serializable {
-    private String                         baseEntityGuid;
-    private LineageDirection               lineageDirection;
-    private int                            lineageDepth;
-    private Map<String, AtlasEntityHeader> guidEntityMap;
-    private Set<LineageRelation>           relations;
+    private String                           baseEntityGuid;
+    private LineageDirection                 lineageDirection;
+    private int                              lineageDepth;
+    private Map<String, AtlasEntityHeader>   guidEntityMap;
+    private Set<LineageRelation>             relations;
+    private Map<String, LineageInfoOnDemand> relationsOnDemand;
 
     public AtlasLineageInfo() {}
 
@@ -109,6 +110,14 @@ public class AtlasLineageInfo implements Serializable {
         this.lineageDepth = lineageDepth;
     }
 
+    public Map<String, LineageInfoOnDemand> getRelationsOnDemand() {
+        return relationsOnDemand;
+    }
+
+    public void setRelationsOnDemand(Map<String, LineageInfoOnDemand> relationsOnDemand) {
+        this.relationsOnDemand = relationsOnDemand;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -118,12 +127,13 @@ public class AtlasLineageInfo implements Serializable {
                 Objects.equals(baseEntityGuid, that.baseEntityGuid) &&
                 lineageDirection == that.lineageDirection &&
                 Objects.equals(guidEntityMap, that.guidEntityMap) &&
-                Objects.equals(relations, that.relations);
+                Objects.equals(relations, that.relations) &&
+                Objects.equals(relationsOnDemand, that.relationsOnDemand);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(baseEntityGuid, lineageDirection, lineageDepth, guidEntityMap, relations);
+        return Objects.hash(baseEntityGuid, lineageDirection, lineageDepth, guidEntityMap, relations, relationsOnDemand);
     }
 
     @Override
@@ -132,6 +142,7 @@ public class AtlasLineageInfo implements Serializable {
                 "baseEntityGuid=" + baseEntityGuid +
                 ", guidEntityMap=" + guidEntityMap +
                 ", relations=" + relations +
+                ", relationsOnDemand=" + relationsOnDemand +
                 ", lineageDirection=" + lineageDirection +
                 ", lineageDepth=" + lineageDepth +
                 '}';
@@ -204,4 +215,79 @@ public class AtlasLineageInfo implements Serializable {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Relations of an entity included in the lineage: number of input/output relations returned and whether the entity
+     * has more relations than returned, which can be fetched with a lineage request on the entity using relation offsets.
+     */
+    @JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.PROPERTY)
+    public static class LineageInfoOnDemand {
+        private int     inputRelationsCount;
+        private int     outputRelationsCount;
+        private boolean hasMoreInputs;
+        private boolean hasMoreOutputs;
+
+        public LineageInfoOnDemand() { }
+
+        public int getInputRelationsCount() {
+            return inputRelationsCount;
+        }
+
+        public void setInputRelationsCount(int inputRelationsCount) {
+            this.inputRelationsCount = inputRelationsCount;
+        }
+
+        public int getOutputRelationsCount() {
+            return outputRelationsCount;
+        }
+
+        public void setOutputRelationsCount(int outputRelationsCount) {
+            this.outputRelationsCount = outputRelationsCount;
+        }
+
+        public boolean isHasMoreInputs() {
+            return hasMoreInputs;
+        }
+
+        public void setHasMoreInputs(boolean hasMoreInputs) {
+            this.hasMoreInputs = hasMoreInputs;
+        }
+
+        public boolean isHasMoreOutputs() {
+            return hasMoreOutputs;
+        }
+
+        public void setHasMoreOutputs(boolean hasMoreOutputs) {
+            this.hasMoreOutputs = hasMoreOutputs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            LineageInfoOnDemand that = (LineageInfoOnDemand) o;
+            return inputRelationsCount == that.inputRelationsCount &&
+                    outputRelationsCount == that.outputRelationsCount &&
+                    hasMoreInputs == that.hasMoreInputs &&
+                    hasMoreOutputs == that.hasMoreOutputs;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(inputRelationsCount, outputRelationsCount, hasMoreInputs, hasMoreOutputs);
+        }
+
+        @Override
+        public String toString() {
+            return "LineageInfoOnDemand{" +
+                    "inputRelationsCount=" + inputRelationsCount +
+                    ", outputRelationsCount=" + outputRelationsCount +
+                    ", hasMoreInputs=" + hasMoreInputs +
+                    ", hasMoreOutputs=" + hasMoreOutputs +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.model.lineage;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Limits on the lineage to be returned.
+ *
+ * Relations limits cap the number of relations expanded from each entity in the lineage - i.e. the processes reading
+ * or writing a dataset, and the datasets read or written by a process. Relations offsets apply only to the base entity,
+ * to fetch the next slice of its relations. A value of 0 or less for a limit selects the configured default.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class LineageOnDemandConstraints implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int inputRelationsLimit;
+    private int outputRelationsLimit;
+    private int inputRelationsOffset;
+    private int outputRelationsOffset;
+    private int maxNodeCount;
+
+    public LineageOnDemandConstraints() { }
+
+    public LineageOnDemandConstraints(int inputRelationsLimit, int outputRelationsLimit, int inputRelationsOffset, int outputRelationsOffset, int maxNodeCount) {
+        this.inputRelationsLimit   = inputRelationsLimit;
+        this.outputRelationsLimit  = outputRelationsLimit;
+        this.inputRelationsOffset  = inputRelationsOffset;
+        this.outputRelationsOffset = outputRelationsOffset;
+        this.maxNodeCount          = maxNodeCount;
+    }
+
+    public int getInputRelationsLimit() {
+        return inputRelationsLimit;
+    }
+
+    public void setInputRelationsLimit(int inputRelationsLimit) {
+        this.inputRelationsLimit = inputRelationsLimit;
+    }
+
+    public int getOutputRelationsLimit() {
+        return outputRelationsLimit;
+    }
+
+    public void setOutputRelationsLimit(int outputRelationsLimit) {
+        this.outputRelationsLimit = outputRelationsLimit;
+    }
+
+    public int getInputRelationsOffset() {
+        return inputRelationsOffset;
+    }
+
+    public void setInputRelationsOffset(int inputRelationsOffset) {
+        this.inputRelationsOffset = inputRelationsOffset;
+    }
+
+    public int getOutputRelationsOffset() {
+        return outputRelationsOffset;
+    }
+
+    public void setOutputRelationsOffset(int outputRelationsOffset) {
+        this.outputRelationsOffset = outputRelationsOffset;
+    }
+
+    public int getMaxNodeCount() {
+        return maxNodeCount;
+    }
+
+    public void setMaxNodeCount(int maxNodeCount) {
+        this.maxNodeCount = maxNodeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LineageOnDemandConstraints{" +
+                "inputRelationsLimit=" + inputRelationsLimit +
+                ", outputRelationsLimit=" + outputRelationsLimit +
+                ", inputRelationsOffset=" + inputRelationsOffset +
+                ", outputRelationsOffset=" + outputRelationsOffset +
+                ", maxNodeCount=" + maxNodeCount +
+                '}';
+    }
+}
@@ -36,6 +36,8 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
 @JsonSerialize(include=JsonSerialize.Inclusion.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown=true)
 public class AtlasMetrics {
+    public static final String PREFIX_AUDIT             = "Audit:";
+    public static final String PREFIX_CACHE             = "Cache:";
     public static final String PREFIX_CONNECTION_STATUS = "ConnectionStatus:";
     public static final String PREFIX_NOTIFICATION      = "Notification:";
     public static final String PREFIX_SERVER            = "Server:";
@@ -74,6 +76,29 @@ public class AtlasMetrics {
     public static final String STAT_NOTIFY_UPDATES_COUNT_TOTAL         = PREFIX_NOTIFICATION + "totalUpdates";
     public static final String STAT_NOTIFY_DELETES_COUNT_TOTAL         = PREFIX_NOTIFICATION + "totalDeletes";
     public static final String STAT_NOTIFY_FAILED_COUNT_TOTAL          = PREFIX_NOTIFICATION + "totalFailed";
+    public static final String STAT_NOTIFY_BATCH_COUNT_TOTAL           = PREFIX_NOTIFICATION + "totalBatches";
+    public static final String STAT_NOTIFY_BATCH_FAILED_COUNT_TOTAL    = PREFIX_NOTIFICATION + "totalBatchesFailed";
+    public static final String STAT_NOTIFY_BATCH_AVG_SIZE_TOTAL        = PREFIX_NOTIFICATION + "totalBatchAvgSize";
+    public static final String STAT_NOTIFY_BATCH_AVG_TIME_TOTAL        = PREFIX_NOTIFICATION + "totalBatchAvgCommitTime";
+    public static final String STAT_NOTIFY_BATCH_COUNT_CURR_HOUR       = PREFIX_NOTIFICATION + "currentHourBatches";
+    public static final String STAT_NOTIFY_BATCH_AVG_SIZE_CURR_HOUR    = PREFIX_NOTIFICATION + "currentHourBatchAvgSize";
+    public static final String STAT_NOTIFY_BATCH_AVG_TIME_CURR_HOUR    = PREFIX_NOTIFICATION + "currentHourBatchAvgCommitTime";
+    public static final String STAT_NOTIFY_OUTBOX_PENDING_COUNT        = PREFIX_NOTIFICATION + "outboxPendingMessages";
+    public static final String STAT_NOTIFY_OUTBOX_LAG_MS               = PREFIX_NOTIFICATION + "outboxLagMs";
+    public static final String STAT_NOTIFY_OUTBOX_SENT_COUNT_TOTAL     = PREFIX_NOTIFICATION + "outboxTotalSentMessages";
+    public static final String STAT_NOTIFY_OUTBOX_SEND_COUNT_TOTAL     = PREFIX_NOTIFICATION + "outboxTotalSends";
+    public static final String STAT_NOTIFY_OUTBOX_SEND_FAILED_TOTAL    = PREFIX_NOTIFICATION + "outboxTotalSendsFailed";
+    public static final String STAT_NOTIFY_OUTBOX_SEND_AVG_TIME_TOTAL  = PREFIX_NOTIFICATION + "outboxTotalSendAvgTime";
+    public static final String STAT_NOTIFY_OUTBOX_SEND_COUNT_CURR_HOUR = PREFIX_NOTIFICATION + "outboxCurrentHourSends";
+    public static final String STAT_AUDIT_QUEUE_DEPTH                  = PREFIX_AUDIT + "queueDepth";
+    public static final String STAT_AUDIT_SPILLED_EVENTS               = PREFIX_AUDIT + "spilledEvents";
+    public static final String STAT_AUDIT_EVENTS_COUNT_TOTAL           = PREFIX_AUDIT + "totalEvents";
+    public static final String STAT_AUDIT_FLUSH_COUNT_TOTAL            = PREFIX_AUDIT + "totalFlushes";
+    public static final String STAT_AUDIT_FLUSH_FAILED_COUNT_TOTAL     = PREFIX_AUDIT + "totalFlushesFailed";
+    public static final String STAT_AUDIT_FLUSH_AVG_TIME_TOTAL         = PREFIX_AUDIT + "totalFlushAvgTime";
+    public static final String STAT_AUDIT_FLUSH_COUNT_CURR_HOUR        = PREFIX_AUDIT + "currentHourFlushes";
+    public static final String STAT_AUDIT_FLUSH_AVG_TIME_CURR_HOUR     = PREFIX_AUDIT + "currentHourFlushAvgTime";
+    public static final String STAT_CACHE_DETAILS                      = PREFIX_CACHE + "details";
     public static final String STAT_SERVER_ACTIVE_TIMESTAMP            = PREFIX_SERVER + "activeTimeStamp";
     public static final String STAT_SERVER_START_TIMESTAMP             = PREFIX_SERVER + "startTimeStamp";
     public static final String STAT_SERVER_STATUS_BACKEND_STORE        = PREFIX_SERVER + "statusBackendStore";
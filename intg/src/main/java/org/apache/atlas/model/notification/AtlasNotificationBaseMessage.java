@@ -53,7 +53,7 @@ public class AtlasNotificationBaseMessage {
     public static final int     MESSAGE_MAX_LENGTH_BYTES    = AtlasConfiguration.NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES.getInt() - 512; // 512 bytes for envelop;
     public static final boolean MESSAGE_COMPRESSION_ENABLED = AtlasConfiguration.NOTIFICATION_MESSAGE_COMPRESSION_ENABLED.getBoolean();
 
-    public enum CompressionKind { NONE, GZIP };
+    public enum CompressionKind { NONE, GZIP, LZ4 };
 
     private MessageVersion  version            = null;
     private String          msgId              = null;
@@ -237,13 +237,21 @@ public class AtlasClassificationType extends AtlasStructType {
         return AtlasClassificationType.CLASSIFICATION_ROOT.allAttributes.get(attributeName);
     }
 
+    // subType would already be present when it is resolved again, in a transient registry that shares this type
     private void addSubType(AtlasClassificationType subType) {
-        subTypes.add(subType.getTypeName());
+        if (!subTypes.contains(subType.getTypeName())) {
+            subTypes.add(subType.getTypeName());
+        }
     }
 
     private void addToAllSubTypes(AtlasClassificationType subType) {
-        allSubTypes.add(subType.getTypeName());
-        typeAndAllSubTypes.add(subType.getTypeName());
+        if (!allSubTypes.contains(subType.getTypeName())) {
+            allSubTypes.add(subType.getTypeName());
+        }
+
+        if (!typeAndAllSubTypes.contains(subType.getTypeName())) {
+            typeAndAllSubTypes.add(subType.getTypeName());
+        }
     }
 
     public Set<String> getSuperTypes() {
@@ -812,13 +812,21 @@ public class AtlasEntityType extends AtlasStructType {
         }
     }
 
+    // subType would already be present when it is resolved again, in a transient registry that shares this type
     private void addSubType(AtlasEntityType subType) {
-        subTypes.add(subType.getTypeName());
+        if (!subTypes.contains(subType.getTypeName())) {
+            subTypes.add(subType.getTypeName());
+        }
     }
 
     private void addToAllSubTypes(AtlasEntityType subType) {
-        allSubTypes.add(subType.getTypeName());
-        typeAndAllSubTypes.add(subType.getTypeName());
+        if (!allSubTypes.contains(subType.getTypeName())) {
+            allSubTypes.add(subType.getTypeName());
+        }
+
+        if (!typeAndAllSubTypes.contains(subType.getTypeName())) {
+            typeAndAllSubTypes.add(subType.getTypeName());
+        }
     }
 
     private void getTypeHierarchyInfo(AtlasTypeRegistry typeRegistry,
@@ -26,6 +26,7 @@ import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.model.typedef.AtlasEnumDef;
 import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.commons.collections.CollectionUtils;
@@ -325,6 +326,18 @@ public class AtlasTypeRegistry {
             init();
         }
 
+        // types and typeDefs are shared with other; updates to this instance are not seen in other
+        RegistryData(RegistryData other) {
+            allTypes             = new TypeCache(other.allTypes);
+            enumDefs             = new TypeDefCache<>(other.enumDefs, allTypes);
+            structDefs           = new TypeDefCache<>(other.structDefs, allTypes);
+            classificationDefs   = new TypeDefCache<>(other.classificationDefs, allTypes);
+            entityDefs           = new TypeDefCache<>(other.entityDefs, allTypes);
+            relationshipDefs     = new TypeDefCache<>(other.relationshipDefs, allTypes);
+            businessMetadataDefs = new TypeDefCache<>(other.businessMetadataDefs, allTypes);
+            allDefCaches         = new TypeDefCache[] { enumDefs, structDefs, classificationDefs, entityDefs, relationshipDefs, businessMetadataDefs};
+        }
+
         void init() {
             allTypes.addType(new AtlasBuiltInTypes.AtlasBooleanType());
             allTypes.addType(new AtlasBuiltInTypes.AtlasByteType());
@@ -417,43 +430,282 @@ public class AtlasTypeRegistry {
         }
     }
 
+    /**
+     * Registry used to update types. Starts with the types in the parent registry, which are shared as-is; only types
+     * affected by updates are recreated and resolved, hence the parent registry is not modified by the updates.
+     */
     public static class AtlasTransientTypeRegistry extends AtlasTypeRegistry {
         private List<AtlasBaseTypeDef> addedTypes   = new ArrayList<>();
         private List<AtlasBaseTypeDef> updatedTypes = new ArrayList<>();
         private List<AtlasBaseTypeDef> deletedTypes = new ArrayList<>();
 
+        // types added/updated/deleted since last resolveReferences(), along with their earlier definitions
+        private final Set<String>            pendingTypeNames   = new HashSet<>();
+        private final List<AtlasBaseTypeDef> pendingTypeDefs    = new ArrayList<>();
+        private boolean                      isResolveAllNeeded = false;
 
         private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) throws AtlasBaseException {
             super(parent);
 
-            addTypesWithNoRefResolve(parent.getAllEnumDefs());
-            addTypesWithNoRefResolve(parent.getAllStructDefs());
-            addTypesWithNoRefResolve(parent.getAllClassificationDefs());
-            addTypesWithNoRefResolve(parent.getAllEntityDefs());
-            addTypesWithNoRefResolve(parent.getAllRelationshipDefs());
-            addTypesWithNoRefResolve(parent.getAllBusinessMetadataDefs());
-
-            addedTypes.clear();
-            updatedTypes.clear();
-            deletedTypes.clear();
+            registryData = new RegistryData(parent.registryData);
         }
 
         private void resolveReferences() throws AtlasBaseException {
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            final Collection<AtlasType> typesToResolve;
+
+            if (isResolveAllNeeded) { // all types were added after clear(), none is shared with parent
+                typesToResolve = registryData.allTypes.getAllTypes();
+            } else {
+                typesToResolve = recreateTypes(getTypeNamesToResolve());
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("resolveReferences(): changedTypes={}, typesToResolve={}, totalTypes={}", pendingTypeNames.size(), typesToResolve.size(), registryData.allTypes.getAllTypes().size());
+            }
+
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferences(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferencesPhase2(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferencesPhase3(this);
             }
+
+            // retained on failure, so that the next resolveReferences() includes these types
+            pendingTypeNames.clear();
+            pendingTypeDefs.clear();
+
+            isResolveAllNeeded = false;
+        }
+
+        /*
+         * Resolving a type reads types it refers to and updates a few of them: super-types, end-types of relationships
+         * and entity-types of business-metadata. Hence the types to resolve after a change are:
+         *  - types added/updated
+         *  - types updated while resolving the above: when super-types of a type change, its earlier and current
+         *    super-types are updated with the sub-type; relationship and business-metadata types update the types they refer to
+         *  - types that refer to any of the above, as they hold references to instances being replaced
+         * Sub-types already known to a super-type are not added again, hence unchanged super-types are not resolved.
+         */
+        private Set<String> getTypeNamesToResolve() {
+            Map<String, Set<String>> referringTypeNames = getReferringTypeNames();
+            Set<String>              ret                = new HashSet<>();
+            Deque<String>            toVisit            = new ArrayDeque<>(pendingTypeNames);
+
+            for (AtlasBaseTypeDef typeDef : pendingTypeDefs) {
+                Set<String> superTypeNames = new HashSet<>();
+
+                collectAllSuperTypeNames(typeDef, superTypeNames);
+
+                toVisit.addAll(superTypeNames);
+                toVisit.addAll(getTypeNamesUpdatedOnResolve(typeDef));
+            }
+
+            while (!toVisit.isEmpty()) {
+                String typeName = toVisit.poll();
+
+                if (ret.contains(typeName)) {
+                    continue;
+                }
+
+                AtlasBaseTypeDef typeDef = getTypeDefByName(typeName);
+
+                if (typeDef == null && !pendingTypeNames.contains(typeName)) { // built-in types, or types that don't exist
+                    continue;
+                }
+
+                ret.add(typeName);
+
+                if (typeDef != null) {
+                    toVisit.addAll(getTypeNamesUpdatedOnResolve(typeDef));
+                }
+
+                Set<String> referringTypes = referringTypeNames.get(typeName);
+
+                if (referringTypes != null) {
+                    toVisit.addAll(referringTypes);
+                }
+            }
+
+            return ret;
+        }
+
+        // replaces types with the given names with new instances, so that types shared with parent are not modified
+        private List<AtlasType> recreateTypes(Set<String> typeNames) {
+            List<AtlasBaseTypeDef> typeDefs = new ArrayList<>(typeNames.size());
+
+            for (String typeName : typeNames) {
+                AtlasBaseTypeDef typeDef = getTypeDefByName(typeName);
+
+                if (typeDef != null) { // deleted types will not be found
+                    typeDefs.add(typeDef);
+                }
+            }
+
+            // order: by category, super-types before sub-types
+            final Map<String, Integer> hierarchyDepth = new HashMap<>();
+
+            for (AtlasBaseTypeDef typeDef : typeDefs) {
+                Set<String> superTypeNames = new HashSet<>();
+
+                collectAllSuperTypeNames(typeDef, superTypeNames);
+
+                hierarchyDepth.put(typeDef.getName(), superTypeNames.size());
+            }
+
+            typeDefs.sort(Comparator.comparing((AtlasBaseTypeDef typeDef) -> typeDef.getCategory())
+                                    .thenComparing(typeDef -> hierarchyDepth.get(typeDef.getName())));
+
+            List<AtlasType> ret = new ArrayList<>(typeDefs.size());
+
+            for (AtlasBaseTypeDef typeDef : typeDefs) {
+                final AtlasType type;
+
+                switch (typeDef.getCategory()) {
+                    case ENUM:
+                        type = new AtlasEnumType((AtlasEnumDef) typeDef);
+                        registryData.enumDefs.addType((AtlasEnumDef) typeDef, (AtlasEnumType) type);
+                        break;
+                    case STRUCT:
+                        type = new AtlasStructType((AtlasStructDef) typeDef);
+                        registryData.structDefs.addType((AtlasStructDef) typeDef, (AtlasStructType) type);
+                        break;
+                    case CLASSIFICATION:
+                        type = new AtlasClassificationType((AtlasClassificationDef) typeDef);
+                        registryData.classificationDefs.addType((AtlasClassificationDef) typeDef, (AtlasClassificationType) type);
+                        break;
+                    case ENTITY:
+                        type = new AtlasEntityType((AtlasEntityDef) typeDef);
+                        registryData.entityDefs.addType((AtlasEntityDef) typeDef, (AtlasEntityType) type);
+                        break;
+                    case RELATIONSHIP:
+                        type = new AtlasRelationshipType((AtlasRelationshipDef) typeDef);
+                        registryData.relationshipDefs.addType((AtlasRelationshipDef) typeDef, (AtlasRelationshipType) type);
+                        break;
+                    case BUSINESS_METADATA:
+                        type = new AtlasBusinessMetadataType((AtlasBusinessMetadataDef) typeDef);
+                        registryData.businessMetadataDefs.addType((AtlasBusinessMetadataDef) typeDef, (AtlasBusinessMetadataType) type);
+                        break;
+                    default:
+                        type = null;
+                        break;
+                }
+
+                if (type != null) {
+                    ret.add(type);
+                }
+            }
+
+            return ret;
+        }
+
+        // typeName -> names of types that refer to typeName
+        private Map<String, Set<String>> getReferringTypeNames() {
+            Map<String, Set<String>> ret = new HashMap<>();
+
+            for (TypeDefCache<? extends AtlasBaseTypeDef, ? extends AtlasType> typeDefCache : registryData.allDefCaches) {
+                for (AtlasBaseTypeDef typeDef : typeDefCache.getAll()) {
+                    for (String referencedTypeName : getReferencedTypeNames(typeDef)) {
+                        ret.computeIfAbsent(referencedTypeName, k -> new HashSet<>()).add(typeDef.getName());
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        private void collectAllSuperTypeNames(AtlasBaseTypeDef typeDef, Set<String> superTypeNames) {
+            for (String superTypeName : getSuperTypeNames(typeDef)) {
+                if (superTypeNames.add(superTypeName)) {
+                    AtlasBaseTypeDef superTypeDef = getTypeDefByName(superTypeName);
+
+                    if (superTypeDef != null) {
+                        collectAllSuperTypeNames(superTypeDef, superTypeNames);
+                    }
+                }
+            }
+        }
+
+        private static Set<String> getReferencedTypeNames(AtlasBaseTypeDef typeDef) {
+            Set<String> ret = new HashSet<>(getSuperTypeNames(typeDef));
+
+            if (typeDef instanceof AtlasStructDef && ((AtlasStructDef) typeDef).getAttributeDefs() != null) {
+                for (AtlasAttributeDef attributeDef : ((AtlasStructDef) typeDef).getAttributeDefs()) {
+                    ret.addAll(AtlasTypeUtil.getReferencedTypeNames(attributeDef.getTypeName()));
+                }
+            }
+
+            if (typeDef instanceof AtlasClassificationDef && ((AtlasClassificationDef) typeDef).getEntityTypes() != null) {
+                ret.addAll(((AtlasClassificationDef) typeDef).getEntityTypes());
+            }
+
+            ret.addAll(getTypeNamesUpdatedOnResolve(typeDef));
+
+            return ret;
+        }
+
+        private static Set<String> getSuperTypeNames(AtlasBaseTypeDef typeDef) {
+            Set<String> ret = null;
+
+            if (typeDef instanceof AtlasEntityDef) {
+                ret = ((AtlasEntityDef) typeDef).getSuperTypes();
+            } else if (typeDef instanceof AtlasClassificationDef) {
+                ret = ((AtlasClassificationDef) typeDef).getSuperTypes();
+            }
+
+            return ret != null ? ret : Collections.emptySet();
+        }
+
+        // names of types that are updated while resolving the given type: relationship end-types, business-metadata entity-types
+        private static Set<String> getTypeNamesUpdatedOnResolve(AtlasBaseTypeDef typeDef) {
+            Set<String> ret = Collections.emptySet();
+
+            if (typeDef instanceof AtlasRelationshipDef) {
+                AtlasRelationshipDef relationshipDef = (AtlasRelationshipDef) typeDef;
+
+                ret = new HashSet<>();
+
+                if (relationshipDef.getEndDef1() != null && relationshipDef.getEndDef1().getType() != null) {
+                    ret.add(relationshipDef.getEndDef1().getType());
+                }
+
+                if (relationshipDef.getEndDef2() != null && relationshipDef.getEndDef2().getType() != null) {
+                    ret.add(relationshipDef.getEndDef2().getType());
+                }
+            } else if (typeDef instanceof AtlasBusinessMetadataDef && ((AtlasBusinessMetadataDef) typeDef).getAttributeDefs() != null) {
+                ret = new HashSet<>();
+
+                for (AtlasAttributeDef attributeDef : ((AtlasBusinessMetadataDef) typeDef).getAttributeDefs()) {
+                    String entityTypes = attributeDef.getOption(AtlasBusinessMetadataDef.ATTR_OPTION_APPLICABLE_ENTITY_TYPES);
+
+                    if (StringUtils.isNotBlank(entityTypes)) {
+                        Set<String> entityTypeNames = AtlasType.fromJson(entityTypes, Set.class);
+
+                        if (entityTypeNames != null) {
+                            ret.addAll(entityTypeNames);
+                        }
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        private void onTypeChange(AtlasBaseTypeDef typeDef) {
+            if (typeDef != null && typeDef.getName() != null) {
+                pendingTypeNames.add(typeDef.getName());
+                pendingTypeDefs.add(typeDef);
+            }
         }
 
         public void clear() {
             registryData.clear();
+
+            isResolveAllNeeded = true;
         }
 
         public void addType(AtlasBaseTypeDef typeDef) throws AtlasBaseException {
@@ -646,6 +898,9 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByNameWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            onTypeChange(getTypeDefByName(typeDef.getName()));
+            onTypeChange(typeDef);
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByName(typeDef.getName());
@@ -670,6 +925,9 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByGuidWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            onTypeChange(getTypeDefByGuid(typeDef.getGuid()));
+            onTypeChange(typeDef);
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByGuid(typeDef.getGuid());
@@ -700,6 +958,8 @@ public class AtlasTypeRegistry {
 
             AtlasBaseTypeDef typeDef = getTypeDefByGuid(guid);
 
+            onTypeChange(typeDef);
+
             if (guid != null) {
                 registryData.removeByGuid(guid);
             }
@@ -722,6 +982,8 @@ public class AtlasTypeRegistry {
 
             AtlasBaseTypeDef typeDef = getTypeDefByName(name);
 
+            onTypeChange(typeDef);
+
             if (name != null) {
                 registryData.removeByName(name);
             }
@@ -781,6 +1043,8 @@ public class AtlasTypeRegistry {
                 }
 
                 addedTypes.add(typeDef);
+
+                onTypeChange(typeDef);
             }
 
             if (LOG.isDebugEnabled()) {
@@ -830,7 +1094,8 @@ public class AtlasTypeRegistry {
             }
 
             if (guid != null && typeDef != null) {
-                // ignore
+                onTypeChange(getTypeDefByGuid(guid));
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
@@ -865,6 +1130,8 @@ public class AtlasTypeRegistry {
                 }
 
                 updatedTypes.add(typeDef);
+
+                onTypeChange(typeDef);
             }
 
             if (LOG.isDebugEnabled()) {
@@ -878,6 +1145,8 @@ public class AtlasTypeRegistry {
             }
 
             if (name != null && typeDef != null) {
+                onTypeChange(getTypeDefByName(name));
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
@@ -912,6 +1181,8 @@ public class AtlasTypeRegistry {
                 }
 
                 updatedTypes.add(typeDef);
+
+                onTypeChange(typeDef);
             }
 
             if (LOG.isDebugEnabled()) {
@@ -20,11 +20,18 @@ package org.apache.atlas.type;
 
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.typedef.*;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.RelationshipCategory;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
 import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +44,7 @@ import java.util.concurrent.TimeUnit;
 import static org.testng.Assert.*;
 
 public class TestAtlasTypeRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TestAtlasTypeRegistry.class);
 
     /*
      *             L0
@@ -593,6 +601,249 @@ public class TestAtlasTypeRegistry {
         validateAllSubTypes(typeRegistry, "L1", new HashSet<String>());
     }
 
+    /* create entity types L0, L1 (sub-type of L0) and other
+     * add a classification restricted to L0 - verify that entity types are not recreated
+     * add entity type L2, sub-type of L1 - verify that L0 and L1 are recreated, and other is not
+     * verify that types in the registry before the update are not modified
+     */
+    @Test
+    public void testTypeUpdateSharesUnaffectedTypes() throws AtlasBaseException {
+        AtlasEntityDef         entL0    = new AtlasEntityDef("L0");
+        AtlasEntityDef         entL1    = new AtlasEntityDef("L1");
+        AtlasEntityDef         entOther = new AtlasEntityDef("other");
+        AtlasClassificationDef tag1     = new AtlasClassificationDef("tag1");
+
+        entL1.addSuperType(entL0.getName());
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entL0);
+        typesDef.getEntityDefs().add(entL1);
+        typesDef.getEntityDefs().add(entOther);
+        typesDef.getClassificationDefs().add(tag1);
+
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+
+        assertTrue(addTypes(typeRegistry, typesDef));
+
+        AtlasEntityType         typeL0    = typeRegistry.getEntityTypeByName("L0");
+        AtlasEntityType         typeL1    = typeRegistry.getEntityTypeByName("L1");
+        AtlasEntityType         typeOther = typeRegistry.getEntityTypeByName("other");
+        AtlasClassificationType typeTag1  = typeRegistry.getClassificationTypeByName("tag1");
+
+        AtlasClassificationDef tag2 = new AtlasClassificationDef("tag2");
+
+        tag2.setEntityTypes(Collections.singleton(entL0.getName()));
+
+        assertTrue(addType(typeRegistry, tag2));
+
+        assertSame(typeRegistry.getEntityTypeByName("L0"), typeL0);
+        assertSame(typeRegistry.getEntityTypeByName("L1"), typeL1);
+        assertSame(typeRegistry.getEntityTypeByName("other"), typeOther);
+        assertSame(typeRegistry.getClassificationTypeByName("tag1"), typeTag1);
+        assertEquals(typeRegistry.getClassificationTypeByName("tag2").getEntityTypes(), new HashSet<>(Arrays.asList("L0", "L1")));
+
+        AtlasEntityDef entL2 = new AtlasEntityDef("L2");
+
+        entL2.addSuperType(entL1.getName());
+
+        assertTrue(addType(typeRegistry, entL2));
+
+        assertNotSame(typeRegistry.getEntityTypeByName("L0"), typeL0);
+        assertNotSame(typeRegistry.getEntityTypeByName("L1"), typeL1);
+        assertSame(typeRegistry.getEntityTypeByName("other"), typeOther);
+        assertSame(typeRegistry.getClassificationTypeByName("tag1"), typeTag1);
+
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<>(Arrays.asList("L1", "L2")));
+        validateAllSubTypes(typeRegistry, "L1", new HashSet<>(Arrays.asList("L2")));
+        validateAllSuperTypes(typeRegistry, "L2", new HashSet<>(Arrays.asList("L0", "L1")));
+        assertEquals(typeRegistry.getClassificationTypeByName("tag2").getEntityTypes(), new HashSet<>(Arrays.asList("L0", "L1", "L2")));
+
+        assertEquals(typeL0.getAllSubTypes(), new HashSet<>(Arrays.asList("L1")));
+        assertEquals(typeL1.getAllSubTypes(), new HashSet<String>());
+    }
+
+    /* apply a series of updates - each in its own transaction - and verify that the resulting registry is the same as
+     * one created with all the types in a single update
+     */
+    @Test
+    public void testIncrementalUpdatesMatchFullResolve() throws AtlasBaseException {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+
+        AtlasEnumDef   enumStatus    = new AtlasEnumDef("status", "", Arrays.asList(new AtlasEnumDef.AtlasEnumElementDef("ACTIVE", "", 1), new AtlasEnumDef.AtlasEnumElementDef("DELETED", "", 2)));
+        AtlasStructDef structAddress = new AtlasStructDef("address");
+        AtlasEntityDef entAsset      = new AtlasEntityDef("asset");
+        AtlasEntityDef entDataSet    = new AtlasEntityDef("dataset");
+        AtlasEntityDef entProcess    = new AtlasEntityDef("process");
+
+        structAddress.addAttribute(new AtlasAttributeDef("status", "status"));
+        entAsset.addAttribute(new AtlasAttributeDef("name", AtlasBaseTypeDef.ATLAS_TYPE_STRING));
+        entAsset.addAttribute(new AtlasAttributeDef("location", "address"));
+        entDataSet.addSuperType(entAsset.getName());
+        entProcess.addSuperType(entAsset.getName());
+
+        AtlasClassificationDef tagPii = new AtlasClassificationDef("pii");
+
+        tagPii.setEntityTypes(Collections.singleton(entDataSet.getName()));
+
+        AtlasRelationshipDef relProcessOutputs = new AtlasRelationshipDef("process_outputs", "", "1.0", RelationshipCategory.ASSOCIATION, PropagateTags.ONE_TO_TWO,
+                                                                          new AtlasRelationshipEndDef("process", "outputs", Cardinality.SET),
+                                                                          new AtlasRelationshipEndDef("dataset", "producer", Cardinality.SINGLE));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEnumDefs().add(enumStatus);
+        typesDef.getStructDefs().add(structAddress);
+        typesDef.getEntityDefs().addAll(Arrays.asList(entAsset, entDataSet, entProcess));
+        typesDef.getClassificationDefs().add(tagPii);
+        typesDef.getRelationshipDefs().add(relProcessOutputs);
+
+        assertTrue(addTypes(typeRegistry, typesDef));
+
+        // sub-types of existing entity type and classification
+        AtlasEntityDef         entTable     = new AtlasEntityDef("table");
+        AtlasClassificationDef tagSensitive = new AtlasClassificationDef("sensitive");
+
+        entTable.addSuperType(entDataSet.getName());
+        tagSensitive.addSuperType(tagPii.getName());
+
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entTable);
+        typesDef.getClassificationDefs().add(tagSensitive);
+
+        assertTrue(addTypes(typeRegistry, typesDef));
+
+        // business-metadata applicable to an entity type with sub-types
+        AtlasAttributeDef bmAttr = new AtlasAttributeDef("owner", AtlasBaseTypeDef.ATLAS_TYPE_STRING);
+
+        bmAttr.setOption(AtlasBusinessMetadataDef.ATTR_OPTION_APPLICABLE_ENTITY_TYPES, AtlasType.toJson(Collections.singleton(entAsset.getName())));
+        bmAttr.setOption(AtlasBusinessMetadataDef.ATTR_MAX_STRING_LENGTH, "50");
+
+        assertTrue(addType(typeRegistry, new AtlasBusinessMetadataDef("governance", "", "1.0", Collections.singletonList(bmAttr))));
+
+        // relationship between existing entity types
+        AtlasRelationshipDef relTableProcess = new AtlasRelationshipDef("table_process", "", "1.0", RelationshipCategory.ASSOCIATION, PropagateTags.NONE,
+                                                                        new AtlasRelationshipEndDef("table", "loaders", Cardinality.SET),
+                                                                        new AtlasRelationshipEndDef("process", "loadedTables", Cardinality.SET));
+
+        assertTrue(addType(typeRegistry, relTableProcess));
+
+        // update of an entity type and an enum
+        AtlasEntityDef entAssetV2   = new AtlasEntityDef(typeRegistry.getEntityDefByName("asset"));
+        AtlasEnumDef   enumStatusV2 = new AtlasEnumDef(typeRegistry.getEnumDefByName("status"));
+
+        entAssetV2.addAttribute(new AtlasAttributeDef("description", AtlasBaseTypeDef.ATLAS_TYPE_STRING));
+        enumStatusV2.addElement(new AtlasEnumDef.AtlasEnumElementDef("PURGED", "", 3));
+
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entAssetV2);
+        typesDef.getEnumDefs().add(enumStatusV2);
+
+        assertTrue(updateTypes(typeRegistry, typesDef));
+
+        // delete of a classification
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getClassificationDefs().add(new AtlasClassificationDef("sensitive"));
+
+        assertTrue(deleteTypes(typeRegistry, typesDef));
+
+        AtlasTypesDef allTypesDef = new AtlasTypesDef(new ArrayList<>(typeRegistry.getAllEnumDefs()),
+                                                      new ArrayList<>(typeRegistry.getAllStructDefs()),
+                                                      new ArrayList<>(typeRegistry.getAllClassificationDefs()),
+                                                      new ArrayList<>(typeRegistry.getAllEntityDefs()),
+                                                      new ArrayList<>(typeRegistry.getAllRelationshipDefs()),
+                                                      new ArrayList<>(typeRegistry.getAllBusinessMetadataDefs()));
+        AtlasTypeRegistry expectedRegistry = new AtlasTypeRegistry();
+
+        assertTrue(addTypes(expectedRegistry, AtlasType.fromJson(AtlasType.toJson(allTypesDef), AtlasTypesDef.class)));
+
+        validateSameTypes(typeRegistry, expectedRegistry);
+
+        assertNull(typeRegistry.getClassificationTypeByName("sensitive"));
+        validateAllSubTypes(typeRegistry, "pii", new HashSet<String>());
+        validateAttributeNames(typeRegistry, "table", new HashSet<>(Arrays.asList("name", "location", "description")));
+        assertEquals(typeRegistry.getEntityTypeByName("table").getRelationshipAttributes().keySet(), new HashSet<>(Arrays.asList("producer", "loaders")));
+        assertEquals(typeRegistry.getEntityTypeByName("table").getBusinessAttributes().keySet(), Collections.singleton("governance"));
+        assertEquals(typeRegistry.getClassificationTypeByName("pii").getEntityTypes(), new HashSet<>(Arrays.asList("dataset", "table")));
+    }
+
+    /* measures the time taken to add a classification and an entity type, for registries of different sizes.
+     * A classification is added without recreating other types; adding an entity type recreates its super-types and
+     * all types referring to them, hence the time taken depends on the number of sub-types of the super-types.
+     */
+    @Test
+    public void testTypeUpdateLatencyByRegistrySize() throws AtlasBaseException {
+        final int numOfUpdates = 10;
+
+        for (int numOfEntityTypes : new int[] { 500, 2000, 5000 }) {
+            AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+            AtlasTypesDef     typesDef     = new AtlasTypesDef();
+            AtlasEntityDef    entBase      = new AtlasEntityDef("base");
+
+            entBase.addAttribute(new AtlasAttributeDef("name", AtlasBaseTypeDef.ATLAS_TYPE_STRING));
+
+            typesDef.getEntityDefs().add(entBase);
+
+            for (int i = 0; i < numOfEntityTypes; i++) {
+                AtlasEntityDef entityDef = new AtlasEntityDef("entity-" + i);
+
+                entityDef.addSuperType(entBase.getName());
+
+                for (int j = 0; j < 5; j++) {
+                    entityDef.addAttribute(new AtlasAttributeDef("attr-" + j, AtlasBaseTypeDef.ATLAS_TYPE_STRING));
+                }
+
+                typesDef.getEntityDefs().add(entityDef);
+
+                if (i % 10 == 0) {
+                    typesDef.getClassificationDefs().add(new AtlasClassificationDef("tag-" + i));
+                }
+            }
+
+            long startTime = System.nanoTime();
+
+            assertTrue(addTypes(typeRegistry, typesDef));
+
+            long initTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+            AtlasEntityType typeEntity0 = typeRegistry.getEntityTypeByName("entity-0");
+
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < numOfUpdates; i++) {
+                AtlasClassificationDef tagDef = new AtlasClassificationDef("new-tag-" + i);
+
+                tagDef.setEntityTypes(Collections.singleton("entity-" + i));
+
+                assertTrue(addType(typeRegistry, tagDef));
+            }
+
+            long addClassificationTimeUs = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime) / numOfUpdates;
+
+            assertSame(typeRegistry.getEntityTypeByName("entity-0"), typeEntity0);
+
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < numOfUpdates; i++) {
+                AtlasEntityDef entityDef = new AtlasEntityDef("new-entity-" + i);
+
+                entityDef.addSuperType(entBase.getName());
+
+                assertTrue(addType(typeRegistry, entityDef));
+            }
+
+            long addEntityTimeUs = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime) / numOfUpdates;
+
+            LOG.info("registry size: entityTypes={}, classificationTypes={}; initial load: {} ms; add classification: {} us; add entity-type with common super-type: {} us",
+                     numOfEntityTypes, typesDef.getClassificationDefs().size(), initTimeMs, addClassificationTimeUs, addEntityTimeUs);
+
+            assertEquals(typeRegistry.getEntityTypeByName("base").getAllSubTypes().size(), numOfEntityTypes + numOfUpdates);
+        }
+    }
+
     private boolean addType(AtlasTypeRegistry typeRegistry, AtlasBaseTypeDef typeDef) {
         boolean                    ret = false;
         AtlasTransientTypeRegistry ttr = null;
@@ -612,6 +863,93 @@ public class TestAtlasTypeRegistry {
         return ret;
     }
 
+    private boolean addTypes(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef) {
+        boolean                    ret = false;
+        AtlasTransientTypeRegistry ttr = null;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.addTypes(typesDef);
+
+            ret = true;
+        } catch (AtlasBaseException excp) {
+            // ignore
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, ret);
+        }
+
+        return ret;
+    }
+
+    private boolean updateTypes(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef) {
+        boolean                    ret = false;
+        AtlasTransientTypeRegistry ttr = null;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.updateTypes(typesDef);
+
+            ret = true;
+        } catch (AtlasBaseException excp) {
+            // ignore
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, ret);
+        }
+
+        return ret;
+    }
+
+    private boolean deleteTypes(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef) {
+        boolean                    ret = false;
+        AtlasTransientTypeRegistry ttr = null;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.removeTypesDef(typesDef);
+
+            ret = true;
+        } catch (AtlasBaseException excp) {
+            // ignore
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, ret);
+        }
+
+        return ret;
+    }
+
+    private void validateSameTypes(AtlasTypeRegistry typeRegistry, AtlasTypeRegistry expectedRegistry) {
+        assertEquals(new HashSet<>(typeRegistry.getAllTypeNames()), new HashSet<>(expectedRegistry.getAllTypeNames()));
+
+        for (AtlasEntityType expected : expectedRegistry.getAllEntityTypes()) {
+            AtlasEntityType actual   = typeRegistry.getEntityTypeByName(expected.getTypeName());
+            String          typeName = expected.getTypeName();
+
+            assertEquals(actual.getAllSuperTypes(), expected.getAllSuperTypes(), typeName);
+            assertEquals(actual.getSubTypes(), expected.getSubTypes(), typeName);
+            assertEquals(actual.getAllSubTypes(), expected.getAllSubTypes(), typeName);
+            assertEquals(actual.getAllAttributes().keySet(), expected.getAllAttributes().keySet(), typeName);
+            assertEquals(actual.getRelationshipAttributes().keySet(), expected.getRelationshipAttributes().keySet(), typeName);
+            assertEquals(actual.getBusinessAttributes().keySet(), expected.getBusinessAttributes().keySet(), typeName);
+            assertEquals(actual.getTagPropagationEdges(), expected.getTagPropagationEdges(), typeName);
+
+            for (String attrName : expected.getRelationshipAttributes().keySet()) {
+                assertEquals(actual.getRelationshipAttributes().get(attrName).keySet(), expected.getRelationshipAttributes().get(attrName).keySet(), typeName + "." + attrName);
+            }
+        }
+
+        for (AtlasClassificationType expected : expectedRegistry.getAllClassificationTypes()) {
+            AtlasClassificationType actual   = typeRegistry.getClassificationTypeByName(expected.getTypeName());
+            String                  typeName = expected.getTypeName();
+
+            assertEquals(actual.getAllSuperTypes(), expected.getAllSuperTypes(), typeName);
+            assertEquals(actual.getAllSubTypes(), expected.getAllSubTypes(), typeName);
+            assertEquals(actual.getEntityTypes(), expected.getEntityTypes(), typeName);
+        }
+    }
+
     private void validateAllSuperTypes(AtlasTypeRegistry typeRegistry, String typeName, Set<String> expectedSuperTypes) {
         AtlasType type = null;
 
@@ -151,13 +151,27 @@ public abstract class AtlasHook {
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries) {
+        notifyEntities(messages, ugi, maxRetries, null);
+    }
+
+    /**
+     * Notify atlas of the entity through message, with the given key. Messages having the same key are
+     * delivered to Atlas in the order they were sent, which lets Atlas process messages of different keys
+     * in parallel. Hooks should use qualifiedName of the database (or of the top-level entity) that owns
+     * the entities in the messages as the key.
+     *
+     * @param messages   hook notification messages
+     * @param maxRetries maximum number of retries while sending message to messaging system
+     * @param messageKey key used to route the messages; can be null
+     */
+    public static void notifyEntities(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries, String messageKey) {
         if (executor == null) { // send synchronously
-            notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger);
+            notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger, messageKey);
         } else {
             executor.submit(new Runnable() {
                 @Override
                 public void run() {
-                    notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger);
+                    notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger, messageKey);
                 }
             });
         }
@@ -167,6 +181,13 @@ public abstract class AtlasHook {
     static void notifyEntitiesInternal(List<HookNotification> messages, int maxRetries, UserGroupInformation ugi,
                                        NotificationInterface notificationInterface,
                                        boolean shouldLogFailedMessages, FailedMessagesLogger logger) {
+        notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, shouldLogFailedMessages, logger, null);
+    }
+
+    @VisibleForTesting
+    static void notifyEntitiesInternal(List<HookNotification> messages, int maxRetries, UserGroupInformation ugi,
+                                       NotificationInterface notificationInterface,
+                                       boolean shouldLogFailedMessages, FailedMessagesLogger logger, String messageKey) {
         if (messages == null || messages.isEmpty()) {
             return;
         }
@@ -189,12 +210,12 @@ public abstract class AtlasHook {
 
             try {
                 if (ugi == null) {
-                    notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
+                    send(notificationInterface, messages, messageKey);
                 } else {
                     PrivilegedExceptionAction<Object> privilegedNotify = new PrivilegedExceptionAction<Object>() {
                         @Override
                         public Object run() throws Exception {
-                            notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
+                            send(notificationInterface, messages, messageKey);
                             return messages;
                         }
                     };
@@ -225,6 +246,14 @@ public abstract class AtlasHook {
         }
     }
 
+    private static void send(NotificationInterface notificationInterface, List<HookNotification> messages, String messageKey) throws NotificationException {
+        if (messageKey == null) {
+            notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
+        } else {
+            notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages, messageKey);
+        }
+    }
+
     /**
      * Notify atlas of the entity through message. The entity can be a
      * complex entity with reference to other entities.
@@ -237,6 +266,17 @@ public abstract class AtlasHook {
         notifyEntities(messages, ugi, notificationMaxRetries);
     }
 
+    /**
+     * Notify atlas of the entity through message, with the given key. Messages having the same key are
+     * delivered to Atlas in the order they were sent.
+     *
+     * @param messages   hook notification messages
+     * @param messageKey key used to route the messages, like qualifiedName of the database owning the entities; can be null
+     */
+    protected void notifyEntities(List<HookNotification> messages, UserGroupInformation ugi, String messageKey) {
+        notifyEntities(messages, ugi, notificationMaxRetries, messageKey);
+    }
+
     /**
      * Returns the logged in user.
      *
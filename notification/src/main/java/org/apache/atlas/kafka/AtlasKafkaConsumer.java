@@ -78,7 +78,13 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
                 T message = null;
 
                 try {
-                    message = deserializer.deserialize(record.value().toString());
+                    Object value = record.value();
+
+                    if (value instanceof byte[]) {
+                        message = deserializer.deserialize((byte[]) value);
+                    } else {
+                        message = deserializer.deserialize(value.toString());
+                    }
                 } catch (OutOfMemoryError excp) {
                     LOG.error("Ignoring message that failed to deserialize: topic={}, partition={}, offset={}, key={}, value={}",
                               record.topic(), record.partition(), record.offset(), record.key(), record.value(), excp);
@@ -88,7 +94,7 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
                     continue;
                 }
 
-                messages.add(new AtlasKafkaMessage(message, record.offset(), record.topic(), record.partition()));
+                messages.add(new AtlasKafkaMessage(message, record.offset(), record.topic(), record.partition(), record.serializedValueSize()));
             }
         }
 
@@ -22,6 +22,7 @@ import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.AtlasNotificationBinaryMessage;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.service.Service;
@@ -74,6 +75,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
     private static final String JAAS_DEFAULT_CLIENT_NAME = "KafkaClient";
     private static final String JAAS_TICKET_BASED_CLIENT_NAME = "ticketBased-KafkaClient";
 
+    private   static final boolean  HOOK_MESSAGE_BINARY_ENABLED    = AtlasConfiguration.NOTIFICATION_HOOK_MESSAGE_BINARY_ENABLED.getBoolean();
     private   static final String[] ATLAS_HOOK_CONSUMER_TOPICS     = AtlasConfiguration.NOTIFICATION_HOOK_CONSUMER_TOPIC_NAMES.getStringArray(ATLAS_HOOK_TOPIC);
     private   static final String[] ATLAS_ENTITIES_CONSUMER_TOPICS = AtlasConfiguration.NOTIFICATION_ENTITIES_CONSUMER_TOPIC_NAMES.getStringArray(ATLAS_ENTITIES_TOPIC);
 
@@ -124,7 +126,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
         properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
         properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
         properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArrayDeserializer"); // to read both JSON and binary messages
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
         boolean oldApiCommitEnableFlag = kafkaConf.getBoolean("auto.commit.enable", false);
@@ -259,21 +261,75 @@ public class KafkaNotification extends AbstractNotification implements Service {
     // ----- AbstractNotification --------------------------------------------
     @Override
     public void sendInternal(NotificationType notificationType, List<String> messages) throws NotificationException {
+        sendInternal(notificationType, messages, null);
+    }
+
+    @Override
+    protected void sendInternal(NotificationType notificationType, List<String> messages, String messageKey) throws NotificationException {
+        KafkaProducer producer = getOrCreateProducer(notificationType);
+
+        sendInternalToProducer(producer, notificationType, messages, messageKey);
+    }
+
+    @Override
+    protected void sendBinaryInternal(NotificationType notificationType, List<byte[]> messages) throws NotificationException {
+        sendBinaryInternal(notificationType, messages, null);
+    }
+
+    @Override
+    protected void sendBinaryInternal(NotificationType notificationType, List<byte[]> messages, String messageKey) throws NotificationException {
         KafkaProducer producer = getOrCreateProducer(notificationType);
 
-        sendInternalToProducer(producer, notificationType, messages);
+        sendBinaryInternalToProducer(producer, notificationType, messages, messageKey);
+    }
+
+    // only the hook topic, which is consumed by Atlas server alone, can carry binary messages
+    @Override
+    protected boolean isBinaryMessageEnabled(NotificationType notificationType) {
+        return HOOK_MESSAGE_BINARY_ENABLED && notificationType == NotificationType.HOOK;
     }
 
     @VisibleForTesting
     void sendInternalToProducer(Producer p, NotificationType notificationType, List<String> messages) throws NotificationException {
+        sendInternalToProducer(p, notificationType, messages, null);
+    }
+
+    // messages with a key are sent to the partition of the key, hence are consumed in order; all splits of a message share its key
+    @VisibleForTesting
+    void sendInternalToProducer(Producer p, NotificationType notificationType, List<String> messages, String messageKey) throws NotificationException {
         String               topic           = PRODUCER_TOPIC_MAP.get(notificationType);
         List<MessageContext> messageContexts = new ArrayList<>();
 
         for (String message : messages) {
-            ProducerRecord record = new ProducerRecord(topic, message);
+            ProducerRecord record = new ProducerRecord(topic, messageKey, message);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Sending message for topic {}, key {}: {}", topic, messageKey, message);
+            }
+
+            Future future = p.send(record);
+
+            messageContexts.add(new MessageContext(future, message));
+        }
+
+        waitForSendCompletion(messageContexts);
+    }
+
+    @VisibleForTesting
+    void sendBinaryInternalToProducer(Producer p, NotificationType notificationType, List<byte[]> messages) throws NotificationException {
+        sendBinaryInternalToProducer(p, notificationType, messages, null);
+    }
+
+    @VisibleForTesting
+    void sendBinaryInternalToProducer(Producer p, NotificationType notificationType, List<byte[]> messages, String messageKey) throws NotificationException {
+        String               topic           = PRODUCER_TOPIC_MAP.get(notificationType);
+        List<MessageContext> messageContexts = new ArrayList<>();
+
+        for (byte[] message : messages) {
+            ProducerRecord record = new ProducerRecord(topic, messageKey, message);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Sending message for topic {}: {}", topic, message);
+                LOG.debug("Sending binary message for topic {}, key {}: {} bytes", topic, messageKey, message.length);
             }
 
             Future future = p.send(record);
@@ -281,6 +337,10 @@ public class KafkaNotification extends AbstractNotification implements Service {
             messageContexts.add(new MessageContext(future, message));
         }
 
+        waitForSendCompletion(messageContexts);
+    }
+
+    private void waitForSendCompletion(List<MessageContext> messageContexts) throws NotificationException {
         List<String> failedMessages       = new ArrayList<>();
         Exception    lastFailureException = null;
 
@@ -353,7 +413,16 @@ public class KafkaNotification extends AbstractNotification implements Service {
                 ret = producers.get(notificationType);
 
                 if (ret == null) {
-                    ret = new KafkaProducer(properties);
+                    if (isBinaryMessageEnabled(notificationType)) {
+                        Properties producerProperties = new Properties();
+
+                        producerProperties.putAll(properties);
+                        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArraySerializer");
+
+                        ret = new KafkaProducer(producerProperties);
+                    } else {
+                        ret = new KafkaProducer(properties);
+                    }
 
                     producers.put(notificationType, ret);
                 }
@@ -384,10 +453,18 @@ public class KafkaNotification extends AbstractNotification implements Service {
     private class MessageContext {
         private final Future<RecordMetadata> future;
         private final String                 message;
+        private final byte[]                 binaryMessage;
 
         public MessageContext(Future<RecordMetadata> future, String message) {
-            this.future  = future;
-            this.message = message;
+            this.future        = future;
+            this.message       = message;
+            this.binaryMessage = null;
+        }
+
+        public MessageContext(Future<RecordMetadata> future, byte[] binaryMessage) {
+            this.future        = future;
+            this.message       = null;
+            this.binaryMessage = binaryMessage;
         }
 
         public Future<RecordMetadata> getFuture() {
@@ -395,7 +472,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
         }
 
         public String getMessage() {
-            return message;
+            return binaryMessage != null ? AtlasNotificationBinaryMessage.getMessageJson(binaryMessage) : message;
         }
     }
 
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_MESSAGE_COMPRESSION_MIN_LENGTH_BYTES;
 import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_COMPRESSION_ENABLED;
 import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_MAX_LENGTH_BYTES;
 
@@ -57,6 +58,8 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     public static final int MAX_BYTES_PER_CHAR = 4;  // each char can encode upto 4 bytes in UTF-8
 
+    private static final int MESSAGE_COMPRESSION_MIN_LENGTH_BYTES = NOTIFICATION_MESSAGE_COMPRESSION_MIN_LENGTH_BYTES.getInt();
+
     /**
      * IP address of the host in which this process has started
      */
@@ -80,13 +83,29 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     @Override
     public <T> void send(NotificationType type, List<T> messages) throws NotificationException {
-        List<String> strMessages = new ArrayList<>(messages.size());
+        send(type, messages, null);
+    }
 
-        for (int index = 0; index < messages.size(); index++) {
-            createNotificationMessages(messages.get(index), strMessages);
-        }
+    @Override
+    public <T> void send(NotificationType type, List<T> messages, String messageKey) throws NotificationException {
+        if (isBinaryMessageEnabled(type)) {
+            List<byte[]> binaryMessages = new ArrayList<>(messages.size());
+
+            for (int index = 0; index < messages.size(); index++) {
+                createNotificationPayloads(messages.get(index), binaryMessages);
+            }
 
-        sendInternal(type, strMessages);
+            sendBinaryInternal(type, binaryMessages, messageKey);
+        } else {
+            List<String>            strMessages = new ArrayList<>(messages.size());
+            MessageCompressionCodec codec       = getCompressionCodec(type);
+
+            for (int index = 0; index < messages.size(); index++) {
+                createNotificationMessages(messages.get(index), strMessages, codec);
+            }
+
+            sendInternal(type, strMessages, messageKey);
+        }
     }
 
     @Override
@@ -94,6 +113,19 @@ public abstract class AbstractNotification implements NotificationInterface {
         send(type, Arrays.asList(messages));
     }
 
+    /**
+     * Send messages that are already serialized by createNotificationMessages(); used to send messages that were
+     * serialized earlier, like messages stored in a local outbox.
+     *
+     * @param type      the message type
+     * @param messages  the serialized messages to send
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    public void sendSerialized(NotificationType type, List<String> messages) throws NotificationException {
+        sendInternal(type, messages);
+    }
+
     @Override
     public void setCurrentUser(String user) {
         currentUser = user;
@@ -110,6 +142,67 @@ public abstract class AbstractNotification implements NotificationInterface {
      */
     protected abstract void sendInternal(NotificationType type, List<String> messages) throws NotificationException;
 
+    /**
+     * Send the given binary messages; called only when isBinaryMessageEnabled() returns true for the type.
+     *
+     * @param type      the message type
+     * @param messages  the binary messages to send, created by createNotificationPayloads()
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    protected abstract void sendBinaryInternal(NotificationType type, List<byte[]> messages) throws NotificationException;
+
+    /**
+     * Send the given messages with the given key; implementations that support keyed delivery should
+     * deliver messages having the same key in the order they were sent.
+     *
+     * @param type        the message type
+     * @param messages    the array of messages to send
+     * @param messageKey  key used to route the messages; can be null
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    protected void sendInternal(NotificationType type, List<String> messages, String messageKey) throws NotificationException {
+        sendInternal(type, messages);
+    }
+
+    /**
+     * Send the given binary messages with the given key; called only when isBinaryMessageEnabled() returns true for the type.
+     *
+     * @param type        the message type
+     * @param messages    the binary messages to send, created by createNotificationPayloads()
+     * @param messageKey  key used to route the messages; can be null
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    protected void sendBinaryInternal(NotificationType type, List<byte[]> messages, String messageKey) throws NotificationException {
+        sendBinaryInternal(type, messages);
+    }
+
+    /**
+     * Binary messages can only be read by consumers that understand AtlasNotificationBinaryMessage, hence are disabled by default.
+     *
+     * @param type  the message type
+     *
+     * @return true if messages of the given type should be sent as binary messages
+     */
+    protected boolean isBinaryMessageEnabled(NotificationType type) {
+        return false;
+    }
+
+    /**
+     * Messages of topics read by external consumers, like ATLAS_ENTITIES, are compressed with gzip - the codec understood by
+     * all consumers; the codec configured via atlas.notification.message.compression.codec is used only for hook messages,
+     * which are consumed by Atlas server alone.
+     *
+     * @param type  the message type
+     *
+     * @return codec to compress large messages of the given type
+     */
+    protected MessageCompressionCodec getCompressionCodec(NotificationType type) {
+        return type == NotificationType.HOOK ? MessageCompressionCodec.getConfiguredCodec() : MessageCompressionCodec.getCodec(CompressionKind.GZIP);
+    }
+
 
     // ----- utility methods -------------------------------------------------
 
@@ -138,13 +231,28 @@ public abstract class AbstractNotification implements NotificationInterface {
     }
 
     /**
-     * Get the notification message JSON from the given object.
+     * Get the notification message JSON from the given object; large messages are compressed with gzip.
      *
      * @param message  the message in object form
      *
      * @return the message as a JSON string
      */
     public static void createNotificationMessages(Object message, List<String> msgJsonList) {
+        createNotificationMessages(message, msgJsonList, MessageCompressionCodec.getCodec(CompressionKind.GZIP));
+    }
+
+    /**
+     * Get the notification message JSON from the given object.
+     *
+     * A large message is compressed, base64-encoded and wrapped in AtlasNotificationStringMessage JSON - the format that
+     * existing consumers read, hence kept as is. Binary messages, when enabled by isBinaryMessageEnabled(), carry the
+     * compressed bytes without the base64 and JSON passes.
+     *
+     * @param message      the message in object form
+     * @param msgJsonList  list to add the message JSON to
+     * @param codec        codec to compress large messages with
+     */
+    public static void createNotificationMessages(Object message, List<String> msgJsonList, MessageCompressionCodec codec) {
         AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message, getHostAddress(), getCurrentUser());
         String                      msgJson         = AtlasType.toV1Json(notificationMsg);
 
@@ -160,11 +268,11 @@ public abstract class AbstractNotification implements NotificationInterface {
                 CompressionKind compressionKind = CompressionKind.NONE;
 
                 if (MESSAGE_COMPRESSION_ENABLED) {
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.gzipCompressAndEncodeBase64(msgBytes);
+                    byte[] encodedBytes = AtlasNotificationBaseMessage.encodeBase64(codec.compress(msgBytes));
 
-                    compressionKind = CompressionKind.GZIP;
+                    compressionKind = codec.getCompressionKind();
 
-                    LOG.info("Compressed large message: msgID={}, uncompressed={} bytes, compressed={} bytes", msgId, msgBytes.length, encodedBytes.length);
+                    LOG.info("Compressed large message: msgID={}, codec={}, uncompressed={} bytes, compressed={} bytes", msgId, compressionKind, msgBytes.length, encodedBytes.length);
 
                     msgLengthExceedsLimit = encodedBytes.length > MESSAGE_MAX_LENGTH_BYTES;
 
@@ -182,36 +290,81 @@ public abstract class AbstractNotification implements NotificationInterface {
                 if (msgLengthExceedsLimit) {
                     // compressed messages are already base64-encoded
                     byte[] encodedBytes = MESSAGE_COMPRESSION_ENABLED ? msgBytes : AtlasNotificationBaseMessage.encodeBase64(msgBytes);
-                    int    splitCount   = encodedBytes.length / MESSAGE_MAX_LENGTH_BYTES;
 
-                    if ((encodedBytes.length % MESSAGE_MAX_LENGTH_BYTES) != 0) {
-                        splitCount++;
-                    }
+                    msgJsonList.addAll(createSplitMessages(encodedBytes, msgId, compressionKind));
+                }
+            }
+        }
 
-                    for (int i = 0, offset = 0; i < splitCount; i++) {
-                        int length = MESSAGE_MAX_LENGTH_BYTES;
+        if (!msgLengthExceedsLimit) {
+            msgJsonList.add(msgJson);
+        }
+    }
 
-                        if ((offset + length) > encodedBytes.length) {
-                            length = encodedBytes.length - offset;
-                        }
+    /**
+     * Get binary notification messages from the given object. The message is serialized once; messages larger than
+     * atlas.notification.message.compression.min.length.bytes are compressed with the configured codec, and the result
+     * is sent as an AtlasNotificationBinaryMessage - without base64 encoding and JSON wrapping. Only messages that exceed
+     * the maximum length after compression are split; splits use the JSON format understood by all consumers.
+     *
+     * @param message      the message in object form
+     * @param payloadList  list to add the binary messages to
+     */
+    public static void createNotificationPayloads(Object message, List<byte[]> payloadList) {
+        AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message, getHostAddress(), getCurrentUser());
+        byte[]                      msgBytes        = AtlasNotificationBaseMessage.getBytesUtf8(AtlasType.toV1Json(notificationMsg));
+        byte[]                      payload         = msgBytes;
+        CompressionKind             compressionKind = CompressionKind.NONE;
 
-                        AtlasNotificationStringMessage splitMsg = new AtlasNotificationStringMessage(encodedBytes, offset, length, msgId, compressionKind, i, splitCount);
+        if (MESSAGE_COMPRESSION_ENABLED && msgBytes.length >= MESSAGE_COMPRESSION_MIN_LENGTH_BYTES) {
+            MessageCompressionCodec codec           = MessageCompressionCodec.getConfiguredCodec();
+            byte[]                  compressedBytes = codec.compress(msgBytes);
 
-                        String splitMsgJson = AtlasType.toV1Json(splitMsg);
+            if (compressedBytes.length < msgBytes.length) {
+                payload         = compressedBytes;
+                compressionKind = codec.getCompressionKind();
+            }
+        }
 
-                        msgJsonList.add(splitMsgJson);
+        if ((payload.length + AtlasNotificationBinaryMessage.HEADER_LENGTH) <= MESSAGE_MAX_LENGTH_BYTES) {
+            payloadList.add(AtlasNotificationBinaryMessage.encode(compressionKind, payload));
+        } else {
+            String msgId = getNextMessageId();
 
-                        offset += length;
-                    }
+            LOG.info("Large message: msgID={}, codec={}, uncompressed={} bytes, compressed={} bytes", msgId, compressionKind, msgBytes.length, payload.length);
 
-                    LOG.info("Split large message: msgID={}, splitCount={}, length={} bytes", msgId, splitCount, encodedBytes.length);
-                }
+            for (String splitMsgJson : createSplitMessages(AtlasNotificationBaseMessage.encodeBase64(payload), msgId, compressionKind)) {
+                payloadList.add(AtlasNotificationBaseMessage.getBytesUtf8(splitMsgJson));
             }
         }
+    }
 
-        if (!msgLengthExceedsLimit) {
-            msgJsonList.add(msgJson);
+    private static List<String> createSplitMessages(byte[] encodedBytes, String msgId, CompressionKind compressionKind) {
+        int splitCount = encodedBytes.length / MESSAGE_MAX_LENGTH_BYTES;
+
+        if ((encodedBytes.length % MESSAGE_MAX_LENGTH_BYTES) != 0) {
+            splitCount++;
         }
+
+        List<String> ret = new ArrayList<>(splitCount);
+
+        for (int i = 0, offset = 0; i < splitCount; i++) {
+            int length = MESSAGE_MAX_LENGTH_BYTES;
+
+            if ((offset + length) > encodedBytes.length) {
+                length = encodedBytes.length - offset;
+            }
+
+            AtlasNotificationStringMessage splitMsg = new AtlasNotificationStringMessage(encodedBytes, offset, length, msgId, compressionKind, i, splitCount);
+
+            ret.add(AtlasType.toV1Json(splitMsg));
+
+            offset += length;
+        }
+
+        LOG.info("Split large message: msgID={}, splitCount={}, length={} bytes", msgId, splitCount, encodedBytes.length);
+
+        return ret;
     }
 
     private static String getNextMessageId() {
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+
+/**
+ * Binary envelope for notification messages, which avoids base64 encoding and JSON wrapping of compressed messages.
+ *
+ * Layout: MAGIC (1 byte), FORMAT_VERSION (1 byte), compression-kind (1 byte), followed by the message JSON in UTF-8,
+ * compressed with the codec identified by compression-kind. MAGIC is a UTF-8 continuation byte, hence can't be the
+ * first byte of a JSON message; this enables consumers to handle binary and JSON messages in the same topic.
+ */
+public final class AtlasNotificationBinaryMessage {
+    public static final byte MAGIC          = (byte) 0xAE;
+    public static final byte FORMAT_VERSION = 1;
+    public static final int  HEADER_LENGTH  = 3;
+
+    private static final byte COMPRESSION_NONE = 0;
+    private static final byte COMPRESSION_GZIP = 1;
+    private static final byte COMPRESSION_LZ4  = 2;
+
+    private AtlasNotificationBinaryMessage() {
+    }
+
+    public static boolean isBinaryMessage(byte[] message) {
+        return message != null && message.length >= HEADER_LENGTH && message[0] == MAGIC;
+    }
+
+    /**
+     * @param compressionKind  codec used to compress the payload
+     * @param payload          message JSON in UTF-8, compressed with the given codec
+     *
+     * @return binary message
+     */
+    public static byte[] encode(CompressionKind compressionKind, byte[] payload) {
+        byte[] ret = new byte[HEADER_LENGTH + payload.length];
+
+        ret[0] = MAGIC;
+        ret[1] = FORMAT_VERSION;
+        ret[2] = toCompressionCode(compressionKind);
+
+        System.arraycopy(payload, 0, ret, HEADER_LENGTH, payload.length);
+
+        return ret;
+    }
+
+    /**
+     * @param message  binary message
+     *
+     * @return message JSON in UTF-8, after uncompressing the payload
+     */
+    public static byte[] decode(byte[] message) {
+        if (!isBinaryMessage(message)) {
+            throw new IllegalArgumentException("not a binary notification message");
+        }
+
+        if (message[1] != FORMAT_VERSION) {
+            throw new IncompatibleVersionException("unsupported binary notification message format version " + message[1]);
+        }
+
+        CompressionKind         compressionKind = fromCompressionCode(message[2]);
+        MessageCompressionCodec codec           = MessageCompressionCodec.getCodec(compressionKind);
+        byte[]                  payload         = new byte[message.length - HEADER_LENGTH];
+
+        System.arraycopy(message, HEADER_LENGTH, payload, 0, payload.length);
+
+        return codec != null ? codec.uncompress(payload) : payload;
+    }
+
+    public static CompressionKind getCompressionKind(byte[] message) {
+        return isBinaryMessage(message) ? fromCompressionCode(message[2]) : CompressionKind.NONE;
+    }
+
+    /**
+     * @param message  binary or JSON message
+     *
+     * @return message JSON
+     */
+    public static String getMessageJson(byte[] message) {
+        return AtlasNotificationBaseMessage.getStringUtf8(isBinaryMessage(message) ? decode(message) : message);
+    }
+
+    private static byte toCompressionCode(CompressionKind compressionKind) {
+        switch (compressionKind) {
+            case NONE:
+                return COMPRESSION_NONE;
+
+            case GZIP:
+                return COMPRESSION_GZIP;
+
+            case LZ4:
+                return COMPRESSION_LZ4;
+
+            default:
+                throw new IllegalArgumentException("unsupported message compression kind " + compressionKind);
+        }
+    }
+
+    private static CompressionKind fromCompressionCode(byte code) {
+        switch (code) {
+            case COMPRESSION_NONE:
+                return CompressionKind.NONE;
+
+            case COMPRESSION_GZIP:
+                return CompressionKind.GZIP;
+
+            case COMPRESSION_LZ4:
+                return CompressionKind.LZ4;
+
+            default:
+                throw new IncompatibleVersionException("unsupported compression code " + code + " in binary notification message");
+        }
+    }
+}
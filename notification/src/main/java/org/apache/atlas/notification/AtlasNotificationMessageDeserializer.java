@@ -18,6 +18,8 @@
 
 package org.apache.atlas.notification;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
@@ -26,10 +28,12 @@ import org.apache.atlas.model.notification.AtlasNotificationMessage;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.model.notification.MessageVersion;
+import org.apache.atlas.utils.AtlasJson;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -50,6 +54,13 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     public static final String VERSION_MISMATCH_MSG =
         "Notification message version mismatch. Expected %s but recieved %s. Message %s";
 
+    private static final String FIELD_VERSION              = "version";
+    private static final String FIELD_MSG_ID               = "msgId";
+    private static final String FIELD_MSG_COMPRESSION_KIND = "msgCompressionKind";
+    private static final String FIELD_MSG_SPLIT_IDX        = "msgSplitIdx";
+    private static final String FIELD_MSG_SPLIT_COUNT      = "msgSplitCount";
+    private static final String FIELD_MESSAGE              = "message";
+
     private final TypeReference<T> messageType;
     private final TypeReference<AtlasNotificationMessage<T>> notificationMessageType;
     private final MessageVersion                             expectedVersion;
@@ -103,144 +114,233 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     // ----- MessageDeserializer ---------------------------------------------
     @Override
     public T deserialize(String messageJson) {
-        final T ret;
+        return deserializeJson(AtlasNotificationBaseMessage.getBytesUtf8(messageJson));
+    }
 
+    /**
+     * Deserialize a message received as bytes - either an AtlasNotificationBinaryMessage or a JSON message in UTF-8.
+     *
+     * @param message  the message bytes
+     *
+     * @return the deserialized message; null if the message is one of the splits of a large message yet to be received
+     */
+    public T deserialize(byte[] message) {
+        return deserializeJson(AtlasNotificationBinaryMessage.isBinaryMessage(message) ? AtlasNotificationBinaryMessage.decode(message) : message);
+    }
+
+    private T deserializeJson(byte[] messageJson) {
         messageCountTotal.incrementAndGet();
         messageCountSinceLastInterval.incrementAndGet();
 
-        AtlasNotificationBaseMessage msg = AtlasType.fromV1Json(messageJson, AtlasNotificationBaseMessage.class);
+        T ret = readMessage(messageJson);
 
-        if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
-            ret = AtlasType.fromV1Json(messageJson, messageType);
-        } else  {
-            String msgJson = messageJson;
+        if (ret != null) {
+            normalize(ret);
+        }
+
+        long now                = System.currentTimeMillis();
+        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
+
+        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
+            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
+
+            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
+
+            splitMessagesLastPurgeTime = now;
+        }
+
+        return ret;
+    }
+
+    /*
+     * Reads the envelope in a single streaming pass: envelope fields are read as they appear, and the payload is
+     * deserialized directly into the message type. Compressed and split messages carry the envelope JSON of the
+     * original message as payload, which is read again after it is uncompressed/assembled.
+     */
+    private T readMessage(byte[] msgJson) {
+        final T                  ret;
+        final MessageEnvelope<T> msg = msgJson != null ? readEnvelope(msgJson) : null;
+
+        if (msg == null) {
+            ret = null;
+        } else if (msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
+            ret = AtlasType.fromV1Json(AtlasNotificationBaseMessage.getStringUtf8(msgJson), messageType);
+        } else {
+            if (msg.getVersion().compareTo(expectedVersion) != 0) {
+                checkVersion(msg, AtlasNotificationBaseMessage.getStringUtf8(msgJson));
+            }
 
             if (msg.getMsgSplitCount() > 1) { // multi-part message
-                AtlasNotificationStringMessage splitMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
+                byte[] assembledMsgJson = addSplitMessage(msg);
 
-                checkVersion(splitMsg, msgJson);
+                ret = assembledMsgJson != null ? readMessage(assembledMsgJson) : null;
+            } else {
+                MessageCompressionCodec codec = MessageCompressionCodec.getCodec(msg.getMsgCompressionKind());
 
-                String msgId = splitMsg.getMsgId();
+                if (codec != null && msg.getStringMessage() != null) {
+                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msg.getStringMessage());
+                    byte[] bytes        = codec.uncompress(AtlasNotificationBaseMessage.decodeBase64(encodedBytes));
 
-                if (StringUtils.isEmpty(msgId)) {
-                    LOG.error("Received multi-part message with no message ID. Ignoring message");
+                    LOG.info("Received msgID={}: codec={}, compressed={} bytes, uncompressed={} bytes", msg.getMsgId(), codec.getCompressionKind(), encodedBytes.length, bytes.length);
 
-                    msg = null;
+                    ret = readMessage(bytes);
                 } else {
-                    final int splitIdx   = splitMsg.getMsgSplitIdx();
-                    final int splitCount = splitMsg.getMsgSplitCount();
+                    ret = msg.getMessage();
+                }
+            }
+        }
 
-                    final SplitMessageAggregator splitMsgs;
+        return ret;
+    }
 
-                    if (splitIdx == 0) {
-                        splitMsgs = new SplitMessageAggregator(splitMsg);
+    /**
+     * @return uncompressed envelope JSON of the original message, if this was its last split; otherwise null
+     */
+    private byte[] addSplitMessage(MessageEnvelope<T> msg) {
+        String msgId = msg.getMsgId();
 
-                        splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
-                    } else {
-                        splitMsgs = splitMsgBuffer.get(msgId);
-                    }
+        if (StringUtils.isEmpty(msgId)) {
+            LOG.error("Received multi-part message with no message ID. Ignoring message");
 
-                    if (splitMsgs == null) {
-                        LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
+            return null;
+        }
 
-                        msg = null;
-                    } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
-                        LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
+        final int                            splitIdx   = msg.getMsgSplitIdx();
+        final int                            splitCount = msg.getMsgSplitCount();
+        final AtlasNotificationStringMessage splitMsg   = new AtlasNotificationStringMessage(msg.getStringMessage(), msgId, msg.getMsgCompressionKind(), splitIdx, splitCount);
+        final SplitMessageAggregator         splitMsgs;
 
-                        msg = null;
-                    } else {
-                        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
+        splitMsg.setVersion(msg.getVersion());
 
-                        boolean isReady = splitMsgs.add(splitMsg);
+        if (splitIdx == 0) {
+            splitMsgs = new SplitMessageAggregator(splitMsg);
 
-                        if (isReady) { // last message
-                            splitMsgBuffer.remove(msgId);
+            splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
+        } else {
+            splitMsgs = splitMsgBuffer.get(msgId);
+        }
 
-                            boolean isValidMessage = true;
+        if (splitMsgs == null) {
+            LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
 
-                            StringBuilder sb = new StringBuilder();
+            return null;
+        }
 
-                            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
-                                splitMsg = splitMsgs.get(i);
+        if (splitMsgs.getTotalSplitCount() <= splitIdx) {
+            LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
 
-                                if (splitMsg == null) {
-                                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
+            return null;
+        }
 
-                                    isValidMessage = false;
+        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
 
-                                    break;
-                                }
+        if (!splitMsgs.add(splitMsg)) { // more messages to arrive
+            return null;
+        }
 
-                                sb.append(splitMsg.getMessage());
-                            }
+        splitMsgBuffer.remove(msgId);
 
-                            if (isValidMessage) {
-                                msgJson = sb.toString();
+        StringBuilder sb = new StringBuilder();
 
-                                if (CompressionKind.GZIP.equals(splitMsg.getMsgCompressionKind())) {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+        for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
+            AtlasNotificationStringMessage split = splitMsgs.get(i);
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+            if (split == null || split.getMessage() == null) {
+                LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
 
-                                    LOG.info("Received msgID={}: splitCount={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, encodedBytes.length, bytes.length);
-                                } else {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
+                return null;
+            }
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+            sb.append(split.getMessage());
+        }
 
-                                    LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
-                                }
+        MessageCompressionCodec codec        = MessageCompressionCodec.getCodec(msg.getMsgCompressionKind());
+        byte[]                  encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(sb.toString());
+        byte[]                  bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
 
-                                msg = AtlasType.fromV1Json(msgJson, AtlasNotificationBaseMessage.class);
-                            } else {
-                                msg = null;
-                            }
-                        } else { // more messages to arrive
-                            msg = null;
-                        }
-                    }
-                }
-            }
+        if (codec != null) {
+            bytes = codec.uncompress(bytes);
+
+            LOG.info("Received msgID={}: splitCount={}, codec={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, codec.getCompressionKind(), encodedBytes.length, bytes.length);
+        } else {
+            LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @return the envelope read from the given JSON; null if the JSON is not a valid object
+     */
+    private MessageEnvelope<T> readEnvelope(byte[] msgJson) {
+        MessageEnvelope<T> ret = new MessageEnvelope<>();
 
-            if (msg != null) {
-                if (CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
-                    AtlasNotificationStringMessage compressedMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
+        try (JsonParser parser = AtlasJson.getMapper().getFactory().createParser(msgJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                LOG.error("Notification message is not a JSON object. Ignoring message");
 
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(compressedMsg.getMessage());
-                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+                return null;
+            }
 
-                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String    fieldName = parser.getCurrentName();
+                JsonToken token     = parser.nextToken();
 
-                    LOG.info("Received msgID={}: compressed={} bytes, uncompressed={} bytes", compressedMsg.getMsgId(), encodedBytes.length, bytes.length);
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
                 }
 
-                AtlasNotificationMessage<T> atlasNotificationMessage = AtlasType.fromV1Json(msgJson, notificationMessageType);
+                switch (fieldName) {
+                    case FIELD_VERSION:
+                        ret.setVersion(parser.readValueAs(MessageVersion.class));
+                    break;
 
-                checkVersion(atlasNotificationMessage, msgJson);
+                    case FIELD_MSG_ID:
+                        ret.setMsgId(parser.getText());
+                    break;
 
-                ret = atlasNotificationMessage.getMessage();
-            } else {
-                ret = null;
-            }
-        }
+                    case FIELD_MSG_COMPRESSION_KIND:
+                        ret.setMsgCompressed(CompressionKind.valueOf(parser.getText()));
+                    break;
 
+                    case FIELD_MSG_SPLIT_IDX:
+                        ret.setMsgSplitIdx(parser.getValueAsInt());
+                    break;
 
-        long now                = System.currentTimeMillis();
-        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
+                    case FIELD_MSG_SPLIT_COUNT:
+                        ret.setMsgSplitCount(parser.getValueAsInt());
+                    break;
 
-        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
-            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
+                    case FIELD_MESSAGE:
+                        if (token == JsonToken.VALUE_STRING) { // compressed or split message
+                            ret.setStringMessage(parser.getText());
+                        } else {
+                            ret.setMessage(parser.getCodec().readValue(parser, messageType));
+                        }
+                    break;
 
-            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
+                    default:
+                        parser.skipChildren();
+                    break;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("Failed to read notification message", e);
 
-            splitMessagesLastPurgeTime = now;
+            ret = null;
         }
 
         return ret;
     }
 
+    /**
+     * Called with each deserialized message, before it is returned to the caller.
+     *
+     * @param message  the deserialized message
+     */
+    protected void normalize(T message) {
+    }
+
     @VisibleForTesting
     static void purgeStaleMessages(Map<String, SplitMessageAggregator> splitMsgBuffer, long now, long maxWaitTime) {
         if (LOG.isDebugEnabled()) {
@@ -302,4 +402,29 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
             notificationLogger.info(String.format(VERSION_MISMATCH_MSG, expectedVersion, notificationMessage.getVersion(), messageJson));
         }
     }
+
+    /**
+     * Envelope fields of a notification message, along with its payload - either the deserialized message or,
+     * for compressed/split messages, the encoded string.
+     */
+    private static class MessageEnvelope<T> extends AtlasNotificationBaseMessage {
+        private T      message;
+        private String stringMessage;
+
+        public T getMessage() {
+            return message;
+        }
+
+        public void setMessage(T message) {
+            this.message = message;
+        }
+
+        public String getStringMessage() {
+            return stringMessage;
+        }
+
+        public void setStringMessage(String stringMessage) {
+            this.stringMessage = stringMessage;
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+import org.apache.commons.compress.utils.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression codecs used for notification messages. The codec used to compress a message is recorded in the message,
+ * as CompressionKind, so that consumers can uncompress messages irrespective of the codec configured in the producer.
+ */
+public abstract class MessageCompressionCodec {
+    private static final Logger LOG = LoggerFactory.getLogger(MessageCompressionCodec.class);
+
+    private static final String LZ4_FRAME_OUTPUT_STREAM_CLASS = "net.jpountz.lz4.LZ4FrameOutputStream";
+
+    private static final MessageCompressionCodec GZIP_CODEC       = new GzipCodec();
+    private static final MessageCompressionCodec LZ4_CODEC        = isClassAvailable(LZ4_FRAME_OUTPUT_STREAM_CLASS) ? new Lz4Codec() : null;
+    private static final MessageCompressionCodec CONFIGURED_CODEC = getCodec(AtlasConfiguration.NOTIFICATION_MESSAGE_COMPRESSION_CODEC.getString());
+
+    public abstract CompressionKind getCompressionKind();
+
+    public abstract byte[] compress(byte[] bytes);
+
+    public abstract byte[] uncompress(byte[] bytes);
+
+    /**
+     * @return codec configured via atlas.notification.message.compression.codec; gzip when the configured codec is not available
+     */
+    public static MessageCompressionCodec getConfiguredCodec() {
+        return CONFIGURED_CODEC;
+    }
+
+    /**
+     * @param compressionKind  compression kind recorded in a message
+     *
+     * @return codec to uncompress messages of the given compression kind; null for CompressionKind.NONE
+     */
+    public static MessageCompressionCodec getCodec(CompressionKind compressionKind) {
+        if (compressionKind == null) {
+            return null;
+        }
+
+        switch (compressionKind) {
+            case NONE:
+                return null;
+
+            case GZIP:
+                return GZIP_CODEC;
+
+            case LZ4:
+                if (LZ4_CODEC == null) {
+                    throw new IllegalStateException("LZ4 compressed message received, but LZ4 codec is not available in classpath");
+                }
+
+                return LZ4_CODEC;
+
+            default:
+                throw new IllegalStateException("unsupported message compression kind " + compressionKind);
+        }
+    }
+
+    static MessageCompressionCodec getCodec(String codecName) {
+        MessageCompressionCodec ret = GZIP_CODEC;
+
+        if (StringUtils.equalsIgnoreCase(codecName, CompressionKind.LZ4.name())) {
+            if (LZ4_CODEC != null) {
+                ret = LZ4_CODEC;
+            } else {
+                LOG.warn("compression codec {} is not available in classpath; using {}", codecName, CompressionKind.GZIP);
+            }
+        } else if (!StringUtils.equalsIgnoreCase(codecName, CompressionKind.GZIP.name())) {
+            LOG.warn("unknown compression codec {}; using {}", codecName, CompressionKind.GZIP);
+        }
+
+        return ret;
+    }
+
+    private static boolean isClassAvailable(String className) {
+        try {
+            Class.forName(className, false, MessageCompressionCodec.class.getClassLoader());
+
+            return true;
+        } catch (ClassNotFoundException | LinkageError excp) {
+            return false;
+        }
+    }
+
+    static class GzipCodec extends MessageCompressionCodec {
+        @Override
+        public CompressionKind getCompressionKind() {
+            return CompressionKind.GZIP;
+        }
+
+        @Override
+        public byte[] compress(byte[] bytes) {
+            return AtlasNotificationBaseMessage.gzipCompress(bytes);
+        }
+
+        @Override
+        public byte[] uncompress(byte[] bytes) {
+            return AtlasNotificationBaseMessage.gzipUncompress(bytes);
+        }
+    }
+
+    // LZ4 frame format, using lz4-java library that is brought in by kafka-clients
+    static class Lz4Codec extends MessageCompressionCodec {
+        @Override
+        public CompressionKind getCompressionKind() {
+            return CompressionKind.LZ4;
+        }
+
+        @Override
+        public byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+
+            try (OutputStream lz4Out = new LZ4FrameOutputStream(out)) {
+                lz4Out.write(bytes);
+            } catch (IOException e) {
+                LOG.error("lz4Compress(): error compressing {} bytes", bytes.length, e);
+
+                throw new RuntimeException(e);
+            }
+
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] uncompress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+
+            try (InputStream lz4In = new LZ4FrameInputStream(new ByteArrayInputStream(bytes))) {
+                IOUtils.copy(lz4In, out);
+            } catch (IOException e) {
+                LOG.error("lz4Uncompress(): error uncompressing {} bytes", bytes.length, e);
+
+                throw new RuntimeException(e);
+            }
+
+            return out.toByteArray();
+        }
+    }
+}
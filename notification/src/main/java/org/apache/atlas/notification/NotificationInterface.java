@@ -98,6 +98,21 @@ public interface NotificationInterface {
      */
     <T> void send(NotificationType type, List<T> messages) throws NotificationException;
 
+    /**
+     * Send the given messages with the given key. Messages sent with the same key are delivered to
+     * consumers in the order they were sent; messages without a key can be delivered in any order.
+     *
+     * @param type        the message type
+     * @param messages    the list of messages to send
+     * @param messageKey  key used to route the messages, typically qualifiedName of the owning entity; can be null
+     * @param <T>         the message type
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    default <T> void send(NotificationType type, List<T> messages, String messageKey) throws NotificationException {
+        send(type, messages);
+    }
+
     /**
      * Shutdown any notification producers and consumers associated with this interface instance.
      */
@@ -49,13 +49,7 @@ public class EntityMessageDeserializer extends AbstractMessageDeserializer<Entit
     }
 
     @Override
-    public EntityNotification deserialize(String messageJson) {
-        final EntityNotification ret = super.deserialize(messageJson);
-
-        if (ret != null) {
-            ret.normalize();
-        }
-
-        return ret;
+    protected void normalize(EntityNotification message) {
+        message.normalize();
     }
 }
@@ -51,13 +51,7 @@ public class HookMessageDeserializer extends AbstractMessageDeserializer<HookNot
     }
 
     @Override
-    public HookNotification deserialize(String messageJson) {
-        final HookNotification ret = super.deserialize(messageJson);
-
-        if (ret != null) {
-            ret.normalize();
-        }
-
-        return ret;
+    protected void normalize(HookNotification message) {
+        message.normalize();
     }
 }
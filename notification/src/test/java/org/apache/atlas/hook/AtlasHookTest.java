@@ -76,6 +76,20 @@ public class AtlasHookTest {
                 send(NotificationInterface.NotificationType.HOOK, hookNotifications);
     }
 
+    @Test
+    public void testNotifyEntitiesWithMessageKey() throws NotificationException {
+        List<HookNotification> hookNotifications =
+                new ArrayList<HookNotification>() {{
+                    add(new EntityCreateRequest("user"));
+                }
+            };
+        AtlasHook.notifyEntitiesInternal(hookNotifications, 2, null, notificationInterface, false,
+                failedMessagesLogger, "default@cl1");
+
+        verify(notificationInterface, times(1)).
+                send(NotificationInterface.NotificationType.HOOK, hookNotifications, "default@cl1");
+    }
+
     @Test
     public void testFailedMessageIsLoggedIfRequired() throws NotificationException {
         List<HookNotification> hookNotifications =
@@ -95,6 +95,33 @@ public class KafkaNotificationMockTest {
         verify(producer).send(expectedRecord);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSendMessagesWithKey() throws NotificationException,
+            ExecutionException, InterruptedException {
+        Properties configProperties = mock(Properties.class);
+        KafkaNotification kafkaNotification = new KafkaNotification(configProperties);
+
+        Producer producer = mock(Producer.class);
+        String topicName = kafkaNotification.getProducerTopicName(NotificationInterface.NotificationType.HOOK);
+        String messageKey = "default@cl1";
+        String message1 = "This is a test message1";
+        String message2 = "This is a test message2";
+        Future returnValue = mock(Future.class);
+        TopicPartition topicPartition = new TopicPartition(topicName, 0);
+        when(returnValue.get()).thenReturn(new RecordMetadata(topicPartition, 0, 0, 0, Long.valueOf(0), 0, 0));
+        ProducerRecord expectedRecord1 = new ProducerRecord(topicName, messageKey, message1);
+        ProducerRecord expectedRecord2 = new ProducerRecord(topicName, messageKey, message2);
+        when(producer.send(expectedRecord1)).thenReturn(returnValue);
+        when(producer.send(expectedRecord2)).thenReturn(returnValue);
+
+        kafkaNotification.sendInternalToProducer(producer,
+                NotificationInterface.NotificationType.HOOK, Arrays.asList(message1, message2), messageKey);
+
+        verify(producer).send(expectedRecord1);
+        verify(producer).send(expectedRecord2);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void shouldThrowExceptionIfProducerFails() throws NotificationException,
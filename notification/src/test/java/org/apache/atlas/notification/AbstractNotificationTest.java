@@ -119,6 +119,18 @@ public class AbstractNotificationTest {
             messages = notificationMessages;
         }
 
+        @Override
+        protected void sendBinaryInternal(NotificationType notificationType, List<byte[]> notificationMessages)
+            throws NotificationException {
+
+            type     = notificationType;
+            messages = new ArrayList<>(notificationMessages.size());
+
+            for (byte[] notificationMessage : notificationMessages) {
+                messages.add(AtlasNotificationBinaryMessage.getMessageJson(notificationMessage));
+            }
+        }
+
         @Override
         public <T> List<NotificationConsumer<T>> createConsumers(NotificationType notificationType, int numConsumers) {
             return null;
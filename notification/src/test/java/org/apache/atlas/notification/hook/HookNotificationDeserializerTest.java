@@ -18,7 +18,14 @@
 
 package org.apache.atlas.notification.hook;
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+import org.apache.atlas.model.notification.AtlasNotificationMessage;
+import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.MessageVersion;
+import org.apache.atlas.notification.AtlasNotificationBinaryMessage;
+import org.apache.atlas.notification.MessageCompressionCodec;
 import org.apache.atlas.notification.entity.EntityNotificationTest;
 import org.apache.atlas.v1.model.instance.Referenceable;
 import org.apache.atlas.v1.model.instance.Struct;
@@ -34,6 +41,7 @@ import java.util.List;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -101,6 +109,114 @@ public class HookNotificationDeserializerTest {
         assertEqualMessage(deserializedMessage, message);
     }
 
+    @Test
+    public void testDeserializeBinaryMessage() throws Exception {
+        Referenceable       entity      = generateEntityWithTrait();
+        EntityUpdateRequest message     = new EntityUpdateRequest("user1", entity);
+        List<byte[]>        binMsgList  = new ArrayList<>();
+
+        AbstractNotification.createNotificationPayloads(message, binMsgList);
+
+        assertEquals(binMsgList.size(), 1);
+        assertTrue(AtlasNotificationBinaryMessage.isBinaryMessage(binMsgList.get(0)));
+        assertEquals(AtlasNotificationBinaryMessage.getCompressionKind(binMsgList.get(0)), CompressionKind.NONE);
+
+        HookNotification deserializedMessage = deserializeBinary(binMsgList);
+
+        assertEqualMessage(deserializedMessage, message);
+    }
+
+    @Test
+    public void testDeserializeCompressedBinaryMessage() throws Exception {
+        Referenceable       entity      = generateLargeEntityWithTrait();
+        EntityUpdateRequest message     = new EntityUpdateRequest("user1", entity);
+        List<byte[]>        binMsgList  = new ArrayList<>();
+        List<String>        jsonMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationPayloads(message, binMsgList);
+        AbstractNotification.createNotificationMessages(message, jsonMsgList);
+
+        assertEquals(binMsgList.size(), 1);
+        assertTrue(AtlasNotificationBinaryMessage.isBinaryMessage(binMsgList.get(0)));
+        assertEquals(AtlasNotificationBinaryMessage.getCompressionKind(binMsgList.get(0)), MessageCompressionCodec.getConfiguredCodec().getCompressionKind());
+
+        int binaryMsgLength = binMsgList.get(0).length;
+        int jsonMsgLength   = jsonMsgList.get(0).length();
+
+        assertTrue(binaryMsgLength < jsonMsgLength, "Binary message (" + binaryMsgLength + ") should be shorter than JSON message (" + jsonMsgLength + ")");
+
+        HookNotification deserializedMessage = deserializeBinary(binMsgList);
+
+        assertEqualMessage(deserializedMessage, message);
+    }
+
+    @Test
+    public void testDeserializeSplitBinaryMessage() throws Exception {
+        Referenceable       entity     = generateVeryLargeEntityWithTrait();
+        EntityUpdateRequest message    = new EntityUpdateRequest("user1", entity);
+        List<byte[]>        binMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationPayloads(message, binMsgList);
+
+        assertTrue(binMsgList.size() > 1);
+
+        HookNotification deserializedMessage = deserializeBinary(binMsgList);
+
+        assertEqualMessage(deserializedMessage, message);
+    }
+
+    @Test
+    public void testDeserializeJsonMessageBytes() throws Exception {
+        Referenceable       entity      = generateEntityWithTrait();
+        EntityUpdateRequest message     = new EntityUpdateRequest("user1", entity);
+        List<String>        jsonMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, jsonMsgList);
+
+        HookNotification deserializedMessage = deserializer.deserialize(AtlasNotificationBaseMessage.getBytesUtf8(jsonMsgList.get(0)));
+
+        assertEqualMessage(deserializedMessage, message);
+    }
+
+    @Test
+    public void testDeserializeLz4CompressedMessages() throws Exception {
+        Referenceable           entity   = generateLargeEntityWithTrait();
+        EntityUpdateRequest     message  = new EntityUpdateRequest("user1", entity);
+        MessageCompressionCodec codec    = MessageCompressionCodec.getCodec(CompressionKind.LZ4);
+        String                  msgJson  = AtlasType.toV1Json(new AtlasNotificationMessage<>(MessageVersion.CURRENT_VERSION, message));
+        byte[]                  msgBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
+        byte[]                  lz4Bytes = codec.compress(msgBytes);
+
+        assertTrue(lz4Bytes.length < msgBytes.length);
+
+        byte[] binaryMsg = AtlasNotificationBinaryMessage.encode(CompressionKind.LZ4, lz4Bytes);
+
+        assertEqualMessage(deserializer.deserialize(binaryMsg), message);
+
+        AtlasNotificationStringMessage compressedMsg = new AtlasNotificationStringMessage(AtlasNotificationBaseMessage.encodeBase64(lz4Bytes), "msg-lz4", CompressionKind.LZ4);
+
+        assertEqualMessage(deserializer.deserialize(AtlasType.toV1Json(compressedMsg)), message);
+    }
+
+    // envelope fields are read in a single pass, hence must be handled in any order
+    @Test
+    public void testDeserializeEnvelopeFieldsInAnyOrder() throws Exception {
+        Referenceable       entity  = generateEntityWithTrait();
+        EntityUpdateRequest message = new EntityUpdateRequest("user1", entity);
+        String              msgJson = "{\"message\":" + AtlasType.toV1Json(message) +
+                                      ",\"msgCreatedBy\":\"user1\",\"unknownField\":{\"a\":[1,2]}" +
+                                      ",\"version\":" + AtlasType.toV1Json(MessageVersion.CURRENT_VERSION) + "}";
+
+        assertEqualMessage(deserializer.deserialize(msgJson), message);
+        assertEqualMessage(deserializer.deserialize(AtlasNotificationBaseMessage.getBytesUtf8(msgJson)), message);
+    }
+
+    @Test
+    public void testDeserializeInvalidMessage() {
+        assertNull(deserializer.deserialize("not a json message"));
+        assertNull(deserializer.deserialize("[]"));
+    }
+
     private Referenceable generateEntityWithTrait() {
         Referenceable ret = EntityNotificationTest.getEntity("id", new Struct("MyTrait", Collections.<String, Object>emptyMap()));
 
@@ -121,6 +237,20 @@ public class HookNotificationDeserializerTest {
         return deserializedMessage;
     }
 
+    private HookNotification deserializeBinary(List<byte[]> binMsgList) {
+        HookNotification deserializedMessage = null;
+
+        for (byte[] binMsg : binMsgList) {
+            deserializedMessage = deserializer.deserialize(binMsg);
+
+            if (deserializedMessage != null) {
+                break;
+            }
+        }
+
+        return deserializedMessage;
+    }
+
     private void assertEqualMessage(HookNotification deserializedMessage, EntityUpdateRequest message) throws Exception {
         assertNotNull(deserializedMessage);
         assertEquals(deserializedMessage.getType(), message.getType());
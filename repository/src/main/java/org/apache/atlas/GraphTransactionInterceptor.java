@@ -119,23 +119,7 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
                 innerFailure.set(Boolean.FALSE);
                 guidVertexCache.get().clear();
 
-                List<PostTransactionHook> trxHooks = postTransactionHooks.get();
-
-                if (trxHooks != null) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Processing post-txn hooks");
-                    }
-
-                    postTransactionHooks.remove();
-
-                    for (PostTransactionHook trxHook : trxHooks) {
-                        try {
-                            trxHook.onComplete(isSuccess);
-                        } catch (Throwable t) {
-                            LOG.error("postTransactionHook failed", t);
-                        }
-                    }
-                }
+                runPostTransactionHooks(isSuccess);
             }
 
             OBJECT_UPDATE_SYNCHRONIZER.releaseLockedObjects();
@@ -203,6 +187,50 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
         guidVertexCache.get().clear();
     }
 
+    /**
+     * @return true if the current thread is executing within a GraphTransaction method; post-transaction hooks are run
+     * only when such a transaction completes
+     */
+    public static boolean isTransactionOpen() {
+        return isTxnOpen.get();
+    }
+
+    /**
+     * Completes a transaction that was committed or rolled back by the caller directly, instead of through a
+     * GraphTransaction method - like batches committed by background tasks and bulk import. Clears the vertex cache
+     * and runs the post-transaction hooks registered during the transaction, for example to send entity notifications.
+     * When called within a GraphTransaction method, the hooks are left to be run when that transaction completes.
+     */
+    public static void onTransactionComplete(boolean isSuccess) {
+        if (isTxnOpen.get()) {
+            return;
+        }
+
+        guidVertexCache.get().clear();
+
+        runPostTransactionHooks(isSuccess);
+    }
+
+    private static void runPostTransactionHooks(boolean isSuccess) {
+        List<PostTransactionHook> trxHooks = postTransactionHooks.get();
+
+        if (trxHooks != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Processing post-txn hooks");
+            }
+
+            postTransactionHooks.remove();
+
+            for (PostTransactionHook trxHook : trxHooks) {
+                try {
+                    trxHook.onComplete(isSuccess);
+                } catch (Throwable t) {
+                    LOG.error("postTransactionHook failed", t);
+                }
+            }
+        }
+    }
+
     boolean logException(Throwable t) {
         if (t instanceof AtlasBaseException) {
             Response.Status httpCode = ((AtlasBaseException) t).getAtlasErrorCode().getHttpCode();
@@ -212,18 +212,26 @@ public class ClassificationSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
+            final SearchCursor cursor   = context.getResumeCursor();
+            final int          startIdx = cursor != null ? cursor.getSkipCount() : context.getSearchParameters().getOffset();
+            final int          limit    = context.getSearchParameters().getLimit();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like non-active-entities or duplicate-entities (same entity pointed to by multiple
             // classifications in the result)
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
-
-            final Set<String>       processedGuids         = new HashSet<>();
+            //
+            // when continuing from a cursor, query starts at the recorded offset and 'startIdx' entries from there are ignored
+            int qryOffset = cursor != null ? cursor.getQueryOffset() : 0;
+            int resultIdx = 0;
+
+            // entities pointed to by classifications in query pages before the cursor were returned (or filtered out) in
+            // earlier pages; the cursor carries guids of such entities that have more than one classification, as only
+            // these can be reached again from a later page
+            final Set<String>       carriedGuids           = cursor != null ? new LinkedHashSet<>(cursor.getProcessedGuids()) : new LinkedHashSet<>();
+            final Set<String>       processedGuids         = new HashSet<>(carriedGuids);
+            final List<String>      pageCarriedGuids       = new ArrayList<>();
             final List<AtlasVertex> entityVertices         = new ArrayList<>();
             final List<AtlasVertex> classificationVertices = new ArrayList<>();
 
@@ -233,6 +241,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             for (; ret.size() < limit; qryOffset += limit) {
                 entityVertices.clear();
                 classificationVertices.clear();
+                pageCarriedGuids.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -298,6 +307,10 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                             entityVertices.add(entityVertex);
 
                             processedGuids.add(guid);
+
+                            if (hasMultipleClassifications(entityVertex)) {
+                                pageCarriedGuids.add(guid);
+                            }
                         }
                     }
                 }
@@ -313,8 +326,23 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                final int pageStartIdx = resultIdx;
+
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                updateNextCursor(qryOffset, limit, pageStartIdx, resultIdx, entityVertices.size(), isLastResultPage);
+
+                // a cursor within this page resumes by re-reading the page, hence carries only guids from earlier pages
+                final SearchCursor nextCursor = context.getNextCursor();
+
+                if (nextCursor == null || nextCursor.getQueryOffset() != qryOffset) {
+                    carriedGuids.addAll(pageCarriedGuids);
+                }
+
+                if (nextCursor != null && !carriedGuids.isEmpty()) {
+                    context.setNextCursor(new SearchCursor(nextCursor.getQueryOffset(), nextCursor.getSkipCount(), new LinkedHashSet<>(carriedGuids)));
+                }
+
                 if (isLastResultPage) {
                     break;
                 }
@@ -386,4 +414,16 @@ public class ClassificationSearchProcessor extends SearchProcessor {
     public long getResultCount() {
         return (indexQuery != null) ? indexQuery.vertexTotals() : -1;
     }
+
+    private static boolean hasMultipleClassifications(AtlasVertex entityVertex) {
+        Iterator<AtlasEdge> edges = entityVertex.getEdges(AtlasEdgeDirection.OUT, Constants.CLASSIFICATION_LABEL).iterator();
+
+        if (edges.hasNext()) {
+            edges.next();
+
+            return edges.hasNext();
+        }
+
+        return false;
+    }
 }
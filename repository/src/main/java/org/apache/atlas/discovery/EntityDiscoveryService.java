@@ -19,6 +19,7 @@ package org.apache.atlas.discovery;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.SortOrder;
@@ -34,7 +35,7 @@ import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.profile.AtlasUserSavedSearch;
-import org.apache.atlas.query.AtlasDSL;
+import org.apache.atlas.query.DSLQueryCache;
 import org.apache.atlas.query.GremlinQuery;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.repository.Constants;
@@ -96,13 +97,16 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final String                          indexSearchPrefix;
     private final UserProfileService              userProfileService;
     private final SuggestionsProvider             suggestionsProvider;
+    private final DSLQueryCache                   dslQueryCache;
 
     @Inject
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph,
                            GraphBackedSearchIndexer indexer,
                            SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService,
+                           DSLQueryCache dslQueryCache,
+                           SuggestionsIndexService suggestionsIndexService) throws AtlasException {
         this.graph                    = graph;
         this.entityRetriever          = new EntityGraphRetriever(this.graph, typeRegistry);
         this.indexer                  = indexer;
@@ -114,7 +118,8 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         this.maxTagsLengthInIdxQuery  = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
         this.indexSearchPrefix        = AtlasGraphUtilsV2.getIndexSearchPrefix();
         this.userProfileService       = userProfileService;
-        this.suggestionsProvider      = new SuggestionsProviderImpl(graph, typeRegistry);
+        this.suggestionsProvider      = new SuggestionsProviderImpl(graph, typeRegistry, suggestionsIndexService);
+        this.dslQueryCache            = dslQueryCache;
     }
 
     @Override
@@ -128,6 +133,20 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
             LOG.debug("Executing DSL: query={}, gremlinQuery={}", dslQuery, queryStr);
         }
 
+        if (gremlinQuery.isTraversalSupported() && AtlasConfiguration.SEARCH_DSL_TRAVERSAL_ENABLED.getBoolean()) {
+            List<AtlasVertex> vertices = executeAsTraversal(dslQuery, gremlinQuery);
+
+            entityRetriever.prefetchEntityHeaders(vertices, true);
+
+            for (AtlasVertex vertex : vertices) {
+                ret.addEntity(entityRetriever.toAtlasEntityHeaderWithClassifications(vertex));
+            }
+
+            scrubSearchResults(ret);
+
+            return ret;
+        }
+
         Object result = graph.executeGremlinScript(queryStr, false);
 
         if (result instanceof List && CollectionUtils.isNotEmpty((List)result)) {
@@ -135,6 +154,16 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
             Object firstElement = queryResult.get(0);
 
             if (firstElement instanceof AtlasVertex) {
+                List<AtlasVertex> vertices = new ArrayList<>(queryResult.size());
+
+                for (Object element : queryResult) {
+                    if (element instanceof AtlasVertex) {
+                        vertices.add((AtlasVertex) element);
+                    }
+                }
+
+                entityRetriever.prefetchEntityHeaders(vertices, true);
+
                 for (Object element : queryResult) {
                     if (element instanceof AtlasVertex) {
                         ret.addEntity(entityRetriever.toAtlasEntityHeaderWithClassifications((AtlasVertex)element));
@@ -173,6 +202,39 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
+    private List<AtlasVertex> executeAsTraversal(String dslQuery, GremlinQuery gremlinQuery) throws AtlasBaseException {
+        long              startTime = System.nanoTime();
+        List<AtlasVertex> ret       = gremlinQuery.toTraversal(graph).getAtlasVertexList();
+
+        if (AtlasConfiguration.SEARCH_DSL_TRAVERSAL_COMPARE_ENABLED.getBoolean()) {
+            long   traversalTime = System.nanoTime() - startTime;
+            long   scriptStart   = System.nanoTime();
+            Object scriptResult  = graph.executeGremlinScript(gremlinQuery.queryStr(), false);
+            long   scriptTime    = System.nanoTime() - scriptStart;
+            List   scriptList    = scriptResult instanceof List ? (List) scriptResult : Collections.emptyList();
+
+            if (!getVertexIds(ret).equals(getVertexIds(scriptList))) {
+                LOG.warn("searchUsingDslQuery({}): traversal and gremlin script results differ: traversalResultCount={}, scriptResultCount={}, gremlinQuery={}",
+                         dslQuery, ret.size(), scriptList.size(), gremlinQuery.queryStr());
+            } else {
+                LOG.info("searchUsingDslQuery({}): traversal and gremlin script results match: resultCount={}, traversalTimeMs={}, scriptTimeMs={}",
+                         dslQuery, ret.size(), traversalTime / 1000000d, scriptTime / 1000000d);
+            }
+        }
+
+        return ret;
+    }
+
+    private List<Object> getVertexIds(List vertices) {
+        List<Object> ret = new ArrayList<>(vertices.size());
+
+        for (Object vertex : vertices) {
+            ret.add(vertex instanceof AtlasVertex ? ((AtlasVertex) vertex).getId() : vertex);
+        }
+
+        return ret;
+    }
+
     @Override
     @GraphTransaction
     public AtlasSearchResult searchUsingFullTextQuery(String fullTextQuery, boolean excludeDeletedEntities, int limit, int offset)
@@ -477,6 +539,10 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
             ret.setApproximateCount(searchContext.getSearchProcessor().getResultCount());
 
+            if (searchContext.getNextCursor() != null) {
+                ret.setContinuationToken(searchContext.getNextCursor().toToken(searchParameters));
+            }
+
             // By default any attribute that shows up in the search parameter should be sent back in the response
             // If additional values are requested then the entityAttributes will be a superset of the all search attributes
             // and the explicitly requested attribute(s)
@@ -516,6 +582,8 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                 }
             }
 
+            entityRetriever.prefetchEntityHeaders(resultList, searchParameters.getIncludeClassificationAttributes());
+
             for (AtlasVertex atlasVertex : resultList) {
                 AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(atlasVertex, resultAttributes);
 
@@ -757,7 +825,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
     private GremlinQuery toGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
         QueryParams                 params       = QueryParams.getNormalizedParams(limit, offset);
-        GremlinQuery                gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, params.offset(), params.limit()).translate();
+        GremlinQuery                gremlinQuery = dslQueryCache.getGremlinQuery(query, params.offset(), params.limit());
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("Translated Gremlin Query: {}", gremlinQuery.queryStr());
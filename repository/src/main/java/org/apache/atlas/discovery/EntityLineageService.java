@@ -32,7 +32,9 @@ import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.lineage.AtlasLineageInfo;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageInfoOnDemand;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.model.lineage.LineageOnDemandConstraints;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
@@ -55,8 +57,11 @@ import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -101,6 +106,12 @@ public class EntityLineageService implements AtlasLineageService {
     @Override
     @GraphTransaction
     public AtlasLineageInfo getAtlasLineageInfo(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
+        return getAtlasLineageInfo(guid, direction, depth, new LineageOnDemandConstraints());
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasLineageInfo getAtlasLineageInfo(String guid, LineageDirection direction, int depth, LineageOnDemandConstraints constraints) throws AtlasBaseException {
         AtlasLineageInfo ret;
 
         AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeaderWithClassifications(guid);
@@ -126,7 +137,7 @@ public class EntityLineageService implements AtlasLineageService {
         if (LINEAGE_USING_GREMLIN) {
             ret = getLineageInfoV1(guid, direction, depth, isDataSet);
         } else {
-            ret = getLineageInfoV2(guid, direction, depth, isDataSet);
+            ret = getLineageInfoV2(guid, direction, depth, isDataSet, new LineageContext(constraints));
         }
 
         return ret;
@@ -251,122 +262,221 @@ public class EntityLineageService implements AtlasLineageService {
         return new AtlasLineageInfo(guid, entities, relations, direction, depth);
     }
 
-    private AtlasLineageInfo getLineageInfoV2(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
-        AtlasLineageInfo ret = initializeLineageInfo(guid, direction, depth);
+    private AtlasLineageInfo getLineageInfoV2(String guid, LineageDirection direction, int depth, boolean isDataSet, LineageContext context) throws AtlasBaseException {
+        AtlasLineageInfo ret         = initializeLineageInfo(guid, direction, depth);
+        AtlasVertex      startVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+
+        ret.setRelationsOnDemand(new HashMap<>());
 
         if (depth == 0) {
             depth = -1;
         }
 
-        if (isDataSet) {
-            AtlasVertex datasetVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+        if (direction == INPUT || direction == BOTH) {
+            traverseLineage(startVertex, isDataSet, true, depth, context, ret);
+        }
 
-            if (direction == INPUT || direction == BOTH) {
-                traverseEdges(datasetVertex, true, depth, ret);
-            }
+        if (direction == OUTPUT || direction == BOTH) {
+            traverseLineage(startVertex, isDataSet, false, depth, context, ret);
+        }
 
-            if (direction == OUTPUT || direction == BOTH) {
-                traverseEdges(datasetVertex, false, depth, ret);
-            }
-        } else  {
-            AtlasVertex processVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
+        return ret;
+    }
+
+    /*
+     * Breadth-first traversal of lineage in one direction. Each level expands datasets in the frontier to their processes,
+     * and the processes to their datasets - which form the frontier of the next level. Edges of all vertices in a level are
+     * retrieved with one query per hop; headers of entities reached in a level are created after the level is expanded.
+     *
+     * At most relationsLimit processes of a dataset, and at most relationsLimit datasets of a process, are expanded. Entities
+     * with more relations than expanded, either due to the limit or due to the node budget, are marked in relationsOnDemand.
+     */
+    private void traverseLineage(AtlasVertex startVertex, boolean isDataSet, boolean isInput, int depth, LineageContext context, AtlasLineageInfo ret) throws AtlasBaseException {
+        String            incomingLabel   = isInput ? PROCESS_OUTPUTS_EDGE : PROCESS_INPUTS_EDGE;
+        String            outgoingLabel   = isInput ? PROCESS_INPUTS_EDGE : PROCESS_OUTPUTS_EDGE;
+        int               relationsLimit  = context.getRelationsLimit(isInput);
+        Set<Object>       visitedVertices = new HashSet<>(); // ids of visited vertices, to avoid circular loop
+        List<AtlasVertex> frontier        = new ArrayList<>();
+
+        visitedVertices.add(startVertex.getId());
 
+        if (isDataSet) {
+            frontier.add(startVertex);
+        } else {
             // make one hop to the next dataset vertices from process vertex and traverse with 'depth = depth - 1'
-            if (direction == INPUT || direction == BOTH) {
-                Iterable<AtlasEdge> processEdges = processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_INPUTS_EDGE);
+            List<AtlasEdge> levelEdges   = new ArrayList<>();
+            List<AtlasEdge> processEdges = getEdges(Collections.singletonList(startVertex), OUT, outgoingLabel).get(startVertex);
+
+            expandProcess(startVertex, processEdges, context.getRelationsOffset(isInput), null, null, isInput, context, ret, levelEdges, visitedVertices, frontier);
 
-                for (AtlasEdge processEdge : processEdges) {
-                    addEdgeToResult(processEdge, ret);
+            addEdgesToResult(levelEdges, context, ret);
 
-                    AtlasVertex datasetVertex = processEdge.getInVertex();
+            depth--;
+        }
 
-                    traverseEdges(datasetVertex, true, depth - 1, ret);
+        for (int level = 0; !frontier.isEmpty() && level != depth; level++) {
+            int                               relationsOffset = (isDataSet && level == 0) ? context.getRelationsOffset(isInput) : 0;
+            Map<AtlasVertex, List<AtlasEdge>> datasetEdges    = getEdges(frontier, IN, incomingLabel);
+            Set<AtlasVertex>                  processVertices = new LinkedHashSet<>();
+            List<AtlasVertex>                 nextFrontier    = new ArrayList<>();
+            List<AtlasEdge>                   levelEdges      = new ArrayList<>();
+
+            for (AtlasVertex datasetVertex : frontier) {
+                List<AtlasEdge> incomingEdges = datasetEdges.getOrDefault(datasetVertex, Collections.emptyList());
+
+                for (int i = relationsOffset; i < incomingEdges.size() && i < relationsOffset + relationsLimit; i++) {
+                    processVertices.add(incomingEdges.get(i).getOutVertex());
                 }
             }
 
-            if (direction == OUTPUT || direction == BOTH) {
-                Iterable<AtlasEdge> processEdges = processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_OUTPUTS_EDGE);
+            Map<AtlasVertex, List<AtlasEdge>> processEdges = getEdges(processVertices, OUT, outgoingLabel);
+
+            for (AtlasVertex datasetVertex : frontier) {
+                List<AtlasEdge> incomingEdges    = datasetEdges.getOrDefault(datasetVertex, Collections.emptyList());
+                int             relationsCount   = 0;
+                boolean         hasMoreRelations = false;
+
+                for (int i = relationsOffset; i < incomingEdges.size(); i++) {
+                    if (relationsCount >= relationsLimit || context.isNodeLimitReached()) {
+                        hasMoreRelations = true;
+
+                        break;
+                    }
+
+                    AtlasEdge   incomingEdge  = incomingEdges.get(i);
+                    AtlasVertex processVertex = incomingEdge.getOutVertex();
 
-                for (AtlasEdge processEdge : processEdges) {
-                    addEdgeToResult(processEdge, ret);
+                    if (!expandProcess(processVertex, processEdges.get(processVertex), 0, datasetVertex, incomingEdge, isInput, context, ret, levelEdges, visitedVertices, nextFrontier)) {
+                        hasMoreRelations = true; // process not included, due to node budget
 
-                    AtlasVertex datasetVertex = processEdge.getInVertex();
+                        break;
+                    }
 
-                    traverseEdges(datasetVertex, false, depth - 1, ret);
+                    relationsCount++;
                 }
+
+                updateRelationsOnDemand(ret, datasetVertex, isInput, relationsCount, hasMoreRelations);
             }
-        }
 
-        return ret;
-    }
+            addEdgesToResult(levelEdges, context, ret);
 
-    private void traverseEdges(AtlasVertex datasetVertex, boolean isInput, int depth, AtlasLineageInfo ret) throws AtlasBaseException {
-        traverseEdges(datasetVertex, isInput, depth, new HashSet<>(), ret);
+            frontier = nextFrontier;
+        }
     }
 
-    private void traverseEdges(AtlasVertex datasetVertex, boolean isInput, int depth, Set<String> visitedVertices, AtlasLineageInfo ret) throws AtlasBaseException {
-        if (depth != 0) {
-            // keep track of visited vertices to avoid circular loop
-            visitedVertices.add(getId(datasetVertex));
+    /*
+     * Adds edges from the process to datasets, along with the edge from datasetVertex to the process, to levelEdges; datasets
+     * not visited earlier are added to nextFrontier.
+     *
+     * @return false if the process could not be included in the lineage due to node budget
+     */
+    private boolean expandProcess(AtlasVertex processVertex, List<AtlasEdge> outgoingEdges, int relationsOffset, AtlasVertex datasetVertex, AtlasEdge incomingEdge,
+                                  boolean isInput, LineageContext context, AtlasLineageInfo ret, List<AtlasEdge> levelEdges,
+                                  Set<Object> visitedVertices, List<AtlasVertex> nextFrontier) {
+        int     relationsLimit   = context.getRelationsLimit(isInput);
+        int     relationsCount   = 0;
+        boolean hasMoreRelations = false;
+
+        if (outgoingEdges != null) {
+            for (int i = relationsOffset; i < outgoingEdges.size(); i++) {
+                if (relationsCount >= relationsLimit || context.isNodeLimitReached()) {
+                    hasMoreRelations = true;
+
+                    break;
+                }
+
+                AtlasEdge   outgoingEdge = outgoingEdges.get(i);
+                AtlasVertex entityVertex = outgoingEdge.getInVertex();
 
-            Iterable<AtlasEdge> incomingEdges = datasetVertex.getEdges(IN, isInput ? PROCESS_OUTPUTS_EDGE : PROCESS_INPUTS_EDGE);
+                if (entityVertex == null) {
+                    continue;
+                }
 
-            for (AtlasEdge incomingEdge : incomingEdges) {
-                AtlasVertex         processVertex = incomingEdge.getOutVertex();
-                Iterable<AtlasEdge> outgoingEdges = processVertex.getEdges(OUT, isInput ? PROCESS_INPUTS_EDGE : PROCESS_OUTPUTS_EDGE);
+                if (!context.addVertices(datasetVertex, processVertex, entityVertex)) {
+                    hasMoreRelations = true;
 
-                for (AtlasEdge outgoingEdge : outgoingEdges) {
-                    AtlasVertex entityVertex = outgoingEdge.getInVertex();
+                    break;
+                }
 
-                    if (entityVertex != null) {
-                        addEdgeToResult(incomingEdge, ret);
-                        addEdgeToResult(outgoingEdge, ret);
+                if (incomingEdge != null) {
+                    levelEdges.add(incomingEdge);
+                }
 
-                        if (!visitedVertices.contains(getId(entityVertex))) {
-                            traverseEdges(entityVertex, isInput, depth - 1, visitedVertices, ret);
-                        }
-                    }
+                levelEdges.add(outgoingEdge);
+
+                relationsCount++;
+
+                if (visitedVertices.add(entityVertex.getId())) {
+                    nextFrontier.add(entityVertex);
                 }
             }
         }
+
+        boolean isIncluded = relationsCount > 0 || !hasMoreRelations;
+
+        if (isIncluded || incomingEdge == null) {
+            updateRelationsOnDemand(ret, processVertex, isInput, relationsCount, hasMoreRelations);
+        }
+
+        return isIncluded;
     }
 
-    private void addEdgeToResult(AtlasEdge edge, AtlasLineageInfo lineageInfo) throws AtlasBaseException {
-        if (!lineageContainsEdge(lineageInfo, edge)) {
-            processEdge(edge, lineageInfo);
+    private Map<AtlasVertex, List<AtlasEdge>> getEdges(Collection<AtlasVertex> vertices, AtlasEdgeDirection direction, String edgeLabel) {
+        if (vertices.isEmpty()) {
+            return Collections.emptyMap();
         }
+
+        return graph.getEdges(vertices, direction, edgeLabel);
     }
 
-    private boolean lineageContainsEdge(AtlasLineageInfo lineageInfo, AtlasEdge edge) {
-        boolean ret = false;
+    // creates relations, and headers of entities not already in the lineage, for edges added in a level of traversal
+    private void addEdgesToResult(List<AtlasEdge> edges, LineageContext context, AtlasLineageInfo ret) throws AtlasBaseException {
+        List<AtlasEdge>   newEdges    = new ArrayList<>();
+        List<AtlasVertex> newVertices = new ArrayList<>();
 
-        if (lineageInfo != null && CollectionUtils.isNotEmpty(lineageInfo.getRelations()) && edge != null) {
-            String               relationGuid = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
-            Set<LineageRelation> relations    = lineageInfo.getRelations();
+        for (AtlasEdge edge : edges) {
+            if (context.addEdge(edge)) {
+                newEdges.add(edge);
 
-            for (LineageRelation relation : relations) {
-                if (relation.getRelationshipId().equals(relationGuid)) {
-                    ret = true;
-                    break;
+                if (context.addHeaderVertex(edge.getInVertex())) {
+                    newVertices.add(edge.getInVertex());
+                }
+
+                if (context.addHeaderVertex(edge.getOutVertex())) {
+                    newVertices.add(edge.getOutVertex());
                 }
             }
         }
 
-        return ret;
+        entityRetriever.prefetchEntityHeaders(newVertices, false);
+
+        for (AtlasEdge edge : newEdges) {
+            processEdge(edge, ret.getGuidEntityMap(), ret.getRelations());
+        }
     }
 
-    private void processEdge(final AtlasEdge edge, final AtlasLineageInfo lineageInfo) throws AtlasBaseException {
-        processEdge(edge, lineageInfo.getGuidEntityMap(), lineageInfo.getRelations());
+    private void updateRelationsOnDemand(AtlasLineageInfo ret, AtlasVertex vertex, boolean isInput, int relationsCount, boolean hasMoreRelations) {
+        if (relationsCount == 0 && !hasMoreRelations) {
+            return;
+        }
+
+        String              guid = AtlasGraphUtilsV2.getIdFromVertex(vertex);
+        LineageInfoOnDemand info = ret.getRelationsOnDemand().computeIfAbsent(guid, k -> new LineageInfoOnDemand());
+
+        // an entity can be reached more than once; e.g. a process through each of its input datasets
+        if (isInput) {
+            info.setInputRelationsCount(Math.max(info.getInputRelationsCount(), relationsCount));
+            info.setHasMoreInputs(info.isHasMoreInputs() || hasMoreRelations);
+        } else {
+            info.setOutputRelationsCount(Math.max(info.getOutputRelationsCount(), relationsCount));
+            info.setHasMoreOutputs(info.isHasMoreOutputs() || hasMoreRelations);
+        }
     }
 
     private AtlasLineageInfo initializeLineageInfo(String guid, LineageDirection direction, int depth) {
         return new AtlasLineageInfo(guid, new HashMap<>(), new HashSet<>(), direction, depth);
     }
 
-    private static String getId(AtlasVertex vertex) {
-        return vertex.getIdForDisplay();
-    }
-
     private List executeGremlinScript(Map<String, Object> bindings, String lineageQuery) throws AtlasBaseException {
         List         ret;
         ScriptEngine engine = graph.getGremlinScriptEngine();
@@ -448,4 +558,92 @@ public class EntityLineageService implements AtlasLineageService {
 
         return ret;
     }
-}
\ No newline at end of file
+
+    /**
+     * Limits of a lineage request, resolved against configured defaults; and vertices/edges added to the lineage during traversal.
+     */
+    private static class LineageContext {
+        private final int         inputRelationsLimit;
+        private final int         outputRelationsLimit;
+        private final int         inputRelationsOffset;
+        private final int         outputRelationsOffset;
+        private final int         maxNodeCount;
+        private final Set<Object> lineageVertices    = new HashSet<>(); // vertex ids
+        private final Set<String> lineageEdges       = new HashSet<>();
+        private final Set<Object> headerVertices     = new HashSet<>(); // ids of vertices whose headers are in the lineage
+        private       boolean     isNodeLimitReached = false;
+
+        LineageContext(LineageOnDemandConstraints constraints) {
+            int defaultRelationsLimit = AtlasConfiguration.LINEAGE_DEFAULT_RELATIONS_LIMIT.getInt();
+            int maxNodeCount          = AtlasConfiguration.LINEAGE_MAX_NODE_COUNT.getInt();
+
+            if (defaultRelationsLimit <= 0) {
+                defaultRelationsLimit = Integer.MAX_VALUE;
+            }
+
+            if (maxNodeCount <= 0) {
+                maxNodeCount = Integer.MAX_VALUE;
+            }
+
+            this.inputRelationsLimit   = constraints.getInputRelationsLimit() > 0 ? constraints.getInputRelationsLimit() : defaultRelationsLimit;
+            this.outputRelationsLimit  = constraints.getOutputRelationsLimit() > 0 ? constraints.getOutputRelationsLimit() : defaultRelationsLimit;
+            this.inputRelationsOffset  = Math.max(constraints.getInputRelationsOffset(), 0);
+            this.outputRelationsOffset = Math.max(constraints.getOutputRelationsOffset(), 0);
+            this.maxNodeCount          = constraints.getMaxNodeCount() > 0 ? Math.min(constraints.getMaxNodeCount(), maxNodeCount) : maxNodeCount;
+        }
+
+        int getRelationsLimit(boolean isInput) {
+            return isInput ? inputRelationsLimit : outputRelationsLimit;
+        }
+
+        int getRelationsOffset(boolean isInput) {
+            return isInput ? inputRelationsOffset : outputRelationsOffset;
+        }
+
+        boolean isNodeLimitReached() {
+            return isNodeLimitReached;
+        }
+
+        /**
+         * Adds the vertices to the lineage, if the node budget permits all of them to be added.
+         * @return false if the node budget is exhausted
+         */
+        boolean addVertices(AtlasVertex... vertices) {
+            if (!isNodeLimitReached) {
+                int newVertexCount = 0;
+
+                for (AtlasVertex vertex : vertices) {
+                    if (vertex != null && !lineageVertices.contains(vertex.getId())) {
+                        newVertexCount++;
+                    }
+                }
+
+                if (lineageVertices.size() + newVertexCount > maxNodeCount) {
+                    isNodeLimitReached = true;
+                } else {
+                    for (AtlasVertex vertex : vertices) {
+                        if (vertex != null) {
+                            lineageVertices.add(vertex.getId());
+                        }
+                    }
+                }
+            }
+
+            return !isNodeLimitReached;
+        }
+
+        /**
+         * @return false if the edge was already added to the lineage
+         */
+        boolean addEdge(AtlasEdge edge) {
+            return lineageEdges.add(edge.getIdForDisplay());
+        }
+
+        /**
+         * @return false if the header of the vertex was already added to the lineage
+         */
+        boolean addHeaderVertex(AtlasVertex vertex) {
+            return headerVertices.add(vertex.getId());
+        }
+    }
+}
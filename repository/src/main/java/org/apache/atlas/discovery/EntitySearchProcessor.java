@@ -240,14 +240,25 @@ public class EntitySearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int startIdx = context.getSearchParameters().getOffset();
-            final int limit    = context.getSearchParameters().getLimit();
+            final SearchCursor cursor   = context.getResumeCursor();
+            final int          startIdx = cursor != null ? cursor.getSkipCount() : context.getSearchParameters().getOffset();
+            final int          limit    = context.getSearchParameters().getLimit();
 
             // when subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
-            int resultIdx = qryOffset;
+            //
+            // when continuing from a cursor, query starts at the recorded offset and 'startIdx' entries from there are ignored
+            int qryOffset;
+            int resultIdx;
+
+            if (cursor != null) {
+                qryOffset = cursor.getQueryOffset();
+                resultIdx = 0;
+            } else {
+                qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
+                resultIdx = qryOffset;
+            }
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
@@ -306,8 +317,12 @@ public class EntitySearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                final int pageStartIdx = resultIdx;
+
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                updateNextCursor(qryOffset, limit, pageStartIdx, resultIdx, entityVertices.size(), isLastResultPage);
+
                 if (isLastResultPage) {
                     break;
                 }
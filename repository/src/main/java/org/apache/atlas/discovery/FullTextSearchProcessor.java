@@ -96,16 +96,19 @@ public class FullTextSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final SearchCursor cursor     = context.getResumeCursor();
+            final int          startIdx   = cursor != null ? cursor.getSkipCount() : context.getSearchParameters().getOffset();
+            final int          limit      = context.getSearchParameters().getLimit();
+            final boolean      activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like vertices of non-entity or non-active-entity
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
+            //
+            // when continuing from a cursor, query starts at the recorded offset and 'startIdx' entries from there are ignored
+            int qryOffset = cursor != null ? cursor.getQueryOffset() : 0;
+            int resultIdx = 0;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
@@ -148,8 +151,12 @@ public class FullTextSearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                final int pageStartIdx = resultIdx;
+
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                updateNextCursor(qryOffset, limit, pageStartIdx, resultIdx, entityVertices.size(), isLastResultPage);
+
                 if (isLastResultPage) {
                     break;
                 }
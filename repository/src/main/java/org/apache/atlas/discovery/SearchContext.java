@@ -69,6 +69,8 @@ public class SearchContext {
     private final Set<String>             classificationTypeAndSubTypes;
     private final String                  typeAndSubTypesQryStr;
     private final String                  classificationTypeAndSubTypesQryStr;
+    private final SearchCursor            resumeCursor;
+    private SearchCursor                  nextCursor;
     private boolean                       terminateSearch = false;
     private SearchProcessor               searchProcessor;
 
@@ -89,6 +91,7 @@ public class SearchContext {
         this.entityTypes        = getEntityTypes(searchParameters.getTypeName());
         this.classificationNames = getClassificationNames(searchParameters.getClassification());
         this.classificationTypes = getClassificationTypes(this.classificationNames);
+        this.resumeCursor        = SearchCursor.fromToken(searchParameters.getContinuationToken(), searchParameters);
 
         AtlasVertex glossaryTermVertex = getGlossaryTermVertex(searchParameters.getTermName());
 
@@ -251,6 +254,18 @@ public class SearchContext {
         return ret;
     }
 
+    /**
+     * @return position to continue the search from, as given in searchParameters.continuationToken; null if not specified
+     */
+    public SearchCursor getResumeCursor() { return resumeCursor; }
+
+    /**
+     * @return position from where the next page of results continues; null if there are no more results
+     */
+    public SearchCursor getNextCursor() { return nextCursor; }
+
+    public void setNextCursor(SearchCursor nextCursor) { this.nextCursor = nextCursor; }
+
     public boolean terminateSearch() { return terminateSearch; }
 
     public void terminateSearch(boolean terminateSearch) { this.terminateSearch = terminateSearch; }
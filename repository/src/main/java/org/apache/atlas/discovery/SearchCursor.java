@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.commons.lang.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Position in the results of a basic search, from where the next page of results continues.
+ *
+ * The position is recorded as the offset of the query page (index or graph query of the first search processor) and
+ * the number of results, after all filters in the processor chain, already returned from that page. Resuming from
+ * this position avoids re-reading and re-filtering all earlier pages, as is needed with offset based paging.
+ *
+ * When results are collected from classification vertices, an entity can be reached from more than one classification,
+ * on different query pages. The cursor then also carries guids of such entities reached in earlier query pages, so that
+ * they are not returned again; only entities having more than one classification are recorded.
+ *
+ * The position is handed to clients as an opaque token, which also carries a checksum of the search parameters
+ * (excluding limit and offset) to detect its use with a different search.
+ */
+public class SearchCursor {
+    private static final String TOKEN_VERSION   = "1";
+    private static final String TOKEN_SEPARATOR = ":";
+    private static final String GUID_SEPARATOR  = ",";
+
+    private final int         queryOffset;
+    private final int         skipCount;
+    private final Set<String> processedGuids;
+
+    public SearchCursor(int queryOffset, int skipCount) {
+        this(queryOffset, skipCount, Collections.emptySet());
+    }
+
+    public SearchCursor(int queryOffset, int skipCount, Set<String> processedGuids) {
+        this.queryOffset    = queryOffset;
+        this.skipCount      = skipCount;
+        this.processedGuids = processedGuids;
+    }
+
+    public int getQueryOffset() {
+        return queryOffset;
+    }
+
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    /**
+     * @return guids of entities reached in query pages before queryOffset, that can be reached again in later pages
+     */
+    public Set<String> getProcessedGuids() {
+        return processedGuids;
+    }
+
+    public String toToken(SearchParameters searchParameters) {
+        String token = TOKEN_VERSION + TOKEN_SEPARATOR + queryOffset + TOKEN_SEPARATOR + skipCount + TOKEN_SEPARATOR + getChecksum(searchParameters);
+
+        if (!processedGuids.isEmpty()) {
+            token += TOKEN_SEPARATOR + StringUtils.join(processedGuids, GUID_SEPARATOR);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return cursor from the given token; null if the token is empty
+     * @throws AtlasBaseException if the token is malformed or was not created for the given search parameters
+     */
+    public static SearchCursor fromToken(String token, SearchParameters searchParameters) throws AtlasBaseException {
+        if (StringUtils.isEmpty(token)) {
+            return null;
+        }
+
+        final String[] parts;
+
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(TOKEN_SEPARATOR);
+        } catch (IllegalArgumentException excp) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: malformed value");
+        }
+
+        if ((parts.length != 4 && parts.length != 5) || !TOKEN_VERSION.equals(parts[0])) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: malformed value");
+        }
+
+        if (!parts[3].equals(Long.toString(getChecksum(searchParameters)))) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: does not match the search parameters");
+        }
+
+        try {
+            int queryOffset = Integer.parseInt(parts[1]);
+            int skipCount   = Integer.parseInt(parts[2]);
+
+            if (queryOffset < 0 || skipCount < 0) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: malformed value");
+            }
+
+            Set<String> processedGuids = parts.length == 5 ? new LinkedHashSet<>(Arrays.asList(parts[4].split(GUID_SEPARATOR))) : Collections.emptySet();
+
+            return new SearchCursor(queryOffset, skipCount, processedGuids);
+        } catch (NumberFormatException excp) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: malformed value");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{queryOffset=" + queryOffset + ", skipCount=" + skipCount + ", processedGuids=" + processedGuids.size() + "}";
+    }
+
+    // limit, offset, attributes to return and continuationToken don't change the results order; hence not included
+    private static long getChecksum(SearchParameters searchParameters) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(searchParameters.getQuery()).append('|')
+          .append(searchParameters.getTypeName()).append('|')
+          .append(searchParameters.getClassification()).append('|')
+          .append(searchParameters.getTermName()).append('|')
+          .append(searchParameters.getExcludeDeletedEntities()).append('|')
+          .append(searchParameters.getIncludeSubTypes()).append('|')
+          .append(searchParameters.getIncludeSubClassifications()).append('|')
+          .append(searchParameters.getEntityFilters()).append('|')
+          .append(searchParameters.getTagFilters()).append('|')
+          .append(searchParameters.getSortBy()).append('|')
+          .append(searchParameters.getSortOrder());
+
+        CRC32 crc = new CRC32();
+
+        crc.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        return crc.getValue();
+    }
+}
@@ -195,6 +195,30 @@ public abstract class SearchProcessor {
         return resultIdx;
     }
 
+    /**
+     * Records in the search context the position from where the next page of results continues.
+     * @param qryOffset        offset of the query page just processed
+     * @param limit            size of the query page
+     * @param pageStartIdx     resultIdx before collecting results from this page
+     * @param resultIdx        resultIdx after collecting results from this page
+     * @param pageResultCount  number of results in this page, after filtering
+     * @param isLastResultPage true if there are no more query pages
+     */
+    protected void updateNextCursor(int qryOffset, int limit, int pageStartIdx, int resultIdx, int pageResultCount, boolean isLastResultPage) {
+        final int          consumedCount = resultIdx - pageStartIdx;
+        final SearchCursor nextCursor;
+
+        if (consumedCount < pageResultCount) {
+            nextCursor = new SearchCursor(qryOffset, consumedCount);
+        } else if (isLastResultPage) {
+            nextCursor = null;
+        } else {
+            nextCursor = new SearchCursor(qryOffset + limit, 0);
+        }
+
+        context.setNextCursor(nextCursor);
+    }
+
     public void filter(List<AtlasVertex> entityVertices) {
         if (nextProcessor != null && CollectionUtils.isNotEmpty(entityVertices)) {
             nextProcessor.filter(entityVertices);
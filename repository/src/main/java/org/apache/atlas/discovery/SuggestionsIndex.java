@@ -0,0 +1,595 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index of the terms in suggestion fields of entities, to serve suggestions without a query to the
+ * index backend.
+ * <p>
+ * Terms of each field are held in a prefix tree, and terms of all fields in another. Each node of a tree keeps the
+ * most frequent terms under it, hence suggestions for a prefix are found by walking the prefix - independent of the
+ * number of terms in the index. Frequency of a term is the number of entities having the term in the field, same as
+ * the document frequency returned by Solr TermsComponent; across fields, frequencies are summed.
+ * <p>
+ * Memory used is estimated from the number of nodes, terms and entities. Once the estimate exceeds maxMemoryBytes the
+ * index is cleared and marked as over budget; callers are expected to fall back to the index backend.
+ */
+final class SuggestionsIndex {
+    static final int MAX_TERM_LENGTH = 100;
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_.]+");
+
+    // rough estimates of heap used, including object headers and references
+    private static final long NODE_BYTES     = 96;
+    private static final long TERM_BYTES     = 48;  // plus 1 byte per character
+    private static final long ENTITY_BYTES   = 160; // map entry, guid and the terms array
+    private static final long TERM_REF_BYTES = 8;
+
+    private final int                     maxSuggestions;
+    private final long                    maxMemoryBytes;
+    private final PrefixTree              allFields;
+    private final Map<String, PrefixTree> fieldTrees        = new HashMap<>();
+    private final Map<String, String[]>   entityTerms       = new HashMap<>(); // guid -> { field, term, field, term, ... }
+    private final Set<String>             changedDuringLoad = new HashSet<>();
+    private final ReadWriteLock           lock              = new ReentrantReadWriteLock();
+    private long                          termRefCount      = 0;
+    private boolean                       isLoading         = false;
+    private boolean                       isLoaded          = false;
+    private boolean                       isOverBudget      = false;
+
+    SuggestionsIndex(int maxSuggestions, long maxMemoryBytes) {
+        this.maxSuggestions = maxSuggestions;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.allFields      = new PrefixTree(null, maxSuggestions);
+    }
+
+    /**
+     * Adds terms in the given value - lower-cased, split at characters other than letters, digits, '_' and '.'
+     */
+    static void addTerms(String value, Collection<String> terms) {
+        if (StringUtils.isEmpty(value)) {
+            return;
+        }
+
+        for (String token : TERM_SEPARATOR.split(value.toLowerCase())) {
+            String term = StringUtils.strip(token, ".");
+
+            if (!term.isEmpty() && term.length() <= MAX_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+    }
+
+    /**
+     * Starts bulk load of entities. Until endLoad() or abortLoad(), top terms of nodes are not updated - they are
+     * computed once at the end; and entities changed are remembered, so that loadEntity() doesn't overwrite them.
+     */
+    void startLoad() {
+        lock.writeLock().lock();
+
+        try {
+            isLoading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void endLoad() {
+        lock.writeLock().lock();
+
+        try {
+            isLoading = false;
+            isLoaded  = !isOverBudget;
+
+            changedDuringLoad.clear();
+
+            allFields.updateAllTopTerms();
+
+            for (PrefixTree tree : fieldTrees.values()) {
+                tree.updateAllTopTerms();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ends an incomplete load - for example, one that failed or was stopped. Entities loaded so far are removed, and
+     * the index remains unavailable.
+     */
+    void abortLoad() {
+        lock.writeLock().lock();
+
+        try {
+            isLoading = false;
+            isLoaded  = false;
+
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the load is complete and the index is within the memory budget
+     */
+    boolean isAvailable() {
+        lock.readLock().lock();
+
+        try {
+            return isLoaded && !isOverBudget;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isOverBudget() {
+        lock.readLock().lock();
+
+        try {
+            return isOverBudget;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces terms of the entity with the given terms.
+     * @param guid       guid of the entity
+     * @param fieldTerms index field name -> terms in the field
+     * @return false if the index is over the memory budget
+     */
+    boolean putEntity(String guid, Map<String, Set<String>> fieldTerms) {
+        lock.writeLock().lock();
+
+        try {
+            if (isLoading && !isOverBudget) {
+                changedDuringLoad.add(guid);
+            }
+
+            return putEntityInternal(guid, fieldTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds terms of the entity, unless the entity was updated or removed after the load started - i.e. the terms
+     * read by the loader might be stale.
+     * @return false if the index is over the memory budget
+     */
+    boolean loadEntity(String guid, Map<String, Set<String>> fieldTerms) {
+        lock.writeLock().lock();
+
+        try {
+            if (changedDuringLoad.contains(guid)) {
+                return !isOverBudget;
+            }
+
+            return putEntityInternal(guid, fieldTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeEntity(String guid) {
+        lock.writeLock().lock();
+
+        try {
+            if (isLoading && !isOverBudget) {
+                changedDuringLoad.add(guid);
+            }
+
+            removeEntityInternal(guid);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param prefix         prefix of the terms; terms are matched case-insensitively
+     * @param indexFieldName index field to get terms from; when null, terms from all fields are returned
+     * @return most frequent terms with the given prefix; null if the index is not available or has no terms in the field
+     */
+    List<String> getSuggestions(String prefix, String indexFieldName) {
+        lock.readLock().lock();
+
+        try {
+            if (!isLoaded || isOverBudget) {
+                return null;
+            }
+
+            PrefixTree tree = indexFieldName == null ? allFields : fieldTrees.get(indexFieldName);
+
+            // field without terms might not be a suggestion field; let the caller query the index backend
+            return tree == null ? null : tree.getTopTerms(prefix == null ? "" : prefix.toLowerCase());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int getEntityCount() {
+        lock.readLock().lock();
+
+        try {
+            return entityTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int getChangedDuringLoadCount() {
+        lock.readLock().lock();
+
+        try {
+            return changedDuringLoad.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getEstimatedMemoryBytes() {
+        lock.readLock().lock();
+
+        try {
+            return getEstimatedMemoryBytesInternal();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean putEntityInternal(String guid, Map<String, Set<String>> fieldTerms) {
+        if (isOverBudget) {
+            return false;
+        }
+
+        removeEntityInternal(guid);
+
+        List<String> refs = new ArrayList<>();
+
+        if (fieldTerms != null) {
+            for (Map.Entry<String, Set<String>> entry : fieldTerms.entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+
+                PrefixTree fieldTree = fieldTrees.computeIfAbsent(entry.getKey(), k -> new PrefixTree(k, maxSuggestions));
+
+                for (String term : entry.getValue()) {
+                    if (term == null || term.isEmpty() || term.length() > MAX_TERM_LENGTH) {
+                        continue;
+                    }
+
+                    String termRef = allFields.add(term, 1, !isLoading);
+
+                    fieldTree.add(termRef, 1, !isLoading);
+
+                    refs.add(fieldTree.name);
+                    refs.add(termRef);
+                }
+
+                if (fieldTree.isEmpty()) {
+                    fieldTrees.remove(entry.getKey());
+                }
+            }
+        }
+
+        if (!refs.isEmpty()) {
+            entityTerms.put(guid, refs.toArray(new String[refs.size()]));
+
+            termRefCount += refs.size();
+        }
+
+        if (getEstimatedMemoryBytesInternal() > maxMemoryBytes) {
+            clear();
+
+            isOverBudget = true;
+        }
+
+        return !isOverBudget;
+    }
+
+    private void removeEntityInternal(String guid) {
+        String[] refs = entityTerms.remove(guid);
+
+        if (refs == null) {
+            return;
+        }
+
+        for (int i = 0; i + 1 < refs.length; i += 2) {
+            String     field     = refs[i];
+            String     term      = refs[i + 1];
+            PrefixTree fieldTree = fieldTrees.get(field);
+
+            if (fieldTree != null) {
+                fieldTree.add(term, -1, !isLoading);
+
+                if (fieldTree.isEmpty()) {
+                    fieldTrees.remove(field);
+                }
+            }
+
+            allFields.add(term, -1, !isLoading);
+        }
+
+        termRefCount -= refs.length;
+    }
+
+    private void clear() {
+        allFields.clear();
+        fieldTrees.clear();
+        entityTerms.clear();
+        changedDuringLoad.clear();
+
+        termRefCount = 0;
+    }
+
+    private long getEstimatedMemoryBytesInternal() {
+        long nodeCount = allFields.nodeCount;
+
+        for (PrefixTree tree : fieldTrees.values()) {
+            nodeCount += tree.nodeCount;
+        }
+
+        // term strings are shared by all trees and entities; count them once, from allFields
+        return nodeCount * NODE_BYTES +
+               allFields.termCount * TERM_BYTES + allFields.termChars +
+               entityTerms.size() * ENTITY_BYTES +
+               termRefCount * TERM_REF_BYTES;
+    }
+
+    private static final class PrefixTree {
+        private final String name;
+        private final int    maxTopTerms;
+        private Node         root      = new Node();
+        private long         nodeCount = 1;
+        private long         termCount = 0;
+        private long         termChars = 0;
+
+        PrefixTree(String name, int maxTopTerms) {
+            this.name        = name;
+            this.maxTopTerms = maxTopTerms;
+        }
+
+        boolean isEmpty() {
+            return termCount == 0;
+        }
+
+        void clear() {
+            root      = new Node();
+            nodeCount = 1;
+            termCount = 0;
+            termChars = 0;
+        }
+
+        /**
+         * Adds delta to the frequency of the term; the term is removed when its frequency drops to 0.
+         * @return the term instance held in the tree; null if the term is not present after the update
+         */
+        String add(String term, int delta, boolean updateTopTerms) {
+            Node[] path = new Node[term.length() + 1];
+            Node   node = root;
+
+            path[0] = root;
+
+            for (int i = 0; i < term.length(); i++) {
+                Node child = node.getChild(term.charAt(i));
+
+                if (child == null) {
+                    if (delta <= 0) {
+                        return null;
+                    }
+
+                    child = node.addChild(term.charAt(i));
+
+                    nodeCount++;
+                }
+
+                node        = child;
+                path[i + 1] = node;
+            }
+
+            if (node.term == null) {
+                if (delta <= 0) {
+                    return null;
+                }
+
+                node.term = term;
+
+                termCount++;
+                termChars += term.length();
+            }
+
+            String ret   = node.term;
+            int    depth = term.length();
+
+            node.freq += delta;
+
+            if (node.freq <= 0) {
+                node.freq = 0;
+                node.term = null;
+                ret       = null;
+
+                termCount--;
+                termChars -= term.length();
+
+                // remove nodes that no longer lead to a term
+                while (depth > 0 && path[depth].term == null && path[depth].keys.length == 0) {
+                    path[depth - 1].removeChild(term.charAt(depth - 1));
+
+                    nodeCount--;
+                    depth--;
+                }
+            }
+
+            if (updateTopTerms) {
+                for (int i = depth; i >= 0; i--) {
+                    path[i].updateTopTerms(maxTopTerms);
+                }
+            }
+
+            return ret;
+        }
+
+        List<String> getTopTerms(String prefix) {
+            Node node = root;
+
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.getChild(prefix.charAt(i));
+            }
+
+            if (node == null || node.topTerms.length == 0) {
+                return Collections.emptyList();
+            }
+
+            List<String> ret = new ArrayList<>(node.topTerms.length);
+
+            for (Node term : node.topTerms) {
+                ret.add(term.term);
+            }
+
+            return ret;
+        }
+
+        void updateAllTopTerms() {
+            updateAllTopTerms(root);
+        }
+
+        // depth of recursion is limited by MAX_TERM_LENGTH
+        private void updateAllTopTerms(Node node) {
+            for (Node child : node.children) {
+                updateAllTopTerms(child);
+            }
+
+            node.updateTopTerms(maxTopTerms);
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS  = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        private char[] keys     = NO_KEYS;  // sorted
+        private Node[] children = NO_NODES;
+        private Node[] topTerms = NO_NODES; // terminal nodes under this node, most frequent first
+        private String term;                // non-null in terminal nodes
+        private int    freq;
+
+        Node getChild(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+
+            return idx >= 0 ? children[idx] : null;
+        }
+
+        Node addChild(char c) {
+            int    idx         = -(Arrays.binarySearch(keys, c) + 1);
+            int    count       = keys.length;
+            char[] newKeys     = new char[count + 1];
+            Node[] newChildren = new Node[count + 1];
+            Node   ret         = new Node();
+
+            System.arraycopy(keys, 0, newKeys, 0, idx);
+            System.arraycopy(children, 0, newChildren, 0, idx);
+            System.arraycopy(keys, idx, newKeys, idx + 1, count - idx);
+            System.arraycopy(children, idx, newChildren, idx + 1, count - idx);
+
+            newKeys[idx]     = c;
+            newChildren[idx] = ret;
+            keys             = newKeys;
+            children         = newChildren;
+
+            return ret;
+        }
+
+        void removeChild(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+
+            if (idx < 0) {
+                return;
+            }
+
+            int count = keys.length;
+
+            if (count == 1) {
+                keys     = NO_KEYS;
+                children = NO_NODES;
+            } else {
+                char[] newKeys     = new char[count - 1];
+                Node[] newChildren = new Node[count - 1];
+
+                System.arraycopy(keys, 0, newKeys, 0, idx);
+                System.arraycopy(children, 0, newChildren, 0, idx);
+                System.arraycopy(keys, idx + 1, newKeys, idx, count - idx - 1);
+                System.arraycopy(children, idx + 1, newChildren, idx, count - idx - 1);
+
+                keys     = newKeys;
+                children = newChildren;
+            }
+        }
+
+        // top terms of a node are the most frequent among the node's own term and top terms of its children
+        void updateTopTerms(int maxTopTerms) {
+            Node[] top   = new Node[maxTopTerms];
+            int    count = 0;
+
+            if (term != null && maxTopTerms > 0) {
+                top[count++] = this;
+            }
+
+            for (Node child : children) {
+                for (Node candidate : child.topTerms) {
+                    if (count == maxTopTerms && compare(candidate, top[count - 1]) >= 0) {
+                        break; // rest of the child's top terms are less frequent
+                    }
+
+                    int idx = count == maxTopTerms ? count - 1 : count++;
+
+                    while (idx > 0 && compare(candidate, top[idx - 1]) < 0) {
+                        top[idx] = top[idx - 1];
+
+                        idx--;
+                    }
+
+                    top[idx] = candidate;
+                }
+            }
+
+            topTerms = count == 0 ? NO_NODES : (count == maxTopTerms ? top : Arrays.copyOf(top, count));
+        }
+
+        // most frequent first; ties in alphabetical order
+        private static int compare(Node n1, Node n2) {
+            return n1.freq != n2.freq ? Integer.compare(n2.freq, n1.freq) : n1.term.compareTo(n2.term);
+        }
+    }
+}
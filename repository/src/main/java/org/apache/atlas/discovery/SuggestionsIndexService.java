@@ -0,0 +1,533 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor.PostTransactionHook;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.Status;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graph.SolrIndexHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasBusinessMetadataType.AtlasBusinessAttribute;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_TEXT_KEY;
+import static org.apache.atlas.repository.Constants.LABELS_PROPERTY_KEY;
+
+/**
+ * Serves suggestions from an in-memory prefix index of terms in the suggestion fields of active entities - string
+ * attributes and business attributes with search weight of 8 or more, labels and classification text; i.e. the fields
+ * SolrIndexHelper configures for suggestions. Labels and classification text are read from the entity vertex, so that
+ * the index has the same text as the index backend - for example, classification text written by FullTextMapperV2.
+ *
+ * The index is loaded from the graph in a background thread when the instance starts or becomes active; until the
+ * load completes, and when the index exceeds the configured memory budget, getSuggestions() returns null and callers
+ * fall back to the index backend. A load that fails is retried with a new index. Entity changes are accumulated per graph transaction and applied only when the
+ * transaction commits successfully.
+ */
+@Singleton
+@Component
+@Order(5)
+public class SuggestionsIndexService implements Service, ActiveStateChangeHandler, EntityChangeListenerV2 {
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestionsIndexService.class);
+
+    private static final int  MAX_SUGGESTIONS        = 5; // same as the count returned by AtlasJanusGraphIndexClient
+    private static final long LOAD_RETRY_INTERVAL_MS = 60 * 1000;
+
+    private static final ThreadLocal<PendingSuggestionChanges> pendingChanges = new ThreadLocal<>();
+
+    private final AtlasGraph         graph;
+    private final AtlasTypeRegistry  typeRegistry;
+    private final boolean            isEnabled;
+    private final boolean            isHAEnabled;
+    private final long               maxMemoryBytes;
+    private volatile SuggestionsIndex index;
+    private Thread                   loader;
+
+    @Inject
+    public SuggestionsIndexService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, Configuration configuration) {
+        this.graph          = graph;
+        this.typeRegistry   = typeRegistry;
+        this.isEnabled      = AtlasConfiguration.SEARCH_SUGGESTIONS_INDEX_ENABLED.getBoolean();
+        this.isHAEnabled    = HAConfiguration.isHAEnabled(configuration);
+        this.maxMemoryBytes = AtlasConfiguration.SEARCH_SUGGESTIONS_INDEX_MAX_MEMORY_MB.getLong() * 1024 * 1024;
+
+        LOG.info("SuggestionsIndexService: isEnabled={}, maxMemoryBytes={}", isEnabled, maxMemoryBytes);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            LOG.info("SuggestionsIndexService: disabled");
+
+            return;
+        }
+
+        if (!isHAEnabled) {
+            startInternal();
+        } else {
+            LOG.info("SuggestionsIndexService.start(): deferring until instance activation");
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopInternal();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> SuggestionsIndexService.instanceIsActive()");
+
+            startInternal();
+
+            LOG.info("<== SuggestionsIndexService.instanceIsActive()");
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> SuggestionsIndexService.instanceIsPassive()");
+
+            stopInternal();
+
+            LOG.info("<== SuggestionsIndexService.instanceIsPassive()");
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.SUGGESTIONS_INDEX.getOrder();
+    }
+
+    /**
+     * @param prefixString   prefix of the terms
+     * @param indexFieldName index field to get terms from; when null, terms from all suggestion fields are returned
+     * @return most frequent terms with the given prefix; null if the in-memory index is not available or has no terms in the field
+     */
+    public List<String> getSuggestions(String prefixString, String indexFieldName) {
+        SuggestionsIndex index = this.index;
+
+        return index != null ? index.getSuggestions(prefixString, indexFieldName) : null;
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        onEntitiesUpdated(entities, isImport);
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        if (index == null || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            if (entity.getStatus() == null || entity.getStatus() == Status.ACTIVE) {
+                onEntityVertexUpdated(entity);
+            } else {
+                getPendingChanges().remove(entity.getGuid());
+            }
+        }
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        if (index == null || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            getPendingChanges().remove(entity.getGuid());
+        }
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) throws AtlasBaseException {
+        onEntitiesDeleted(entities, false);
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        onEntityVertexUpdated(entity);
+    }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) throws AtlasBaseException {
+        onEntityVerticesUpdated(entities);
+    }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        onEntityVertexUpdated(entity);
+    }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        onEntityVertexUpdated(entity);
+    }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) throws AtlasBaseException {
+        onEntityVerticesUpdated(entities);
+    }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) throws AtlasBaseException {
+        // terms are not part of suggestions
+    }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) throws AtlasBaseException {
+        // terms are not part of suggestions
+    }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // relationships are not part of suggestions
+    }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // relationships are not part of suggestions
+    }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // relationships are not part of suggestions
+    }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) throws AtlasBaseException {
+        // relationships are not part of suggestions
+    }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) throws AtlasBaseException {
+        onEntityVertexUpdated(entity);
+    }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) throws AtlasBaseException {
+        onEntityVertexUpdated(entity);
+    }
+
+    // business attributes of the entity passed to the listener might have been read before the update; hence read from the vertex
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) throws AtlasBaseException {
+        onEntityVertexUpdated(entity, true);
+    }
+
+    private synchronized void startInternal() {
+        if (loader != null) {
+            return;
+        }
+
+        SuggestionsIndex index = createIndex();
+
+        loader = new Thread(() -> loadSafely(index), "atlas-suggestions-index-loader");
+
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private synchronized void stopInternal() {
+        if (loader != null) {
+            loader.interrupt();
+
+            loader = null;
+        }
+
+        index = null;
+    }
+
+    // index is published with the load started, so that changes committed before the loader reads an entity are not overwritten
+    private SuggestionsIndex createIndex() {
+        SuggestionsIndex ret = new SuggestionsIndex(MAX_SUGGESTIONS, maxMemoryBytes);
+
+        ret.startLoad();
+
+        this.index = ret;
+
+        return ret;
+    }
+
+    // replaces the index whose load failed; returns null if the service was stopped since
+    private synchronized SuggestionsIndex recreateIndex(SuggestionsIndex failedIndex) {
+        return (this.index == failedIndex && loader == Thread.currentThread()) ? createIndex() : null;
+    }
+
+    private void loadSafely(SuggestionsIndex index) {
+        while (index != null) {
+            try {
+                load(index);
+
+                return;
+            } catch (Throwable t) {
+                LOG.error("SuggestionsIndexService: failed to load suggestions index; will be retried in {} seconds. Until then, suggestions will be served by the index backend", LOAD_RETRY_INTERVAL_MS / 1000, t);
+            }
+
+            try {
+                Thread.sleep(LOAD_RETRY_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                LOG.info("SuggestionsIndexService: interrupted while waiting to retry load");
+
+                return;
+            }
+
+            index = recreateIndex(index);
+        }
+    }
+
+    private void load(SuggestionsIndex index) {
+        LOG.info("==> SuggestionsIndexService.load()");
+
+        long    startTime  = System.currentTimeMillis();
+        boolean isComplete = false;
+
+        try {
+            for (String typeName : typeRegistry.getAllEntityDefNames()) {
+                AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+                if (entityType == null || entityType.isInternalType()) {
+                    continue;
+                }
+
+                try {
+                    Iterator<AtlasVertex> vertices = AtlasGraphUtilsV2.findActiveEntityVerticesByType(graph, typeName);
+
+                    while (vertices.hasNext()) {
+                        if (Thread.currentThread().isInterrupted() || this.index != index) {
+                            LOG.info("<== SuggestionsIndexService.load(): stopped");
+
+                            return;
+                        }
+
+                        AtlasVertex vertex = vertices.next();
+                        String      guid   = GraphHelper.getGuid(vertex);
+
+                        if (guid != null && !index.loadEntity(guid, getFieldTerms(entityType, vertex))) {
+                            LOG.warn("SuggestionsIndexService: suggestions index exceeded memory budget of {} bytes. Suggestions will be served by the index backend. Consider increasing atlas.search.suggestions.index.max.memory.mb", maxMemoryBytes);
+
+                            return;
+                        }
+                    }
+                } finally {
+                    graph.rollback(); // release vertices read from this type
+                }
+            }
+
+            isComplete = true;
+        } finally {
+            // changes are no longer recorded for the load, including when it failed or was stopped
+            if (isComplete) {
+                index.endLoad();
+            } else {
+                index.abortLoad();
+            }
+        }
+
+        LOG.info("<== SuggestionsIndexService.load(): entities={}, estimatedMemory={} bytes, timeTaken={}ms", index.getEntityCount(), index.getEstimatedMemoryBytes(), (System.currentTimeMillis() - startTime));
+    }
+
+    private void onEntityVertexUpdated(AtlasEntity entity) {
+        onEntityVertexUpdated(entity, false);
+    }
+
+    /*
+     * Terms of attributes and business attributes are taken from the entity passed to the listener. Labels and
+     * classification text, which the entity might not have or might have before the change, are read from the vertex;
+     * the vertex is found in the vertex cache of the transaction that made the change.
+     */
+    private void onEntityVertexUpdated(AtlasEntity entity, boolean readAttributesFromVertex) {
+        if (index == null || entity == null || (entity.getStatus() != null && entity.getStatus() != Status.ACTIVE)) {
+            return;
+        }
+
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+        if (entityType == null || entityType.isInternalType()) {
+            return;
+        }
+
+        AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(graph, entity.getGuid());
+
+        if (vertex != null) {
+            getPendingChanges().put(entity.getGuid(), readAttributesFromVertex ? getFieldTerms(entityType, vertex) : getFieldTerms(entityType, entity, vertex));
+        }
+    }
+
+    private void onEntityVerticesUpdated(List<AtlasEntity> entities) {
+        if (index == null || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            onEntityVertexUpdated(entity);
+        }
+    }
+
+    private Map<String, Set<String>> getFieldTerms(AtlasEntityType entityType, AtlasVertex vertex) {
+        Map<String, Set<String>> ret = new HashMap<>();
+
+        addAttributeTerms(ret, entityType.getAllAttributes().values(), vertex);
+
+        for (Map<String, AtlasBusinessAttribute> businessAttributes : entityType.getBusinessAttributes().values()) {
+            addAttributeTerms(ret, businessAttributes.values(), vertex);
+        }
+
+        addVertexTerms(ret, vertex);
+
+        return ret;
+    }
+
+    private Map<String, Set<String>> getFieldTerms(AtlasEntityType entityType, AtlasEntity entity, AtlasVertex vertex) {
+        Map<String, Set<String>>         ret                = new HashMap<>();
+        Map<String, Map<String, Object>> businessAttributes = entity.getBusinessAttributes();
+
+        addAttributeTerms(ret, entityType.getAllAttributes().values(), entity.getAttributes());
+
+        if (businessAttributes != null) {
+            for (Map.Entry<String, Map<String, AtlasBusinessAttribute>> entry : entityType.getBusinessAttributes().entrySet()) {
+                addAttributeTerms(ret, entry.getValue().values(), businessAttributes.get(entry.getKey()));
+            }
+        }
+
+        addVertexTerms(ret, vertex);
+
+        return ret;
+    }
+
+    private void addVertexTerms(Map<String, Set<String>> fieldTerms, AtlasVertex vertex) {
+        addTerms(fieldTerms, typeRegistry.getIndexFieldName(LABELS_PROPERTY_KEY), GraphHelper.getLabels(vertex));
+        addTerms(fieldTerms, typeRegistry.getIndexFieldName(CLASSIFICATION_TEXT_KEY), vertex.getProperty(CLASSIFICATION_TEXT_KEY, String.class));
+    }
+
+    private static void addAttributeTerms(Map<String, Set<String>> fieldTerms, Collection<? extends AtlasAttribute> attributes, AtlasVertex vertex) {
+        for (AtlasAttribute attribute : attributes) {
+            if (SolrIndexHelper.isSuggestionAttribute(attribute)) {
+                addTerms(fieldTerms, attribute.getIndexFieldName(), vertex.getProperty(attribute.getVertexPropertyName(), String.class));
+            }
+        }
+    }
+
+    private static void addAttributeTerms(Map<String, Set<String>> fieldTerms, Collection<? extends AtlasAttribute> attributes, Map<String, Object> attributeValues) {
+        if (attributeValues != null) {
+            for (AtlasAttribute attribute : attributes) {
+                if (SolrIndexHelper.isSuggestionAttribute(attribute)) {
+                    Object value = attributeValues.get(attribute.getName());
+
+                    if (value instanceof String) {
+                        addTerms(fieldTerms, attribute.getIndexFieldName(), (String) value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Set<String>> fieldTerms, String indexFieldName, Collection<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                addTerms(fieldTerms, indexFieldName, value);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Set<String>> fieldTerms, String indexFieldName, String value) {
+        if (indexFieldName != null && value != null) {
+            SuggestionsIndex.addTerms(value, fieldTerms.computeIfAbsent(indexFieldName, k -> new HashSet<>()));
+        }
+    }
+
+    private PendingSuggestionChanges getPendingChanges() {
+        PendingSuggestionChanges ret = pendingChanges.get();
+
+        if (ret == null) {
+            ret = new PendingSuggestionChanges();
+
+            pendingChanges.set(ret);
+        }
+
+        return ret;
+    }
+
+    private class PendingSuggestionChanges extends PostTransactionHook {
+        private final Map<String, Map<String, Set<String>>> entityTerms = new LinkedHashMap<>(); // guid -> terms; null for removed entities
+
+        void put(String guid, Map<String, Set<String>> fieldTerms) {
+            entityTerms.put(guid, fieldTerms);
+        }
+
+        void remove(String guid) {
+            entityTerms.put(guid, null);
+        }
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            pendingChanges.remove();
+
+            SuggestionsIndex index = SuggestionsIndexService.this.index;
+
+            if (!isSuccess || index == null) {
+                return;
+            }
+
+            for (Map.Entry<String, Map<String, Set<String>>> entry : entityTerms.entrySet()) {
+                if (entry.getValue() == null) {
+                    index.removeEntity(entry.getKey());
+                } else if (!index.putEntity(entry.getKey(), entry.getValue())) {
+                    break; // index is over the memory budget; suggestions will be served by the index backend
+                }
+            }
+        }
+    }
+}
@@ -26,17 +26,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.List;
 
 
 public class SuggestionsProviderImpl implements SuggestionsProvider {
     private static final Logger LOG = LoggerFactory.getLogger(SuggestionsProviderImpl.class);
 
-    private final AtlasGraph        graph;
-    private final AtlasTypeRegistry typeRegistry;
+    private final AtlasGraph              graph;
+    private final AtlasTypeRegistry       typeRegistry;
+    private final SuggestionsIndexService suggestionsIndexService;
 
     public SuggestionsProviderImpl(AtlasGraph graph, AtlasTypeRegistry typeRegistry) {
-        this.graph        = graph;
-        this.typeRegistry = typeRegistry;
+        this(graph, typeRegistry, null);
+    }
+
+    public SuggestionsProviderImpl(AtlasGraph graph, AtlasTypeRegistry typeRegistry, SuggestionsIndexService suggestionsIndexService) {
+        this.graph                   = graph;
+        this.typeRegistry            = typeRegistry;
+        this.suggestionsIndexService = suggestionsIndexService;
     }
 
     @Override
@@ -44,10 +51,16 @@ public class SuggestionsProviderImpl implements SuggestionsProvider {
         AtlasSuggestionsResult result = new AtlasSuggestionsResult(prefixString, fieldName);
 
         try {
-            AtlasGraphIndexClient graphIndexClient = graph.getGraphIndexClient();
-            String                indexFieldName   = (fieldName == null) ? null : typeRegistry.getIndexFieldName(fieldName);
+            String       indexFieldName = (fieldName == null) ? null : typeRegistry.getIndexFieldName(fieldName);
+            List<String> suggestions    = suggestionsIndexService != null ? suggestionsIndexService.getSuggestions(prefixString, indexFieldName) : null;
+
+            if (suggestions == null) { // in-memory index is not available
+                AtlasGraphIndexClient graphIndexClient = graph.getGraphIndexClient();
+
+                suggestions = graphIndexClient.getSuggestions(prefixString, indexFieldName);
+            }
 
-            result.setSuggestions(graphIndexClient.getSuggestions(prefixString, indexFieldName));
+            result.setSuggestions(suggestions);
         } catch (AtlasException e) {
             LOG.error("Error encountered in performing quick suggestions. Will return no suggestions.", e);
 
@@ -131,7 +131,7 @@ public class AtlasDSL {
 
             String gremlinQuery = gremlinQueryComposer.get();
 
-            return new GremlinQuery(gremlinQuery, queryMetadata.hasSelect());
+            return new GremlinQuery(gremlinQuery, queryMetadata.hasSelect(), gremlinQueryComposer.getQueryClauses());
         }
 
         private void processErrorList(GremlinQueryComposer gremlinQueryComposer) throws AtlasBaseException {
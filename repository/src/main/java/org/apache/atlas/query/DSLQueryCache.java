@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of DSL queries translated to Gremlin, to avoid parsing and translating frequently executed queries - like saved
+ * searches - on every execution. Queries are keyed by their text, with whitespace outside of literals normalized, along
+ * with limit and offset.
+ *
+ * Translation depends on the types in the type registry; hence the cache is cleared on typedef changes. Hit ratio and
+ * translation time saved are reported in server metrics, under cache dslQueries.
+ */
+@Component
+@Order(10)
+public class DSLQueryCache implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryCache.class);
+
+    public static final String CACHE_NAME = "dslQueries";
+
+    private final AtlasTypeRegistry                typeRegistry;
+    private final AtlasCache<String, GremlinQuery> cache;
+    private final AtomicLong                       typesVersion = new AtomicLong();
+
+    @Inject
+    public DSLQueryCache(AtlasTypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+        this.cache        = AtlasConfiguration.SEARCH_DSL_QUERY_CACHE_ENABLED.getBoolean() ?
+                            AtlasCache.<String, GremlinQuery>builder(CACHE_NAME).maxSize(AtlasConfiguration.SEARCH_DSL_QUERY_CACHE_MAX_SIZE.getInt()).build() :
+                            null;
+    }
+
+    public GremlinQuery getGremlinQuery(String query, int offset, int limit) throws AtlasBaseException {
+        if (cache == null) {
+            return translate(query, offset, limit);
+        }
+
+        // typesVersion in the key ensures that translations started before a typedef change are not looked up later
+        String key = typesVersion.get() + ":" + offset + ":" + limit + ":" + normalize(query);
+
+        try {
+            return cache.get(key, () -> translate(query, offset, limit));
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) excp.getCause();
+            }
+
+            throw new RuntimeException(excp.getCause());
+        }
+    }
+
+    public void clear() {
+        typesVersion.incrementAndGet();
+
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void onChange(ChangedTypeDefs changedTypeDefs) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("DSLQueryCache.onChange(): clearing translated queries");
+        }
+
+        clear();
+    }
+
+    @Override
+    public void onLoadCompletion() throws AtlasBaseException {
+        clear();
+    }
+
+    private GremlinQuery translate(String query, int offset, int limit) throws AtlasBaseException {
+        return new AtlasDSL.Translator(query, typeRegistry, offset, limit).translate();
+    }
+
+    /**
+     * Collapses whitespace outside of quoted literals to a single space, so that queries differing only in formatting
+     * share the cache entry.
+     */
+    static String normalize(String query) {
+        StringBuilder sb            = new StringBuilder(query.length());
+        char          quote         = 0;
+        boolean       hasWhitespace = false;
+
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+
+            if (quote == 0 && Character.isWhitespace(c)) {
+                hasWhitespace = true;
+
+                continue;
+            }
+
+            if (hasWhitespace && sb.length() > 0) {
+                sb.append(' ');
+            }
+
+            hasWhitespace = false;
+
+            if (quote != 0) {
+                if (c == '\\' && i + 1 < query.length()) {
+                    sb.append(c);
+
+                    c = query.charAt(++i);
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+}
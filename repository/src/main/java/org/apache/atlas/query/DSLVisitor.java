@@ -218,13 +218,13 @@ public class DSLVisitor extends AtlasDSLParserBaseVisitor<Void> {
     private void processExprRight(final ExprContext expr, GremlinQueryComposer gremlinQueryComposer) {
         GremlinQueryComposer nestedProcessor = gremlinQueryComposer.createNestedProcessor();
 
-        List<String> nestedQueries = new ArrayList<>();
-        String       prev          = null;
+        List<GremlinQueryComposer> nestedQueries = new ArrayList<>();
+        String                     prev          = null;
 
         // Process first expression then proceed with the others
         // expr -> compE exprRight*
         processExpr(expr.compE(), nestedProcessor);
-        nestedQueries.add(nestedProcessor.get());
+        nestedQueries.add(nestedProcessor);
 
         // Record all processed attributes
         gremlinQueryComposer.addProcessedAttributes(nestedProcessor.getAttributesProcessed());
@@ -240,7 +240,7 @@ public class DSLVisitor extends AtlasDSLParserBaseVisitor<Void> {
                     GremlinQueryComposer orClause = nestedProcessor.createNestedProcessor();
                     orClause.addOrClauses(nestedQueries);
                     nestedQueries.clear();
-                    nestedQueries.add(orClause.get());
+                    nestedQueries.add(orClause);
 
                     // Record all processed attributes
                     gremlinQueryComposer.addProcessedAttributes(orClause.getAttributesProcessed());
@@ -255,7 +255,7 @@ public class DSLVisitor extends AtlasDSLParserBaseVisitor<Void> {
                     GremlinQueryComposer andClause = nestedProcessor.createNestedProcessor();
                     andClause.addAndClauses(nestedQueries);
                     nestedQueries.clear();
-                    nestedQueries.add(andClause.get());
+                    nestedQueries.add(andClause);
 
                     // Record all processed attributes
                     gremlinQueryComposer.addProcessedAttributes(andClause.getAttributesProcessed());
@@ -263,7 +263,7 @@ public class DSLVisitor extends AtlasDSLParserBaseVisitor<Void> {
                 prev = OR;
             }
             processExpr(exprRight.compE(), nestedProcessor);
-            nestedQueries.add(nestedProcessor.get());
+            nestedQueries.add(nestedProcessor);
 
             // Record all processed attributes
             gremlinQueryComposer.addProcessedAttributes(nestedProcessor.getAttributesProcessed());
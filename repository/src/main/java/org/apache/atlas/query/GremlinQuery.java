@@ -17,13 +17,24 @@
  */
 package org.apache.atlas.query;
 
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+
 public class GremlinQuery {
-    private final String queryStr;
-    private final boolean hasSelect;
+    private final String            queryStr;
+    private final boolean           hasSelect;
+    private final GremlinClauseList queryClauses;
 
     public GremlinQuery(String text, boolean hasSelect) {
-        this.queryStr = text;
-        this.hasSelect = hasSelect;
+        this(text, hasSelect, null);
+    }
+
+    GremlinQuery(String text, boolean hasSelect, GremlinClauseList queryClauses) {
+        this.queryStr     = text;
+        this.hasSelect    = hasSelect;
+        this.queryClauses = GremlinTraversalBuilder.isSupported(queryClauses) ? queryClauses : null;
     }
 
     public String queryStr() {
@@ -33,4 +44,22 @@ public class GremlinQuery {
     public boolean hasSelectList() {
         return hasSelect;
     }
+
+    /**
+     * @return true if the query can be executed as a graph traversal, without evaluating queryStr as a Gremlin script
+     */
+    public boolean isTraversalSupported() {
+        return queryClauses != null;
+    }
+
+    /**
+     * @return traversal that returns the same vertices as the Gremlin script queryStr
+     */
+    public AtlasGraphTraversal<AtlasVertex, AtlasEdge> toTraversal(AtlasGraph graph) {
+        if (queryClauses == null) {
+            throw new UnsupportedOperationException("query can't be executed as a traversal: " + queryStr);
+        }
+
+        return GremlinTraversalBuilder.build(graph, queryClauses);
+    }
 }
\ No newline at end of file
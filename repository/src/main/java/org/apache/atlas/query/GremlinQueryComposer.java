@@ -234,12 +234,12 @@ public class GremlinQueryComposer {
         return rhs.replace("'", "").replace("\"", "") + context.getNumericTypeFormatter();
     }
 
-    public void addAndClauses(List<String> clauses) {
-        add(GremlinClause.AND, String.join(",", clauses));
+    public void addAndClauses(List<GremlinQueryComposer> nestedQueries) {
+        addNested(GremlinClause.AND, nestedQueries);
     }
 
-    public void addOrClauses(List<String> clauses) {
-        add(GremlinClause.OR, String.join(",", clauses));
+    public void addOrClauses(List<GremlinQueryComposer> nestedQueries) {
+        addNested(GremlinClause.OR, nestedQueries);
     }
 
     public Set<String> getAttributesProcessed() {
@@ -335,6 +335,10 @@ public class GremlinQueryComposer {
         return context.getErrorList();
     }
 
+    GremlinClauseList getQueryClauses() {
+        return queryClauses;
+    }
+
     public void addOrderBy(String name, boolean isDesc) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("addOrderBy(name={}, isDesc={})", name, isDesc);
@@ -636,11 +640,21 @@ public class GremlinQueryComposer {
     }
 
     private void add(GremlinClause clause, String... args) {
-        queryClauses.add(new GremlinClauseValue(clause, clause.get(args)));
+        queryClauses.add(clause, args);
     }
 
     private void add(int idx, GremlinClause clause, String... args) {
-        queryClauses.add(idx, new GremlinClauseValue(clause, clause.get(args)));
+        queryClauses.add(idx, clause, args);
+    }
+
+    private void addNested(GremlinClause clause, List<GremlinQueryComposer> nestedQueries) {
+        List<String> nestedQueryStrings = new ArrayList<>(nestedQueries.size());
+
+        for (GremlinQueryComposer nestedQuery : nestedQueries) {
+            nestedQueryStrings.add(nestedQuery.get());
+        }
+
+        queryClauses.add(new GremlinClauseValue(clause, nestedQueries, String.join(",", nestedQueryStrings)));
     }
 
     private void addTrait(GremlinClause clause, IdentifierHelper.Info idInfo) {
@@ -652,12 +666,23 @@ public class GremlinQueryComposer {
     }
 
     static class GremlinClauseValue {
-        private final GremlinClause clause;
-        private final String        value;
+        private final GremlinClause              clause;
+        private final String                     value;
+        private final String[]                   args;
+        private final List<GremlinQueryComposer> nestedQueries;
 
-        public GremlinClauseValue(GremlinClause clause, String value) {
-            this.clause = clause;
-            this.value = value;
+        public GremlinClauseValue(GremlinClause clause, String... args) {
+            this.clause        = clause;
+            this.value         = clause.get(args);
+            this.args          = args;
+            this.nestedQueries = null;
+        }
+
+        public GremlinClauseValue(GremlinClause clause, List<GremlinQueryComposer> nestedQueries, String nestedQueriesStr) {
+            this.clause        = clause;
+            this.value         = clause.get(nestedQueriesStr);
+            this.args          = new String[] { nestedQueriesStr };
+            this.nestedQueries = new ArrayList<>(nestedQueries);
         }
 
         public GremlinClause getClause() {
@@ -667,6 +692,14 @@ public class GremlinQueryComposer {
         public String getValue() {
             return value;
         }
+
+        public String[] getArgs() {
+            return args;
+        }
+
+        public List<GremlinQueryComposer> getNestedQueries() {
+            return nestedQueries;
+        }
     }
 
     @VisibleForTesting
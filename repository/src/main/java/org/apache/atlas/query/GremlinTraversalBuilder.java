@@ -0,0 +1,387 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.commons.lang.StringUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_EDGE_NAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_LABEL;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TRAIT_NAMES_PROPERTY_KEY;
+
+/**
+ * Builds a graph traversal from the clauses composed by GremlinQueryComposer, so that DSL queries can be executed
+ * without compiling and evaluating a Groovy script. Queries having clauses that can't be expressed as traversal steps
+ * (like select transformations and group-by) are not supported; such queries must be executed as Gremlin scripts.
+ */
+class GremlinTraversalBuilder {
+    private static final Logger LOG = LoggerFactory.getLogger(GremlinTraversalBuilder.class);
+
+    private GremlinTraversalBuilder() {
+    }
+
+    static boolean isSupported(GremlinClauseList queryClauses) {
+        boolean ret = queryClauses != null && queryClauses.size() > 2 &&
+                      queryClauses.get(0).getClause() == GremlinClause.G &&
+                      queryClauses.get(1).getClause() == GremlinClause.V &&
+                      isSupported(queryClauses, 2);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("isSupported(): {}", ret);
+        }
+
+        return ret;
+    }
+
+    static AtlasGraphTraversal<AtlasVertex, AtlasEdge> build(AtlasGraph graph, GremlinClauseList queryClauses) {
+        AtlasGraphTraversal<AtlasVertex, AtlasEdge> ret = graph.V();
+
+        addSteps(ret, queryClauses, 2);
+
+        return ret;
+    }
+
+    private static boolean isSupported(GremlinClauseList queryClauses, int startIdx) {
+        for (int i = startIdx; i < queryClauses.size(); i++) {
+            if (!isSupported(queryClauses.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSupported(GremlinQueryComposer.GremlinClauseValue clauseValue) {
+        String[] args = clauseValue.getArgs();
+
+        try {
+            switch (clauseValue.getClause()) {
+                case AS:
+                case DEDUP:
+                case HAS_PROPERTY:
+                case HAS_NOT_PROPERTY:
+                case HAS_TYPE:
+                case IN:
+                case OUT:
+                case ORDER_BY:
+                case ORDER_BY_DESC:
+                case TO_LIST:
+                case TRAIT:
+                case ANY_TRAIT:
+                case NO_TRAIT:
+                    return true;
+
+                case HAS_TYPE_WITHIN:
+                    parseLiteralList(args[0]);
+                    return true;
+
+                case HAS_OPERATOR:
+                    getPredicate(args[1], args[2]);
+                    return true;
+
+                case STRING_CONTAINS:
+                case TEXT_CONTAINS:
+                    return parseLiteral(args[1]) instanceof String;
+
+                case LIMIT:
+                    toLong(args[0]);
+                    return true;
+
+                case RANGE:
+                    toLong(args[0]);
+                    toLong(args[1]);
+                    toLong(args[2]);
+                    return true;
+
+                case OR:
+                case AND:
+                    for (GremlinQueryComposer nestedQuery : clauseValue.getNestedQueries()) {
+                        GremlinClauseList nestedClauses = nestedQuery.getQueryClauses();
+
+                        if (nestedClauses.size() == 0 || nestedClauses.get(0).getClause() != GremlinClause.NESTED_START || !isSupported(nestedClauses, 1)) {
+                            return false;
+                        }
+                    }
+                    return true;
+
+                default:
+                    return false;
+            }
+        } catch (IllegalArgumentException excp) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("isSupported(clause={}): {}", clauseValue.getValue(), excp.getMessage());
+            }
+
+            return false;
+        }
+    }
+
+    private static void addSteps(AtlasGraphTraversal traversal, GremlinClauseList queryClauses, int startIdx) {
+        for (int i = startIdx; i < queryClauses.size(); i++) {
+            addStep(traversal, queryClauses.get(i));
+        }
+    }
+
+    private static void addStep(AtlasGraphTraversal traversal, GremlinQueryComposer.GremlinClauseValue clauseValue) {
+        String[] args = clauseValue.getArgs();
+
+        switch (clauseValue.getClause()) {
+            case AS:
+                traversal.as(args[0]);
+                break;
+
+            case DEDUP:
+                traversal.dedup();
+                break;
+
+            case HAS_TYPE:
+                traversal.has(ENTITY_TYPE_PROPERTY_KEY, args[0]);
+                break;
+
+            case HAS_TYPE_WITHIN:
+                traversal.has(ENTITY_TYPE_PROPERTY_KEY, P.within(parseLiteralList(args[0])));
+                break;
+
+            case HAS_OPERATOR:
+                traversal.has(args[0], getPredicate(args[1], args[2]));
+                break;
+
+            case HAS_PROPERTY:
+                traversal.has(args[0]);
+                break;
+
+            case HAS_NOT_PROPERTY:
+                traversal.hasNot(args[0]);
+                break;
+
+            case IN:
+                traversal.in(args[0]);
+                break;
+
+            case OUT:
+                traversal.out(args[0]);
+                break;
+
+            case OR:
+                traversal.or(getNestedTraversals(traversal, clauseValue.getNestedQueries()));
+                break;
+
+            case AND:
+                traversal.and(getNestedTraversals(traversal, clauseValue.getNestedQueries()));
+                break;
+
+            case LIMIT:
+                traversal.limit(toLong(args[0]));
+                break;
+
+            case RANGE:
+                traversal.range(toLong(args[0]), toLong(args[1]) + toLong(args[2]));
+                break;
+
+            case ORDER_BY:
+                traversal.order().by(args[0]);
+                break;
+
+            case ORDER_BY_DESC:
+                traversal.order().by(args[0], Order.desc);
+                break;
+
+            case STRING_CONTAINS:
+                traversal.has(args[0], new P(traversal.textPredicate().regex(), parseLiteral(args[1])));
+                break;
+
+            case TEXT_CONTAINS:
+                traversal.has(args[0], new P(traversal.textPredicate().containsRegex(), parseLiteral(args[1])));
+                break;
+
+            case TRAIT:
+                traversal.outE(CLASSIFICATION_LABEL).has(CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, P.within(args[0])).outV();
+                break;
+
+            case ANY_TRAIT:
+                traversal.or(traversal.startAnonymousTraversal().has(TRAIT_NAMES_PROPERTY_KEY),
+                             traversal.startAnonymousTraversal().has(PROPAGATED_TRAIT_NAMES_PROPERTY_KEY));
+                break;
+
+            case NO_TRAIT:
+                traversal.and(traversal.startAnonymousTraversal().hasNot(TRAIT_NAMES_PROPERTY_KEY),
+                              traversal.startAnonymousTraversal().hasNot(PROPAGATED_TRAIT_NAMES_PROPERTY_KEY));
+                break;
+
+            case TO_LIST:
+                // results are collected by the caller
+                break;
+
+            default:
+                throw new UnsupportedOperationException("clause " + clauseValue.getClause() + " can't be added as a traversal step");
+        }
+    }
+
+    private static AtlasGraphTraversal[] getNestedTraversals(AtlasGraphTraversal traversal, List<GremlinQueryComposer> nestedQueries) {
+        AtlasGraphTraversal[] ret = new AtlasGraphTraversal[nestedQueries.size()];
+
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = traversal.startAnonymousTraversal();
+
+            addSteps(ret[i], nestedQueries.get(i).getQueryClauses(), 1);
+        }
+
+        return ret;
+    }
+
+    private static P getPredicate(String operator, String rhs) {
+        switch (operator) {
+            case "eq":
+                return P.eq(parseLiteral(rhs));
+            case "neq":
+                return P.neq(parseLiteral(rhs));
+            case "lt":
+                return P.lt(parseLiteral(rhs));
+            case "lte":
+                return P.lte(parseLiteral(rhs));
+            case "gt":
+                return P.gt(parseLiteral(rhs));
+            case "gte":
+                return P.gte(parseLiteral(rhs));
+            case "within":
+                return P.within(parseLiteralList(rhs));
+        }
+
+        throw new IllegalArgumentException("unsupported operator " + operator);
+    }
+
+    /**
+     * Parses a comma separated list of literals, like the arguments of within() in the Gremlin script.
+     */
+    static List<Object> parseLiteralList(String literals) {
+        List<Object> ret     = new ArrayList<>();
+        char         quote   = 0;
+        int          itemIdx = 0;
+
+        if (StringUtils.isBlank(literals)) {
+            throw new IllegalArgumentException("empty list");
+        }
+
+        for (int i = 0; i < literals.length(); i++) {
+            char c = literals.charAt(i);
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ',') {
+                ret.add(parseLiteral(literals.substring(itemIdx, i)));
+
+                itemIdx = i + 1;
+            }
+        }
+
+        ret.add(parseLiteral(literals.substring(itemIdx)));
+
+        return ret;
+    }
+
+    /**
+     * Parses a literal as it would be evaluated by Groovy: quoted strings, true/false, and numbers with an optional
+     * L/f/d suffix. Literals that would need further Groovy evaluation, like escape sequences and interpolation, are
+     * rejected with IllegalArgumentException so that such queries continue to be executed as Gremlin scripts.
+     */
+    static Object parseLiteral(String literal) {
+        String s = StringUtils.trim(literal);
+
+        if (StringUtils.isEmpty(s)) {
+            throw new IllegalArgumentException("empty literal");
+        }
+
+        char first = s.charAt(0);
+        char last  = s.charAt(s.length() - 1);
+
+        if (first == '\'' || first == '"') {
+            if (s.length() < 2 || last != first) {
+                throw new IllegalArgumentException("unterminated string literal " + s);
+            }
+
+            String ret = s.substring(1, s.length() - 1);
+
+            if (ret.indexOf(first) != -1 || ret.indexOf('\\') != -1 || (first == '"' && ret.indexOf('$') != -1)) {
+                throw new IllegalArgumentException("string literal needs evaluation " + s);
+            }
+
+            return ret;
+        }
+
+        if (s.equals("true")) {
+            return Boolean.TRUE;
+        } else if (s.equals("false")) {
+            return Boolean.FALSE;
+        }
+
+        switch (last) {
+            case 'L':
+            case 'l':
+                return Long.valueOf(s.substring(0, s.length() - 1));
+
+            case 'F':
+            case 'f':
+                return Float.valueOf(toDecimal(s.substring(0, s.length() - 1)).floatValue());
+
+            case 'D':
+            case 'd':
+                return Double.valueOf(toDecimal(s.substring(0, s.length() - 1)).doubleValue());
+        }
+
+        if (s.indexOf('.') != -1 || s.indexOf('e') != -1 || s.indexOf('E') != -1) {
+            return toDecimal(s);
+        }
+
+        BigInteger ret = new BigInteger(s);
+
+        if (ret.bitLength() < Integer.SIZE) {
+            return ret.intValue();
+        } else if (ret.bitLength() < Long.SIZE) {
+            return ret.longValue();
+        }
+
+        return ret;
+    }
+
+    private static long toLong(String s) {
+        return Long.parseLong(StringUtils.trim(s));
+    }
+
+    // BigDecimal rejects NaN, Infinity and hex literals, which are not numeric literals in Groovy
+    private static BigDecimal toDecimal(String s) {
+        return new BigDecimal(s);
+    }
+}
@@ -0,0 +1,455 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes entity audit events to the audit repository asynchronously, so that latency of the audit repository doesn't
+ * add to the latency of entity mutations.
+ * <p>
+ * Events are added to a bounded in-memory queue, from which a writer thread writes to the repository in batches - when
+ * batch-size events are queued, or every flush-interval. Batches that fail to be written, and events that don't fit in
+ * the queue, are appended to a local spill file; spilled events are written to the repository after a later batch is
+ * written successfully, and on restart. Each line of the spill file is one batch, in JSON; batches are replayed as
+ * written, so that replay after a partial failure rewrites the same audit keys.
+ * <p>
+ * Disabled by default - atlas.audit.async.writer.enabled; when disabled, or when the service is not started, events are
+ * written to the repository in the caller's thread.
+ */
+@Singleton
+@Component
+@Order(3)
+public class AsyncEntityAuditWriter implements Service {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEntityAuditWriter.class);
+
+    private static final String SPILL_FILE_NAME        = "atlas-audit-spill.jsonl";
+    private static final String SPILL_REPLAY_FILE_NAME = SPILL_FILE_NAME + ".replay";
+    private static final String ATLAS_DATA             = "atlas.data";
+    private static final String ATLAS_HOME             = "atlas.home";
+
+    private final EntityAuditRepository             auditRepository;
+    private final AtlasMetricsUtil                  metricsUtil;
+    private final boolean                           isEnabled;
+    private final int                               batchSize;
+    private final long                              flushIntervalMs;
+    private final File                              spillFile;
+    private final File                              spillReplayFile;
+    private final BlockingQueue<EntityAuditEventV2> queue;
+    private final AtomicLong                        spilledEvents = new AtomicLong();
+    private final Object                            spillLock     = new Object();
+    private volatile boolean                        isRunning     = false;
+    private Thread                                  writer;
+
+    @Inject
+    public AsyncEntityAuditWriter(EntityAuditRepository auditRepository, AtlasMetricsUtil metricsUtil) {
+        this(auditRepository, metricsUtil,
+             AtlasConfiguration.AUDIT_ASYNC_WRITER_ENABLED.getBoolean(),
+             AtlasConfiguration.AUDIT_ASYNC_WRITER_QUEUE_SIZE.getInt(),
+             AtlasConfiguration.AUDIT_ASYNC_WRITER_BATCH_SIZE.getInt(),
+             AtlasConfiguration.AUDIT_ASYNC_WRITER_FLUSH_INTERVAL_MS.getLong(),
+             getSpillDirectory(AtlasConfiguration.AUDIT_ASYNC_WRITER_SPILL_DIRECTORY.getString()));
+    }
+
+    @VisibleForTesting
+    AsyncEntityAuditWriter(EntityAuditRepository auditRepository, AtlasMetricsUtil metricsUtil, boolean isEnabled,
+                           int queueSize, int batchSize, long flushIntervalMs, File spillDirectory) {
+        this.auditRepository = auditRepository;
+        this.metricsUtil     = metricsUtil;
+        this.isEnabled       = isEnabled;
+        this.batchSize       = Math.max(batchSize, 1);
+        this.flushIntervalMs = Math.max(flushIntervalMs, 1);
+        this.spillFile       = new File(spillDirectory, SPILL_FILE_NAME);
+        this.spillReplayFile = new File(spillDirectory, SPILL_REPLAY_FILE_NAME);
+        this.queue           = isEnabled ? new ArrayBlockingQueue<>(Math.max(queueSize, 1)) : null;
+
+        LOG.info("AsyncEntityAuditWriter: enabled={}, queueSize={}, batchSize={}, flushIntervalMs={}, spillFile={}",
+                 isEnabled, queueSize, this.batchSize, this.flushIntervalMs, spillFile);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            return;
+        }
+
+        if (!spillFile.getParentFile().exists() && !spillFile.getParentFile().mkdirs()) {
+            throw new AtlasException("failed to create audit spill directory " + spillFile.getParentFile());
+        }
+
+        spilledEvents.set(countSpilledEvents(spillReplayFile) + countSpilledEvents(spillFile));
+
+        if (metricsUtil != null) {
+            metricsUtil.setAuditWriterGauges(queue::size, spilledEvents::get);
+        }
+
+        isRunning = true;
+        writer    = new Thread(this::writeEvents, "atlas-audit-writer");
+
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        // writer notices within flush-interval, and writes queued events before exiting
+        isRunning = false;
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // events queued after the writer stopped
+        List<EntityAuditEventV2> remaining = new ArrayList<>();
+
+        queue.drainTo(remaining);
+
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+
+        writer = null;
+    }
+
+    /**
+     * Adds the given events to the audit repository. The events are copied, hence callers can reuse event instances and
+     * continue to update the entities in the events.
+     */
+    public void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        if (!isRunning) {
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+
+        List<EntityAuditEventV2> overflow = null;
+
+        for (EntityAuditEventV2 event : events) {
+            EntityAuditEventV2 copy = copyOf(event);
+
+            if (!queue.offer(copy)) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+
+                overflow.add(copy);
+            }
+        }
+
+        if (overflow != null) {
+            LOG.warn("audit queue is full; spilling {} events to {}", overflow.size(), spillFile);
+
+            spill(overflow);
+        }
+    }
+
+    @VisibleForTesting
+    int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    @VisibleForTesting
+    long getSpilledEventCount() {
+        return spilledEvents.get();
+    }
+
+    private void writeEvents() {
+        LOG.info("==> AsyncEntityAuditWriter.writeEvents()");
+
+        List<EntityAuditEventV2> batch         = new ArrayList<>(batchSize);
+        long                     nextFlushTime = System.currentTimeMillis() + flushIntervalMs;
+        boolean                  isLastFlushOk = replaySpilledEvents();
+
+        while (isRunning || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                long waitMs = nextFlushTime - System.currentTimeMillis();
+
+                if (batch.size() < batchSize && waitMs > 0 && isRunning) {
+                    EntityAuditEventV2 event = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+
+                    if (event != null) {
+                        batch.add(event);
+
+                        queue.drainTo(batch, batchSize - batch.size());
+
+                        continue;
+                    }
+                } else if (!isRunning) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("AsyncEntityAuditWriter: interrupted; writing queued events");
+
+                isRunning = false;
+
+                continue;
+            }
+
+            if (!batch.isEmpty()) {
+                isLastFlushOk = flush(batch, true);
+
+                batch = new ArrayList<>(batchSize);
+            }
+
+            if (isLastFlushOk && spilledEvents.get() > 0 && isRunning) {
+                isLastFlushOk = replaySpilledEvents();
+            }
+
+            nextFlushTime = System.currentTimeMillis() + flushIntervalMs;
+        }
+
+        LOG.info("<== AsyncEntityAuditWriter.writeEvents()");
+    }
+
+    private boolean flush(List<EntityAuditEventV2> batch, boolean spillOnFailure) {
+        long    startTime = System.currentTimeMillis();
+        boolean isFailed  = false;
+
+        try {
+            auditRepository.putEventsV2Batch(batch);
+        } catch (Throwable t) {
+            LOG.warn("failed to write {} audit events", batch.size(), t);
+
+            isFailed = true;
+
+            if (spillOnFailure) {
+                spill(batch);
+            }
+        }
+
+        if (metricsUtil != null) {
+            metricsUtil.onAuditFlushComplete(batch.size(), System.currentTimeMillis() - startTime, isFailed);
+        }
+
+        return !isFailed;
+    }
+
+    private void spill(List<EntityAuditEventV2> events) {
+        String line = AtlasType.toJson(events);
+
+        synchronized (spillLock) {
+            try (FileOutputStream out = new FileOutputStream(spillFile, true);
+                 BufferedWriter   writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+
+                out.getFD().sync();
+
+                spilledEvents.addAndGet(events.size());
+            } catch (IOException e) {
+                LOG.error("failed to spill {} audit events to {}; these events are lost: {}", events.size(), spillFile, line, e);
+            }
+        }
+    }
+
+    /**
+     * Writes spilled batches to the audit repository. Returns false if a batch failed; batches not written are retained
+     * in the replay file, to be retried later.
+     */
+    private boolean replaySpilledEvents() {
+        synchronized (spillLock) {
+            if (!spillReplayFile.exists()) {
+                if (!spillFile.exists()) {
+                    return true;
+                }
+
+                try {
+                    Files.move(spillFile.toPath(), spillReplayFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    LOG.error("failed to move {} to {}", spillFile, spillReplayFile, e);
+
+                    return false;
+                }
+            }
+        }
+
+        LOG.info("writing spilled audit events from {}", spillReplayFile);
+
+        List<String> remaining = null;
+        int          written   = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(spillReplayFile.toPath(), StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (remaining != null) {
+                    remaining.add(line);
+
+                    continue;
+                }
+
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+
+                EntityAuditEventV2[] events = AtlasType.fromJson(line, EntityAuditEventV2[].class);
+
+                if (events == null || !flush(Arrays.asList(events), false)) {
+                    remaining = new ArrayList<>();
+
+                    remaining.add(line);
+                } else {
+                    written += events.length;
+
+                    spilledEvents.addAndGet(-events.length);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("failed to read spilled audit events from {}", spillReplayFile, e);
+
+            return false;
+        }
+
+        try {
+            if (remaining == null) {
+                Files.delete(spillReplayFile.toPath());
+            } else {
+                File tmpFile = new File(spillReplayFile.getPath() + ".tmp");
+
+                Files.write(tmpFile.toPath(), remaining, StandardCharsets.UTF_8);
+                Files.move(tmpFile.toPath(), spillReplayFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            LOG.error("failed to update {}; spilled audit events might be written again", spillReplayFile, e);
+        }
+
+        LOG.info("wrote {} spilled audit events; {} batches pending", written, remaining == null ? 0 : remaining.size());
+
+        return remaining == null;
+    }
+
+    private static long countSpilledEvents(File file) {
+        long ret = 0;
+
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (StringUtils.isNotBlank(line)) {
+                        EntityAuditEventV2[] events = AtlasType.fromJson(line, EntityAuditEventV2[].class);
+
+                        ret += events != null ? events.length : 0;
+                    }
+                }
+            } catch (Exception e) {
+                LOG.warn("failed to read spilled audit events from {}", file, e);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * The entity in the event is written to the repository only if entity definitions are persisted; in that case, the
+     * copy has a snapshot of the entity taken now, since the request can still update the entity after the event is
+     * queued. The snapshot is kept as the serialized definition, which is what the repository writes.
+     */
+    private static EntityAuditEventV2 copyOf(EntityAuditEventV2 event) {
+        String entityDefinition = AbstractStorageBasedAuditRepository.persistEntityDefinition ? event.getEntityDefinitionString() : null;
+
+        return new QueuedAuditEvent(event, entityDefinition);
+    }
+
+    /**
+     * @return the configured directory; by default, audit-spill under Atlas data directory - not under a temporary
+     *         directory, as spilled events must survive a reboot
+     */
+    private static File getSpillDirectory(String configuredDirectory) {
+        if (StringUtils.isNotEmpty(configuredDirectory)) {
+            return new File(configuredDirectory);
+        }
+
+        String dataDirectory = System.getProperty(ATLAS_DATA);
+
+        if (StringUtils.isEmpty(dataDirectory)) {
+            dataDirectory = new File(System.getProperty(ATLAS_HOME, "."), "data").getPath();
+        }
+
+        return new File(dataDirectory, "audit-spill");
+    }
+
+    /**
+     * Audit event with the entity definition serialized when the event was queued; the entity is deserialized only if
+     * it is read, for example when the event is spilled.
+     */
+    private static class QueuedAuditEvent extends EntityAuditEventV2 {
+        private final String entityDefinition;
+
+        QueuedAuditEvent(EntityAuditEventV2 event, String entityDefinition) {
+            super(event.getEntityId(), event.getTimestamp(), event.getUser(), event.getAction(), event.getDetails(), null, event.getType());
+
+            setEventKey(event.getEventKey());
+
+            this.entityDefinition = entityDefinition;
+        }
+
+        @Override
+        public String getEntityDefinitionString() {
+            return entityDefinition;
+        }
+
+        @Override
+        public AtlasEntity getEntity() {
+            AtlasEntity ret = super.getEntity();
+
+            if (ret == null && entityDefinition != null) {
+                ret = AtlasType.fromJson(entityDefinition, AtlasEntity.class);
+
+                setEntity(ret);
+            }
+
+            return ret;
+        }
+    }
+}
@@ -79,12 +79,14 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                     AtlasConfiguration.NOTIFICATION_FIXED_BUFFER_ITEMS_INCREMENT_COUNT.getInt()));
 
     private final EntityAuditRepository  auditRepository;
+    private final AsyncEntityAuditWriter auditWriter;
     private final AtlasTypeRegistry      typeRegistry;
     private final AtlasInstanceConverter instanceConverter;
 
     @Inject
-    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
+    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AsyncEntityAuditWriter auditWriter, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
         this.auditRepository   = auditRepository;
+        this.auditWriter       = auditWriter;
         this.typeRegistry      = typeRegistry;
         this.instanceConverter = instanceConverter;
     }
@@ -98,7 +100,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             createEvent(entitiesAdded.next(), entity, isImport ? ENTITY_IMPORT_CREATE : ENTITY_CREATE);
         }
 
-        auditRepository.putEventsV2(entitiesAdded.toList());
+        auditWriter.putEventsV2(entitiesAdded.toList());
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -112,7 +114,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             createEvent(updatedEvents.next(), entity, isImport ? ENTITY_IMPORT_UPDATE : ENTITY_UPDATE);
         }
 
-        auditRepository.putEventsV2(updatedEvents.toList());
+        auditWriter.putEventsV2(updatedEvents.toList());
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -126,7 +128,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             createEvent(deletedEntities.next(), entity, isImport ? ENTITY_IMPORT_DELETE : ENTITY_DELETE, "Deleted entity");
         }
 
-        auditRepository.putEventsV2(deletedEntities.toList());
+        auditWriter.putEventsV2(deletedEntities.toList());
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -140,7 +142,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             createEvent(eventsPurged.next(), entity, ENTITY_PURGE);
         }
 
-        auditRepository.putEventsV2(eventsPurged.toList());
+        auditWriter.putEventsV2(eventsPurged.toList());
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -159,7 +161,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(classificationsAdded.toList());
+            auditWriter.putEventsV2(classificationsAdded.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -181,7 +183,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -209,7 +211,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -230,7 +232,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -252,7 +254,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -273,7 +275,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -294,7 +296,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -311,7 +313,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
 
             createEvent(events.next(), entity, LABEL_ADD, "Added labels: " + addedLabels);
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -328,7 +330,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
 
             createEvent(events.next(), entity, LABEL_DELETE, "Deleted labels: " + deletedLabels);
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -377,7 +379,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 createEvent(events.next(), entity, BUSINESS_ATTRIBUTE_UPDATE, "Updated business attributes: " + details);
             }
 
-            auditRepository.putEventsV2(events.toList());
+            auditWriter.putEventsV2(events.toList());
 
             RequestContext.get().endMetricRecord(metric);
         }
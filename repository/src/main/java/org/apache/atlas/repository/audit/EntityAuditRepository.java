@@ -68,6 +68,17 @@ public interface EntityAuditRepository {
      */
     void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException;
 
+    /**
+     * Add a batch of v2 events to the event repository. Called only by the single writer thread of
+     * AsyncEntityAuditWriter; implementations can reuse buffered writers across batches, but must complete writing the
+     * batch before returning.
+     * @param events events to be added
+     * @throws AtlasBaseException
+     */
+    default void putEventsV2Batch(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        putEventsV2(events);
+    }
+
     /**
      * List events for the given entity id in decreasing order of timestamp, from the given timestamp. Returns n results
      * @param entityId entity id
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Row key layout of the index of classification audit events, used to find entities with tag changes in a time range
+ * without scanning the entire audit table.
+ * <p>
+ * Key -> salt (1 byte) + event timestamp (8 bytes) + entity id <br>
+ * <p>
+ * Rows within a salt bucket are ordered by event timestamp, hence a time range query reads only the rows in the range,
+ * from each bucket. Salt, derived from entity id, spreads writes of the current time across regions.
+ */
+final class HBaseAuditTagIndex {
+    static final int    SALT_BUCKETS      = 16;
+    static final String TAG_CHANGE_PREFIX = "CLASSIFICATION_";
+    static final byte[] META_ROW          = Bytes.toBytes("_meta");
+    static final byte[] COLUMN_START_TIME = Bytes.toBytes("s");
+
+    private static final int SALT_LENGTH      = 1;
+    private static final int TIMESTAMP_LENGTH = Bytes.SIZEOF_LONG;
+    private static final int PREFIX_LENGTH    = SALT_LENGTH + TIMESTAMP_LENGTH;
+
+    private HBaseAuditTagIndex() {
+    }
+
+    static boolean isTagChange(Object action) {
+        return action != null && action.toString().startsWith(TAG_CHANGE_PREFIX);
+    }
+
+    static byte[] getRowKey(String entityId, long timestamp) {
+        return Bytes.add(getRowPrefix(getSalt(entityId), timestamp), Bytes.toBytes(entityId));
+    }
+
+    /**
+     * @return first row in the given salt bucket for events at or after timestamp
+     */
+    static byte[] getRowPrefix(int salt, long timestamp) {
+        return Bytes.add(new byte[] { (byte) salt }, Bytes.toBytes(Math.max(timestamp, 0L)));
+    }
+
+    static String getEntityId(byte[] rowKey) {
+        return Bytes.toString(rowKey, PREFIX_LENGTH, rowKey.length - PREFIX_LENGTH);
+    }
+
+    static long getTimestamp(byte[] rowKey) {
+        return Bytes.toLong(rowKey, SALT_LENGTH);
+    }
+
+    static int getSalt(String entityId) {
+        return (entityId.hashCode() & Integer.MAX_VALUE) % SALT_BUCKETS;
+    }
+}
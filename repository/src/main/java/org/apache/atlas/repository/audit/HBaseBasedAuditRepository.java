@@ -35,8 +35,11 @@ import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -83,6 +86,10 @@ import java.util.Set;
  * entity id + timestamp, and only 1 version is kept, there can be just 1 audit event per entity
  * id + timestamp. This is ok for one atlas server. But if there are more than one atlas servers,
  * we should use server id in the key
+ * <p>
+ * Classification events are also recorded in a time ordered index table - see HBaseAuditTagIndex - which is used by
+ * getEntitiesWithTagChanges() for time ranges covered by the index. When the index table is added to an existing
+ * deployment, events written earlier are indexed by a background backfill on the active server.
  */
 @Singleton
 @Component
@@ -95,6 +102,10 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     public static final String CONFIG_TABLE_NAME = CONFIG_PREFIX + ".hbase.tablename";
     public static final String DEFAULT_TABLE_NAME = "ATLAS_ENTITY_AUDIT_EVENTS";
     public static final String CONFIG_PERSIST_ENTITY_DEFINITION = CONFIG_PREFIX + ".persistEntityDefinition";
+    public static final String CONFIG_TAG_INDEX_ENABLED = CONFIG_PREFIX + ".hbase.tag.index.enabled";
+    public static final String CONFIG_TAG_INDEX_TABLE_NAME = CONFIG_PREFIX + ".hbase.tag.index.tablename";
+    public static final String CONFIG_TAG_INDEX_BACKFILL_ENABLED = CONFIG_PREFIX + ".hbase.tag.index.backfill.enabled";
+    public static final String TAG_INDEX_TABLE_NAME_SUFFIX = "_TAG_INDEX";
 
     public static final byte[] COLUMN_FAMILY = Bytes.toBytes("dt");
     public static final byte[] COLUMN_ACTION = Bytes.toBytes("a");
@@ -108,6 +119,7 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     private static final long    ATLAS_HBASE_KEYVALUE_DEFAULT_SIZE = 1024 * 1024;
     private static Configuration APPLICATION_PROPERTIES = null;
     private static final int     DEFAULT_CACHING = 200;
+    private static final int     TAG_INDEX_BACKFILL_BATCH_SIZE = 1000;
 
     private static boolean       persistEntityDefinition;
 
@@ -121,7 +133,14 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         }
     }
     private TableName tableName;
+    private TableName tagIndexTableName;
+    private boolean   isTagIndexEnabled;
+    private boolean   isTagIndexBackfillEnabled;
+    private Thread    tagIndexBackfill;
     private Connection connection;
+    private BufferedMutator auditMutator;
+    private BufferedMutator tagIndexMutator;
+    private volatile long   lastTagIndexFailureTime;
 
     /**
      * Add events to the event repository
@@ -188,40 +207,123 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             LOG.debug("Putting {} events", events.size());
         }
 
+        List<Put> puts         = new ArrayList<>(events.size());
+        List<Put> tagIndexPuts = new ArrayList<>();
+
+        addPuts(events, puts, tagIndexPuts);
+
         Table table = null;
 
         try {
-            table          = connection.getTable(tableName);
-            List<Put> puts = new ArrayList<>(events.size());
+            // index is written first: an index row without an audit row only adds an entity to query results
+            try {
+                putTagIndex(tagIndexPuts);
+            } catch (IOException e) {
+                invalidateTagIndex(e);
+            }
 
-            for (int index = 0; index < events.size(); index++) {
-                EntityAuditEventV2 event = events.get(index);
+            table = connection.getTable(tableName);
 
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Adding entity audit event {}", event);
-                }
+            table.put(puts);
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        } finally {
+            try {
+                close(table);
+            } catch (AtlasException e) {
+                throw new AtlasBaseException(e);
+            }
+        }
+    }
 
-                Put put = new Put(getKey(event.getEntityId(), event.getTimestamp(), index));
+    /**
+     * Writes the events through buffered mutators, which are reused across batches. Called only by the single writer
+     * thread of AsyncEntityAuditWriter, which sizes the batches - by count and by flush interval. The mutators are flushed
+     * before returning, so that a failure is reported for the batch that failed and the writer can spill it.
+     */
+    @Override
+    public void putEventsV2Batch(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Putting batch of {} events", events.size());
+        }
 
-                addColumn(put, COLUMN_ACTION, event.getAction());
-                addColumn(put, COLUMN_USER, event.getUser());
-                addColumn(put, COLUMN_DETAIL, event.getDetails());
+        List<Put> puts         = new ArrayList<>(events.size());
+        List<Put> tagIndexPuts = new ArrayList<>();
 
-                if (persistEntityDefinition) {
-                    addColumn(put, COLUMN_DEFINITION, event.getEntityDefinitionString());
+        addPuts(events, puts, tagIndexPuts);
+
+        try {
+            if (!tagIndexPuts.isEmpty()) {
+                try {
+                    if (tagIndexMutator == null) {
+                        tagIndexMutator = connection.getBufferedMutator(tagIndexTableName);
+                    }
+
+                    tagIndexMutator.mutate(tagIndexPuts);
+                    tagIndexMutator.flush();
+                } catch (IOException e) {
+                    closeMutator(tagIndexMutator);
+
+                    tagIndexMutator = null;
+
+                    invalidateTagIndex(e);
                 }
+            }
 
-                puts.add(put);
+            if (auditMutator == null) {
+                auditMutator = connection.getBufferedMutator(tableName);
             }
 
-            table.put(puts);
+            auditMutator.mutate(puts);
+            auditMutator.flush();
         } catch (IOException e) {
+            // discard the mutators, along with mutations they might retain; the writer retries the batch
+            closeMutators();
+
             throw new AtlasBaseException(e);
-        } finally {
+        }
+    }
+
+    private void addPuts(List<EntityAuditEventV2> events, List<Put> puts, List<Put> tagIndexPuts) {
+        for (int index = 0; index < events.size(); index++) {
+            EntityAuditEventV2 event = events.get(index);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Adding entity audit event {}", event);
+            }
+
+            Put put = new Put(getKey(event.getEntityId(), event.getTimestamp(), index));
+
+            addColumn(put, COLUMN_ACTION, event.getAction());
+            addColumn(put, COLUMN_USER, event.getUser());
+            addColumn(put, COLUMN_DETAIL, event.getDetails());
+
+            if (persistEntityDefinition) {
+                addColumn(put, COLUMN_DEFINITION, event.getEntityDefinitionString());
+            }
+
+            puts.add(put);
+
+            if (isTagIndexEnabled && HBaseAuditTagIndex.isTagChange(event.getAction())) {
+                tagIndexPuts.add(getTagIndexPut(event.getEntityId(), event.getTimestamp(), event.getAction()));
+            }
+        }
+    }
+
+    private void closeMutators() {
+        closeMutator(auditMutator);
+        closeMutator(tagIndexMutator);
+
+        auditMutator    = null;
+        tagIndexMutator = null;
+    }
+
+    private void closeMutator(BufferedMutator mutator) {
+        if (mutator != null) {
             try {
-                close(table);
-            } catch (AtlasException e) {
-                throw new AtlasBaseException(e);
+                mutator.close();
+            } catch (IOException e) {
+                LOG.warn("failed to close audit mutator", e);
             }
         }
     }
@@ -343,6 +445,41 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         }
     }
 
+    private Put getTagIndexPut(String entityId, long timestamp, Object action) {
+        Put ret = new Put(HBaseAuditTagIndex.getRowKey(entityId, timestamp));
+
+        addColumn(ret, COLUMN_ACTION, action);
+
+        return ret;
+    }
+
+    private void putTagIndex(List<Put> puts) throws IOException {
+        if (puts.isEmpty()) {
+            return;
+        }
+
+        try (Table table = connection.getTable(tagIndexTableName)) {
+            table.put(puts);
+        }
+    }
+
+    /**
+     * Called when index rows of events could not be written. Queries use the full scan of the audit table until the
+     * index is backfilled. If the index can't be marked as unavailable either, the error is thrown so that the events
+     * are not written to the audit table without being in the index.
+     */
+    private void invalidateTagIndex(IOException cause) throws IOException {
+        LOG.error("Tag index {}: write failed; index will not be used until it is backfilled", tagIndexTableName.getNameAsString(), cause);
+
+        lastTagIndexFailureTime = System.currentTimeMillis();
+
+        try (Table table = connection.getTable(tagIndexTableName)) {
+            table.delete(new Delete(HBaseAuditTagIndex.META_ROW));
+        }
+
+        startTagIndexBackfillIfNeeded();
+    }
+
     private byte[] getKey(String id, Long ts) {
         assert id != null : "entity id can't be null";
         assert ts != null : "timestamp can't be null";
@@ -530,19 +667,25 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         Admin admin = null;
         try {
             admin = connection.getAdmin();
-            LOG.info("Checking if table {} exists", tableName.getNameAsString());
-            if (!admin.tableExists(tableName)) {
-                LOG.info("Creating table {}", tableName.getNameAsString());
-                HTableDescriptor tableDescriptor = new HTableDescriptor(tableName);
-                HColumnDescriptor columnFamily = new HColumnDescriptor(COLUMN_FAMILY);
-                columnFamily.setMaxVersions(1);
-                columnFamily.setDataBlockEncoding(DataBlockEncoding.FAST_DIFF);
-                columnFamily.setCompressionType(Compression.Algorithm.GZ);
-                columnFamily.setBloomFilterType(BloomType.ROW);
-                tableDescriptor.addFamily(columnFamily);
-                admin.createTable(tableDescriptor);
-            } else {
-                LOG.info("Table {} exists", tableName.getNameAsString());
+
+            boolean isAuditTableCreated = createTableIfNotExists(admin, tableName);
+
+            if (isTagIndexEnabled) {
+                // events written before the index table is created are indexed by backfill, unless the audit table is new
+                long indexStartTime = isAuditTableCreated ? 0 : System.currentTimeMillis();
+
+                if (createTableIfNotExists(admin, tagIndexTableName)) {
+                    setTagIndexStartTime(indexStartTime);
+                }
+
+                startTagIndexBackfillIfNeeded();
+            } else if (admin.tableExists(tagIndexTableName)) {
+                // events written while the index is disabled will not be indexed; index can be used again only after backfill
+                LOG.info("Tag index {} is disabled; it will be backfilled when enabled again", tagIndexTableName.getNameAsString());
+
+                try (Table table = connection.getTable(tagIndexTableName)) {
+                    table.delete(new Delete(HBaseAuditTagIndex.META_ROW));
+                }
             }
         } catch (IOException e) {
             throw new AtlasException(e);
@@ -551,6 +694,145 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         }
     }
 
+    private boolean createTableIfNotExists(Admin admin, TableName tableName) throws IOException {
+        LOG.info("Checking if table {} exists", tableName.getNameAsString());
+        if (!admin.tableExists(tableName)) {
+            LOG.info("Creating table {}", tableName.getNameAsString());
+            HTableDescriptor tableDescriptor = new HTableDescriptor(tableName);
+            HColumnDescriptor columnFamily = new HColumnDescriptor(COLUMN_FAMILY);
+            columnFamily.setMaxVersions(1);
+            columnFamily.setDataBlockEncoding(DataBlockEncoding.FAST_DIFF);
+            columnFamily.setCompressionType(Compression.Algorithm.GZ);
+            columnFamily.setBloomFilterType(BloomType.ROW);
+            tableDescriptor.addFamily(columnFamily);
+            admin.createTable(tableDescriptor);
+
+            return true;
+        } else {
+            LOG.info("Table {} exists", tableName.getNameAsString());
+
+            return false;
+        }
+    }
+
+    /**
+     * @return events at or after the returned time are in the tag index; Long.MAX_VALUE if the index is not available
+     */
+    private long getTagIndexStartTime() throws IOException {
+        if (!isTagIndexEnabled) {
+            return Long.MAX_VALUE;
+        }
+
+        try (Table table = connection.getTable(tagIndexTableName)) {
+            Result result = table.get(new Get(HBaseAuditTagIndex.META_ROW).addColumn(COLUMN_FAMILY, HBaseAuditTagIndex.COLUMN_START_TIME));
+            String value  = getResultString(result, HBaseAuditTagIndex.COLUMN_START_TIME);
+
+            return value != null ? Long.parseLong(value) : Long.MAX_VALUE;
+        }
+    }
+
+    private void setTagIndexStartTime(long startTime) throws IOException {
+        LOG.info("Tag index {}: start time set to {}", tagIndexTableName.getNameAsString(), startTime);
+
+        Put put = new Put(HBaseAuditTagIndex.META_ROW);
+
+        addColumn(put, HBaseAuditTagIndex.COLUMN_START_TIME, startTime);
+
+        try (Table table = connection.getTable(tagIndexTableName)) {
+            table.put(put);
+        }
+    }
+
+    private synchronized void startTagIndexBackfillIfNeeded() throws IOException {
+        if (!isTagIndexBackfillEnabled || (tagIndexBackfill != null && tagIndexBackfill.isAlive())) {
+            return;
+        }
+
+        final long indexStartTime = getTagIndexStartTime();
+
+        if (indexStartTime == 0) {
+            return;
+        }
+
+        tagIndexBackfill = new Thread(() -> backfillTagIndex(indexStartTime), "atlas-audit-tag-index-backfill");
+
+        tagIndexBackfill.setDaemon(true);
+        tagIndexBackfill.start();
+    }
+
+    /**
+     * Adds classification events in the audit table to the tag index. Puts to the index are idempotent, hence it is
+     * safe to rerun the backfill - for example, after a restart that interrupted an earlier run.
+     */
+    @VisibleForTesting
+    void backfillTagIndex(long indexStartTime) {
+        LOG.info("==> backfillTagIndex(indexStartTime={})", indexStartTime);
+
+        long          startTime = System.currentTimeMillis();
+        long          count     = 0;
+        Table         table     = null;
+        ResultScanner scanner   = null;
+
+        try {
+            table = connection.getTable(tableName);
+
+            SingleColumnValueFilter filter = new SingleColumnValueFilter(COLUMN_FAMILY, COLUMN_ACTION, CompareFilter.CompareOp.EQUAL,
+                                                                         new BinaryPrefixComparator(Bytes.toBytes(HBaseAuditTagIndex.TAG_CHANGE_PREFIX)));
+            Scan       scan   = new Scan().setFilter(filter).setCaching(DEFAULT_CACHING).addFamily(COLUMN_FAMILY);
+            List<Put>  puts   = new ArrayList<>(TAG_INDEX_BACKFILL_BATCH_SIZE);
+            Result     result;
+
+            scanner = table.getScanner(scan);
+
+            while ((result = scanner.next()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    LOG.info("backfillTagIndex(): interrupted after {} events; will resume on next activation", count);
+
+                    return;
+                }
+
+                EntityAuditEvent event = fromKey(result.getRow());
+
+                if (event == null || event.getEntityId() == null) {
+                    continue;
+                }
+
+                puts.add(getTagIndexPut(event.getEntityId(), event.getTimestamp(), getResultString(result, COLUMN_ACTION)));
+
+                if (puts.size() >= TAG_INDEX_BACKFILL_BATCH_SIZE) {
+                    count += puts.size();
+
+                    putTagIndex(puts);
+                    puts.clear();
+
+                    LOG.info("backfillTagIndex(): {} events indexed", count);
+                }
+            }
+
+            count += puts.size();
+
+            putTagIndex(puts);
+
+            if (lastTagIndexFailureTime >= startTime) {
+                // index rows written after the scan started may be missing; the index remains unavailable
+                LOG.warn("backfillTagIndex(): index write failed during backfill; will be retried on next activation");
+            } else {
+                setTagIndexStartTime(0);
+            }
+        } catch (Exception e) {
+            LOG.error("backfillTagIndex(): failed after {} events; will be retried on next activation", count, e);
+        } finally {
+            try {
+                close(scanner);
+                close(table);
+            } catch (AtlasException e) {
+                LOG.warn("backfillTagIndex(): error while closing", e);
+            }
+        }
+
+        LOG.info("<== backfillTagIndex(indexStartTime={}): {} events indexed", indexStartTime, count);
+    }
+
     @Override
     public Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
         final String classificationUpdatesAction = "CLASSIFICATION_";
@@ -563,6 +845,10 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         ResultScanner scanner = null;
 
         try {
+            if (fromTimestamp >= getTagIndexStartTime()) {
+                return getEntitiesWithTagChangesFromIndex(fromTimestamp, toTimestamp);
+            }
+
             Set<String> guids = new HashSet<>();
 
             table = connection.getTable(tableName);
@@ -597,6 +883,30 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         }
     }
 
+    private Set<String> getEntitiesWithTagChangesFromIndex(long fromTimestamp, long toTimestamp) throws IOException {
+        Set<String> ret = new HashSet<>();
+
+        try (Table table = connection.getTable(tagIndexTableName)) {
+            for (int salt = 0; salt < HBaseAuditTagIndex.SALT_BUCKETS; salt++) {
+                Scan scan = new Scan().setCaching(DEFAULT_CACHING)
+                                      .setStartRow(HBaseAuditTagIndex.getRowPrefix(salt, fromTimestamp))
+                                      .setStopRow(HBaseAuditTagIndex.getRowPrefix(salt, toTimestamp));
+
+                try (ResultScanner scanner = table.getScanner(scan)) {
+                    for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                        ret.add(HBaseAuditTagIndex.getEntityId(result.getRow()));
+                    }
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("getEntitiesWithTagChangesFromIndex(fromTimestamp={}, toTimestamp={}): {} entities", fromTimestamp, toTimestamp, ret.size());
+        }
+
+        return ret;
+    }
+
     @Override
     public void start() throws AtlasException {
         Configuration configuration = ApplicationProperties.get();
@@ -610,6 +920,10 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         String tableNameStr = atlasConf.getString(CONFIG_TABLE_NAME, DEFAULT_TABLE_NAME);
         tableName = TableName.valueOf(tableNameStr);
 
+        tagIndexTableName         = TableName.valueOf(atlasConf.getString(CONFIG_TAG_INDEX_TABLE_NAME, tableNameStr + TAG_INDEX_TABLE_NAME_SUFFIX));
+        isTagIndexEnabled         = atlasConf.getBoolean(CONFIG_TAG_INDEX_ENABLED, true);
+        isTagIndexBackfillEnabled = atlasConf.getBoolean(CONFIG_TAG_INDEX_BACKFILL_ENABLED, true);
+
         try {
             connection = createConnection(hbaseConf);
         } catch (IOException e) {
@@ -629,6 +943,11 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
 
     @Override
     public void stop() throws AtlasException {
+        if (tagIndexBackfill != null) {
+            tagIndexBackfill.interrupt();
+        }
+
+        closeMutators();
         close(connection);
     }
 
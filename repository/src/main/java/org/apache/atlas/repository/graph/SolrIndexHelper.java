@@ -66,6 +66,20 @@ public class SolrIndexHelper implements IndexChangeListener {
     }
     public boolean initializationCompleted = false;
 
+    /**
+     * @return true if the index field of the attribute is one of the fields used for suggestions
+     */
+    public static boolean isSuggestionAttribute(AtlasAttribute attribute) {
+        if (attribute == null || !GraphBackedSearchIndexer.isStringAttribute(attribute) || StringUtils.isEmpty(attribute.getIndexFieldName())) {
+            return false;
+        }
+
+        int searchWeight = attribute.getSearchWeight();
+
+        // default and invalid search weights are replaced with DEFAULT_SEARCHWEIGHT_FOR_STRINGS, which is below the minimum for suggestions
+        return searchWeight != DEFAULT_SEARCHWEIGHT && GraphBackedSearchIndexer.isValidSearchWeight(searchWeight) && searchWeight >= MIN_SEARCH_WEIGHT_FOR_SUGGESTIONS;
+    }
+
     @Override
     public void onChange(ChangedTypeDefs changedTypeDefs) {
         if (!AtlasRepositoryConfiguration.isFreeTextSearchEnabled()) {
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retrieves entities to be exported, using a pool of worker threads to read entities from the graph ahead of the
+ * export. Export continues to process entities one at a time, in the order they are discovered, hence the order of
+ * entities in the export is same as with sequential retrieval.
+ *
+ * Number of entities retrieved ahead is limited to windowSize, to bound the memory used.
+ */
+class ExportEntityPrefetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(ExportEntityPrefetcher.class);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final AtlasGraph                                  graph;
+    private final EntityGraphRetriever                        entityGraphRetriever;
+    private final int                                         windowSize;
+    private final ExecutorService                             executor;
+    private final Map<String, Future<AtlasEntityWithExtInfo>> prefetched = new HashMap<>();
+
+    ExportEntityPrefetcher(AtlasGraph graph, EntityGraphRetriever entityGraphRetriever, int threadCount, int windowSize) {
+        this.graph                = graph;
+        this.entityGraphRetriever = entityGraphRetriever;
+        this.windowSize           = Math.max(windowSize, threadCount);
+        this.executor             = threadCount > 1 ? Executors.newFixedThreadPool(threadCount, r -> {
+            Thread t = new Thread(r, "atlas-export-extractor-" + THREAD_COUNTER.incrementAndGet());
+
+            t.setDaemon(true);
+
+            return t;
+        }) : null;
+
+        LOG.info("ExportEntityPrefetcher: threadCount={}, windowSize={}", threadCount, this.windowSize);
+    }
+
+    /**
+     * Starts retrieval of entities in guids, starting at fromIndex, up to windowSize entities.
+     *
+     * @param guids          guids of entities to be exported, in the order they will be processed
+     * @param fromIndex      index of the next entity to be processed
+     * @param guidsProcessed guids of entities already exported; these will not be retrieved
+     */
+    void prefetch(List<String> guids, int fromIndex, Set<String> guidsProcessed) {
+        if (executor == null) {
+            return;
+        }
+
+        int endIdx = Math.min(guids.size(), fromIndex + windowSize);
+
+        for (int i = fromIndex; i < endIdx && prefetched.size() < windowSize; i++) {
+            final String guid = guids.get(i);
+
+            if (!prefetched.containsKey(guid) && !guidsProcessed.contains(guid)) {
+                prefetched.put(guid, executor.submit(() -> retrieve(guid)));
+            }
+        }
+    }
+
+    AtlasEntityWithExtInfo get(String guid) throws AtlasBaseException {
+        Future<AtlasEntityWithExtInfo> future = prefetched.remove(guid);
+
+        if (future == null) {
+            return entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException("interrupted while retrieving entity " + guid, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) e.getCause();
+            }
+
+            throw new AtlasBaseException(e.getCause());
+        }
+    }
+
+    void discard(String guid) {
+        Future<AtlasEntityWithExtInfo> future = prefetched.remove(guid);
+
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    void close() {
+        for (Future<AtlasEntityWithExtInfo> future : prefetched.values()) {
+            future.cancel(true);
+        }
+
+        prefetched.clear();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // runs in a worker thread: release the graph transaction and request context of the thread after each entity
+    private AtlasEntityWithExtInfo retrieve(String guid) throws AtlasBaseException {
+        try {
+            return entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+        } finally {
+            graph.rollback();
+
+            RequestContext.clear();
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.impexp;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasExportRequest;
@@ -58,17 +59,20 @@ public class ExportService {
     private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
 
     private final AtlasTypeRegistry         typeRegistry;
+    private final AtlasGraph                graph;
     private final StartEntityFetchByExportRequest startEntityFetchByExportRequest;
     private final EntitiesExtractor         entitiesExtractor;
     private       AuditsWriter              auditsWriter;
     private final EntityGraphRetriever      entityGraphRetriever;
     private       ExportTypeProcessor       exportTypeProcessor;
     private final HdfsPathEntityCreator     hdfsPathEntityCreator;
+    private       ExportEntityPrefetcher    entityPrefetcher;
 
     @Inject
     public ExportService(final AtlasTypeRegistry typeRegistry, AtlasGraph graph,
                          AuditsWriter auditsWriter, HdfsPathEntityCreator hdfsPathEntityCreator) {
         this.typeRegistry         = typeRegistry;
+        this.graph                = graph;
         this.entityGraphRetriever = new EntityGraphRetriever(graph, this.typeRegistry);
         this.auditsWriter         = auditsWriter;
         this.hdfsPathEntityCreator = hdfsPathEntityCreator;
@@ -84,6 +88,9 @@ public class ExportService {
 
         ExportContext context = new ExportContext(result, exportSink);
         exportTypeProcessor = new ExportTypeProcessor(typeRegistry);
+        entityPrefetcher    = new ExportEntityPrefetcher(graph, entityGraphRetriever,
+                                                         AtlasConfiguration.EXPORT_EXTRACTOR_THREADS.getInt(),
+                                                         AtlasConfiguration.EXPORT_EXTRACTOR_WINDOW_SIZE.getInt());
 
         try {
             LOG.info("==> export(user={}, from={})", userName, requestingIP);
@@ -95,8 +102,11 @@ public class ExportService {
             updateSinkWithOperationMetrics(userName, context, statuses, startTime, endTime);
         } catch(Exception ex) {
             LOG.error("Operation failed: ", ex);
+
+            context.result.setOperationStatus(AtlasExportResult.OperationStatus.FAIL);
         } finally {
             entitiesExtractor.close();
+            entityPrefetcher.close();
 
             LOG.info("<== export(user={}, from={}): status {}: changeMarker: {}",
                     userName, requestingIP, context.result.getOperationStatus(), context.result.getChangeMarker());
@@ -119,7 +129,18 @@ public class ExportService {
 
         context.sink.setExportOrder(context.entityCreationOrder.getList());
         context.sink.setTypesDef(context.result.getData().getTypesDef());
-        context.result.setOperationStatus(getOverallOperationStatus(statuses));
+
+        AtlasExportResult.OperationStatus status = getOverallOperationStatus(statuses);
+
+        try {
+            context.sink.flush(); // entries are written by a separate thread; the result should record a failure to write them
+        } catch (AtlasBaseException e) {
+            LOG.error("Export failed: error writing to Zip file", e);
+
+            status = AtlasExportResult.OperationStatus.FAIL;
+        }
+
+        context.result.setOperationStatus(status);
         context.result.incrementMeticsCounter("duration", duration);
         auditsWriter.write(userName, context.result, startTime, endTime, context.entityCreationOrder.getList());
 
@@ -202,12 +223,16 @@ public class ExportService {
 
             entitiesExtractor.setExtractor(typeRegistry.getEntityDefByName(item.getTypeName()));
 
-            for (String guid : entityGuids) {
-                processEntityGuid(guid, context);
+            for (int i = 0; i < entityGuids.size(); i++) {
+                entityPrefetcher.prefetch(entityGuids, i, context.guidsProcessed);
+
+                processEntityGuid(entityGuids.get(i), context);
             }
 
             while (!context.guidsToProcess.isEmpty()) {
                 while (!context.guidsToProcess.isEmpty()) {
+                    entityPrefetcher.prefetch(context.guidsToProcess.getList(), 0, context.guidsProcessed);
+
                     String guid = context.guidsToProcess.remove(0);
                     processEntityGuid(guid, context);
                 }
@@ -245,10 +270,12 @@ public class ExportService {
         }
 
         if (context.guidsProcessed.contains(guid)) {
+            entityPrefetcher.discard(guid);
+
             return;
         }
 
-        AtlasEntityWithExtInfo entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+        AtlasEntityWithExtInfo entityWithExtInfo = entityPrefetcher.get(guid);
 
         processEntity(entityWithExtInfo, context);
         if (LOG.isDebugEnabled()) {
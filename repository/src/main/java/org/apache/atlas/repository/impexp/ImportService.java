@@ -197,7 +197,16 @@ public class ImportService {
             LOG.info("==> import(user={}, from={}, fileName={})", userName, requestingIP, fileName);
 
             File file = new File(fileName);
-            result = run(new FileInputStream(file), request, userName, hostName, requestingIP);
+
+            if (isRandomAccessZipSource(request)) {
+                if (!file.exists()) {
+                    throw new FileNotFoundException(fileName);
+                }
+
+                result = run(new ZipSourceRandomAccess(file, AtlasConfiguration.IMPORT_ZIP_LOOKAHEAD_COUNT.getInt()), request, userName, hostName, requestingIP);
+            } else {
+                result = run(new FileInputStream(file), request, userName, hostName, requestingIP);
+            }
         } catch (AtlasBaseException excp) {
             LOG.error("import(user={}, from={}, fileName={}): failed", userName, requestingIP, excp);
 
@@ -254,12 +263,15 @@ public class ImportService {
 
     private EntityImportStream createZipSource(AtlasImportRequest request, InputStream inputStream, String configuredTemporaryDirectory) throws AtlasBaseException {
         try {
-            if (isMigrationMode(request) || (request.getOptions().containsKey(AtlasImportRequest.OPTION_KEY_FORMAT) &&
-                    request.getOptions().get(AtlasImportRequest.OPTION_KEY_FORMAT).equals(AtlasImportRequest.OPTION_KEY_FORMAT_ZIP_DIRECT))) {
+            if (isZipDirectFormat(request)) {
                 LOG.info("ZipSource Format: ZipDirect: Size: {}", request.getOptions().get("size"));
                 return getZipDirectEntityImportStream(request, inputStream);
             }
 
+            if (isRandomAccessZipSource(request)) {
+                return new ZipSourceRandomAccess(inputStream, configuredTemporaryDirectory, AtlasConfiguration.IMPORT_ZIP_LOOKAHEAD_COUNT.getInt());
+            }
+
             if (StringUtils.isEmpty(configuredTemporaryDirectory)) {
                 return new ZipSource(inputStream);
             }
@@ -270,6 +282,15 @@ public class ImportService {
         }
     }
 
+    private boolean isZipDirectFormat(AtlasImportRequest request) {
+        return isMigrationMode(request) || (request.getOptions().containsKey(AtlasImportRequest.OPTION_KEY_FORMAT) &&
+                request.getOptions().get(AtlasImportRequest.OPTION_KEY_FORMAT).equals(AtlasImportRequest.OPTION_KEY_FORMAT_ZIP_DIRECT));
+    }
+
+    private boolean isRandomAccessZipSource(AtlasImportRequest request) {
+        return AtlasConfiguration.IMPORT_ZIP_RANDOM_ACCESS_ENABLED.getBoolean() && !isZipDirectFormat(request);
+    }
+
     private EntityImportStream getZipDirectEntityImportStream(AtlasImportRequest request, InputStream inputStream) throws IOException, AtlasBaseException {
         ZipSourceDirect zipSourceDirect = new ZipSourceDirect(inputStream, request.getSizeOption());
         LOG.info("Using ZipSourceDirect: Size: {} entities", zipSourceDirect.size());
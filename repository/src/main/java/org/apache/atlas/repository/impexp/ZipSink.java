@@ -31,30 +31,59 @@ import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+/**
+ * Writes exported entities, types and export-result to a zip stream.
+ *
+ * When created with writerQueueSize greater than 0, entities are converted to JSON and compressed in a separate writer
+ * thread; entries are written in the order they are added. Callers are blocked when writerQueueSize entries are
+ * pending, to bound the memory used.
+ */
 public class ZipSink {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSink.class);
 
     private static String FILE_EXTENSION_JSON = ".json";
 
-    private ZipOutputStream zipOutputStream;
-    final Set<String>       guids = new HashSet<>();
+    private static final PendingEntry END_OF_ENTRIES = new PendingEntry(null, null);
+
+    private          ZipOutputStream             zipOutputStream;
+    final            Set<String>                 guids = new HashSet<>();
+    private final    BlockingQueue<PendingEntry> pendingEntries;
+    private final    Thread                      writer;
+    private volatile Exception                   writeError;
 
     public ZipSink(OutputStream outputStream) {
+        this(outputStream, 0);
+    }
+
+    public ZipSink(OutputStream outputStream, int writerQueueSize) {
         zipOutputStream = new ZipOutputStream(outputStream);
+
+        if (writerQueueSize > 0) {
+            pendingEntries = new ArrayBlockingQueue<>(writerQueueSize);
+            writer         = new Thread(this::writePendingEntries, "atlas-export-writer");
+
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            pendingEntries = null;
+            writer         = null;
+        }
     }
 
     public void add(AtlasEntity entity) throws AtlasBaseException {
-        String jsonData = convertToJSON(entity);
-        saveToZip(entity.getGuid(), jsonData);
+        saveToZip(entity.getGuid(), entity);
         recordAddedEntityGuids(entity);
     }
 
     public void add(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) throws AtlasBaseException {
-        String jsonData = convertToJSON(entityWithExtInfo);
-        saveToZip(entityWithExtInfo.getEntity().getGuid(), jsonData);
+        saveToZip(entityWithExtInfo.getEntity().getGuid(), entityWithExtInfo);
         recordAddedEntityGuids(entityWithExtInfo);
     }
 
@@ -73,14 +102,61 @@ public class ZipSink {
         saveToZip(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME, jsonData);
     }
 
-    public void close() {
-        try {
-            if(zipOutputStream != null) {
-                zipOutputStream.close();
-                zipOutputStream = null;
+    /**
+     * Waits for the entries added so far to be written.
+     * @throws AtlasBaseException if an entry could not be written
+     */
+    public void flush() throws AtlasBaseException {
+        if (writer != null && writer.isAlive()) {
+            CountDownLatch written = new CountDownLatch(1);
+
+            try {
+                pendingEntries.put(new PendingEntry(null, written));
+
+                while (!written.await(1, TimeUnit.SECONDS)) {
+                    if (!writer.isAlive()) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException("Interrupted while writing to Zip file", e);
             }
+        }
+
+        if (writeError != null) {
+            throw new AtlasBaseException("Error writing to Zip file; export is incomplete", writeError);
+        }
+    }
+
+    /**
+     * @throws AtlasBaseException if an entry could not be written, or the Zip file could not be closed; the Zip file
+     *                            is incomplete. The error is thrown only from the first call.
+     */
+    public void close() throws AtlasBaseException {
+        if (zipOutputStream == null) {
+            return;
+        }
+
+        waitForPendingEntries();
+
+        Exception error = writeError;
+
+        try {
+            zipOutputStream.close();
         } catch (IOException e) {
             LOG.error("Error closing Zip file", e);
+
+            if (error == null) {
+                error = e;
+            }
+        } finally {
+            zipOutputStream = null;
+        }
+
+        if (error != null) {
+            throw new AtlasBaseException("Error writing to Zip file; export is incomplete", error);
         }
     }
 
@@ -92,11 +168,72 @@ public class ZipSink {
         saveToZip(fileName.toString(), jsonData);
     }
 
-    private void saveToZip(String fileName, String jsonData) throws AtlasBaseException {
+    private void saveToZip(String fileName, Object content) throws AtlasBaseException {
+        if (pendingEntries == null) {
+            try {
+                addToZipStream(fileName + FILE_EXTENSION_JSON, getJson(content));
+            } catch (IOException e) {
+                throw new AtlasBaseException(String.format("Error writing file %s.", fileName), e);
+            }
+        } else {
+            if (writeError != null) {
+                throw new AtlasBaseException(String.format("Error writing file %s.", fileName), writeError);
+            }
+
+            try {
+                pendingEntries.put(new PendingEntry(fileName, content));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(String.format("Interrupted while writing file %s.", fileName), e);
+            }
+        }
+    }
+
+    private String getJson(Object content) {
+        return content instanceof String ? (String) content : convertToJSON(content);
+    }
+
+    // runs in the writer thread; after a failure, entries are drained without writing so that callers are not blocked
+    private void writePendingEntries() {
         try {
-            addToZipStream(fileName.toString() + FILE_EXTENSION_JSON, jsonData);
-        } catch (IOException e) {
-            throw new AtlasBaseException(String.format("Error writing file %s.", fileName), e);
+            for (PendingEntry entry = pendingEntries.take(); entry != END_OF_ENTRIES; entry = pendingEntries.take()) {
+                if (entry.content instanceof CountDownLatch) { // added by flush()
+                    ((CountDownLatch) entry.content).countDown();
+
+                    continue;
+                }
+
+                if (writeError != null) {
+                    continue;
+                }
+
+                try {
+                    addToZipStream(entry.fileName + FILE_EXTENSION_JSON, getJson(entry.content));
+                } catch (Exception e) {
+                    LOG.error("Error writing file {}.", entry.fileName, e);
+
+                    writeError = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitForPendingEntries() {
+        if (writer == null || !writer.isAlive()) {
+            return;
+        }
+
+        try {
+            pendingEntries.put(END_OF_ENTRIES);
+
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            writer.interrupt();
         }
     }
 
@@ -143,4 +280,14 @@ public class ZipSink {
     private void recordAddedEntityGuids(AtlasEntity entity) {
         guids.add(entity.getGuid());
     }
+
+    private static class PendingEntry {
+        final String fileName;
+        final Object content;
+
+        PendingEntry(String fileName, Object content) {
+            this.fileName = fileName;
+            this.content  = content;
+        }
+    }
 }
@@ -0,0 +1,424 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.entitytransform.BaseEntityHandler;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import static org.apache.atlas.AtlasErrorCode.IMPORT_ATTEMPTING_EMPTY_ZIP;
+
+/**
+ * Import source that reads entities from the zip file as they are imported, instead of loading the contents of the
+ * archive upfront. Entries are located using the central directory of the zip file; entities are decoded in creation
+ * order by a background thread, which stays at most lookAheadCount entities ahead of the import. Hence the memory used
+ * is independent of the size of the archive.
+ *
+ * An archive received as a stream is first copied to a temporary file, which is deleted on close().
+ */
+public class ZipSourceRandomAccess implements EntityImportStream {
+    private static final Logger LOG = LoggerFactory.getLogger(ZipSourceRandomAccess.class);
+
+    private static final String TEMPORARY_FILE_PREFIX = "atlas-import-";
+    private static final String EXT_JSON              = ".json";
+    private static final String EXT_ZIP               = ".zip";
+
+    private final File                                         file;
+    private final boolean                                      deleteOnClose;
+    private final ZipFile                                      zipFile;
+    private final List<String>                                 creationOrder;
+    private final int                                          lookAheadCount;
+    private final ExecutorService                              decoder;
+    private final Map<Integer, Future<AtlasEntityWithExtInfo>> lookAhead = new HashMap<>();
+    private       ImportTransforms                             importTransform;
+    private       List<BaseEntityHandler>                      entityHandlers;
+    private       int                                          currentPosition;
+    private       int                                          nextIndex;
+
+    public ZipSourceRandomAccess(File file, int lookAheadCount) throws IOException, AtlasBaseException {
+        this(file, false, lookAheadCount);
+    }
+
+    public ZipSourceRandomAccess(InputStream inputStream, String temporaryDirectory, int lookAheadCount) throws IOException, AtlasBaseException {
+        this(copyToTemporaryFile(inputStream, temporaryDirectory), true, lookAheadCount);
+    }
+
+    private ZipSourceRandomAccess(File file, boolean deleteOnClose, int lookAheadCount) throws IOException, AtlasBaseException {
+        this.file           = file;
+        this.deleteOnClose  = deleteOnClose;
+        this.zipFile        = openZipFile(file, deleteOnClose);
+        this.lookAheadCount = Math.max(lookAheadCount, 0);
+
+        try {
+            this.creationOrder = readEntry(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toEntryFileName(), ArrayList.class);
+        } catch (AtlasBaseException excp) {
+            close(zipFile, file, deleteOnClose);
+
+            throw excp;
+        }
+
+        if (CollectionUtils.isEmpty(creationOrder)) {
+            close(zipFile, file, deleteOnClose);
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, "Attempting to import empty ZIP.");
+        }
+
+        this.decoder = this.lookAheadCount > 0 ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "atlas-import-zip-decoder");
+
+            t.setDaemon(true);
+
+            return t;
+        }) : null;
+
+        LOG.info("ZipSourceRandomAccess: file={}, entities={}, lookAheadCount={}", file, creationOrder.size(), this.lookAheadCount);
+    }
+
+    @Override
+    public ImportTransforms getImportTransform() {
+        return this.importTransform;
+    }
+
+    @Override
+    public void setImportTransform(ImportTransforms importTransform) {
+        this.importTransform = importTransform;
+    }
+
+    @Override
+    public List<BaseEntityHandler> getEntityHandlers() {
+        return entityHandlers;
+    }
+
+    @Override
+    public void setEntityHandlers(List<BaseEntityHandler> entityHandlers) {
+        this.entityHandlers = entityHandlers;
+    }
+
+    @Override
+    public AtlasTypesDef getTypesDef() throws AtlasBaseException {
+        return readEntry(ZipExportFileNames.ATLAS_TYPESDEF_NAME.toEntryFileName(), AtlasTypesDef.class);
+    }
+
+    @Override
+    public AtlasExportResult getExportResult() throws AtlasBaseException {
+        return readEntry(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME.toEntryFileName(), AtlasExportResult.class);
+    }
+
+    @Override
+    public List<String> getCreationOrder() {
+        return creationOrder;
+    }
+
+    @Override
+    public int size() {
+        return creationOrder.size();
+    }
+
+    @Override
+    public int getPosition() {
+        return currentPosition;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextIndex < creationOrder.size();
+    }
+
+    @Override
+    public AtlasEntity next() {
+        AtlasEntityWithExtInfo entityWithExtInfo = getNextEntityWithExtInfo();
+
+        return entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getNextEntityWithExtInfo() {
+        if (!hasNext()) {
+            return null;
+        }
+
+        int index = nextIndex++;
+
+        currentPosition++;
+
+        try {
+            AtlasEntityWithExtInfo ret = getDecoded(index);
+
+            scheduleLookAhead();
+
+            return transform(ret);
+        } catch (AtlasBaseException e) {
+            LOG.warn("getNextEntityWithExtInfo", e);
+
+            return null;
+        }
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) throws AtlasBaseException {
+        return transform(decode(guid));
+    }
+
+    @Override
+    public AtlasEntity getByGuid(String guid) {
+        try {
+            AtlasEntityWithExtInfo entityWithExtInfo = getEntityWithExtInfo(guid);
+
+            return entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+        } catch (AtlasBaseException e) {
+            LOG.error("getByGuid: {} failed!", guid, e);
+
+            return null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        moveTo(0, 0);
+    }
+
+    @Override
+    public void onImportComplete(String guid) {
+        // entities are read from the archive on demand; nothing is retained after the import of an entity
+    }
+
+    @Override
+    public void setPosition(int index) {
+        moveTo(index + 1, index);
+    }
+
+    @Override
+    public void setPositionUsingEntityGuid(String guid) {
+        if (StringUtils.isBlank(guid)) {
+            return;
+        }
+
+        int index = creationOrder.indexOf(guid);
+
+        if (index != -1) {
+            moveTo(index, index);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (decoder != null) {
+            decoder.shutdownNow();
+        }
+
+        lookAhead.clear();
+
+        close(zipFile, file, deleteOnClose);
+    }
+
+    private void moveTo(int nextIndex, int position) {
+        cancelLookAhead();
+
+        this.nextIndex       = nextIndex;
+        this.currentPosition = position;
+    }
+
+    private AtlasEntityWithExtInfo getDecoded(int index) throws AtlasBaseException {
+        Future<AtlasEntityWithExtInfo> future = lookAhead.remove(index);
+
+        if (future == null) {
+            return decode(creationOrder.get(index));
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException("interrupted while reading entity " + creationOrder.get(index), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) e.getCause();
+            }
+
+            throw new AtlasBaseException("Error converting file to JSON.", e.getCause());
+        }
+    }
+
+    private void scheduleLookAhead() {
+        if (decoder == null) {
+            return;
+        }
+
+        int endIdx = Math.min(nextIndex + lookAheadCount, creationOrder.size());
+
+        for (int i = nextIndex; i < endIdx; i++) {
+            if (!lookAhead.containsKey(i)) {
+                final String guid = creationOrder.get(i);
+
+                lookAhead.put(i, decoder.submit(() -> decode(guid)));
+            }
+        }
+    }
+
+    private void cancelLookAhead() {
+        for (Future<AtlasEntityWithExtInfo> future : lookAhead.values()) {
+            future.cancel(true);
+        }
+
+        lookAhead.clear();
+    }
+
+    // runs in the decoder thread; transforms are applied in the caller's thread, as they are not thread-safe
+    private AtlasEntityWithExtInfo decode(String guid) throws AtlasBaseException {
+        ZipEntry entry = zipFile.getEntry(guid + EXT_JSON);
+
+        if (entry == null) {
+            LOG.warn("Could not fetch requested contents of file: {}", guid);
+
+            return null;
+        }
+
+        return readEntry(entry, AtlasEntityWithExtInfo.class);
+    }
+
+    private AtlasEntityWithExtInfo transform(AtlasEntityWithExtInfo entityWithExtInfo) throws AtlasBaseException {
+        if (entityWithExtInfo == null) {
+            return null;
+        }
+
+        if (importTransform != null) {
+            entityWithExtInfo = importTransform.apply(entityWithExtInfo);
+        }
+
+        if (entityHandlers != null) {
+            applyTransformers(entityWithExtInfo);
+        }
+
+        return entityWithExtInfo;
+    }
+
+    private void applyTransformers(AtlasEntityWithExtInfo entityWithExtInfo) {
+        if (entityWithExtInfo == null) {
+            return;
+        }
+
+        transform(entityWithExtInfo.getEntity());
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                transform(e);
+            }
+        }
+    }
+
+    private void transform(AtlasEntity e) {
+        for (BaseEntityHandler handler : entityHandlers) {
+            handler.transform(e);
+        }
+    }
+
+    private <T> T readEntry(String entryName, Class<T> clazz) throws AtlasBaseException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+
+        if (entry == null) {
+            throw new AtlasBaseException(entryName + " not found!");
+        }
+
+        return readEntry(entry, clazz);
+    }
+
+    private <T> T readEntry(ZipEntry entry, Class<T> clazz) throws AtlasBaseException {
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return AtlasJson.fromJson(inputStream, clazz);
+        } catch (Exception e) {
+            throw new AtlasBaseException("Error converting file to JSON.", e);
+        }
+    }
+
+    private static ZipFile openZipFile(File file, boolean deleteOnError) throws AtlasBaseException, IOException {
+        try {
+            return new ZipFile(file);
+        } catch (ZipException excp) {
+            if (deleteOnError) {
+                Files.deleteIfExists(file.toPath());
+            }
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, excp, "Attempting to import empty ZIP.");
+        }
+    }
+
+    private static File copyToTemporaryFile(InputStream inputStream, String temporaryDirectory) throws IOException {
+        Path directory = StringUtils.isEmpty(temporaryDirectory) ? Paths.get(System.getProperty("java.io.tmpdir")) : Paths.get(temporaryDirectory);
+        Path ret       = Files.createTempFile(directory, TEMPORARY_FILE_PREFIX, EXT_ZIP);
+
+        try {
+            Files.copy(inputStream, ret, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            Files.deleteIfExists(ret);
+
+            throw excp;
+        } finally {
+            inputStream.close();
+        }
+
+        LOG.info("Import: copied archive to temporary file {}", ret);
+
+        return ret.toFile();
+    }
+
+    private static void close(ZipFile zipFile, File file, boolean deleteFile) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            LOG.warn("Error closing {}", file, e);
+        }
+
+        if (deleteFile) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                LOG.warn("Import: Error deleting: {}", file, e);
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.services.EntityCountTracker;
 import org.apache.atlas.DeleteType;
 import org.apache.atlas.type.*;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
@@ -121,8 +122,17 @@ public abstract class DeleteHandlerV1 {
 
         // Delete traits and vertices.
         for (AtlasVertex deletionCandidateVertex : deletionCandidateVertices) {
+            final boolean            isInternal = isInternalType(deletionCandidateVertex);
+            final String             typeName   = GraphHelper.getTypeName(deletionCandidateVertex);
+            final AtlasEntity.Status prevState  = getState(deletionCandidateVertex);
+            final boolean            isShell    = GraphHelper.isEntityIncomplete(deletionCandidateVertex);
+
             deleteAllClassifications(deletionCandidateVertex);
-            deleteTypeVertex(deletionCandidateVertex, isInternalType(deletionCandidateVertex));
+            deleteTypeVertex(deletionCandidateVertex, isInternal);
+
+            final boolean isRemoved = !softDelete || isInternal;
+
+            EntityCountTracker.recordEntityChange(typeName, prevState, isRemoved ? null : DELETED, (isRemoved && isShell) ? -1 : 0);
         }
     }
 
@@ -979,6 +989,10 @@ public abstract class DeleteHandlerV1 {
 
         // delete classification vertex only if it has no more entity references (direct or propagated)
         if (!hasEntityReferences(classificationVertex)) {
+            if (getState(classificationVertex) == ACTIVE) {
+                EntityCountTracker.recordClassificationChange(GraphHelper.getTypeName(classificationVertex), -1);
+            }
+
             _deleteVertex(classificationVertex, force);
         }
     }
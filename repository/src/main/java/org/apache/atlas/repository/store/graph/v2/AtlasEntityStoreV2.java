@@ -48,6 +48,7 @@ import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscovery;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
 import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.services.EntityCountTracker;
 import org.apache.atlas.DeleteType;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasBusinessMetadataType.AtlasBusinessAttribute;
@@ -1302,6 +1303,8 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                             vertex.removeProperty(IS_INCOMPLETE_PROPERTY_KEY);
 
                             entity.setIsIncomplete(FALSE);
+
+                            EntityCountTracker.recordEntityChange(entity.getTypeName(), null, null, -1);
                         }
                     } else {
                         graphDiscoverer.validateAndNormalizeForUpdate(entity);
@@ -58,7 +58,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -91,6 +93,8 @@ public class AtlasGraphUtilsV2 {
     private static boolean USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY            = true;
     private static String  INDEX_SEARCH_PREFIX;
 
+    private static final int UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE = 100;
+
     static {
         try {
             Configuration conf = ApplicationProperties.get();
@@ -313,6 +317,12 @@ public class AtlasGraphUtilsV2 {
                     continue;
                 }
 
+                vertex = getVertexFromUniqueAttributeCache(graph, entityType, attribute, attrValue);
+
+                if (vertex != null) {
+                    break;
+                }
+
                 if (canUseIndexQuery(graph, entityType, attribute.getName())) {
                     vertex = AtlasGraphUtilsV2.getAtlasVertexFromIndexQuery(graph, entityType, attribute, attrValue);
                 } else {
@@ -340,6 +350,8 @@ public class AtlasGraphUtilsV2 {
                                   entityType.getTypeName(), attribute.getName(), attrValue, vertex);
                     }
 
+                    addToUniqueAttributeCache(entityType, attribute, attrValue, vertex);
+
                     break;
                 }
             }
@@ -350,6 +362,77 @@ public class AtlasGraphUtilsV2 {
         return vertex;
     }
 
+    /**
+     * Finds vertices of entities of the given type by unique attributes. Lookups are grouped by unique attribute, and
+     * values of each group are resolved with one query per batch - instead of one or two queries per entity.
+     *
+     * @return vertices in the order of attrValuesList; null for entities not found
+     */
+    public static List<AtlasVertex> findByUniqueAttributes(AtlasGraph graph, AtlasEntityType entityType, List<Map<String, Object>> attrValuesList) {
+        MetricRecorder metric = RequestContext.get().startMetricRecord("findByUniqueAttributesBulk");
+
+        List<AtlasVertex>                 ret              = new ArrayList<>(Collections.nCopies(attrValuesList.size(), (AtlasVertex) null));
+        final Map<String, AtlasAttribute> uniqueAttributes = entityType.getUniqAttributes();
+
+        if (MapUtils.isNotEmpty(uniqueAttributes)) {
+            for (AtlasAttribute attribute : uniqueAttributes.values()) {
+                Map<Object, List<Integer>> pendingLookups = new LinkedHashMap<>(); // attribute value -> index of lookups
+
+                for (int i = 0; i < attrValuesList.size(); i++) {
+                    Map<String, Object> attrValues = attrValuesList.get(i);
+                    Object              attrValue  = (ret.get(i) == null && attrValues != null) ? attrValues.get(attribute.getName()) : null;
+
+                    if (attrValue == null) {
+                        continue;
+                    }
+
+                    AtlasVertex vertex = getVertexFromUniqueAttributeCache(graph, entityType, attribute, attrValue);
+
+                    if (vertex != null) {
+                        ret.set(i, vertex);
+                    } else {
+                        pendingLookups.computeIfAbsent(attrValue, k -> new ArrayList<>()).add(i);
+                    }
+                }
+
+                List<Object> attrValues = new ArrayList<>(pendingLookups.keySet());
+
+                for (int fromIdx = 0; fromIdx < attrValues.size(); fromIdx += UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE) {
+                    List<Object>             batch    = attrValues.subList(fromIdx, Math.min(fromIdx + UNIQUE_ATTRIBUTES_LOOKUP_BATCH_SIZE, attrValues.size()));
+                    Map<Object, AtlasVertex> vertices = findByUniqueAttributeValues(graph, entityType, attribute, batch);
+
+                    for (Map.Entry<Object, AtlasVertex> entry : vertices.entrySet()) {
+                        addToUniqueAttributeCache(entityType, attribute, entry.getKey(), entry.getValue());
+
+                        for (Integer idx : pendingLookups.get(entry.getKey())) {
+                            ret.set(idx, entry.getValue());
+                        }
+                    }
+                }
+            }
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+
+        return ret;
+    }
+
+    /**
+     * Records the vertex of an entity created in the current request, so that later lookups by its unique attributes
+     * in the request find it without a query.
+     */
+    public static void addToUniqueAttributeCache(AtlasEntityType entityType, Map<String, Object> attrValues, AtlasVertex vertex) {
+        if (vertex != null && MapUtils.isNotEmpty(attrValues)) {
+            for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                Object attrValue = attrValues.get(attribute.getName());
+
+                if (attrValue != null) {
+                    addToUniqueAttributeCache(entityType, attribute, attrValue, vertex);
+                }
+            }
+        }
+    }
+
     public static AtlasVertex findByGuid(String guid) {
         return findByGuid(getGraphInstance(), guid);
     }
@@ -360,11 +443,21 @@ public class AtlasGraphUtilsV2 {
         AtlasVertex ret = GraphTransactionInterceptor.getVertexFromCache(guid);
 
         if (ret == null) {
-            AtlasGraphQuery query = graph.query().has(Constants.GUID_PROPERTY_KEY, guid);
+            EntityVertexIdCache vertexIdCache = EntityVertexIdCache.get();
 
-            Iterator<AtlasVertex> results = query.vertices().iterator();
+            ret = vertexIdCache != null ? vertexIdCache.getVertexByGuid(graph, guid) : null;
 
-            ret = results.hasNext() ? results.next() : null;
+            if (ret == null) {
+                AtlasGraphQuery query = graph.query().has(Constants.GUID_PROPERTY_KEY, guid);
+
+                Iterator<AtlasVertex> results = query.vertices().iterator();
+
+                ret = results.hasNext() ? results.next() : null;
+
+                if (ret != null && vertexIdCache != null) {
+                    vertexIdCache.putGuid(guid, ret);
+                }
+            }
 
             if (ret != null) {
                 GraphTransactionInterceptor.addToVertexCache(guid, ret);
@@ -669,6 +762,183 @@ public class AtlasGraphUtilsV2 {
         return null;
     }
 
+    private static Map<Object, AtlasVertex> findByUniqueAttributeValues(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, List<Object> attrValues) {
+        Map<Object, AtlasVertex> ret = new HashMap<>();
+
+        if (canUseIndexQuery(graph, entityType, attribute.getName())) {
+            String                    propertyName   = attribute.getVertexPropertyName();
+            Map<String, List<Object>> valuesToFind   = new HashMap<>(); // lower-cased value -> values; index-query matches are case-insensitive
+            Map<String, AtlasVertex>  caseMismatches = new HashMap<>(); // lower-cased value -> vertex whose value differs only in case
+            List<String>              strValues      = new ArrayList<>(attrValues.size());
+
+            for (Object attrValue : attrValues) {
+                valuesToFind.computeIfAbsent(attrValue.toString().toLowerCase(), k -> new ArrayList<>()).add(attrValue);
+                strValues.add(attrValue.toString());
+            }
+
+            AtlasIndexQuery query = getIndexQuery(graph, entityType, propertyName, strValues);
+
+            for (Iterator<Result> iter = query.vertices(); iter.hasNext() && !valuesToFind.isEmpty(); ) {
+                AtlasVertex vertex = iter.next().getVertex();
+
+                // skip non-entity vertices, if any got returned
+                if (vertex == null || !vertex.getPropertyKeys().contains(Constants.GUID_PROPERTY_KEY)) {
+                    continue;
+                }
+
+                String typeNameInVertex = getTypeName(vertex);
+
+                if (!entityType.getTypeAndAllSubTypes().contains(typeNameInVertex)) {
+                    LOG.warn("incorrect vertex type from index-query: expected='{}'; found='{}'", entityType.getTypeName(), typeNameInVertex);
+
+                    continue;
+                }
+
+                Object       vertexVal = vertex.getProperty(propertyName, Object.class);
+                String       lowerVal  = vertexVal != null ? vertexVal.toString().toLowerCase() : null;
+                List<Object> values    = lowerVal != null ? valuesToFind.get(lowerVal) : null;
+
+                if (values != null) {
+                    // values that differ only in case can belong to different entities; hence an exact match is preferred
+                    Object attrValue = removeValue(values, vertexVal.toString());
+
+                    if (attrValue != null) {
+                        ret.put(attrValue, vertex);
+
+                        if (values.isEmpty()) {
+                            valuesToFind.remove(lowerVal);
+                        }
+                    } else {
+                        caseMismatches.putIfAbsent(lowerVal, vertex);
+                    }
+                }
+            }
+
+            // as in the lookup of a single value, a vertex whose value differs only in case matches a value without an exact match
+            for (Map.Entry<String, AtlasVertex> entry : caseMismatches.entrySet()) {
+                List<Object> values = valuesToFind.get(entry.getKey());
+
+                if (values != null) {
+                    for (Object attrValue : values) {
+                        ret.put(attrValue, entry.getValue());
+                    }
+                }
+            }
+        } else {
+            boolean isUniqueProperty = USE_UNIQUE_INDEX_PROPERTY_TO_FIND_ENTITY && attribute.getVertexUniquePropertyName() != null;
+            String  propertyName     = isUniqueProperty ? attribute.getVertexUniquePropertyName() : attribute.getVertexPropertyName();
+
+            findByTypeAndPropertyValues(graph, ENTITY_TYPE_PROPERTY_KEY, entityType.getTypeName(), propertyName, attrValues, !isUniqueProperty, ret);
+
+            // if no instance of given typeName is found, try to find an instance of type's sub-type
+            if (ret.size() < attrValues.size() && !entityType.getAllSubTypes().isEmpty()) {
+                List<Object> remainingValues = new ArrayList<>(attrValues);
+
+                remainingValues.removeAll(ret.keySet());
+
+                findByTypeAndPropertyValues(graph, Constants.SUPER_TYPES_PROPERTY_KEY, entityType.getTypeName(), propertyName, remainingValues, !isUniqueProperty, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static Object removeValue(List<Object> values, String strValue) {
+        for (Iterator<Object> iter = values.iterator(); iter.hasNext(); ) {
+            Object value = iter.next();
+
+            if (value.toString().equals(strValue)) {
+                iter.remove();
+
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    private static void findByTypeAndPropertyValues(AtlasGraph graph, String typePropertyName, String typeName, String propertyName, List<Object> attrValues, boolean activeOnly, Map<Object, AtlasVertex> result) {
+        MetricRecorder      metric       = RequestContext.get().startMetricRecord("findByTypeAndPropertyValues");
+        Map<String, Object> valuesToFind = new HashMap<>();
+
+        for (Object attrValue : attrValues) {
+            valuesToFind.put(attrValue.toString(), attrValue);
+        }
+
+        AtlasGraphQuery query = graph.query().has(typePropertyName, typeName).in(propertyName, attrValues);
+
+        if (activeOnly) {
+            query = query.has(STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+        }
+
+        for (Iterator<AtlasVertex> iter = query.vertices().iterator(); iter.hasNext() && !valuesToFind.isEmpty(); ) {
+            AtlasVertex vertex    = iter.next();
+            Object      vertexVal = vertex.getProperty(propertyName, Object.class);
+            Object      attrValue = vertexVal != null ? valuesToFind.remove(vertexVal.toString()) : null;
+
+            if (attrValue != null) {
+                result.put(attrValue, vertex);
+            }
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+    }
+
+    private static AtlasVertex getVertexFromUniqueAttributeCache(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        RequestContext context = RequestContext.get();
+        String         key     = EntityVertexIdCache.getUniqueAttributeKey(entityType, attribute, attrValue);
+        String         guid    = context.getGuidByUniqueAttribute(key);
+        AtlasVertex    ret     = guid != null ? findByGuid(graph, guid) : null;
+
+        // entity might have been deleted after it was cached
+        if (guid != null && (ret == null || getState(ret) != Status.ACTIVE)) {
+            context.removeGuidByUniqueAttribute(key);
+
+            ret = null;
+        }
+
+        if (ret == null) {
+            EntityVertexIdCache vertexIdCache = EntityVertexIdCache.get();
+
+            ret = vertexIdCache != null ? vertexIdCache.getVertexByUniqueAttribute(graph, entityType, attribute, attrValue) : null;
+
+            if (ret != null) {
+                addToUniqueAttributeCache(entityType, attribute, attrValue, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addToUniqueAttributeCache(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue, AtlasVertex vertex) {
+        String guid = getIdFromVertex(vertex);
+
+        if (guid != null) {
+            RequestContext.get().cacheGuidByUniqueAttribute(EntityVertexIdCache.getUniqueAttributeKey(entityType, attribute, attrValue), guid);
+
+            GraphTransactionInterceptor.addToVertexCache(guid, vertex);
+
+            EntityVertexIdCache vertexIdCache = EntityVertexIdCache.get();
+
+            if (vertexIdCache != null) {
+                vertexIdCache.putUniqueAttribute(entityType, attribute, attrValue, vertex);
+                vertexIdCache.putGuid(guid, vertex);
+            }
+        }
+    }
+
+    private static AtlasIndexQuery getIndexQuery(AtlasGraph graph, AtlasEntityType entityType, String propertyName, List<String> values) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(INDEX_SEARCH_PREFIX + "\"").append(TYPE_NAME_PROPERTY_KEY).append("\":").append(entityType.getTypeAndAllSubTypesQryStr())
+                .append(" AND ")
+                .append(INDEX_SEARCH_PREFIX + "\"").append(propertyName).append("\":").append(AtlasAttribute.escapeIndexQueryValue(values))
+                .append(" AND ")
+                .append(INDEX_SEARCH_PREFIX + "\"").append(STATE_PROPERTY_KEY).append("\":ACTIVE");
+
+        return graph.indexQuery(Constants.VERTEX_INDEX, sb.toString());
+    }
+
     private static AtlasIndexQuery getIndexQuery(AtlasGraph graph, AtlasEntityType entityType, String propertyName, String value) {
         StringBuilder sb = new StringBuilder();
 
@@ -34,6 +34,7 @@ import org.apache.atlas.model.instance.AtlasRelationship;
 import org.apache.atlas.model.instance.AtlasStruct;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
 import org.apache.atlas.repository.Constants;
@@ -48,6 +49,8 @@ import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
 import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.services.EntityCountTracker;
+import org.apache.atlas.tasks.TaskRegistry;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasBuiltInTypes;
 import org.apache.atlas.type.AtlasClassificationType;
@@ -105,6 +108,11 @@ import static org.apache.atlas.repository.graph.GraphHelper.isPropagationEnabled
 import static org.apache.atlas.repository.graph.GraphHelper.isRelationshipEdge;
 import static org.apache.atlas.repository.graph.GraphHelper.string;
 import static org.apache.atlas.repository.graph.GraphHelper.updateModificationMetadata;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_ADD;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_DELETE;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.PARAM_CLASSIFICATION_NAME;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.PARAM_CLASSIFICATION_VERTEX_ID;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.PARAM_ENTITY_GUID;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.getIdFromVertex;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.isReference;
 import static org.apache.atlas.type.AtlasStructType.AtlasAttribute.AtlasRelationshipEdgeDirection.IN;
@@ -138,11 +146,12 @@ public class EntityGraphMapper {
     private final AtlasInstanceConverter    instanceConverter;
     private final EntityGraphRetriever      entityRetriever;
     private final IFullTextMapper fullTextMapperV2;
+    private final TaskRegistry              taskRegistry;
 
     @Inject
     public EntityGraphMapper(DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry, AtlasGraph graph,
                              AtlasRelationshipStore relationshipStore, IAtlasEntityChangeNotifier entityChangeNotifier,
-                             AtlasInstanceConverter instanceConverter, IFullTextMapper fullTextMapperV2) {
+                             AtlasInstanceConverter instanceConverter, IFullTextMapper fullTextMapperV2, TaskRegistry taskRegistry) {
         this.graphHelper          = new GraphHelper(graph);
         this.deleteDelegate       = deleteDelegate;
         this.typeRegistry         = typeRegistry;
@@ -152,6 +161,7 @@ public class EntityGraphMapper {
         this.instanceConverter    = instanceConverter;
         this.entityRetriever      = new EntityGraphRetriever(graph, typeRegistry);
         this.fullTextMapperV2     = fullTextMapperV2;
+        this.taskRegistry         = taskRegistry;
     }
 
     public AtlasVertex createVertex(AtlasEntity entity) throws AtlasBaseException {
@@ -192,6 +202,8 @@ public class EntityGraphMapper {
 
         GraphTransactionInterceptor.addToVertexCache(guid, ret);
 
+        EntityCountTracker.recordEntityChange(objectId.getTypeName(), null, ACTIVE, 1);
+
         return ret;
     }
 
@@ -216,6 +228,8 @@ public class EntityGraphMapper {
 
         GraphTransactionInterceptor.addToVertexCache(guid, ret);
 
+        EntityCountTracker.recordEntityChange(entity.getTypeName(), null, ACTIVE, 0);
+
         return ret;
     }
 
@@ -607,6 +621,8 @@ public class EntityGraphMapper {
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_GUID, classification.getEntityGuid());
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_STATUS, classification.getEntityStatus().name());
 
+        EntityCountTracker.recordClassificationChange(classification.getTypeName(), 1);
+
         return ret;
     }
 
@@ -1949,7 +1965,9 @@ public class EntityGraphMapper {
                 //Add current Vertex to be notified
                 addedClassifications.get(classification).add(entityVertex);
 
-                if (propagateTags) {
+                if (propagateTags && isDeferredPropagationEnabled()) {
+                    createPropagationTask(CLASSIFICATION_PROPAGATION_ADD, guid, classificationVertex);
+                } else if (propagateTags) {
                     // compute propagatedEntityVertices only once
                     if (entitiesToPropagateTo == null) {
                         entitiesToPropagateTo = entityRetriever.getImpactedVerticesV2(entityVertex);
@@ -2054,7 +2072,12 @@ public class EntityGraphMapper {
         // remove classification from propagated entities if propagation is turned on
         final List<AtlasVertex> entityVertices;
 
-        if (isPropagationEnabled(classificationVertex)) {
+        if (isPropagationEnabled(classificationVertex) && isDeferredPropagationEnabled()) {
+            // classification vertex is retained until the task removes the propagations
+            createPropagationTask(CLASSIFICATION_PROPAGATION_DELETE, entityGuid, classificationVertex);
+
+            entityVertices = new ArrayList<>();
+        } else if (isPropagationEnabled(classificationVertex)) {
             entityVertices = deleteDelegate.getHandler().removeTagPropagation(classificationVertex);
 
             if (LOG.isDebugEnabled()) {
@@ -2152,6 +2175,24 @@ public class EntityGraphMapper {
         entityVertex.setProperty(CLASSIFICATION_NAMES_KEY, delimitedClassificationNames);
     }
 
+    private boolean isDeferredPropagationEnabled() {
+        return AtlasConfiguration.TASKS_ENABLED.getBoolean();
+    }
+
+    private void createPropagationTask(String taskType, String entityGuid, AtlasVertex classificationVertex) {
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put(PARAM_ENTITY_GUID, entityGuid);
+        parameters.put(PARAM_CLASSIFICATION_NAME, getTypeName(classificationVertex));
+        parameters.put(PARAM_CLASSIFICATION_VERTEX_ID, classificationVertex.getIdForDisplay());
+
+        AtlasTask task = taskRegistry.createTask(taskType, parameters);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Deferred propagation of classification {} of entity {}: task {}", parameters.get(PARAM_CLASSIFICATION_NAME), entityGuid, task.getGuid());
+        }
+    }
+
     private String getClassificationNamesString(List<String> traitNames) {
         String ret = StringUtils.join(traitNames, CLASSIFICATION_NAME_DELIMITER);
 
@@ -2265,7 +2306,9 @@ public class EntityGraphMapper {
             Boolean updatedTagPropagation = classification.isPropagate();
 
             // compute propagatedEntityVertices once and use it for subsequent iterations and notifications
-            if (updatedTagPropagation != null && currentTagPropagation != updatedTagPropagation) {
+            if (updatedTagPropagation != null && currentTagPropagation != updatedTagPropagation && isDeferredPropagationEnabled()) {
+                createPropagationTask(updatedTagPropagation ? CLASSIFICATION_PROPAGATION_ADD : CLASSIFICATION_PROPAGATION_DELETE, guid, classificationVertex);
+            } else if (updatedTagPropagation != null && currentTagPropagation != updatedTagPropagation) {
                 if (updatedTagPropagation) {
                     if (CollectionUtils.isEmpty(entitiesToPropagateTo)) {
                         entitiesToPropagateTo = entityRetriever.getImpactedVerticesV2(entityVertex, null, classificationVertex.getIdForDisplay());
@@ -2368,6 +2411,82 @@ public class EntityGraphMapper {
         return ret;
     }
 
+    /**
+     * @return ids of entity vertices the classification is to be propagated to; empty if the classification is no longer
+     *         associated with an active entity or if its propagation is disabled
+     */
+    public List<String> getPropagationTargetVertexIds(AtlasVertex classificationVertex) {
+        List<String> ret          = new ArrayList<>();
+        AtlasVertex  entityVertex = GraphHelper.getAssociatedEntityVertex(classificationVertex);
+
+        if (entityVertex != null && getStatus(entityVertex) == ACTIVE && isPropagationEnabled(classificationVertex)) {
+            for (AtlasVertex vertex : entityRetriever.getImpactedVerticesV2(entityVertex, null, classificationVertex.getIdForDisplay())) {
+                ret.add(vertex.getIdForDisplay());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return ids of entity vertices the classification has been propagated to
+     */
+    public List<String> getPropagatedEntityVertexIds(AtlasVertex classificationVertex) {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasVertex vertex : GraphHelper.getAllPropagatedEntityVertices(classificationVertex)) {
+            ret.add(vertex.getIdForDisplay());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Propagates the classification to given entities, and notifies listeners. Used by deferred propagation, which
+     * calls this for a batch of entities at a time.
+     */
+    public void addClassificationPropagations(AtlasVertex classificationVertex, List<AtlasVertex> entityVertices) throws AtlasBaseException {
+        List<AtlasVertex> propagatedVertices = deleteDelegate.getHandler().addTagPropagation(classificationVertex, entityVertices);
+
+        if (CollectionUtils.isNotEmpty(propagatedVertices)) {
+            AtlasClassification classification     = entityRetriever.toAtlasClassification(classificationVertex);
+            List<AtlasEntity>   propagatedEntities = updateClassificationText(classification, propagatedVertices);
+
+            entityChangeNotifier.onClassificationsAddedToEntities(propagatedEntities, Collections.singletonList(classification));
+        }
+    }
+
+    /**
+     * Removes propagation of the classification from given entities, and notifies listeners. Used by deferred
+     * propagation, which calls this for a batch of entities at a time.
+     */
+    public void removeClassificationPropagations(AtlasVertex classificationVertex, List<AtlasVertex> entityVertices) throws AtlasBaseException {
+        List<AtlasVertex> propagatedVertices = new ArrayList<>();
+
+        for (AtlasVertex entityVertex : entityVertices) {
+            if (GraphHelper.getPropagatedClassificationEdge(entityVertex, classificationVertex) != null) {
+                propagatedVertices.add(entityVertex);
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(propagatedVertices)) {
+            AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+
+            deleteDelegate.getHandler().removeTagPropagation(classificationVertex, propagatedVertices);
+
+            List<AtlasEntity> propagatedEntities = updateClassificationText(classification, propagatedVertices);
+
+            entityChangeNotifier.onClassificationsDeletedFromEntities(propagatedEntities, Collections.singletonList(classification));
+        }
+    }
+
+    /**
+     * Deletes the classification vertex if it is no longer associated with any entity, directly or by propagation.
+     */
+    public void deleteClassificationVertexIfUnreferenced(AtlasVertex classificationVertex) {
+        deleteDelegate.getHandler().deleteClassificationVertex(classificationVertex, true);
+    }
+
     public void deleteClassifications(String guid) throws AtlasBaseException {
         AtlasVertex instanceVertex = AtlasGraphUtilsV2.findByGuid(this.graph, guid);
 
@@ -2465,6 +2584,8 @@ public class EntityGraphMapper {
     public void importActivateEntity(AtlasVertex vertex, AtlasEntity entity) {
         AtlasGraphUtilsV2.setEncodedProperty(vertex, STATE_PROPERTY_KEY, ACTIVE);
 
+        EntityCountTracker.recordEntityChange(entity.getTypeName(), DELETED, ACTIVE, 0);
+
         if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
             Set<String> relatedEntitiesGuids = getRelatedEntitiesGuids(entity);
             activateEntityRelationships(vertex, relatedEntitiesGuids);
@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.store.graph.v2;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TimeBoundary;
@@ -132,6 +133,7 @@ public class EntityGraphRetriever {
     public static final String QUALIFIED_NAME = "qualifiedName";
 
     private static final TypeReference<List<TimeBoundary>> TIME_BOUNDARIES_LIST_TYPE = new TypeReference<List<TimeBoundary>>() {};
+    private static final boolean                           PREFETCH_ENABLED          = AtlasConfiguration.SEARCH_RESULT_PREFETCH_ENABLED.getBoolean();
     private final GraphHelper graphHelper;
 
     private final AtlasTypeRegistry typeRegistry;
@@ -229,6 +231,28 @@ public class EntityGraphRetriever {
         return ret;
     }
 
+    /**
+     * Loads, in bulk, the vertex data that toAtlasEntityHeader() and toAtlasEntityHeaderWithClassifications() read for the
+     * given entity vertices: their properties, assigned-term and classification edges, and the properties of the term and
+     * classification vertices. Without this, mapping a page of search results, or a level of lineage, makes several backend
+     * reads per entity.
+     *
+     * @param entityVertices vertices to be mapped to entity headers
+     * @param includeClassifications true if the classifications of the entities will also be mapped
+     */
+    public void prefetchEntityHeaders(Collection<AtlasVertex> entityVertices, boolean includeClassifications) {
+        if (!PREFETCH_ENABLED || CollectionUtils.isEmpty(entityVertices)) {
+            return;
+        }
+
+        String[]         edgeLabels = includeClassifications ? new String[] { TERM_ASSIGNMENT_LABEL, CLASSIFICATION_LABEL } : new String[] { TERM_ASSIGNMENT_LABEL };
+        Set<AtlasVertex> adjacent   = graph.prefetch(entityVertices, AtlasEdgeDirection.BOTH, edgeLabels);
+
+        if (CollectionUtils.isNotEmpty(adjacent)) {
+            graph.prefetch(adjacent, AtlasEdgeDirection.BOTH);
+        }
+    }
+
     public Map<String, Map<String, Object>> getBusinessMetadata(AtlasVertex entityVertex) throws AtlasBaseException {
         Map<String, Map<String, Object>>                         ret             = null;
         String                                                   entityTypeName  = getTypeName(entityVertex);
@@ -425,19 +449,11 @@ public class EntityGraphRetriever {
         AtlasEntityType          entityType = typeRegistry.getEntityTypeByName(typeName);
 
         if (entityType != null) {
-            for (Map<String, Object> uniqAttributes : uniqueAttributesList) {
-                try {
-                    AtlasVertex vertex = AtlasGraphUtilsV2.getVertexByUniqueAttributes(this.graph, entityType, uniqAttributes);
-
-                    if (vertex != null) {
-                        AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, isMinExtInfo);
+            for (AtlasVertex vertex : AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, uniqueAttributesList)) {
+                if (vertex != null) {
+                    AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, isMinExtInfo);
 
-                        ret.addEntity(entity);
-                    }
-                } catch(AtlasBaseException e) {
-                    if (e.getAtlasErrorCode() != AtlasErrorCode.INSTANCE_BY_UNIQUE_ATTRIBUTE_NOT_FOUND) {
-                        throw e;
-                    }
+                    ret.addEntity(entity);
                 }
             }
         }
@@ -0,0 +1,409 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.GraphTransactionInterceptor.PostTransactionHook;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.Status;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasCache;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-wide cache of vertex-ids of entities, by guid and by unique attribute value, so that frequently referenced
+ * entities - like databases and paths referenced by hook messages - are fetched by vertex-id instead of an index
+ * lookup in every request.
+ *
+ * Entries are added on lookups by AtlasGraphUtilsV2, and for entities created in a transaction when the transaction
+ * commits. Entries of deleted and purged entities are removed right away and again after the transaction completes;
+ * entries of updated entities are refreshed after the transaction commits. A cached vertex is verified before it is
+ * returned - it must exist, have the guid, and for unique attribute lookups be active, of the type or a sub-type and
+ * have the attribute value - so an entry made stale by a change not seen here, like a change of the unique attribute
+ * value, is evicted instead of being returned. The cache is cleared when the instance becomes active or passive.
+ *
+ * Hit ratio of the caches is reported in server metrics, under caches entityGuidVertexIds and
+ * entityUniqueAttributeVertexIds.
+ */
+@Singleton
+@Component
+@Order(6)
+public class EntityVertexIdCache implements ActiveStateChangeHandler, EntityChangeListenerV2 {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityVertexIdCache.class);
+
+    public static final String GUID_CACHE_NAME             = "entityGuidVertexIds";
+    public static final String UNIQUE_ATTRIBUTE_CACHE_NAME = "entityUniqueAttributeVertexIds";
+
+    private static volatile EntityVertexIdCache instance;
+
+    private final AtlasTypeRegistry                typeRegistry;
+    private final boolean                          isEnabled;
+    private final AtlasCache<String, String>       guidVertexIds;
+    private final AtlasCache<String, String>       uniqueAttributeVertexIds;
+    private final ThreadLocal<PendingCacheChanges> pendingChanges = new ThreadLocal<>();
+
+    @Inject
+    public EntityVertexIdCache(AtlasTypeRegistry typeRegistry) {
+        this(typeRegistry, AtlasConfiguration.ENTITY_VERTEX_ID_CACHE_ENABLED.getBoolean(), AtlasConfiguration.ENTITY_VERTEX_ID_CACHE_MAX_SIZE.getInt());
+
+        instance = isEnabled ? this : null;
+    }
+
+    @VisibleForTesting
+    EntityVertexIdCache(AtlasTypeRegistry typeRegistry, boolean isEnabled, int maxSize) {
+        this.typeRegistry             = typeRegistry;
+        this.isEnabled                = isEnabled;
+        this.guidVertexIds            = isEnabled ? AtlasCache.<String, String>builder(GUID_CACHE_NAME).maxSize(maxSize).build() : null;
+        this.uniqueAttributeVertexIds = isEnabled ? AtlasCache.<String, String>builder(UNIQUE_ATTRIBUTE_CACHE_NAME).maxSize(maxSize).build() : null;
+
+        LOG.info("EntityVertexIdCache: isEnabled={}, maxSize={}", isEnabled, maxSize);
+    }
+
+    /**
+     * @return the cache; null if the cache is disabled
+     */
+    public static EntityVertexIdCache get() {
+        return instance;
+    }
+
+    public AtlasVertex getVertexByGuid(AtlasGraph graph, String guid) {
+        String      vertexId = guidVertexIds.get(guid);
+        AtlasVertex ret      = vertexId != null ? graph.getVertex(vertexId) : null;
+
+        if (vertexId != null && (ret == null || !guid.equals(GraphHelper.getGuid(ret)))) {
+            guidVertexIds.remove(guid);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    public void putGuid(String guid, AtlasVertex vertex) {
+        if (guid != null && vertex != null) {
+            guidVertexIds.put(guid, vertex.getIdForDisplay());
+        }
+    }
+
+    public AtlasVertex getVertexByUniqueAttribute(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        String      key      = getUniqueAttributeKey(entityType, attribute, attrValue);
+        String      vertexId = uniqueAttributeVertexIds.get(key);
+        AtlasVertex ret      = vertexId != null ? graph.getVertex(vertexId) : null;
+
+        if (vertexId != null && !isValid(ret, entityType, attribute, attrValue)) {
+            uniqueAttributeVertexIds.remove(key);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    public void putUniqueAttribute(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue, AtlasVertex vertex) {
+        if (attrValue != null && vertex != null) {
+            uniqueAttributeVertexIds.put(getUniqueAttributeKey(entityType, attribute, attrValue), vertex.getIdForDisplay());
+        }
+    }
+
+    public void clear() {
+        if (isEnabled) {
+            guidVertexIds.clear();
+            uniqueAttributeVertexIds.clear();
+        }
+    }
+
+    static String getUniqueAttributeKey(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        return entityType.getTypeName() + "." + attribute.getName() + "=" + attrValue;
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        // entities might have been changed by the earlier active instance
+        clear();
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        clear();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.ENTITY_VERTEX_ID_CACHE.getOrder();
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        onEntitiesUpdated(entities, isImport);
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        if (!isEnabled || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            AtlasVertex vertex = GraphTransactionInterceptor.getVertexFromCache(entity.getGuid());
+
+            removeUniqueAttributes(entity);
+
+            if (vertex != null && (entity.getStatus() == null || entity.getStatus() == Status.ACTIVE)) {
+                getPendingChanges().put(entity, vertex);
+            }
+        }
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) throws AtlasBaseException {
+        if (!isEnabled || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            removeUniqueAttributes(entity);
+
+            getPendingChanges().remove(entity, false);
+        }
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) throws AtlasBaseException {
+        if (!isEnabled || CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntity entity : entities) {
+            guidVertexIds.remove(entity.getGuid());
+
+            removeUniqueAttributes(entity);
+
+            getPendingChanges().remove(entity, true);
+        }
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        // classifications don't change vertex-ids
+    }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) throws AtlasBaseException {
+        // classifications don't change vertex-ids
+    }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        // classifications don't change vertex-ids
+    }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) throws AtlasBaseException {
+        // classifications don't change vertex-ids
+    }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) throws AtlasBaseException {
+        // classifications don't change vertex-ids
+    }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) throws AtlasBaseException {
+        // terms don't change vertex-ids
+    }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) throws AtlasBaseException {
+        // terms don't change vertex-ids
+    }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // only entity vertex-ids are cached
+    }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // only entity vertex-ids are cached
+    }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) throws AtlasBaseException {
+        // only entity vertex-ids are cached
+    }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) throws AtlasBaseException {
+        // only entity vertex-ids are cached
+    }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) throws AtlasBaseException {
+        // labels don't change vertex-ids
+    }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) throws AtlasBaseException {
+        // labels don't change vertex-ids
+    }
+
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) throws AtlasBaseException {
+        // business attributes are not unique attributes
+    }
+
+    private boolean isValid(AtlasVertex vertex, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        if (vertex == null || GraphHelper.getStatus(vertex) != Status.ACTIVE || !entityType.getTypeAndAllSubTypes().contains(GraphHelper.getTypeName(vertex))) {
+            return false;
+        }
+
+        Object vertexValue = vertex.getProperty(attribute.getVertexPropertyName(), Object.class);
+
+        return vertexValue != null && vertexValue.toString().equals(attrValue.toString());
+    }
+
+    private List<String> getUniqueAttributeKeys(AtlasEntity entity) {
+        List<String>    ret        = new ArrayList<>();
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+        // lookups by super-types find entities of sub-types as well
+        Set<AtlasEntityType> lookupTypes = new HashSet<>();
+
+        if (entityType != null) {
+            lookupTypes.add(entityType);
+
+            for (String superTypeName : entityType.getAllSuperTypes()) {
+                AtlasEntityType superType = typeRegistry.getEntityTypeByName(superTypeName);
+
+                if (superType != null) {
+                    lookupTypes.add(superType);
+                }
+            }
+        }
+
+        for (AtlasEntityType lookupType : lookupTypes) {
+            for (AtlasAttribute attribute : lookupType.getUniqAttributes().values()) {
+                Object attrValue = entity.getAttribute(attribute.getName());
+
+                if (attrValue != null) {
+                    ret.add(getUniqueAttributeKey(lookupType, attribute, attrValue));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private void removeUniqueAttributes(AtlasEntity entity) {
+        for (String key : getUniqueAttributeKeys(entity)) {
+            uniqueAttributeVertexIds.remove(key);
+        }
+    }
+
+    private PendingCacheChanges getPendingChanges() {
+        PendingCacheChanges ret = pendingChanges.get();
+
+        if (ret == null) {
+            ret = new PendingCacheChanges();
+
+            pendingChanges.set(ret);
+        }
+
+        return ret;
+    }
+
+    private class PendingCacheChanges extends PostTransactionHook {
+        private final Map<String, AtlasVertex> guidVertices            = new LinkedHashMap<>();
+        private final Map<String, AtlasVertex> uniqueAttributeVertices = new LinkedHashMap<>();
+        private final Set<String>              removedGuids            = new HashSet<>();
+        private final Set<String>              removedUniqueAttributes = new HashSet<>();
+
+        void put(AtlasEntity entity, AtlasVertex vertex) {
+            guidVertices.put(entity.getGuid(), vertex);
+
+            for (String key : getUniqueAttributeKeys(entity)) {
+                uniqueAttributeVertices.put(key, vertex);
+            }
+        }
+
+        void remove(AtlasEntity entity, boolean isPurge) {
+            if (isPurge) {
+                removedGuids.add(entity.getGuid());
+            }
+
+            guidVertices.remove(entity.getGuid());
+
+            for (String key : getUniqueAttributeKeys(entity)) {
+                uniqueAttributeVertices.remove(key);
+                removedUniqueAttributes.add(key);
+            }
+        }
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            pendingChanges.remove();
+
+            // lookups during the transaction might have cached entries of removed entities; remove them again
+            for (String guid : removedGuids) {
+                guidVertexIds.remove(guid);
+            }
+
+            for (String key : removedUniqueAttributes) {
+                uniqueAttributeVertexIds.remove(key);
+            }
+
+            if (isSuccess) {
+                for (Map.Entry<String, AtlasVertex> entry : guidVertices.entrySet()) {
+                    guidVertexIds.put(entry.getKey(), entry.getValue().getIdForDisplay());
+                }
+
+                for (Map.Entry<String, AtlasVertex> entry : uniqueAttributeVertices.entrySet()) {
+                    uniqueAttributeVertexIds.put(entry.getKey(), entry.getValue().getIdForDisplay());
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,11 @@ import org.apache.atlas.type.AtlasTypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class IDBasedEntityResolver implements EntityResolver {
     private static final Logger LOG = LoggerFactory.getLogger(IDBasedEntityResolver.class);
@@ -49,7 +54,9 @@ public class IDBasedEntityResolver implements EntityResolver {
             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "IDBasedEntityResolver.resolveEntityReferences(): context is null");
         }
 
-        EntityStream entityStream = context.getEntityStream();
+        EntityStream                                   entityStream     = context.getEntityStream();
+        Map<String, AtlasVertex>                       resolvedVertices = new HashMap<>();
+        Map<AtlasEntityType, Map<String, AtlasEntity>> entitiesToFind   = new LinkedHashMap<>();
 
         for (String guid : context.getReferencedGuids()) {
             boolean isAssignedGuid = AtlasTypeUtil.isAssignedGuid(guid);
@@ -58,23 +65,48 @@ public class IDBasedEntityResolver implements EntityResolver {
             if (vertex == null && !RequestContext.get().isImportInProgress()) { // if not found in the store, look if the entity is present in the stream
                 AtlasEntity entity = entityStream.getByGuid(guid);
 
-                if (entity != null) { // look for the entity in the store using unique-attributes
+                if (entity != null) { // look for the entity in the store using unique-attributes, in bulk below
                     AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
 
                     if (entityType == null) {
                         throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), entity.getTypeName());
                     }
 
-                    vertex = AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, entity.getAttributes());
+                    entitiesToFind.computeIfAbsent(entityType, k -> new LinkedHashMap<>()).put(guid, entity);
                 } else if (!isAssignedGuid) { // for local-guids, entity must be in the stream
                     throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, guid);
                 }
             }
 
+            if (vertex != null) {
+                resolvedVertices.put(guid, vertex);
+            }
+        }
+
+        for (Map.Entry<AtlasEntityType, Map<String, AtlasEntity>> entry : entitiesToFind.entrySet()) {
+            List<String>              guids      = new ArrayList<>(entry.getValue().keySet());
+            List<Map<String, Object>> attrValues = new ArrayList<>(guids.size());
+
+            for (AtlasEntity entity : entry.getValue().values()) {
+                attrValues.add(entity.getAttributes());
+            }
+
+            List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entry.getKey(), attrValues);
+
+            for (int i = 0; i < guids.size(); i++) {
+                if (vertices.get(i) != null) {
+                    resolvedVertices.put(guids.get(i), vertices.get(i));
+                }
+            }
+        }
+
+        for (String guid : context.getReferencedGuids()) {
+            AtlasVertex vertex = resolvedVertices.get(guid);
+
             if (vertex != null) {
                 context.addResolvedGuid(guid, vertex);
             } else {
-                if (isAssignedGuid && !RequestContext.get().isImportInProgress()) {
+                if (AtlasTypeUtil.isAssignedGuid(guid) && !RequestContext.get().isImportInProgress()) {
                     throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, guid);
                 } else {
                     context.addLocalGuidReference(guid);
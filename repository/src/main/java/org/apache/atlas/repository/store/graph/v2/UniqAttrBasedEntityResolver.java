@@ -32,7 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class UniqAttrBasedEntityResolver implements EntityResolver {
     private static final Logger LOG = LoggerFactory.getLogger(UniqAttrBasedEntityResolver.class);
@@ -54,27 +57,55 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
         }
 
         //Resolve attribute references
-        List<AtlasObjectId> resolvedReferences = new ArrayList<>();
+        List<AtlasObjectId>                       resolvedReferences = new ArrayList<>();
+        Map<AtlasEntityType, List<AtlasObjectId>> objIdsByType       = new LinkedHashMap<>();
+        Map<AtlasObjectId, AtlasVertex>           shellVertices      = new HashMap<>();
 
         for (AtlasObjectId objId : context.getReferencedByUniqAttribs()) {
-            //query in graph repo that given unique attribute - check for deleted also?
             AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
 
             if (entityType == null) {
                 throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), objId.getTypeName());
             }
 
-            AtlasVertex vertex = AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, objId.getUniqueAttributes());
+            objIdsByType.computeIfAbsent(entityType, k -> new ArrayList<>()).add(objId);
+        }
+
+        for (Map.Entry<AtlasEntityType, List<AtlasObjectId>> entry : objIdsByType.entrySet()) {
+            AtlasEntityType           entityType = entry.getKey();
+            List<AtlasObjectId>       objIds     = entry.getValue();
+            List<Map<String, Object>> attrValues = new ArrayList<>(objIds.size());
 
-            if (vertex == null && RequestContext.get().isCreateShellEntityForNonExistingReference()) {
-                vertex = entityGraphMapper.createShellEntityVertex(objId, context);
+            for (AtlasObjectId objId : objIds) {
+                attrValues.add(objId.getUniqueAttributes());
             }
 
-            if (vertex != null) {
-                context.addResolvedIdByUniqAttribs(objId, vertex);
-                resolvedReferences.add(objId);
-            } else {
-                throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, objId.toString());
+            //query in graph repo that given unique attribute - check for deleted also?
+            List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(this.graph, entityType, attrValues);
+
+            for (int i = 0; i < objIds.size(); i++) {
+                AtlasObjectId objId  = objIds.get(i);
+                AtlasVertex   vertex = vertices.get(i);
+
+                if (vertex == null && RequestContext.get().isCreateShellEntityForNonExistingReference()) {
+                    // references to the same entity must resolve to a single shell entity
+                    vertex = shellVertices.get(objId);
+
+                    if (vertex == null) {
+                        vertex = entityGraphMapper.createShellEntityVertex(objId, context);
+
+                        shellVertices.put(objId, vertex);
+
+                        AtlasGraphUtilsV2.addToUniqueAttributeCache(entityType, objId.getUniqueAttributes(), vertex);
+                    }
+                }
+
+                if (vertex != null) {
+                    context.addResolvedIdByUniqAttribs(objId, vertex);
+                    resolvedReferences.add(objId);
+                } else {
+                    throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, objId.toString());
+                }
             }
         }
 
@@ -31,6 +31,7 @@ import org.apache.atlas.repository.store.graph.v2.AtlasEntityStreamForImport;
 import org.apache.atlas.repository.store.graph.v2.BulkImporterImpl;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
 import org.apache.atlas.repository.store.graph.v2.EntityStream;
+import org.apache.atlas.services.EntityCountTracker;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.commons.collections.CollectionUtils;
@@ -99,6 +100,9 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
         RequestContext.get().setImportInProgress(true);
         RequestContext.get().setCreateShellEntityForNonExistingReference(true);
 
+        // entity counts changed in the batch are applied when the batch is committed
+        EntityCountTracker.beginTransaction();
+
         try {
             LOG.debug("Processing: {}", currentCount);
             importUsingBulkEntityStore(entityWithExtInfo);
@@ -132,13 +136,18 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
         synchronized (atlasGraph) {
             try {
                 LOG.info("Regular: EntityStore: {}: Starting...", this.counter.get());
+                EntityCountTracker.beginTransaction();
                 AtlasEntityStreamForImport oneEntityStream = new AtlasEntityStreamForImport(entityWithExtInfo, null);
                 this.entityStore.createOrUpdateForImportNoCommit(oneEntityStream);
                 atlasGraph.commit();
+                EntityCountTracker.onTransactionComplete(true);
+                GraphTransactionInterceptor.onTransactionComplete(true);
                 localResults.add(entityWithExtInfo.getEntity().getGuid());
                 dispatchResults();
             } catch (Exception e) {
                 atlasGraph.rollback();
+                EntityCountTracker.onTransactionComplete(false);
+                GraphTransactionInterceptor.onTransactionComplete(false);
                 LOG.error("Regular: EntityStore: Rollback!: Entity creation using regular (non-bulk) failed! Please correct entity and re-submit!", e);
             } finally {
                 LOG.info("Regular: EntityStore: {}: Commit: Done!", this.counter.get());
@@ -193,6 +202,9 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
 
         try {
             atlasGraphBulk.commit();
+            // entity stores used by import commit directly; apply entity count changes and run post-commit hooks
+            EntityCountTracker.onTransactionComplete(true);
+            GraphTransactionInterceptor.onTransactionComplete(true);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Commit: Done!: Buffer: {}: Batch: {}: Counter: {}", entityBuffer.size(), currentBatch.get(), counter.get());
             }
@@ -222,6 +234,8 @@ public class EntityConsumer extends WorkItemConsumer<AtlasEntity.AtlasEntityWith
     private void bulkGraphRollback(int retryCount) {
         try {
             atlasGraphBulk.rollback();
+            EntityCountTracker.onTransactionComplete(false);
+            GraphTransactionInterceptor.onTransactionComplete(false);
             clearCache();
         } catch (Exception e) {
             LOG.error("Rollback: Exception! Buffer: {}: Counter: {}: Retry count: {}", entityBuffer.size(), counter.get(), retryCount);
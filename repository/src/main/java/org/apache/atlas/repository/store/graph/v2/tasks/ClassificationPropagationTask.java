@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.tasks.AbstractTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds or removes propagation of a classification, in batches of entities. Each batch is committed in a separate
+ * graph transaction, so that propagation to a large lineage doesn't run into transaction timeouts.
+ *
+ * Entities to propagate to (or remove propagation from) are computed when the task starts; entities already
+ * processed by an earlier attempt are skipped, as their propagated edge already exists (or has been removed).
+ */
+public class ClassificationPropagationTask extends AbstractTask {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationPropagationTask.class);
+
+    public static final String CLASSIFICATION_PROPAGATION_ADD    = "CLASSIFICATION_PROPAGATION_ADD";
+    public static final String CLASSIFICATION_PROPAGATION_DELETE = "CLASSIFICATION_PROPAGATION_DELETE";
+
+    public static final String PARAM_ENTITY_GUID              = "entityGuid";
+    public static final String PARAM_CLASSIFICATION_NAME      = "classificationName";
+    public static final String PARAM_CLASSIFICATION_VERTEX_ID = "classificationVertexId";
+
+    private final AtlasGraph        graph;
+    private final EntityGraphMapper entityGraphMapper;
+    private final int               batchSize;
+
+    public ClassificationPropagationTask(AtlasTask task, AtlasGraph graph, EntityGraphMapper entityGraphMapper, int batchSize) {
+        super(task);
+
+        this.graph             = graph;
+        this.entityGraphMapper = entityGraphMapper;
+        this.batchSize         = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Tasks on the same classification are executed in the order they were created - for example, removal of
+     * propagation after an earlier add of propagation.
+     */
+    @Override
+    public String getKey() {
+        return getClassificationVertexId();
+    }
+
+    @Override
+    public void run() throws AtlasBaseException {
+        AtlasTask    task                   = getTask();
+        boolean      isAdd                  = CLASSIFICATION_PROPAGATION_ADD.equals(task.getType());
+        String       classificationVertexId = getClassificationVertexId();
+        List<String> entityVertexIds;
+
+        try {
+            AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+            if (classificationVertex == null) {
+                LOG.info("{}: classification {} of entity {} not found. Nothing to do", task.getType(), task.getParameter(PARAM_CLASSIFICATION_NAME), task.getParameter(PARAM_ENTITY_GUID));
+
+                return;
+            }
+
+            entityVertexIds = isAdd ? entityGraphMapper.getPropagationTargetVertexIds(classificationVertex) : entityGraphMapper.getPropagatedEntityVertexIds(classificationVertex);
+        } finally {
+            graph.commit();
+
+            GraphTransactionInterceptor.onTransactionComplete(true);
+        }
+
+        LOG.info("{}: classification {} of entity {}: {} entities to process", task.getType(), task.getParameter(PARAM_CLASSIFICATION_NAME), task.getParameter(PARAM_ENTITY_GUID), entityVertexIds.size());
+
+        for (int fromIdx = 0; fromIdx < entityVertexIds.size(); fromIdx += batchSize) {
+            checkCancelled();
+
+            List<String> batch = entityVertexIds.subList(fromIdx, Math.min(fromIdx + batchSize, entityVertexIds.size()));
+
+            if (!processBatch(isAdd, classificationVertexId, batch)) {
+                break;
+            }
+        }
+
+        if (!isAdd) {
+            boolean isSuccess = false;
+
+            try {
+                AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+                // vertex of a deleted classification is retained until its propagations are removed
+                if (classificationVertex != null) {
+                    entityGraphMapper.deleteClassificationVertexIfUnreferenced(classificationVertex);
+                }
+
+                graph.commit();
+
+                isSuccess = true;
+            } finally {
+                if (!isSuccess) {
+                    graph.rollback();
+                }
+
+                GraphTransactionInterceptor.onTransactionComplete(isSuccess);
+            }
+        }
+    }
+
+    /**
+     * @return false if the classification is no longer present
+     */
+    private boolean processBatch(boolean isAdd, String classificationVertexId, List<String> entityVertexIds) throws AtlasBaseException {
+        boolean isSuccess = false;
+
+        // start each batch with a new request context, to limit the entities cached and propagations recorded
+        RequestContext.clear();
+        RequestContext.get().setUser(getTask().getCreatedBy(), null);
+
+        try {
+            AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+            if (classificationVertex == null) {
+                return false;
+            }
+
+            List<AtlasVertex> entityVertices = new ArrayList<>(entityVertexIds.size());
+
+            for (String entityVertexId : entityVertexIds) {
+                AtlasVertex entityVertex = graph.getVertex(entityVertexId);
+
+                if (entityVertex != null) {
+                    entityVertices.add(entityVertex);
+                }
+            }
+
+            if (isAdd) {
+                entityGraphMapper.addClassificationPropagations(classificationVertex, entityVertices);
+            } else {
+                entityGraphMapper.removeClassificationPropagations(classificationVertex, entityVertices);
+            }
+
+            graph.commit();
+
+            isSuccess = true;
+        } finally {
+            if (!isSuccess) {
+                graph.rollback();
+            }
+
+            // batches are committed here rather than by a GraphTransaction method; complete post-commit work, like
+            // notifications of the propagated classifications, for this batch
+            GraphTransactionInterceptor.onTransactionComplete(isSuccess);
+        }
+
+        return true;
+    }
+
+    private String getClassificationVertexId() {
+        return (String) getTask().getParameter(PARAM_CLASSIFICATION_VERTEX_ID);
+    }
+}
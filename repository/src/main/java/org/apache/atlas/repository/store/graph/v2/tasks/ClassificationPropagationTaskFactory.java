@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.tasks.AbstractTask;
+import org.apache.atlas.tasks.TaskFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_ADD;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_DELETE;
+
+@Component
+public class ClassificationPropagationTaskFactory implements TaskFactory {
+    private static final List<String> SUPPORTED_TYPES = Arrays.asList(CLASSIFICATION_PROPAGATION_ADD, CLASSIFICATION_PROPAGATION_DELETE);
+
+    private final AtlasGraph        graph;
+    private final EntityGraphMapper entityGraphMapper;
+    private final int               batchSize;
+
+    @Inject
+    public ClassificationPropagationTaskFactory(AtlasGraph graph, EntityGraphMapper entityGraphMapper) {
+        this.graph             = graph;
+        this.entityGraphMapper = entityGraphMapper;
+        this.batchSize         = AtlasConfiguration.TASKS_BATCH_SIZE.getInt();
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        return new ClassificationPropagationTask(task, graph, entityGraphMapper, batchSize);
+    }
+
+    /**
+     * Propagations of a deleted classification, and its vertex, are removed only by the delete task; hence it can't be
+     * cancelled, even before it starts.
+     */
+    @Override
+    public boolean isCancellable(AtlasTask task) {
+        return !CLASSIFICATION_PROPAGATION_DELETE.equals(task.getType());
+    }
+}
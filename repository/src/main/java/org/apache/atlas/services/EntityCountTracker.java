@@ -0,0 +1,658 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.GraphTransactionInterceptor.PostTransactionHook;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasEntity.Status;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_VERTEX_TYPE;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.INCOMPLETE_ENTITY_VALUE;
+import static org.apache.atlas.repository.Constants.IS_INCOMPLETE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
+import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
+
+/**
+ * Number of entities per type - active, deleted and shell - and number of classifications per type, maintained in
+ * memory so that MetricsService doesn't have to run index queries for every type.
+ *
+ * Changes are recorded by the repository as vertices are created/deleted, accumulated per graph transaction and
+ * applied only when the transaction commits successfully. Threads that commit the graph directly, instead of through
+ * a GraphTransaction method, bracket each transaction with beginTransaction() and onTransactionComplete(); changes
+ * recorded outside of both are applied right away. The counts are periodically reconciled against the index and saved
+ * in the graph; the saved snapshot is loaded when the instance starts or becomes active, and is reconciled right away
+ * after a failover.
+ */
+@Singleton
+@Component
+@Order(4)
+public class EntityCountTracker implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCountTracker.class);
+
+    public static final String ENTITY_COUNTS_ENABLED                = "atlas.metrics.entity.counts.enabled";
+    public static final String ENTITY_COUNTS_RECONCILE_INTERVAL_MS  = "atlas.metrics.entity.counts.reconcile.interval.ms";
+    public static final String ENTITY_COUNTS_SNAPSHOT_INTERVAL_MS   = "atlas.metrics.entity.counts.snapshot.interval.ms";
+
+    private static final long DEFAULT_RECONCILE_INTERVAL_MS = 6 * 60 * 60 * 1000L; // 6 hours
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MS  = 60 * 1000L;          // 1 minute
+
+    private static final int RECONCILE_MAX_ATTEMPTS_PER_TYPE = 3;
+
+    private static final String SNAPSHOT_KEY_ACTIVE         = "active";
+    private static final String SNAPSHOT_KEY_DELETED        = "deleted";
+    private static final String SNAPSHOT_KEY_SHELL          = "shell";
+    private static final String SNAPSHOT_KEY_CLASSIFICATION = "classification";
+
+    private static final ThreadLocal<PendingCountChanges> pendingChanges = new ThreadLocal<>();
+    private static volatile EntityCountTracker            instance;
+
+    private final AtlasGraph                     graph;
+    private final AtlasTypeRegistry              typeRegistry;
+    private final boolean                        isEnabled;
+    private final boolean                        isHAEnabled;
+    private final long                           reconcileIntervalMs;
+    private final long                           snapshotIntervalMs;
+    private final String                         indexSearchPrefix    = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final Map<String, AtomicLong>        activeCounts         = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>        deletedCounts        = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>        shellCounts          = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>        classificationCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>        typeChangeVersions   = new ConcurrentHashMap<>();
+    private final AtomicLong                     changeVersion        = new AtomicLong();
+    private final ReadWriteLock                  countsLock           = new ReentrantReadWriteLock(); // read: applyChanges(); write: reconcile()
+    private volatile boolean                     isLoaded             = false;
+    private long                                 savedVersion         = -1;
+    private ScheduledExecutorService             executor;
+
+    @Inject
+    public EntityCountTracker(AtlasGraph graph, AtlasTypeRegistry typeRegistry, Configuration configuration) {
+        this.graph               = graph;
+        this.typeRegistry        = typeRegistry;
+        this.isEnabled           = configuration.getBoolean(ENTITY_COUNTS_ENABLED, true);
+        this.isHAEnabled         = HAConfiguration.isHAEnabled(configuration);
+        this.reconcileIntervalMs = configuration.getLong(ENTITY_COUNTS_RECONCILE_INTERVAL_MS, DEFAULT_RECONCILE_INTERVAL_MS);
+        this.snapshotIntervalMs  = configuration.getLong(ENTITY_COUNTS_SNAPSHOT_INTERVAL_MS, DEFAULT_SNAPSHOT_INTERVAL_MS);
+
+        LOG.info("{}={}", ENTITY_COUNTS_ENABLED, isEnabled);
+        LOG.info("{}={}", ENTITY_COUNTS_RECONCILE_INTERVAL_MS, reconcileIntervalMs);
+        LOG.info("{}={}", ENTITY_COUNTS_SNAPSHOT_INTERVAL_MS, snapshotIntervalMs);
+
+        if (isEnabled) {
+            instance = this;
+        }
+    }
+
+    /**
+     * Records change in number of entities of the given type in the current graph transaction.
+     * @param typeName   entity type name
+     * @param fromState  state of the entity before the change; null for a newly created entity
+     * @param toState    state of the entity after the change; null for a removed entity
+     * @param shellDelta change in number of shell entities: 1, -1 or 0
+     */
+    public static void recordEntityChange(String typeName, Status fromState, Status toState, int shellDelta) {
+        EntityCountTracker tracker = instance;
+
+        if (tracker != null && typeName != null && (fromState != toState || shellDelta != 0)) {
+            PendingCountChanges changes = getPendingChanges();
+
+            if (changes != null) {
+                changes.addEntityChange(typeName, fromState, toState, shellDelta);
+            } else {
+                changes = new PendingCountChanges();
+
+                changes.addEntityChange(typeName, fromState, toState, shellDelta);
+
+                tracker.applyChanges(changes);
+            }
+        }
+    }
+
+    /**
+     * Records change in number of active classifications of the given type in the current graph transaction.
+     */
+    public static void recordClassificationChange(String typeName, int delta) {
+        EntityCountTracker tracker = instance;
+
+        if (tracker != null && typeName != null && delta != 0) {
+            PendingCountChanges changes = getPendingChanges();
+
+            if (changes != null) {
+                changes.addClassificationChange(typeName, delta);
+            } else {
+                changes = new PendingCountChanges();
+
+                changes.addClassificationChange(typeName, delta);
+
+                tracker.applyChanges(changes);
+            }
+        }
+    }
+
+    /**
+     * For threads that commit the graph directly, instead of through a GraphTransaction method: changes recorded after
+     * this call are held until onTransactionComplete() is called, after the graph is committed or rolled back.
+     */
+    public static void beginTransaction() {
+        if (instance != null && pendingChanges.get() == null) {
+            pendingChanges.set(new PendingCountChanges());
+        }
+    }
+
+    /**
+     * Applies changes held for the current thread's transaction if it committed successfully, and discards them otherwise.
+     */
+    public static void onTransactionComplete(boolean isSuccess) {
+        PendingCountChanges changes = pendingChanges.get();
+
+        if (changes != null) {
+            pendingChanges.remove();
+
+            EntityCountTracker tracker = instance;
+
+            if (isSuccess && tracker != null) {
+                tracker.applyChanges(changes);
+            }
+        }
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            LOG.info("EntityCountTracker: disabled");
+
+            return;
+        }
+
+        if (!isHAEnabled) {
+            startInternal(false);
+        } else {
+            LOG.info("EntityCountTracker.start(): deferring until instance activation");
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopInternal();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> EntityCountTracker.instanceIsActive()");
+
+            // snapshot was saved by the previously active instance, which might have failed before saving recent changes
+            startInternal(true);
+
+            LOG.info("<== EntityCountTracker.instanceIsActive()");
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> EntityCountTracker.instanceIsPassive()");
+
+            stopInternal();
+
+            // counts will be loaded from the snapshot saved by the active instance, when this instance becomes active
+            isLoaded = false;
+
+            clearCounts();
+
+            LOG.info("<== EntityCountTracker.instanceIsPassive()");
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.ENTITY_COUNT_TRACKER.getOrder();
+    }
+
+    /**
+     * @return true if the counts are available - i.e. loaded from a snapshot or reconciled with the index
+     */
+    public boolean isAvailable() {
+        return isEnabled && isLoaded;
+    }
+
+    public long getActiveCount(String typeName) {
+        return getCount(activeCounts, typeName);
+    }
+
+    public long getDeletedCount(String typeName) {
+        return getCount(deletedCounts, typeName);
+    }
+
+    public long getShellCount(String typeName) {
+        return getCount(shellCounts, typeName);
+    }
+
+    public long getClassificationCount(String typeName) {
+        return getCount(classificationCounts, typeName);
+    }
+
+    public long getIndexActiveCount(String typeName) {
+        return getIndexCount(typeName, ACTIVE);
+    }
+
+    public long getIndexDeletedCount(String typeName) {
+        return getIndexCount(typeName, DELETED);
+    }
+
+    public long getIndexShellCount(String typeName) {
+        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
+                            indexSearchPrefix + "\"" + IS_INCOMPLETE_PROPERTY_KEY + "\" : " + INCOMPLETE_ENTITY_VALUE.intValue();
+
+        return runCountQuery(String.format(indexQuery, typeName));
+    }
+
+    /**
+     * Updates the counts to the values from the index, and saves a snapshot.
+     *
+     * Changes can be committed while the index is queried, and the index may or may not include them. Hence the counts
+     * of a type are set to the index values only if no change to the type was applied while its index queries ran;
+     * otherwise the queries are retried a few times, after which the type is left to be reconciled in the next run.
+     */
+    public void reconcile() {
+        LOG.info("==> EntityCountTracker.reconcile()");
+
+        long startTime = System.currentTimeMillis();
+
+        Collection<String> entityDefNames         = typeRegistry.getAllEntityDefNames();
+        Collection<String> classificationDefNames = typeRegistry.getAllClassificationDefNames();
+        int                skippedCount           = 0;
+
+        try {
+            if (entityDefNames != null) {
+                for (String typeName : entityDefNames) {
+                    boolean isUpdated = false;
+
+                    for (int attempt = 0; attempt < RECONCILE_MAX_ATTEMPTS_PER_TYPE && !isUpdated; attempt++) {
+                        long   typeVersion = getTypeChangeVersion(typeName);
+                        long[] counts      = new long[] { getIndexActiveCount(typeName), getIndexDeletedCount(typeName), getIndexShellCount(typeName) };
+
+                        isUpdated = setCounts(typeName, typeVersion, counts, activeCounts, deletedCounts, shellCounts);
+                    }
+
+                    if (!isUpdated) {
+                        skippedCount++;
+                    }
+                }
+            }
+
+            if (classificationDefNames != null) {
+                for (String typeName : classificationDefNames) {
+                    boolean isUpdated = false;
+
+                    for (int attempt = 0; attempt < RECONCILE_MAX_ATTEMPTS_PER_TYPE && !isUpdated; attempt++) {
+                        long   typeVersion = getTypeChangeVersion(typeName);
+                        long[] counts      = new long[] { getIndexActiveCount(typeName) };
+
+                        isUpdated = setCounts(typeName, typeVersion, counts, classificationCounts);
+                    }
+
+                    if (!isUpdated) {
+                        skippedCount++;
+                    }
+                }
+            }
+        } finally {
+            graph.commit();
+        }
+
+        changeVersion.incrementAndGet();
+
+        isLoaded = true;
+
+        saveSnapshot();
+
+        LOG.info("<== EntityCountTracker.reconcile(): timeTaken={}ms, typesNotReconciled={}", (System.currentTimeMillis() - startTime), skippedCount);
+    }
+
+    private synchronized void startInternal(boolean reconcileNow) {
+        if (executor != null) {
+            return;
+        }
+
+        isLoaded = loadSnapshot();
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "atlas-entity-count-tracker");
+
+            t.setDaemon(true);
+
+            return t;
+        });
+
+        // without a snapshot, counts are not available until the first reconciliation
+        long reconcileDelay = (isLoaded && !reconcileNow) ? reconcileIntervalMs : 0;
+
+        executor.scheduleWithFixedDelay(this::reconcileSafely, reconcileDelay, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+
+        executor.scheduleWithFixedDelay(this::saveSnapshotSafely, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopInternal() {
+        if (executor != null) {
+            executor.shutdownNow();
+
+            executor = null;
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Throwable t) {
+            LOG.error("EntityCountTracker: reconcile failed", t);
+        }
+    }
+
+    private void saveSnapshotSafely() {
+        try {
+            saveSnapshot();
+        } catch (Throwable t) {
+            LOG.error("EntityCountTracker: failed to save snapshot", t);
+        }
+    }
+
+    private void applyChanges(PendingCountChanges changes) {
+        countsLock.readLock().lock();
+
+        try {
+            for (Map.Entry<String, long[]> entry : changes.entityDeltas.entrySet()) {
+                String typeName = entry.getKey();
+                long[] deltas   = entry.getValue();
+
+                addCount(activeCounts, typeName, deltas[0]);
+                addCount(deletedCounts, typeName, deltas[1]);
+                addCount(shellCounts, typeName, deltas[2]);
+                addCount(typeChangeVersions, typeName, 1);
+            }
+
+            for (Map.Entry<String, Long> entry : changes.classificationDeltas.entrySet()) {
+                addCount(classificationCounts, entry.getKey(), entry.getValue());
+                addCount(typeChangeVersions, entry.getKey(), 1);
+            }
+        } finally {
+            countsLock.readLock().unlock();
+        }
+
+        changeVersion.incrementAndGet();
+    }
+
+    private long getTypeChangeVersion(String typeName) {
+        AtomicLong ret = typeChangeVersions.get(typeName);
+
+        return ret != null ? ret.get() : 0;
+    }
+
+    // sets counts of the type, unless a change to the type was applied after typeVersion was read
+    @SafeVarargs
+    private final boolean setCounts(String typeName, long typeVersion, long[] values, Map<String, AtomicLong>... counts) {
+        boolean ret = false;
+
+        countsLock.writeLock().lock();
+
+        try {
+            if (getTypeChangeVersion(typeName) == typeVersion) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i].computeIfAbsent(typeName, k -> new AtomicLong()).set(values[i]);
+                }
+
+                ret = true;
+            }
+        } finally {
+            countsLock.writeLock().unlock();
+        }
+
+        if (!ret && LOG.isDebugEnabled()) {
+            LOG.debug("EntityCountTracker.reconcile(): {} changed while the index was queried; not updated", typeName);
+        }
+
+        return ret;
+    }
+
+    private boolean loadSnapshot() {
+        boolean ret = false;
+
+        try {
+            AtlasVertex vertex   = findSnapshotVertex();
+            String      snapshot = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, ENTITY_COUNTS_PROPERTY_KEY, String.class) : null;
+
+            if (StringUtils.isNotEmpty(snapshot)) {
+                Map<String, Map<String, Number>> counts = AtlasType.fromJson(snapshot, Map.class);
+
+                // counts can already include changes made after this instance started; hence add to existing counts
+                addCounts(activeCounts, counts.get(SNAPSHOT_KEY_ACTIVE));
+                addCounts(deletedCounts, counts.get(SNAPSHOT_KEY_DELETED));
+                addCounts(shellCounts, counts.get(SNAPSHOT_KEY_SHELL));
+                addCounts(classificationCounts, counts.get(SNAPSHOT_KEY_CLASSIFICATION));
+
+                ret = true;
+
+                LOG.info("EntityCountTracker: loaded counts snapshot saved at {}", AtlasGraphUtilsV2.getEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class));
+            } else {
+                LOG.info("EntityCountTracker: no counts snapshot found");
+            }
+        } catch (Throwable t) {
+            LOG.warn("EntityCountTracker: failed to load counts snapshot", t);
+        } finally {
+            graph.commit();
+        }
+
+        return ret;
+    }
+
+    private synchronized void saveSnapshot() {
+        long version = changeVersion.get();
+
+        if (!isLoaded || version == savedVersion) {
+            return;
+        }
+
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+
+        counts.put(SNAPSHOT_KEY_ACTIVE, toMap(activeCounts));
+        counts.put(SNAPSHOT_KEY_DELETED, toMap(deletedCounts));
+        counts.put(SNAPSHOT_KEY_SHELL, toMap(shellCounts));
+        counts.put(SNAPSHOT_KEY_CLASSIFICATION, toMap(classificationCounts));
+
+        boolean isSuccess = false;
+
+        try {
+            AtlasVertex vertex = findSnapshotVertex();
+
+            if (vertex == null) {
+                vertex = graph.addVertex();
+
+                AtlasGraphUtilsV2.setEncodedProperty(vertex, VERTEX_TYPE_PROPERTY_KEY, ENTITY_COUNTS_VERTEX_TYPE);
+            }
+
+            AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_COUNTS_PROPERTY_KEY, AtlasType.toJson(counts));
+            AtlasGraphUtilsV2.setEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, System.currentTimeMillis());
+
+            graph.commit();
+
+            isSuccess    = true;
+            savedVersion = version;
+        } finally {
+            if (!isSuccess) {
+                graph.rollback();
+            }
+        }
+    }
+
+    private AtlasVertex findSnapshotVertex() {
+        Iterator<AtlasVertex> vertices = graph.query().has(VERTEX_TYPE_PROPERTY_KEY, ENTITY_COUNTS_VERTEX_TYPE).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private long getIndexCount(String typeName, Status status) {
+        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
+                            indexSearchPrefix + "\"" + STATE_PROPERTY_KEY       + "\" : (%s)";
+
+        return runCountQuery(String.format(indexQuery, typeName, status.name()));
+    }
+
+    private long runCountQuery(String indexQuery) {
+        Long ret = null;
+
+        try {
+            ret = graph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
+        } catch (Exception e) {
+            LOG.error("Failed fetching using indexQuery: " + e.getMessage());
+        }
+
+        return ret == null ? 0L : ret;
+    }
+
+    private void clearCounts() {
+        activeCounts.clear();
+        deletedCounts.clear();
+        shellCounts.clear();
+        classificationCounts.clear();
+        typeChangeVersions.clear();
+    }
+
+    // changes of a GraphTransaction are held until the transaction completes; null if no transaction is open
+    private static PendingCountChanges getPendingChanges() {
+        PendingCountChanges ret = pendingChanges.get();
+
+        if (ret == null && GraphTransactionInterceptor.isTransactionOpen()) {
+            ret = new PendingCountChanges();
+
+            pendingChanges.set(ret);
+
+            new CompleteTransactionHook();
+        }
+
+        return ret;
+    }
+
+    private static long getCount(Map<String, AtomicLong> counts, String typeName) {
+        AtomicLong ret = counts.get(typeName);
+
+        return ret != null ? Math.max(ret.get(), 0) : 0;
+    }
+
+    private static void addCount(Map<String, AtomicLong> counts, String typeName, long delta) {
+        if (delta != 0) {
+            counts.computeIfAbsent(typeName, k -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static void addCounts(Map<String, AtomicLong> counts, Map<String, Number> values) {
+        if (values != null) {
+            for (Map.Entry<String, Number> entry : values.entrySet()) {
+                addCount(counts, entry.getKey(), entry.getValue().longValue());
+            }
+        }
+    }
+
+    private static Map<String, Long> toMap(Map<String, AtomicLong> counts) {
+        Map<String, Long> ret = new HashMap<>();
+
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            long count = entry.getValue().get();
+
+            if (count != 0) {
+                ret.put(entry.getKey(), count);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Count changes made in a graph transaction; applied when the transaction completes successfully.
+     */
+    private static class PendingCountChanges {
+        private final Map<String, long[]> entityDeltas         = new HashMap<>(); // typeName -> { active, deleted, shell }
+        private final Map<String, Long>   classificationDeltas = new HashMap<>();
+
+        void addEntityChange(String typeName, Status fromState, Status toState, int shellDelta) {
+            long[] deltas = entityDeltas.computeIfAbsent(typeName, k -> new long[3]);
+
+            if (fromState != toState) {
+                if (fromState == ACTIVE) {
+                    deltas[0]--;
+                } else if (fromState == DELETED) {
+                    deltas[1]--;
+                }
+
+                if (toState == ACTIVE) {
+                    deltas[0]++;
+                } else if (toState == DELETED) {
+                    deltas[1]++;
+                }
+            }
+
+            deltas[2] += shellDelta;
+        }
+
+        void addClassificationChange(String typeName, int delta) {
+            classificationDeltas.merge(typeName, (long) delta, Long::sum);
+        }
+
+    }
+
+    private static class CompleteTransactionHook extends PostTransactionHook {
+        @Override
+        public void onComplete(boolean isSuccess) {
+            onTransactionComplete(isSuccess);
+        }
+    }
+}
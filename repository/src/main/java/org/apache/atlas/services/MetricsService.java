@@ -19,10 +19,7 @@ package org.apache.atlas.services;
 
 import org.apache.atlas.annotation.AtlasService;
 import org.apache.atlas.annotation.GraphTransaction;
-import org.apache.atlas.model.instance.AtlasEntity.Status;
 import org.apache.atlas.model.metrics.AtlasMetrics;
-import org.apache.atlas.repository.graphdb.AtlasGraph;
-import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasMetricJVMUtil;
@@ -36,11 +33,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
-import static org.apache.atlas.repository.Constants.*;
-
 @AtlasService
 public class MetricsService {
     private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
@@ -71,16 +63,15 @@ public class MetricsService {
     protected static final String METRIC_ENTITY_DELETED_INCL_SUBTYPES = ENTITY + "Deleted"+"-"+TYPE_SUBTYPES;
     protected static final String METRIC_ENTITY_SHELL_INCL_SUBTYPES = ENTITY + "Shell"+"-"+TYPE_SUBTYPES;
 
-    private final AtlasGraph        atlasGraph;
-    private final AtlasTypeRegistry typeRegistry;
-    private final AtlasMetricsUtil  metricsUtil;
-    private final String            indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final AtlasTypeRegistry  typeRegistry;
+    private final AtlasMetricsUtil   metricsUtil;
+    private final EntityCountTracker entityCountTracker;
 
     @Inject
-    public MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
-        this.atlasGraph   = graph;
-        this.typeRegistry = typeRegistry;
-        this.metricsUtil  = metricsUtil;
+    public MetricsService(final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, EntityCountTracker entityCountTracker) {
+        this.typeRegistry       = typeRegistry;
+        this.metricsUtil        = metricsUtil;
+        this.entityCountTracker = entityCountTracker;
     }
 
     @SuppressWarnings("unchecked")
@@ -100,11 +91,14 @@ public class MetricsService {
         long               unusedTypeCount        = 0;
         long               totalEntities          = 0;
 
+        // use counts maintained by entityCountTracker when available, instead of running index queries for each type
+        boolean            useTrackedCounts       = entityCountTracker.isAvailable();
+
         if (entityDefNames != null) {
             for (String entityDefName : entityDefNames) {
-                long activeCount  = getTypeCount(entityDefName, ACTIVE);
-                long deletedCount = getTypeCount(entityDefName, DELETED);
-                long shellCount = getTypeShellCount(entityDefName);
+                long activeCount  = useTrackedCounts ? entityCountTracker.getActiveCount(entityDefName) : entityCountTracker.getIndexActiveCount(entityDefName);
+                long deletedCount = useTrackedCounts ? entityCountTracker.getDeletedCount(entityDefName) : entityCountTracker.getIndexDeletedCount(entityDefName);
+                long shellCount   = useTrackedCounts ? entityCountTracker.getShellCount(entityDefName) : entityCountTracker.getIndexShellCount(entityDefName);
 
                 if (activeCount > 0) {
                     activeEntityCount.put(entityDefName, activeCount);
@@ -151,7 +145,7 @@ public class MetricsService {
 
         if (classificationDefNames != null) {
             for (String classificationDefName : classificationDefNames) {
-                long count = getTypeCount(classificationDefName, ACTIVE);
+                long count = useTrackedCounts ? entityCountTracker.getClassificationCount(classificationDefName) : entityCountTracker.getIndexActiveCount(classificationDefName);
 
                 if (count > 0) {
                     taggedEntityCount.put(classificationDefName, count);
@@ -183,38 +177,6 @@ public class MetricsService {
         return metrics;
     }
 
-    private long getTypeCount(String typeName, Status status) {
-        Long   ret        = null;
-        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
-                indexSearchPrefix + "\"" + STATE_PROPERTY_KEY       + "\" : (%s)";
-
-        indexQuery = String.format(indexQuery, typeName, status.name());
-
-        try {
-            ret = atlasGraph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
-        }catch (Exception e){
-            LOG.error("Failed fetching using indexQuery: " + e.getMessage());
-        }
-
-        return ret == null ? 0L : ret;
-    }
-
-    private long getTypeShellCount(String typeName) {
-        Long   ret        = null;
-        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
-                indexSearchPrefix + "\"" + IS_INCOMPLETE_PROPERTY_KEY + "\" : " + INCOMPLETE_ENTITY_VALUE.intValue();
-
-        indexQuery = String.format(indexQuery, typeName);
-
-        try {
-            ret = atlasGraph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
-        }catch (Exception e){
-            LOG.error("Failed fetching using indexQuery: " + e.getMessage());
-        }
-
-        return ret == null ? 0L : ret;
-    }
-
     private int getAllTypesCount() {
         Collection<String> allTypeNames = typeRegistry.getAllTypeNames();
 
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+
+/**
+ * Executable form of a task.
+ *
+ * Implementations should do their work in bounded batches, each committed in its own graph transaction, and call
+ * checkCancelled() between batches. Tasks can be re-executed after a failure or a restart; hence batches that were
+ * already committed must be safe to apply again.
+ */
+public abstract class AbstractTask {
+    private final AtlasTask task;
+    private volatile boolean isCancelled = false;
+
+    protected AbstractTask(AtlasTask task) {
+        this.task = task;
+    }
+
+    public AtlasTask getTask() {
+        return task;
+    }
+
+    /**
+     * @return key used to order execution of tasks; tasks with the same key are executed in the order of their creation
+     */
+    public String getKey() {
+        return task.getGuid();
+    }
+
+    public abstract void run() throws AtlasBaseException;
+
+    void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * @throws TaskCancelledException if cancellation of the task has been requested
+     */
+    protected void checkCancelled() throws TaskCancelledException {
+        if (isCancelled) {
+            throw new TaskCancelledException(task.getGuid());
+        }
+    }
+
+    public static class TaskCancelledException extends RuntimeException {
+        public TaskCancelledException(String guid) {
+            super("task " + guid + " cancelled");
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.tasks.AbstractTask.TaskCancelledException;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes tasks deferred by requests, like propagation of classifications.
+ *
+ * Tasks are executed by a pool of single-threaded workers. Tasks with the same key (for example, tasks that operate
+ * on the same classification) are always executed by the same worker, in the order they were created. Incomplete
+ * tasks are loaded from the graph when the instance starts or becomes active, so that work is resumed after a
+ * restart or an HA failover. Pending tasks are also checked for periodically, to dispatch tasks that were created
+ * outside of a GraphTransaction - which are not handed to the dispatcher on commit.
+ */
+@Component
+@Order(4)
+public class TaskManagement implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskManagement.class);
+
+    private static final long RETRY_WAIT_MS = 5000;
+
+    private final TaskRegistry              registry;
+    private final Map<String, TaskFactory>  taskFactories = new HashMap<>();
+    private final Map<String, AbstractTask> queuedTasks   = new ConcurrentHashMap<>();
+    private final boolean                   isEnabled;
+    private final boolean                   isHAEnabled;
+    private final int                       workerCount;
+    private final int                       maxAttempts;
+    private final long                      pollIntervalMs;
+    private ExecutorService[]               workers;
+    private ScheduledExecutorService        poller;
+
+    @Inject
+    public TaskManagement(Configuration configuration, TaskRegistry registry, List<TaskFactory> taskFactories) {
+        this.registry       = registry;
+        this.isEnabled      = AtlasConfiguration.TASKS_ENABLED.getBoolean();
+        this.isHAEnabled    = HAConfiguration.isHAEnabled(configuration);
+        this.workerCount    = Math.max(AtlasConfiguration.TASKS_WORKER_COUNT.getInt(), 1);
+        this.maxAttempts    = Math.max(AtlasConfiguration.TASKS_MAX_ATTEMPTS.getInt(), 1);
+        this.pollIntervalMs = Math.max(AtlasConfiguration.TASKS_POLL_INTERVAL_MS.getLong(), 1000);
+
+        for (TaskFactory taskFactory : taskFactories) {
+            for (String taskType : taskFactory.getSupportedTypes()) {
+                this.taskFactories.put(taskType, taskFactory);
+            }
+        }
+
+        LOG.info("TaskManagement: enabled={}, workerCount={}, maxAttempts={}, pollIntervalMs={}, taskTypes={}", isEnabled, workerCount, maxAttempts, pollIntervalMs, this.taskFactories.keySet());
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            LOG.info("TaskManagement: disabled");
+
+            return;
+        }
+
+        if (!isHAEnabled) {
+            startInternal();
+        } else {
+            LOG.info("TaskManagement.start(): deferring until instance activation");
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopInternal();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> TaskManagement.instanceIsActive()");
+
+            startInternal();
+
+            LOG.info("<== TaskManagement.instanceIsActive()");
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("==> TaskManagement.instanceIsPassive()");
+
+            stopInternal();
+
+            LOG.info("<== TaskManagement.instanceIsPassive()");
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.TASK_MANAGEMENT.getOrder();
+    }
+
+    public List<AtlasTask> getTasks(Status status) {
+        return registry.getTasks(status);
+    }
+
+    public AtlasTask getTask(String guid) throws AtlasBaseException {
+        AtlasTask ret = registry.getTask(guid);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_FOUND, guid);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Cancels a pending or in-progress task. An in-progress task stops after its current batch; work done by the
+     * batches already completed is retained. Tasks that the factory doesn't allow to be cancelled are rejected.
+     */
+    public AtlasTask cancelTask(String guid) throws AtlasBaseException {
+        AtlasTask ret = getTask(guid);
+
+        if (ret.getStatus() == Status.PENDING || ret.getStatus() == Status.IN_PROGRESS) {
+            TaskFactory taskFactory = taskFactories.get(ret.getType());
+
+            if (taskFactory != null && !taskFactory.isCancellable(ret)) {
+                throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_CANCELLABLE, guid, ret.getType());
+            }
+
+            AbstractTask queuedTask = queuedTasks.get(guid);
+
+            if (queuedTask != null) {
+                queuedTask.cancel();
+            }
+
+            ret.setStatus(Status.CANCELLED);
+            ret.setEndTime(System.currentTimeMillis());
+
+            registry.updateStatus(ret);
+
+            LOG.info("TaskManagement: cancelled task {}", guid);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deletes a failed or cancelled task. Completed tasks are deleted once they complete.
+     */
+    public void deleteTask(String guid) throws AtlasBaseException {
+        AtlasTask task = getTask(guid);
+
+        if (task.getStatus() != Status.FAILED && task.getStatus() != Status.CANCELLED) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_COMPLETED, guid, task.getStatus().name());
+        }
+
+        registry.deleteTask(guid);
+    }
+
+    private synchronized void startInternal() {
+        if (workers != null) {
+            return;
+        }
+
+        workers = new ExecutorService[workerCount];
+
+        for (int i = 0; i < workerCount; i++) {
+            final String threadName = "atlas-task-worker-" + i;
+
+            workers[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, threadName);
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        }
+
+        registry.setDispatcher(this::dispatch);
+
+        List<AtlasTask> incompleteTasks = registry.getIncompleteTasks();
+
+        LOG.info("TaskManagement: found {} incomplete tasks", incompleteTasks.size());
+
+        dispatch(incompleteTasks);
+
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "atlas-task-poller");
+
+            t.setDaemon(true);
+
+            return t;
+        });
+
+        poller.scheduleWithFixedDelay(this::dispatchPendingTasks, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopInternal() {
+        registry.setDispatcher(null);
+
+        if (poller != null) {
+            poller.shutdownNow();
+
+            poller = null;
+        }
+
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdownNow();
+            }
+
+            workers = null;
+        }
+
+        // tasks not yet completed remain in the graph, and will be resumed by the active instance
+        queuedTasks.clear();
+    }
+
+    private void dispatchPendingTasks() {
+        try {
+            dispatch(registry.getTasks(Status.PENDING));
+        } catch (Throwable t) {
+            LOG.error("TaskManagement: failed to dispatch pending tasks", t);
+        }
+    }
+
+    private synchronized void dispatch(List<AtlasTask> tasks) {
+        if (workers == null) {
+            return;
+        }
+
+        for (AtlasTask task : tasks) {
+            if (queuedTasks.containsKey(task.getGuid())) {
+                continue;
+            }
+
+            TaskFactory taskFactory = taskFactories.get(task.getType());
+
+            if (taskFactory == null) {
+                LOG.warn("TaskManagement: no factory found for type {}. Ignoring task {}", task.getType(), task.getGuid());
+
+                continue;
+            }
+
+            AbstractTask    executable = taskFactory.create(task);
+            ExecutorService worker     = workers[Math.abs(executable.getKey().hashCode() % workers.length)];
+
+            queuedTasks.put(task.getGuid(), executable);
+
+            worker.submit(() -> execute(executable));
+        }
+    }
+
+    private void execute(AbstractTask executable) {
+        AtlasTask task = executable.getTask();
+
+        try {
+            while (!executable.isCancelled() && !Thread.currentThread().isInterrupted()) {
+                task.setStatus(Status.IN_PROGRESS);
+                task.setStartTime(System.currentTimeMillis());
+                task.setAttemptCount(task.getAttemptCount() + 1);
+
+                if (!registry.updateStatus(task)) {
+                    LOG.info("TaskManagement: task {} ({}) cancelled or deleted. Not executing", task.getGuid(), task.getType());
+
+                    break;
+                }
+
+                try {
+                    RequestContext.clear();
+                    RequestContext.get().setUser(task.getCreatedBy(), null);
+
+                    executable.run();
+
+                    LOG.info("TaskManagement: task {} ({}) completed in {}ms", task.getGuid(), task.getType(), System.currentTimeMillis() - task.getStartTime());
+
+                    registry.deleteTask(task.getGuid());
+
+                    break;
+                } catch (TaskCancelledException excp) {
+                    LOG.info("TaskManagement: task {} ({}) cancelled", task.getGuid(), task.getType());
+
+                    task.setStatus(Status.CANCELLED);
+                    task.setEndTime(System.currentTimeMillis());
+
+                    registry.updateStatus(task);
+
+                    break;
+                } catch (Throwable t) {
+                    LOG.error("TaskManagement: task {} ({}) failed; attempt {} of {}", task.getGuid(), task.getType(), task.getAttemptCount(), maxAttempts, t);
+
+                    task.setErrorMessage(t.toString());
+
+                    if (task.getAttemptCount() >= maxAttempts) {
+                        task.setStatus(Status.FAILED);
+                        task.setEndTime(System.currentTimeMillis());
+
+                        registry.updateStatus(task);
+
+                        break;
+                    }
+
+                    // retry in this worker, to preserve the order of tasks with the same key
+                    task.setStatus(Status.PENDING);
+
+                    if (!registry.updateStatus(task)) {
+                        LOG.info("TaskManagement: task {} ({}) cancelled or deleted. Not retrying", task.getGuid(), task.getType());
+
+                        break;
+                    }
+
+                    Thread.sleep(RETRY_WAIT_MS * task.getAttemptCount());
+                } finally {
+                    RequestContext.clear();
+                }
+            }
+        } catch (InterruptedException excp) {
+            LOG.info("TaskManagement: interrupted while executing task {}", task.getGuid());
+
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            LOG.error("TaskManagement: failed to update status of task {}", task.getGuid(), t);
+        } finally {
+            queuedTasks.remove(task.getGuid());
+        }
+    }
+}
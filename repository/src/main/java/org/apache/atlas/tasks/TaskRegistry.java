@@ -0,0 +1,303 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.GraphTransactionInterceptor.PostTransactionHook;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.apache.atlas.repository.Constants.CREATED_BY_KEY;
+import static org.apache.atlas.repository.Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_ATTEMPT_COUNT_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_END_TIME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_ERROR_MESSAGE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_PARAMETERS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_START_TIME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_STATUS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_VERTEX_TYPE;
+import static org.apache.atlas.repository.Constants.TIMESTAMP_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.getEncodedProperty;
+import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.setEncodedProperty;
+
+/**
+ * Persists tasks as vertices in the graph.
+ *
+ * Tasks are created in the graph transaction of the request that defers the work, so that the task is stored only
+ * if the request commits. Tasks created in a GraphTransaction are handed to the dispatcher once the transaction
+ * commits; tasks created by threads that commit the graph directly are picked up by TaskManagement's periodic check
+ * for pending tasks.
+ */
+@Component
+public class TaskRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskRegistry.class);
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 4096;
+
+    private final AtlasGraph                   graph;
+    private volatile Consumer<List<AtlasTask>> dispatcher;
+
+    @Inject
+    public TaskRegistry(AtlasGraph graph) {
+        this.graph = graph;
+    }
+
+    void setDispatcher(Consumer<List<AtlasTask>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Creates a task in the current graph transaction. The task will be dispatched for execution after the transaction
+     * commits, or by the next check for pending tasks when not created within a GraphTransaction.
+     */
+    public AtlasTask createTask(String type, Map<String, Object> parameters) {
+        RequestContext context = RequestContext.get();
+        AtlasTask      ret     = new AtlasTask(UUID.randomUUID().toString(), type, parameters, context.getUser(), System.currentTimeMillis());
+        AtlasVertex    vertex  = graph.addVertex();
+
+        setEncodedProperty(vertex, VERTEX_TYPE_PROPERTY_KEY, TASK_VERTEX_TYPE);
+        setEncodedProperty(vertex, TASK_GUID_PROPERTY_KEY, ret.getGuid());
+        setEncodedProperty(vertex, TASK_TYPE_PROPERTY_KEY, ret.getType());
+        setEncodedProperty(vertex, TASK_PARAMETERS_PROPERTY_KEY, AtlasType.toJson(parameters));
+        setEncodedProperty(vertex, CREATED_BY_KEY, ret.getCreatedBy());
+        setEncodedProperty(vertex, TIMESTAMP_PROPERTY_KEY, ret.getCreatedTime());
+
+        setStatusProperties(vertex, ret);
+
+        if (GraphTransactionInterceptor.isTransactionOpen()) {
+            PendingDispatch.get(this).tasks.add(ret);
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("createTask(): {} created outside a GraphTransaction; will be dispatched by the next check for pending tasks", ret.getGuid());
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("createTask(): created {}", ret);
+        }
+
+        return ret;
+    }
+
+    public AtlasTask getTask(String guid) {
+        try {
+            AtlasVertex vertex = findByGuid(guid);
+
+            return vertex != null ? toAtlasTask(vertex) : null;
+        } finally {
+            graph.commit();
+        }
+    }
+
+    /**
+     * @param status status of tasks to return; null to return tasks in all states
+     * @return tasks, ordered by their creation time
+     */
+    public List<AtlasTask> getTasks(Status status) {
+        List<AtlasTask> ret   = new ArrayList<>();
+        AtlasGraphQuery query = graph.query().has(VERTEX_TYPE_PROPERTY_KEY, TASK_VERTEX_TYPE);
+
+        if (status != null) {
+            query.has(TASK_STATUS_PROPERTY_KEY, status.name());
+        }
+
+        try {
+            Iterator<AtlasVertex> vertices = query.vertices().iterator();
+
+            while (vertices.hasNext()) {
+                ret.add(toAtlasTask(vertices.next()));
+            }
+        } finally {
+            graph.commit();
+        }
+
+        ret.sort(Comparator.comparingLong(AtlasTask::getCreatedTime));
+
+        return ret;
+    }
+
+    /**
+     * @return tasks that are yet to be completed - i.e. pending or in-progress, ordered by their creation time
+     */
+    public List<AtlasTask> getIncompleteTasks() {
+        List<AtlasTask> ret = getTasks(Status.PENDING);
+
+        ret.addAll(getTasks(Status.IN_PROGRESS));
+
+        ret.sort(Comparator.comparingLong(AtlasTask::getCreatedTime));
+
+        return ret;
+    }
+
+    /**
+     * Saves status, attempt count, start/end time and error message of the task. A cancelled task is not updated, so
+     * that a worker doesn't overwrite a concurrent cancel; updates are serialized for the same reason.
+     *
+     * @return false if the task was not found, or has been cancelled
+     */
+    public synchronized boolean updateStatus(AtlasTask task) {
+        boolean ret       = false;
+        boolean isSuccess = false;
+
+        task.setUpdatedTime(System.currentTimeMillis());
+
+        try {
+            AtlasVertex vertex = findByGuid(task.getGuid());
+
+            if (vertex != null) {
+                String currentStatus = getEncodedProperty(vertex, TASK_STATUS_PROPERTY_KEY, String.class);
+
+                if (!Status.CANCELLED.name().equals(currentStatus)) {
+                    setStatusProperties(vertex, task);
+
+                    ret = true;
+                }
+            }
+
+            graph.commit();
+
+            isSuccess = true;
+        } finally {
+            if (!isSuccess) {
+                graph.rollback();
+            }
+        }
+
+        return ret;
+    }
+
+    public void deleteTask(String guid) {
+        boolean isSuccess = false;
+
+        try {
+            AtlasVertex vertex = findByGuid(guid);
+
+            if (vertex != null) {
+                graph.removeVertex(vertex);
+            }
+
+            graph.commit();
+
+            isSuccess = true;
+        } finally {
+            if (!isSuccess) {
+                graph.rollback();
+            }
+        }
+    }
+
+    private void setStatusProperties(AtlasVertex vertex, AtlasTask task) {
+        setEncodedProperty(vertex, TASK_STATUS_PROPERTY_KEY, task.getStatus().name());
+        setEncodedProperty(vertex, TASK_ATTEMPT_COUNT_PROPERTY_KEY, task.getAttemptCount());
+        setEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, task.getUpdatedTime());
+
+        if (task.getStartTime() != null) {
+            setEncodedProperty(vertex, TASK_START_TIME_PROPERTY_KEY, task.getStartTime());
+        }
+
+        if (task.getEndTime() != null) {
+            setEncodedProperty(vertex, TASK_END_TIME_PROPERTY_KEY, task.getEndTime());
+        }
+
+        if (task.getErrorMessage() != null) {
+            setEncodedProperty(vertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, StringUtils.abbreviate(task.getErrorMessage(), MAX_ERROR_MESSAGE_LENGTH));
+        }
+    }
+
+    private AtlasVertex findByGuid(String guid) {
+        Iterator<AtlasVertex> vertices = graph.query().has(TASK_GUID_PROPERTY_KEY, guid).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static AtlasTask toAtlasTask(AtlasVertex vertex) {
+        AtlasTask ret          = new AtlasTask();
+        String    parameters   = getEncodedProperty(vertex, TASK_PARAMETERS_PROPERTY_KEY, String.class);
+        Integer   attemptCount = getEncodedProperty(vertex, TASK_ATTEMPT_COUNT_PROPERTY_KEY, Integer.class);
+
+        ret.setGuid(getEncodedProperty(vertex, TASK_GUID_PROPERTY_KEY, String.class));
+        ret.setType(getEncodedProperty(vertex, TASK_TYPE_PROPERTY_KEY, String.class));
+        ret.setStatus(Status.valueOf(getEncodedProperty(vertex, TASK_STATUS_PROPERTY_KEY, String.class)));
+        ret.setParameters(StringUtils.isNotEmpty(parameters) ? AtlasType.fromJson(parameters, Map.class) : null);
+        ret.setCreatedBy(getEncodedProperty(vertex, CREATED_BY_KEY, String.class));
+        ret.setCreatedTime(getEncodedProperty(vertex, TIMESTAMP_PROPERTY_KEY, Long.class));
+        ret.setUpdatedTime(getEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class));
+        ret.setStartTime(getEncodedProperty(vertex, TASK_START_TIME_PROPERTY_KEY, Long.class));
+        ret.setEndTime(getEncodedProperty(vertex, TASK_END_TIME_PROPERTY_KEY, Long.class));
+        ret.setAttemptCount(attemptCount != null ? attemptCount : 0);
+        ret.setErrorMessage(getEncodedProperty(vertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, String.class));
+
+        return ret;
+    }
+
+    /**
+     * Tasks created in a graph transaction; handed to the dispatcher when the transaction commits.
+     */
+    private static class PendingDispatch extends PostTransactionHook {
+        private static final ThreadLocal<PendingDispatch> current = new ThreadLocal<>();
+
+        private final TaskRegistry    registry;
+        private final List<AtlasTask> tasks = new ArrayList<>();
+
+        private PendingDispatch(TaskRegistry registry) {
+            this.registry = registry;
+        }
+
+        static PendingDispatch get(TaskRegistry registry) {
+            PendingDispatch ret = current.get();
+
+            if (ret == null) {
+                ret = new PendingDispatch(registry);
+
+                current.set(ret);
+            }
+
+            return ret;
+        }
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            current.remove();
+
+            Consumer<List<AtlasTask>> dispatcher = registry.dispatcher;
+
+            if (isSuccess && dispatcher != null && !tasks.isEmpty()) {
+                dispatcher.accept(tasks);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Cache that can be used from multiple threads without external synchronization, bounded by number of entries or by
+ * weight of entries, with optional expiry of entries.
+ *
+ * Reads don't take locks. Hit, miss and eviction counts of caches are reported in the server stats, by AtlasMetricsUtil.
+ */
+public class AtlasCache<K, V> {
+    private static final Map<String, AtlasCache<?, ?>> CACHES         = new ConcurrentHashMap<>();
+    private static final double                         NANOS_PER_MILLI = 1000 * 1000d;
+
+    private final String      name;
+    private final Cache<K, V> cache;
+
+    private AtlasCache(String name, Cache<K, V> cache) {
+        this.name  = name;
+        this.cache = cache;
+    }
+
+    public static <K, V> Builder<K, V> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    /**
+     * @return caches created so far; a cache replaces an earlier cache of the same name
+     */
+    public static Collection<AtlasCache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(CACHES.values());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return value of the key; null if the key is not in the cache
+     */
+    public V get(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Returns value of the key, after loading it with the given loader if the key is not in the cache. Time taken by
+     * loaders is recorded, and reported in stats along with the load time saved by cache hits.
+     *
+     * @throws ExecutionException if the loader failed with a checked exception, which is the cause of ExecutionException.
+     *         Unchecked exceptions and errors thrown by the loader are rethrown as is.
+     */
+    public V get(K key, Callable<? extends V> loader) throws ExecutionException {
+        try {
+            return cache.get(key, loader);
+        } catch (UncheckedExecutionException | ExecutionError excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            } else if (excp.getCause() instanceof Error) {
+                throw (Error) excp.getCause();
+            }
+
+            throw excp;
+        }
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    public void remove(K key) {
+        cache.invalidate(key);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats          stats = cache.stats();
+        Map<String, Object> ret   = new LinkedHashMap<>();
+
+        ret.put("size", cache.size());
+        ret.put("hitCount", stats.hitCount());
+        ret.put("missCount", stats.missCount());
+        ret.put("evictionCount", stats.evictionCount());
+        ret.put("hitRate", stats.hitRate());
+
+        if (stats.loadCount() > 0) {
+            ret.put("loadCount", stats.loadCount());
+            ret.put("averageLoadTimeMs", stats.averageLoadPenalty() / NANOS_PER_MILLI);
+            ret.put("loadTimeSavedMs", stats.hitCount() * stats.averageLoadPenalty() / NANOS_PER_MILLI);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return "AtlasCache{name=" + name + ", stats=" + getStats() + "}";
+    }
+
+    public static class Builder<K, V> {
+        private final String                name;
+        private       long                  maxSize             = -1;
+        private       long                  maxWeight           = -1;
+        private       ToIntBiFunction<K, V> weigher             = null;
+        private       long                  expireAfterWriteMs  = -1;
+        private       long                  expireAfterAccessMs = -1;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder<K, V> maxSize(long maxSize) {
+            this.maxSize = maxSize;
+
+            return this;
+        }
+
+        /**
+         * @param maxWeight max total weight of entries in the cache
+         * @param weigher   computes weight of an entry, when the entry is added
+         */
+        public Builder<K, V> maxWeight(long maxWeight, ToIntBiFunction<K, V> weigher) {
+            this.maxWeight = maxWeight;
+            this.weigher   = weigher;
+
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteMs = unit.toMillis(duration);
+
+            return this;
+        }
+
+        public Builder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccessMs = unit.toMillis(duration);
+
+            return this;
+        }
+
+        public AtlasCache<K, V> build() {
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+
+            if (maxWeight > 0 && weigher != null) {
+                builder.maximumWeight(maxWeight).weigher((K key, V value) -> weigher.applyAsInt(key, value));
+            } else if (maxSize >= 0) {
+                builder.maximumSize(maxSize);
+            }
+
+            if (expireAfterWriteMs > 0) {
+                builder.expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS);
+            }
+
+            if (expireAfterAccessMs > 0) {
+                builder.expireAfterAccess(expireAfterAccessMs, TimeUnit.MILLISECONDS);
+            }
+
+            Cache<K, V>      cache = builder.build();
+            AtlasCache<K, V> ret   = new AtlasCache<>(name, cache);
+
+            CACHES.put(name, ret);
+
+            return ret;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.function.LongSupplier;
 
 import static org.apache.atlas.model.metrics.AtlasMetrics.*;
 import static org.apache.atlas.repository.Constants.TYPE_NAME_INTERNAL;
@@ -59,6 +60,19 @@ public class AtlasMetricsUtil {
     private final AtlasMetricsCounter     entityCreates     = new AtlasMetricsCounter("entityCreates");
     private final AtlasMetricsCounter     entityUpdates     = new AtlasMetricsCounter("entityUpdates");
     private final AtlasMetricsCounter     entityDeletes     = new AtlasMetricsCounter("entityDeletes");
+    private final AtlasMetricsCounter     batchesProcessed  = new AtlasMetricsCounter("batchesProcessed");
+    private final AtlasMetricsCounter     batchesFailed     = new AtlasMetricsCounter("batchesFailed");
+    private final AtlasMetricsCounter     batchedMessages   = new AtlasMetricsCounter("batchedMessages");
+    private final AtlasMetricsCounter     auditFlushes      = new AtlasMetricsCounter("auditFlushes");
+    private final AtlasMetricsCounter     auditFlushFailed  = new AtlasMetricsCounter("auditFlushFailed");
+    private final AtlasMetricsCounter     auditEvents       = new AtlasMetricsCounter("auditEvents");
+    private final AtlasMetricsCounter     outboxSends       = new AtlasMetricsCounter("outboxSends");
+    private final AtlasMetricsCounter     outboxSendsFailed = new AtlasMetricsCounter("outboxSendsFailed");
+    private final AtlasMetricsCounter     outboxMessages    = new AtlasMetricsCounter("outboxMessages");
+    private volatile LongSupplier         auditQueueDepth   = null;
+    private volatile LongSupplier         auditSpilled      = null;
+    private volatile LongSupplier         outboxPending     = null;
+    private volatile LongSupplier         outboxLagMs       = null;
 
     @Inject
     public AtlasMetricsUtil(AtlasGraph graph) {
@@ -72,6 +86,15 @@ public class AtlasMetricsUtil {
         entityCreates.init(clock);
         entityUpdates.init(clock);
         entityDeletes.init(clock);
+        batchesProcessed.init(clock);
+        batchesFailed.init(clock);
+        batchedMessages.init(clock);
+        auditFlushes.init(clock);
+        auditFlushFailed.init(clock);
+        auditEvents.init(clock);
+        outboxSends.init(clock);
+        outboxSendsFailed.init(clock);
+        outboxMessages.init(clock);
     }
 
     public void onServerStart() {
@@ -82,7 +105,7 @@ public class AtlasMetricsUtil {
         serverActiveTime = System.currentTimeMillis();
     }
 
-    public void onNotificationProcessingComplete(String topicName, int partition, long msgOffset, NotificationStat stats) {
+    public synchronized void onNotificationProcessingComplete(String topicName, int partition, long msgOffset, NotificationStat stats) {
         messagesProcessed.incrWithMeasure(stats.timeTakenMs);
         entityCreates.incrBy(stats.entityCreates);
         entityUpdates.incrBy(stats.entityUpdates);
@@ -116,6 +139,62 @@ public class AtlasMetricsUtil {
         partitionStat.setLastMessageProcessedTime(messagesProcessed.getLastIncrTime().toEpochMilli());
     }
 
+    /**
+     * Records completion of a batch of notification messages written to the store in a single transaction.
+     * @param batchSize    number of messages in the batch
+     * @param commitTimeMs time taken to write the batch
+     * @param isFailed     true if the batch failed, and its messages were replayed individually
+     */
+    public void onNotificationBatchComplete(int batchSize, long commitTimeMs, boolean isFailed) {
+        batchesProcessed.incrWithMeasure(commitTimeMs);
+        batchedMessages.incrBy(batchSize);
+
+        if (isFailed) {
+            batchesFailed.incr();
+        }
+    }
+
+    /**
+     * Records a flush of audit events by the asynchronous audit writer.
+     * @param eventCount  number of events in the flush
+     * @param flushTimeMs time taken to write the events to the audit repository
+     * @param isFailed    true if the write failed, and the events were spilled to local file
+     */
+    public void onAuditFlushComplete(int eventCount, long flushTimeMs, boolean isFailed) {
+        auditFlushes.incrWithMeasure(flushTimeMs);
+        auditEvents.incrBy(eventCount);
+
+        if (isFailed) {
+            auditFlushFailed.incr();
+        }
+    }
+
+    public void setAuditWriterGauges(LongSupplier queueDepth, LongSupplier spilledEvents) {
+        this.auditQueueDepth = queueDepth;
+        this.auditSpilled    = spilledEvents;
+    }
+
+    /**
+     * Records a send of entity notifications from the local outbox.
+     * @param messageCount number of messages sent
+     * @param sendTimeMs   time taken to send the messages
+     * @param isFailed     true if the send failed, and the messages will be sent again
+     */
+    public void onOutboxSendComplete(int messageCount, long sendTimeMs, boolean isFailed) {
+        outboxSends.incrWithMeasure(sendTimeMs);
+
+        if (isFailed) {
+            outboxSendsFailed.incr();
+        } else {
+            outboxMessages.incrBy(messageCount);
+        }
+    }
+
+    public void setOutboxGauges(LongSupplier pendingMessages, LongSupplier lagMs) {
+        this.outboxPending = pendingMessages;
+        this.outboxLagMs   = lagMs;
+    }
+
     public Map<String, Object> getStats() {
         Map<String, Object> ret = new HashMap<>();
 
@@ -124,6 +203,9 @@ public class AtlasMetricsUtil {
         StatsReport entityCreates     = this.entityCreates.report();
         StatsReport entityUpdates     = this.entityUpdates.report();
         StatsReport entityDeletes     = this.entityDeletes.report();
+        StatsReport batchesProcessed  = this.batchesProcessed.report();
+        StatsReport batchesFailed     = this.batchesFailed.report();
+        StatsReport batchedMessages   = this.batchedMessages.report();
 
         ret.put(STAT_SERVER_START_TIMESTAMP, serverStartTime);
         ret.put(STAT_SERVER_ACTIVE_TIMESTAMP, serverActiveTime);
@@ -189,6 +271,56 @@ public class AtlasMetricsUtil {
         ret.put(STAT_NOTIFY_UPDATES_COUNT_PREV_DAY, entityUpdates.getCount(PREV_DAY));
         ret.put(STAT_NOTIFY_DELETES_COUNT_PREV_DAY, entityDeletes.getCount(PREV_DAY));
 
+        if (batchesProcessed.getCount(ALL) > 0) {
+            ret.put(STAT_NOTIFY_BATCH_COUNT_TOTAL,        batchesProcessed.getCount(ALL));
+            ret.put(STAT_NOTIFY_BATCH_FAILED_COUNT_TOTAL, batchesFailed.getCount(ALL));
+            ret.put(STAT_NOTIFY_BATCH_AVG_SIZE_TOTAL,     batchedMessages.getCount(ALL) / batchesProcessed.getCount(ALL));
+            ret.put(STAT_NOTIFY_BATCH_AVG_TIME_TOTAL,     batchesProcessed.getMeasureAvg(ALL));
+
+            ret.put(STAT_NOTIFY_BATCH_COUNT_CURR_HOUR,    batchesProcessed.getCount(CURR_HOUR));
+            ret.put(STAT_NOTIFY_BATCH_AVG_SIZE_CURR_HOUR, batchesProcessed.getCount(CURR_HOUR) > 0 ? (batchedMessages.getCount(CURR_HOUR) / batchesProcessed.getCount(CURR_HOUR)) : 0);
+            ret.put(STAT_NOTIFY_BATCH_AVG_TIME_CURR_HOUR, batchesProcessed.getMeasureAvg(CURR_HOUR));
+        }
+
+        if (auditQueueDepth != null) {
+            StatsReport auditFlushes     = this.auditFlushes.report();
+            StatsReport auditFlushFailed = this.auditFlushFailed.report();
+            StatsReport auditEvents      = this.auditEvents.report();
+
+            ret.put(STAT_AUDIT_QUEUE_DEPTH,              auditQueueDepth.getAsLong());
+            ret.put(STAT_AUDIT_SPILLED_EVENTS,           auditSpilled.getAsLong());
+            ret.put(STAT_AUDIT_EVENTS_COUNT_TOTAL,       auditEvents.getCount(ALL));
+            ret.put(STAT_AUDIT_FLUSH_COUNT_TOTAL,        auditFlushes.getCount(ALL));
+            ret.put(STAT_AUDIT_FLUSH_FAILED_COUNT_TOTAL, auditFlushFailed.getCount(ALL));
+            ret.put(STAT_AUDIT_FLUSH_AVG_TIME_TOTAL,     auditFlushes.getMeasureAvg(ALL));
+            ret.put(STAT_AUDIT_FLUSH_COUNT_CURR_HOUR,    auditFlushes.getCount(CURR_HOUR));
+            ret.put(STAT_AUDIT_FLUSH_AVG_TIME_CURR_HOUR, auditFlushes.getMeasureAvg(CURR_HOUR));
+        }
+
+        if (outboxPending != null) {
+            StatsReport outboxSends       = this.outboxSends.report();
+            StatsReport outboxSendsFailed = this.outboxSendsFailed.report();
+            StatsReport outboxMessages    = this.outboxMessages.report();
+
+            ret.put(STAT_NOTIFY_OUTBOX_PENDING_COUNT,        outboxPending.getAsLong());
+            ret.put(STAT_NOTIFY_OUTBOX_LAG_MS,               outboxLagMs.getAsLong());
+            ret.put(STAT_NOTIFY_OUTBOX_SENT_COUNT_TOTAL,     outboxMessages.getCount(ALL));
+            ret.put(STAT_NOTIFY_OUTBOX_SEND_COUNT_TOTAL,     outboxSends.getCount(ALL));
+            ret.put(STAT_NOTIFY_OUTBOX_SEND_FAILED_TOTAL,    outboxSendsFailed.getCount(ALL));
+            ret.put(STAT_NOTIFY_OUTBOX_SEND_AVG_TIME_TOTAL,  outboxSends.getMeasureAvg(ALL));
+            ret.put(STAT_NOTIFY_OUTBOX_SEND_COUNT_CURR_HOUR, outboxSends.getCount(CURR_HOUR));
+        }
+
+        Map<String, Map<String, Object>> cacheDetails = new HashMap<>();
+
+        for (AtlasCache<?, ?> cache : AtlasCache.getCaches()) {
+            cacheDetails.put(cache.getName(), cache.getStats());
+        }
+
+        if (!cacheDetails.isEmpty()) {
+            ret.put(STAT_CACHE_DETAILS, cacheDetails);
+        }
+
         return ret;
     }
 
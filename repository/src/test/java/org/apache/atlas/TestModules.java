@@ -28,11 +28,13 @@ import org.apache.atlas.discovery.AtlasDiscoveryService;
 import org.apache.atlas.discovery.AtlasLineageService;
 import org.apache.atlas.discovery.EntityDiscoveryService;
 import org.apache.atlas.discovery.EntityLineageService;
+import org.apache.atlas.discovery.SuggestionsIndexService;
 import org.apache.atlas.glossary.GlossaryService;
 import org.apache.atlas.graph.GraphSandboxUtil;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.listener.EntityChangeListenerV2;
 import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.query.DSLQueryCache;
 import org.apache.atlas.repository.audit.EntityAuditListener;
 import org.apache.atlas.repository.audit.EntityAuditListenerV2;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
@@ -63,6 +65,7 @@ import org.apache.atlas.repository.store.graph.v2.AtlasRelationshipStoreV2;
 import org.apache.atlas.repository.store.graph.v2.AtlasTypeDefGraphStoreV2;
 import org.apache.atlas.repository.store.graph.v2.BulkImporterImpl;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.repository.store.graph.v2.EntityVertexIdCache;
 import org.apache.atlas.repository.store.graph.v2.IAtlasEntityChangeNotifier;
 import org.apache.atlas.runner.LocalSolrRunner;
 import org.apache.atlas.service.Service;
@@ -143,7 +146,12 @@ public class TestModules {
                     Multibinder.newSetBinder(binder(), TypeDefChangeListener.class);
             typeDefChangeListenerMultibinder.addBinding().to(GraphBackedSearchIndexer.class).asEagerSingleton();
 
+            bind(DSLQueryCache.class).asEagerSingleton();
+            typeDefChangeListenerMultibinder.addBinding().to(DSLQueryCache.class);
+
             bind(SearchTracker.class).asEagerSingleton();
+            bind(SuggestionsIndexService.class).asEagerSingleton();
+            bind(EntityVertexIdCache.class).asEagerSingleton();
 
             bind(AtlasEntityStore.class).to(AtlasEntityStoreV2.class);
             bind(AtlasRelationshipStore.class).to(AtlasRelationshipStoreV2.class);
@@ -165,6 +173,8 @@ public class TestModules {
             Multibinder<EntityChangeListenerV2> entityChangeListenerV2Binder =
                     Multibinder.newSetBinder(binder(), EntityChangeListenerV2.class);
             entityChangeListenerV2Binder.addBinding().to(EntityAuditListenerV2.class);
+            entityChangeListenerV2Binder.addBinding().to(SuggestionsIndexService.class);
+            entityChangeListenerV2Binder.addBinding().to(EntityVertexIdCache.class);
 
             // OGM related mappings
             Multibinder<DataTransferObject> availableDTOs = Multibinder.newSetBinder(binder(), DataTransferObject.class);
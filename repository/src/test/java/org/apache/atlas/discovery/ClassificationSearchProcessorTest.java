@@ -42,7 +42,9 @@ import org.testng.annotations.Test;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.apache.atlas.model.discovery.SearchParameters.*;
@@ -117,6 +119,37 @@ public class ClassificationSearchProcessorTest extends BasicTestSetup {
         assertEquals(vertices.size(), totalClassifiedEntities - 2);
     }
 
+    @Test
+    public void searchByALLTagAndIndexSysFiltersWithContinuationToken() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+        params.setClassification(ALL_CLASSIFICATION_TYPES);
+        FilterCriteria filterCriteria = getSingleFilterCondition("__timestamp", Operator.LT, String.valueOf(System.currentTimeMillis()));
+        params.setTagFilters(filterCriteria);
+        params.setLimit(1000);
+
+        List<AtlasVertex> expected = new ClassificationSearchProcessor(new SearchContext(params, typeRegistry, graph, indexer.getVertexIndexKeys())).execute();
+        Set<AtlasVertex>  vertices = new HashSet<>();
+
+        params.setLimit(2);
+
+        for (int pageCount = 0; pageCount <= expected.size(); pageCount++) {
+            SearchContext context = new SearchContext(params, typeRegistry, graph, indexer.getVertexIndexKeys());
+            ClassificationSearchProcessor processor = new ClassificationSearchProcessor(context);
+
+            for (AtlasVertex vertex : processor.execute()) {
+                Assert.assertTrue(vertices.add(vertex), "duplicate entity in results: " + vertex);
+            }
+
+            if (context.getNextCursor() == null) {
+                break;
+            }
+
+            params.setContinuationToken(context.getNextCursor().toToken(params));
+        }
+
+        assertEquals(vertices, new HashSet<>(expected));
+    }
+
     //@Test
     public void searchByNOTCLASSIFIED() throws AtlasBaseException {
         SearchParameters params = new SearchParameters();
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageInfoOnDemand;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.model.lineage.LineageOnDemandConstraints;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.impexp.ImportService;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.BOTH;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.INPUT;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.OUTPUT;
+import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
+import static org.apache.atlas.repository.tagpropagation.ClassificationPropagationTest.IMPORT_FILE;
+import static org.apache.atlas.repository.tagpropagation.ClassificationPropagationTest.getZipSource;
+import static org.apache.atlas.utils.TestLoadModelUtils.loadModelFromJson;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Lineage with relations limits, using the lineage in tag-propagation-data.zip:
+ *
+ *                        [Process1] ----> [Employees1]
+ *                      /                              \
+ *    [hdfs_employees]                                   [Process3] ----> [EmployeesUnion]
+ *                      \                              /
+ *                        [Process2] ----> [Employees2]
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityLineageServiceTest {
+    private static final String HDFS_PATH_EMPLOYEES = "a3955120-ac17-426f-a4af-972ec8690e5f";
+    private static final String EMPLOYEES1_PROCESS  = "26dae763-85b7-40af-8516-71056d91d2de";
+    private static final String EMPLOYEES2_PROCESS  = "c0201260-dbeb-45f4-930d-5129eab31dc9";
+    private static final String UNION_PROCESS       = "470a2d1e-b1fd-47de-8f2d-8dfd0a0275a7";
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private ImportService importService;
+
+    @Inject
+    private AtlasLineageService lineageService;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        RequestContext.clear();
+
+        loadModelFromJson("0000-Area0/0010-base_model.json", typeDefStore, typeRegistry);
+        loadModelFromJson("1000-Hadoop/1020-fs_model.json", typeDefStore, typeRegistry);
+        loadModelFromJson("1000-Hadoop/1030-hive_model.json", typeDefStore, typeRegistry);
+
+        runImportWithNoParameters(importService, getZipSource(IMPORT_FILE));
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testLineageWithoutLimits() throws Exception {
+        AtlasLineageInfo lineageInfo = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, OUTPUT, 0);
+
+        assertEquals(lineageInfo.getGuidEntityMap().size(), 7);
+
+        for (LineageInfoOnDemand info : lineageInfo.getRelationsOnDemand().values()) {
+            assertFalse(info.isHasMoreOutputs());
+        }
+
+        assertEquals(lineageInfo.getRelationsOnDemand().get(HDFS_PATH_EMPLOYEES).getOutputRelationsCount(), 2);
+    }
+
+    @Test
+    public void testProcessLineage() throws Exception {
+        AtlasLineageInfo lineageInfo = lineageService.getAtlasLineageInfo(UNION_PROCESS, INPUT, 0);
+
+        assertEquals(lineageInfo.getGuidEntityMap().size(), 6);
+        assertEquals(lineageInfo.getRelations().size(), 6);
+        assertTrue(lineageInfo.getGuidEntityMap().containsKey(HDFS_PATH_EMPLOYEES));
+
+        lineageInfo = lineageService.getAtlasLineageInfo(UNION_PROCESS, BOTH, 1);
+
+        assertEquals(lineageInfo.getGuidEntityMap().size(), 4); // process, its 2 inputs and 1 output
+        assertEquals(lineageInfo.getRelationsOnDemand().get(UNION_PROCESS).getInputRelationsCount(), 2);
+        assertEquals(lineageInfo.getRelationsOnDemand().get(UNION_PROCESS).getOutputRelationsCount(), 1);
+    }
+
+    @Test
+    public void testOutputRelationsLimitAndOffset() throws Exception {
+        AtlasLineageInfo    page1     = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, OUTPUT, 1, new LineageOnDemandConstraints(-1, 1, 0, 0, -1));
+        AtlasLineageInfo    page2     = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, OUTPUT, 1, new LineageOnDemandConstraints(-1, 1, 0, 1, -1));
+        LineageInfoOnDemand page1Info = page1.getRelationsOnDemand().get(HDFS_PATH_EMPLOYEES);
+        LineageInfoOnDemand page2Info = page2.getRelationsOnDemand().get(HDFS_PATH_EMPLOYEES);
+
+        assertEquals(page1Info.getOutputRelationsCount(), 1);
+        assertTrue(page1Info.isHasMoreOutputs());
+        assertEquals(page2Info.getOutputRelationsCount(), 1);
+        assertFalse(page2Info.isHasMoreOutputs());
+
+        Set<String> processGuids = new HashSet<>();
+
+        processGuids.addAll(getProcessGuids(page1));
+        processGuids.addAll(getProcessGuids(page2));
+
+        assertEquals(processGuids.size(), 2);
+        assertTrue(processGuids.contains(EMPLOYEES1_PROCESS));
+        assertTrue(processGuids.contains(EMPLOYEES2_PROCESS));
+    }
+
+    @Test
+    public void testMaxNodeCount() throws Exception {
+        AtlasLineageInfo lineageInfo = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, OUTPUT, 0, new LineageOnDemandConstraints(-1, -1, 0, 0, 3));
+
+        assertEquals(lineageInfo.getGuidEntityMap().size(), 3);
+        assertTrue(lineageInfo.getRelationsOnDemand().get(HDFS_PATH_EMPLOYEES).isHasMoreOutputs());
+
+        lineageInfo = lineageService.getAtlasLineageInfo(HDFS_PATH_EMPLOYEES, OUTPUT, 0, new LineageOnDemandConstraints(-1, -1, 0, 0, 2));
+
+        assertTrue(lineageInfo.getGuidEntityMap().isEmpty());
+        assertTrue(lineageInfo.getRelationsOnDemand().get(HDFS_PATH_EMPLOYEES).isHasMoreOutputs());
+        assertNull(lineageInfo.getRelationsOnDemand().get(EMPLOYEES1_PROCESS));
+    }
+
+    private static Set<String> getProcessGuids(AtlasLineageInfo lineageInfo) {
+        Set<String> ret = new HashSet<>();
+
+        for (LineageRelation relation : lineageInfo.getRelations()) {
+            if (relation.getFromEntityId().equals(HDFS_PATH_EMPLOYEES)) {
+                ret.add(relation.getToEntityId());
+            }
+        }
+
+        return ret;
+    }
+}
@@ -46,6 +46,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @Guice(modules = TestModules.TestOnlyModule.class)
@@ -114,6 +117,44 @@ public class EntitySearchProcessorTest extends BasicTestSetup {
         assertTrue(firstDate.before(secondDate));
     }
 
+    @Test
+    public void searchWithContinuationToken() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+        params.setTypeName("hive_column");
+        params.setClassification("PII");
+        params.setLimit(3);
+
+        SearchContext         context   = new SearchContext(params, typeRegistry, graph, Collections.<String>emptySet());
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+        List<AtlasVertex>     page1     = processor.execute();
+
+        assertEquals(page1.size(), 3);
+        assertNotNull(context.getNextCursor());
+
+        params.setContinuationToken(context.getNextCursor().toToken(params));
+
+        context   = new SearchContext(params, typeRegistry, graph, Collections.<String>emptySet());
+        processor = new EntitySearchProcessor(context);
+
+        List<AtlasVertex> page2 = processor.execute();
+
+        assertEquals(page2.size(), 1);
+        assertFalse(page1.contains(page2.get(0)));
+        assertNull(context.getNextCursor());
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class, expectedExceptionsMessageRegExp = ".*continuationToken: does not match the search parameters")
+    public void searchWithContinuationTokenOfDifferentSearch() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+        params.setTypeName("hive_column");
+        params.setClassification("PII");
+        params.setLimit(10);
+        params.setContinuationToken(new SearchCursor(10, 0).toToken(params));
+        params.setClassification("Metric");
+
+        new SearchContext(params, typeRegistry, graph, Collections.<String>emptySet());
+    }
+
     @Test
     public void emptySearchByClassification() throws AtlasBaseException {
         SearchParameters params = new SearchParameters();
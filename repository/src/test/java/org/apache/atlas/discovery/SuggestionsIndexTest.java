@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class SuggestionsIndexTest {
+    private static final String NAME_FIELD  = "name_t";
+    private static final String OWNER_FIELD = "owner_t";
+
+    @Test
+    public void testTermsAreSplitAndLowerCased() {
+        List<String> terms = new ArrayList<>();
+
+        SuggestionsIndex.addTerms("Sales_Fact db.Customer@cl1 - /data/2020.", terms);
+
+        assertEquals(terms, Arrays.asList("sales_fact", "db.customer", "cl1", "data", "2020"));
+    }
+
+    @Test
+    public void testSuggestionsAreOrderedByFrequency() {
+        SuggestionsIndex index = createLoadedIndex();
+
+        index.putEntity("1", fieldTerms(NAME_FIELD, "customer"));
+        index.putEntity("2", fieldTerms(NAME_FIELD, "customer"));
+        index.putEntity("3", fieldTerms(NAME_FIELD, "customer", "cust_id"));
+        index.putEntity("4", fieldTerms(NAME_FIELD, "cust_id"));
+        index.putEntity("5", fieldTerms(NAME_FIELD, "curve"));
+        index.putEntity("6", fieldTerms(NAME_FIELD, "order"));
+
+        assertEquals(index.getSuggestions("cu", null), Arrays.asList("customer", "cust_id", "curve"));
+        assertEquals(index.getSuggestions("CUST", null), Arrays.asList("customer", "cust_id"));
+        assertEquals(index.getSuggestions("", null), Arrays.asList("customer", "cust_id", "curve", "order"));
+        assertEquals(index.getSuggestions("x", null), Collections.emptyList());
+    }
+
+    @Test
+    public void testSuggestionsAreLimited() {
+        SuggestionsIndex index = new SuggestionsIndex(2, Long.MAX_VALUE);
+
+        index.startLoad();
+        index.endLoad();
+
+        index.putEntity("1", fieldTerms(NAME_FIELD, "table1", "table2", "table3"));
+        index.putEntity("2", fieldTerms(NAME_FIELD, "table3"));
+
+        assertEquals(index.getSuggestions("tab", null), Arrays.asList("table3", "table1"));
+    }
+
+    @Test
+    public void testSuggestionsForField() {
+        SuggestionsIndex index = createLoadedIndex();
+
+        Map<String, Set<String>> terms = fieldTerms(NAME_FIELD, "admin_table");
+
+        terms.putAll(fieldTerms(OWNER_FIELD, "admin"));
+
+        index.putEntity("1", terms);
+        index.putEntity("2", fieldTerms(OWNER_FIELD, "admin"));
+
+        assertEquals(index.getSuggestions("adm", NAME_FIELD), Collections.singletonList("admin_table"));
+        assertEquals(index.getSuggestions("adm", OWNER_FIELD), Collections.singletonList("admin"));
+        assertEquals(index.getSuggestions("adm", null), Arrays.asList("admin", "admin_table"));
+        assertNull(index.getSuggestions("adm", "unknown_t"));
+    }
+
+    @Test
+    public void testEntityUpdateAndRemove() {
+        SuggestionsIndex index = createLoadedIndex();
+
+        index.putEntity("1", fieldTerms(NAME_FIELD, "sales"));
+        index.putEntity("2", fieldTerms(NAME_FIELD, "sales"));
+        index.putEntity("3", fieldTerms(NAME_FIELD, "salary"));
+
+        assertEquals(index.getSuggestions("sal", null), Arrays.asList("sales", "salary"));
+
+        index.putEntity("1", fieldTerms(NAME_FIELD, "salary"));
+        index.putEntity("2", fieldTerms(NAME_FIELD, "salary"));
+
+        assertEquals(index.getSuggestions("sal", null), Collections.singletonList("salary"));
+
+        long memoryWithSalary = index.getEstimatedMemoryBytes();
+
+        index.removeEntity("1");
+        index.removeEntity("2");
+        index.removeEntity("3");
+
+        assertEquals(index.getSuggestions("sal", null), Collections.emptyList());
+        assertNull(index.getSuggestions("", NAME_FIELD));
+        assertEquals(index.getEntityCount(), 0);
+        assertTrue(index.getEstimatedMemoryBytes() < memoryWithSalary);
+    }
+
+    @Test
+    public void testLoad() {
+        SuggestionsIndex index = new SuggestionsIndex(5, Long.MAX_VALUE);
+
+        index.startLoad();
+
+        index.loadEntity("1", fieldTerms(NAME_FIELD, "orders"));
+
+        // changes applied during the load take precedence over entities read by the loader
+        index.putEntity("2", fieldTerms(NAME_FIELD, "order_items"));
+        index.removeEntity("3");
+
+        index.loadEntity("2", fieldTerms(NAME_FIELD, "stale"));
+        index.loadEntity("3", fieldTerms(NAME_FIELD, "deleted"));
+
+        assertFalse(index.isAvailable());
+        assertNull(index.getSuggestions("ord", null));
+
+        index.endLoad();
+
+        assertTrue(index.isAvailable());
+        assertEquals(index.getSuggestions("ord", null), Arrays.asList("order_items", "orders"));
+        assertEquals(index.getSuggestions("st", null), Collections.emptyList());
+        assertEquals(index.getSuggestions("de", null), Collections.emptyList());
+        assertEquals(index.getEntityCount(), 2);
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        SuggestionsIndex index = new SuggestionsIndex(5, 64 * 1024);
+
+        index.startLoad();
+
+        boolean isWithinBudget = true;
+
+        for (int i = 0; i < 1000 && isWithinBudget; i++) {
+            isWithinBudget = index.loadEntity(Integer.toString(i), fieldTerms(NAME_FIELD, "table_" + i));
+        }
+
+        index.endLoad();
+
+        assertFalse(isWithinBudget);
+        assertTrue(index.isOverBudget());
+        assertFalse(index.isAvailable());
+        assertNull(index.getSuggestions("table", null));
+        assertEquals(index.getEntityCount(), 0);
+        assertFalse(index.putEntity("x", fieldTerms(NAME_FIELD, "table")));
+    }
+
+    @Test
+    public void testChangesAreNotRecordedWhenOverBudget() {
+        SuggestionsIndex index = new SuggestionsIndex(5, 1024);
+
+        index.startLoad();
+
+        for (int i = 0; i < 100; i++) {
+            index.loadEntity(Integer.toString(i), fieldTerms(NAME_FIELD, "table_" + i));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            index.putEntity("new_" + i, fieldTerms(NAME_FIELD, "table"));
+            index.removeEntity(Integer.toString(i));
+        }
+
+        assertTrue(index.isOverBudget());
+        assertEquals(index.getChangedDuringLoadCount(), 0);
+    }
+
+    @Test
+    public void testAbortLoad() {
+        SuggestionsIndex index = new SuggestionsIndex(5, Long.MAX_VALUE);
+
+        index.startLoad();
+
+        index.loadEntity("1", fieldTerms(NAME_FIELD, "orders"));
+        index.putEntity("2", fieldTerms(NAME_FIELD, "order_items"));
+
+        index.abortLoad();
+
+        assertFalse(index.isAvailable());
+        assertNull(index.getSuggestions("ord", null));
+        assertEquals(index.getEntityCount(), 0);
+        assertEquals(index.getChangedDuringLoadCount(), 0);
+
+        // changes after the load ended are not recorded for the load
+        index.putEntity("3", fieldTerms(NAME_FIELD, "orders"));
+
+        assertEquals(index.getChangedDuringLoadCount(), 0);
+    }
+
+    private SuggestionsIndex createLoadedIndex() {
+        SuggestionsIndex ret = new SuggestionsIndex(5, Long.MAX_VALUE);
+
+        ret.startLoad();
+        ret.endLoad();
+
+        return ret;
+    }
+
+    private Map<String, Set<String>> fieldTerms(String field, String... terms) {
+        Map<String, Set<String>> ret = new HashMap<>();
+
+        ret.put(field, new HashSet<>(Arrays.asList(terms)));
+
+        return ret;
+    }
+}
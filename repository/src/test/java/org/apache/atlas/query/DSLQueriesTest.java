@@ -23,6 +23,8 @@ import org.apache.atlas.discovery.EntityDiscoveryService;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.discovery.AtlasSearchResult;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.runner.LocalSolrRunner;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -381,6 +383,31 @@ public class DSLQueriesTest extends BasicTestSetup {
         queryAssert(query.replace("where", " "), expected, DEFAULT_LIMIT, 0);
     }
 
+    @Test(dataProvider = "syntaxProvider")
+    public void traversalMatchesScript(String query, int expected) throws AtlasBaseException {
+        AtlasGraph   graph        = AtlasGraphProvider.getGraphInstance();
+        GremlinQuery gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, 0, DEFAULT_LIMIT).translate();
+
+        if (!gremlinQuery.isTraversalSupported()) {
+            throw new SkipException("query can't be executed as a traversal: " + query);
+        }
+
+        List<AtlasVertex> traversalResult = gremlinQuery.toTraversal(graph).getAtlasVertexList();
+        List              scriptResult    = (List) graph.executeGremlinScript(gremlinQuery.queryStr(), false);
+
+        assertEquals(getVertexIds(traversalResult), getVertexIds(scriptResult), query);
+    }
+
+    private List<Object> getVertexIds(List vertices) {
+        List<Object> ret = new ArrayList<>();
+
+        for (Object vertex : vertices) {
+            ret.add(((AtlasVertex) vertex).getId());
+        }
+
+        return ret;
+    }
+
     @DataProvider(name = "orderByProvider")
     private Object[][] orderByQueries() {
         return new Object[][]{
@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class DSLQueryCacheTest {
+    @Test
+    public void testNormalize() {
+        assertEquals(DSLQueryCache.normalize("hive_table  where\tname = 'sales'  "), "hive_table where name = 'sales'");
+        assertEquals(DSLQueryCache.normalize("  hive_db"), "hive_db");
+        assertEquals(DSLQueryCache.normalize("hive_db where name = \"a  b\""), "hive_db where name = \"a  b\"");
+        assertEquals(DSLQueryCache.normalize("`Log  Data`   limit 10"), "`Log  Data` limit 10");
+        assertEquals(DSLQueryCache.normalize("hive_db where name = \"a\\\"  b\"  limit 1"), "hive_db where name = \"a\\\"  b\" limit 1");
+
+        assertNotEquals(DSLQueryCache.normalize("hive_db where name = 'a b'"), DSLQueryCache.normalize("hive_db where name = 'a  b'"));
+    }
+}
@@ -31,6 +31,9 @@ import org.apache.commons.lang.StringUtils;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -226,6 +229,47 @@ public class GremlinQueryComposerTest {
         verify(String.format(queryFormat, "FALSE"), String.format(expectedFormat, "FALSE"));
     }
 
+    @Test
+    public void traversalSupport() {
+        verifyTraversalSupport("from DB", true);
+        verifyTraversalSupport("from DB limit 5 offset 2", true);
+        verifyTraversalSupport("Table isa Dimension", true);
+        verifyTraversalSupport("DB as d", true);
+        verifyTraversalSupport("DB orderby name DESC", true);
+        verifyTraversalSupport("DB where owner = ['hdfs', 'anon']", true);
+        verifyTraversalSupport("Table where owner like \"Tab*\"", true);
+        verifyTraversalSupport("from Table where (db.name = \"Reporting\")", true);
+        verifyTraversalSupport("Table where (name=\"sales_fact\" or name=\"testtable_1\") and name=\"testtable_2\"", true);
+        verifyTraversalSupport("Table as t where name ='Reporting' or t.isFile = true", true);
+        verifyTraversalSupport("Table as t where name ='Reporting' or t.isFile = True", false);
+        verifyTraversalSupport("DB as d select d.name, d.owner", false);
+        verifyTraversalSupport("from DB groupby (owner)", false);
+    }
+
+    @Test
+    public void traversalLiterals() {
+        assertEquals(GremlinTraversalBuilder.parseLiteral("'Reporting'"), "Reporting");
+        assertEquals(GremlinTraversalBuilder.parseLiteral("\"Tab.*\""), "Tab.*");
+        assertEquals(GremlinTraversalBuilder.parseLiteral("true"), Boolean.TRUE);
+        assertEquals(GremlinTraversalBuilder.parseLiteral("10"), 10);
+        assertEquals(GremlinTraversalBuilder.parseLiteral("-10L"), -10L);
+        assertEquals(GremlinTraversalBuilder.parseLiteral("1.5f"), 1.5f);
+        assertEquals(GremlinTraversalBuilder.parseLiteral("1.5d"), 1.5d);
+        assertEquals(GremlinTraversalBuilder.parseLiteral("1.5"), new BigDecimal("1.5"));
+        assertEquals(GremlinTraversalBuilder.parseLiteralList("'hdfs','anon, ops'"), Arrays.asList("hdfs", "anon, ops"));
+        assertEquals(GremlinTraversalBuilder.parseLiteralList("1,2L"), Arrays.asList(1, 2L));
+
+        for (String literal : new String[] { "True", "\"$name\"", "'it\\'s'", "name", "" }) {
+            try {
+                GremlinTraversalBuilder.parseLiteral(literal);
+
+                fail("expected IllegalArgumentException for literal " + literal);
+            } catch (IllegalArgumentException excp) {
+                // expected
+            }
+        }
+    }
+
     @DataProvider(name = "nestedQueriesProvider")
     private Object[][] nestedQueriesSource() {
         return new Object[][]{
@@ -372,6 +416,21 @@ public class GremlinQueryComposerTest {
         verify(dsl, expectedGremlin, 0);
     }
 
+    private void verifyTraversalSupport(String dsl, boolean expected) {
+        AtlasDSLParser.QueryContext   queryContext = getParsedQuery(dsl);
+        AtlasTypeRegistry             registry     = mock(AtlasTypeRegistry.class);
+        org.apache.atlas.query.Lookup lookup       = new TestLookup(registry);
+        GremlinQueryComposer.Context  context      = new GremlinQueryComposer.Context(lookup);
+        GremlinQueryComposer          composer     = new GremlinQueryComposer(lookup, context, new AtlasDSL.QueryMetadata(queryContext));
+
+        new DSLVisitor(composer).visit(queryContext);
+
+        String       queryStr     = composer.get();
+        GremlinQuery gremlinQuery = new GremlinQuery(queryStr, false, composer.getQueryClauses());
+
+        assertEquals(gremlinQuery.isTraversalSupported(), expected, dsl + ": " + queryStr);
+    }
+
     private String getExpected(String select, String main) {
         return String.format("%s; f(%s)", select, main);
     }
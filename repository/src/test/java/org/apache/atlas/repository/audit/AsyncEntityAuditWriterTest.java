@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncEntityAuditWriterTest {
+    private static final long WAIT_TIMEOUT_MS = 10000;
+
+    private FailingAuditRepository repository;
+    private File                   spillDirectory;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        repository     = new FailingAuditRepository();
+        spillDirectory = Files.createTempDirectory("atlas-audit-test").toFile();
+    }
+
+    @Test
+    public void writesInCallerThreadWhenDisabled() throws Exception {
+        AsyncEntityAuditWriter writer = new AsyncEntityAuditWriter(repository, null, false, 10, 10, 10, spillDirectory);
+
+        writer.start();
+        writer.putEventsV2(Collections.singletonList(createEvent("guid-1", 1)));
+
+        assertEquals(listEvents("guid-1").size(), 1);
+
+        writer.stop();
+    }
+
+    @Test
+    public void writesQueuedEvents() throws Exception {
+        AsyncEntityAuditWriter writer = new AsyncEntityAuditWriter(repository, null, true, 100, 10, 50, spillDirectory);
+
+        writer.start();
+
+        EntityAuditEventV2 event = createEvent("guid-1", 1);
+
+        writer.putEventsV2(Collections.singletonList(event));
+
+        // listener reuses event instances; writer must have copied the event
+        event.setEntityId("guid-2");
+
+        waitFor(() -> listEvents("guid-1").size() == 1);
+
+        assertEquals(listEvents("guid-2").size(), 0);
+        assertEquals(writer.getQueueDepth(), 0);
+
+        writer.stop();
+    }
+
+    @Test
+    public void queuedEventHasSnapshotOfEntity() throws Exception {
+        boolean persistEntityDefinition = AbstractStorageBasedAuditRepository.persistEntityDefinition;
+
+        AbstractStorageBasedAuditRepository.persistEntityDefinition = true;
+
+        try {
+            AsyncEntityAuditWriter writer = new AsyncEntityAuditWriter(repository, null, true, 100, 10, 50, spillDirectory);
+            AtlasEntity            entity = new AtlasEntity("hive_table");
+            EntityAuditEventV2     event  = createEvent("guid-1", 1);
+
+            entity.setAttribute("name", "table1");
+            event.setEntity(entity);
+
+            writer.start();
+            writer.putEventsV2(Collections.singletonList(event));
+
+            // request updates the entity after the event is queued
+            entity.setAttribute("name", "table2");
+
+            waitFor(() -> listEvents("guid-1").size() == 1);
+
+            assertEquals(listEvents("guid-1").get(0).getEntity().getAttribute("name"), "table1");
+
+            writer.stop();
+        } finally {
+            AbstractStorageBasedAuditRepository.persistEntityDefinition = persistEntityDefinition;
+        }
+    }
+
+    @Test
+    public void spillsAndReplaysWhenRepositoryFails() throws Exception {
+        AsyncEntityAuditWriter writer = new AsyncEntityAuditWriter(repository, null, true, 100, 10, 50, spillDirectory);
+
+        writer.start();
+
+        repository.isFailing = true;
+
+        writer.putEventsV2(Collections.singletonList(createEvent("guid-1", 1)));
+        writer.putEventsV2(Collections.singletonList(createEvent("guid-1", 2)));
+
+        waitFor(() -> writer.getSpilledEventCount() == 2);
+
+        assertEquals(listEvents("guid-1").size(), 0);
+
+        repository.isFailing = false;
+
+        writer.putEventsV2(Collections.singletonList(createEvent("guid-3", 3)));
+
+        waitFor(() -> listEvents("guid-1").size() == 2 && listEvents("guid-3").size() == 1);
+        waitFor(() -> writer.getSpilledEventCount() == 0);
+
+        writer.stop();
+    }
+
+    @Test
+    public void replaysSpilledEventsOnRestart() throws Exception {
+        AsyncEntityAuditWriter writer = new AsyncEntityAuditWriter(repository, null, true, 100, 10, 50, spillDirectory);
+
+        repository.isFailing = true;
+
+        writer.start();
+        writer.putEventsV2(Collections.singletonList(createEvent("guid-1", 1)));
+
+        waitFor(() -> writer.getSpilledEventCount() == 1);
+
+        writer.stop();
+
+        repository.isFailing = false;
+
+        AsyncEntityAuditWriter restarted = new AsyncEntityAuditWriter(repository, null, true, 100, 10, 50, spillDirectory);
+
+        restarted.start();
+
+        waitFor(() -> listEvents("guid-1").size() == 1);
+        waitFor(() -> restarted.getSpilledEventCount() == 0);
+
+        restarted.stop();
+    }
+
+    @Test
+    public void spillsWhenQueueIsFull() throws Exception {
+        AsyncEntityAuditWriter   writer = new AsyncEntityAuditWriter(repository, null, true, 1, 1000, 200, spillDirectory);
+        List<EntityAuditEventV2> events = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            events.add(createEvent("guid-1", i));
+        }
+
+        writer.start();
+        writer.putEventsV2(events);
+
+        assertTrue(writer.getSpilledEventCount() > 0);
+
+        writer.stop();
+
+        // queued events are written on stop; spilled events remain in the spill file, to be written on restart
+        assertEquals(listEvents("guid-1").size() + writer.getSpilledEventCount(), events.size());
+    }
+
+    private EntityAuditEventV2 createEvent(String guid, long timestamp) {
+        return new EntityAuditEventV2(guid, timestamp, "admin", EntityAuditActionV2.ENTITY_UPDATE, "details", null);
+    }
+
+    private List<EntityAuditEventV2> listEvents(String guid) {
+        return repository.listEventsV2(guid, null, null, (short) 100);
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < endTime, "timed out waiting for audit writer");
+
+            Thread.sleep(10);
+        }
+    }
+
+    private static class FailingAuditRepository extends InMemoryEntityAuditRepository {
+        volatile boolean isFailing = false;
+
+        @Override
+        public synchronized void putEventsV2(List<EntityAuditEventV2> events) {
+            if (isFailing) {
+                throw new RuntimeException("audit repository is not available");
+            }
+
+            super.putEventsV2(events);
+        }
+
+        @Override
+        public synchronized List<EntityAuditEventV2> listEventsV2(String entityId, EntityAuditActionV2 auditAction, String startKey, short maxResults) {
+            return super.listEventsV2(entityId, auditAction, startKey, maxResults);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Checks results of getEntitiesWithTagChanges() when events are written to the audit table, but not to the tag index.
+ */
+public class HBaseAuditTagIndexFailureTest {
+    private static final String    GUID            = "3a9d3d5b-7b3f-4b8c-9a9e-2f6f1f0e4d21";
+    private static final TableName AUDIT_TABLE     = TableName.valueOf(HBaseBasedAuditRepository.DEFAULT_TABLE_NAME);
+    private static final TableName TAG_INDEX_TABLE = TableName.valueOf(HBaseBasedAuditRepository.DEFAULT_TABLE_NAME + HBaseBasedAuditRepository.TAG_INDEX_TABLE_NAME_SUFFIX);
+
+    private final List<byte[]> auditRows = new CopyOnWriteArrayList<>();
+
+    private volatile boolean          isIndexAvailable;
+    private Table                     auditTable;
+    private Table                     tagIndexTable;
+    private Connection                connection;
+    private HBaseBasedAuditRepository auditRepository;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        PropertiesConfiguration atlasConf = new PropertiesConfiguration();
+
+        atlasConf.setProperty(HBaseBasedAuditRepository.CONFIG_TAG_INDEX_ENABLED, true);
+        atlasConf.setProperty(HBaseBasedAuditRepository.CONFIG_TAG_INDEX_BACKFILL_ENABLED, false);
+
+        auditRows.clear();
+
+        isIndexAvailable = true;
+        auditTable       = mock(Table.class);
+        tagIndexTable    = mock(Table.class);
+        connection       = mock(Connection.class);
+
+        Admin admin = mock(Admin.class);
+
+        when(admin.tableExists(any(TableName.class))).thenReturn(true);
+        when(connection.getAdmin()).thenReturn(admin);
+        when(connection.getTable(AUDIT_TABLE)).thenReturn(auditTable);
+        when(connection.getTable(TAG_INDEX_TABLE)).thenReturn(tagIndexTable);
+
+        doAnswer(invocation -> {
+            for (Put put : (List<Put>) invocation.getArguments()[0]) {
+                auditRows.add(put.getRow());
+            }
+
+            return null;
+        }).when(auditTable).put(anyListOf(Put.class));
+
+        when(auditTable.getScanner(any(Scan.class))).thenAnswer(invocation -> createScanner(auditRows));
+
+        // index table: index rows can't be written; meta row can be read and deleted
+        doThrow(new IOException("index region not available")).when(tagIndexTable).put(anyListOf(Put.class));
+
+        doAnswer(invocation -> {
+            isIndexAvailable = false;
+
+            return null;
+        }).when(tagIndexTable).delete(any(Delete.class));
+
+        when(tagIndexTable.get(any(Get.class))).thenAnswer(invocation -> isIndexAvailable ? createResult(HBaseAuditTagIndex.META_ROW, HBaseAuditTagIndex.COLUMN_START_TIME, "0")
+                                                                                          : Result.create(new Cell[0]));
+        when(tagIndexTable.getScanner(any(Scan.class))).thenAnswer(invocation -> createScanner(Collections.emptyList()));
+
+        auditRepository = new HBaseBasedAuditRepository() {
+            @Override
+            protected Connection createConnection(org.apache.hadoop.conf.Configuration hbaseConf) {
+                return connection;
+            }
+        };
+
+        auditRepository.startInternal(atlasConf, null);
+    }
+
+    @Test
+    public void queryFallsBackToScanAfterIndexWriteFailure() throws Exception {
+        long timestamp = System.currentTimeMillis();
+
+        auditRepository.putEventsV2(createEvent(timestamp));
+
+        assertEquals(auditRows.size(), 1);
+        assertEquals(auditRepository.getEntitiesWithTagChanges(timestamp - 1, timestamp + 1), Collections.singleton(GUID));
+    }
+
+    @Test
+    public void batchQueryFallsBackToScanAfterIndexWriteFailure() throws Exception {
+        long            timestamp       = System.currentTimeMillis();
+        BufferedMutator auditMutator    = mock(BufferedMutator.class);
+        BufferedMutator tagIndexMutator = mock(BufferedMutator.class);
+
+        doAnswer(invocation -> {
+            for (Mutation mutation : (List<Mutation>) invocation.getArguments()[0]) {
+                auditRows.add(mutation.getRow());
+            }
+
+            return null;
+        }).when(auditMutator).mutate(anyListOf(Mutation.class));
+
+        doThrow(new IOException("index region not available")).when(tagIndexMutator).flush();
+
+        when(connection.getBufferedMutator(AUDIT_TABLE)).thenReturn(auditMutator);
+        when(connection.getBufferedMutator(TAG_INDEX_TABLE)).thenReturn(tagIndexMutator);
+
+        auditRepository.putEventsV2Batch(Collections.singletonList(createEvent(timestamp)));
+
+        assertEquals(auditRows.size(), 1);
+        assertEquals(auditRepository.getEntitiesWithTagChanges(timestamp - 1, timestamp + 1), Collections.singleton(GUID));
+    }
+
+    @Test
+    public void eventsAreNotWrittenWhenIndexCantBeInvalidated() throws Exception {
+        doThrow(new IOException("index table not available")).when(tagIndexTable).delete(any(Delete.class));
+
+        try {
+            auditRepository.putEventsV2(createEvent(System.currentTimeMillis()));
+
+            fail("expected putEventsV2() to fail");
+        } catch (AtlasBaseException excp) {
+            // expected
+        }
+
+        assertTrue(auditRows.isEmpty());
+    }
+
+    private static EntityAuditEventV2 createEvent(long timestamp) {
+        return new EntityAuditEventV2(GUID, timestamp, "admin", EntityAuditActionV2.CLASSIFICATION_ADD, "Added classification: PII", null);
+    }
+
+    private static Result createResult(byte[] row, byte[] column, String value) {
+        return Result.create(Collections.singletonList(new KeyValue(row, HBaseBasedAuditRepository.COLUMN_FAMILY, column, Bytes.toBytes(value))));
+    }
+
+    private static ResultScanner createScanner(List<byte[]> rows) throws IOException {
+        ResultScanner    ret     = mock(ResultScanner.class);
+        Iterator<byte[]> rowIter = new ArrayList<>(rows).iterator();
+
+        when(ret.next()).thenAnswer(invocation -> rowIter.hasNext() ? createResult(rowIter.next(), HBaseBasedAuditRepository.COLUMN_ACTION, EntityAuditActionV2.CLASSIFICATION_ADD.name()) : null);
+
+        return ret;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HBaseAuditTagIndexTest {
+    private static final String GUID = "3a9d3d5b-7b3f-4b8c-9a9e-2f6f1f0e4d21";
+
+    @Test
+    public void rowKeyRoundTrip() {
+        long   timestamp = 1600000000000L;
+        byte[] rowKey    = HBaseAuditTagIndex.getRowKey(GUID, timestamp);
+
+        assertEquals(HBaseAuditTagIndex.getEntityId(rowKey), GUID);
+        assertEquals(HBaseAuditTagIndex.getTimestamp(rowKey), timestamp);
+        assertEquals(rowKey[0], (byte) HBaseAuditTagIndex.getSalt(GUID));
+    }
+
+    @Test
+    public void rowKeysInTimeRange() {
+        int    salt     = HBaseAuditTagIndex.getSalt(GUID);
+        byte[] start    = HBaseAuditTagIndex.getRowPrefix(salt, 1000L);
+        byte[] stop     = HBaseAuditTagIndex.getRowPrefix(salt, 2000L);
+        byte[] before   = HBaseAuditTagIndex.getRowKey(GUID, 999L);
+        byte[] atStart  = HBaseAuditTagIndex.getRowKey(GUID, 1000L);
+        byte[] inRange  = HBaseAuditTagIndex.getRowKey(GUID, 1999L);
+        byte[] atStop   = HBaseAuditTagIndex.getRowKey(GUID, 2000L);
+
+        assertTrue(Bytes.compareTo(before, start) < 0);
+        assertTrue(Bytes.compareTo(atStart, start) >= 0 && Bytes.compareTo(atStart, stop) < 0);
+        assertTrue(Bytes.compareTo(inRange, start) >= 0 && Bytes.compareTo(inRange, stop) < 0);
+        assertTrue(Bytes.compareTo(atStop, stop) >= 0);
+    }
+
+    @Test
+    public void metaRowIsOutsideSaltBuckets() {
+        assertTrue(Bytes.compareTo(HBaseAuditTagIndex.META_ROW, HBaseAuditTagIndex.getRowPrefix(HBaseAuditTagIndex.SALT_BUCKETS, 0)) > 0);
+    }
+
+    @Test
+    public void tagChangeActions() {
+        assertTrue(HBaseAuditTagIndex.isTagChange(EntityAuditActionV2.CLASSIFICATION_ADD));
+        assertTrue(HBaseAuditTagIndex.isTagChange(EntityAuditActionV2.CLASSIFICATION_DELETE));
+        assertTrue(HBaseAuditTagIndex.isTagChange(EntityAuditActionV2.CLASSIFICATION_UPDATE));
+        assertFalse(HBaseAuditTagIndex.isTagChange(EntityAuditActionV2.ENTITY_UPDATE));
+        assertFalse(HBaseAuditTagIndex.isTagChange(null));
+    }
+}
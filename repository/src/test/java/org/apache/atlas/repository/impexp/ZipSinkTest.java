@@ -197,6 +197,67 @@ public class ZipSinkTest {
         zs.close();
     }
 
+    @Test
+    public void writerThreadPreservesEntryOrder() throws AtlasBaseException, IOException {
+        final int             entityCount      = 20;
+        ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
+        ZipSink               zs               = new ZipSink(byteOutputStream, 2);
+
+        for (int i = 0; i < entityCount; i++) {
+            AtlasEntity entity = new AtlasEntity();
+            entity.setGuid(String.format(knownEntityGuidFormat, i));
+
+            zs.add(new AtlasEntity.AtlasEntityWithExtInfo(entity));
+        }
+
+        zs.setExportOrder(defaultExportOrder);
+        zs.close();
+
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(byteOutputStream.toByteArray()));
+
+        for (int i = 0; i < entityCount; i++) {
+            assertEquals(zis.getNextEntry().getName(), String.format(knownEntityGuidFormat, i) + ".json");
+        }
+
+        assertEquals(zis.getNextEntry().getName().replace(".json", ""), ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString());
+        assertNull(zis.getNextEntry());
+    }
+
+    @Test
+    public void writerThreadErrorIsThrownFromClose() throws AtlasBaseException {
+        OutputStream failingStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        ZipSink zs = new ZipSink(failingStream, 2);
+
+        AtlasEntity entity = new AtlasEntity();
+        entity.setGuid(String.format(knownEntityGuidFormat, 0));
+
+        zs.add(new AtlasEntity.AtlasEntityWithExtInfo(entity));
+
+        try {
+            zs.flush();
+
+            fail("flush() should fail when an entry could not be written");
+        } catch (AtlasBaseException excp) {
+            // expected
+        }
+
+        try {
+            zs.close();
+
+            fail("close() should fail when an entry could not be written");
+        } catch (AtlasBaseException excp) {
+            // expected
+        }
+
+        zs.close(); // error is thrown only once
+    }
+
     private void addReferredEntities(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo, int maxEntries) {
 
         for (int i = 1; i <= maxEntries; i++) {
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ZipSourceRandomAccessTest {
+    @DataProvider(name = "zipFileStocks")
+    public static Object[][] getDataFromZipFile() throws IOException, AtlasBaseException {
+        return new Object[][] {{ new ZipSourceRandomAccess(ZipFileResourceTestUtils.getFileInputStream("stocks.zip"), null, 2) }};
+    }
+
+    @DataProvider(name = "sales")
+    public static Object[][] getDataFromQuickStart_v1_Sales() throws IOException, AtlasBaseException {
+        return new Object[][] {{ new ZipSourceRandomAccess(ZipFileResourceTestUtils.getFileInputStream("sales-v1-full.zip"), null, 4) }};
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void improperInit_Throws() throws IOException, AtlasBaseException {
+        new ZipSourceRandomAccess(new ByteArrayInputStream(new byte[10]), null, 2);
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void examineContents_BehavesAsExpected(ZipSourceRandomAccess zipSource) throws AtlasBaseException {
+        try {
+            List<String> creationOrder = zipSource.getCreationOrder();
+
+            assertNotNull(creationOrder);
+            assertEquals(creationOrder.size(), 4);
+            assertEquals(zipSource.size(), 4);
+
+            AtlasTypesDef typesDef = zipSource.getTypesDef();
+            assertNotNull(typesDef);
+            assertEquals(typesDef.getEntityDefs().size(), 6);
+            assertNotNull(zipSource.getExportResult());
+
+            for (String guid : creationOrder) {
+                assertNotNull(zipSource.getEntityWithExtInfo(guid));
+                assertNotNull(zipSource.getByGuid(guid));
+            }
+
+            assertNull(zipSource.getByGuid("non-existent-guid"));
+        } finally {
+            zipSource.close();
+        }
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void iteratorBehavior_WorksAsExpected(ZipSourceRandomAccess zipSource) {
+        try {
+            assertTrue(zipSource.hasNext());
+
+            List<String> creationOrder = zipSource.getCreationOrder();
+
+            for (int i = 0; i < creationOrder.size(); i++) {
+                AtlasEntity e = zipSource.next();
+
+                assertNotNull(e);
+                assertEquals(e.getGuid(), creationOrder.get(i));
+            }
+
+            assertFalse(zipSource.hasNext());
+            assertNull(zipSource.next());
+
+            zipSource.reset();
+
+            assertTrue(zipSource.hasNext());
+            assertEquals(zipSource.next().getGuid(), creationOrder.get(0));
+        } finally {
+            zipSource.close();
+        }
+    }
+
+    @Test(dataProvider = "sales")
+    public void iteratorSetPositionBehavior(ZipSourceRandomAccess zipSource) {
+        try {
+            List<String> creationOrder = zipSource.getCreationOrder();
+            int          position      = 2;
+
+            zipSource.next();
+            zipSource.setPosition(position);
+
+            assertEquals(zipSource.getPosition(), position);
+
+            for (int i = 1; i < 4; i++) {
+                AtlasEntity e = zipSource.next();
+
+                assertEquals(zipSource.getPosition(), position + i);
+                assertEquals(e.getGuid(), creationOrder.get(position + i));
+            }
+
+            assertTrue(zipSource.hasNext());
+        } finally {
+            zipSource.close();
+        }
+    }
+
+    @Test(dataProvider = "sales")
+    public void iteratorSetPositionUsingGuid(ZipSourceRandomAccess zipSource) {
+        try {
+            List<String> creationOrder = zipSource.getCreationOrder();
+            String       guid          = creationOrder.get(5);
+
+            zipSource.next();
+            zipSource.setPositionUsingEntityGuid(guid);
+
+            assertEquals(zipSource.getPosition(), 5);
+            assertEquals(zipSource.next().getGuid(), guid);
+        } finally {
+            zipSource.close();
+        }
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void applyTransformation(ZipSourceRandomAccess zipSource) {
+        try {
+            zipSource.setImportTransform(ImportTransforms.fromJson("{ \"hive_db\": { \"qualifiedName\": [ \"replace:@cl1:@cl2\" ] } }"));
+
+            boolean hiveDbFound = false;
+
+            while (zipSource.hasNext()) {
+                AtlasEntity e = zipSource.next();
+
+                if (e.getTypeName().equals("hive_db")) {
+                    assertTrue(((String) e.getAttribute("qualifiedName")).contains("@cl2"));
+
+                    hiveDbFound = true;
+                }
+            }
+
+            assertTrue(hiveDbFound);
+        } finally {
+            zipSource.close();
+        }
+    }
+}
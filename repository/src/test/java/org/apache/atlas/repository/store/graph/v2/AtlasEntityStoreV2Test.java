@@ -37,6 +37,8 @@ import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
 import org.apache.atlas.model.typedef.AtlasClassificationDef;
 import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeUtil;
 import org.apache.atlas.util.FileUtils;
 import org.apache.commons.collections.CollectionUtils;
@@ -54,6 +56,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -74,6 +77,7 @@ import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -213,6 +217,33 @@ public class AtlasEntityStoreV2Test extends AtlasEntityTestBase {
         validateEntity(nestedCollectionAttrEntity, getEntityFromStore(createdEntity));
     }
 
+    @Test(dependsOnMethods = "testCreate")
+    public void testGetEntitiesByUniqueAttributes() throws Exception {
+        init();
+
+        AtlasEntityType           dbType     = typeRegistry.getEntityTypeByName(TestUtilsV2.DATABASE_TYPE);
+        List<Map<String, Object>> attrValues = new ArrayList<>();
+
+        attrValues.add(Collections.singletonMap(NAME, dbEntity.getEntity().getAttribute(NAME)));
+        attrValues.add(Collections.singletonMap(NAME, "non-existing-db"));
+        attrValues.add(Collections.emptyMap());
+
+        List<AtlasVertex> vertices = AtlasGraphUtilsV2.findByUniqueAttributes(graph, dbType, attrValues);
+
+        assertEquals(vertices.size(), 3);
+        assertEquals(AtlasGraphUtilsV2.getIdFromVertex(vertices.get(0)), dbEntityGuid);
+        assertNull(vertices.get(1));
+        assertNull(vertices.get(2));
+
+        // later lookup in the same request is served from the request cache
+        assertEquals(AtlasGraphUtilsV2.getIdFromVertex(AtlasGraphUtilsV2.findByUniqueAttributes(graph, dbType, attrValues.get(0))), dbEntityGuid);
+
+        AtlasEntitiesWithExtInfo entities = entityStore.getEntitiesByUniqueAttributes(dbType, attrValues.subList(0, 2), true, true);
+
+        assertEquals(entities.getEntities().size(), 1);
+        assertEquals(entities.getEntities().get(0).getGuid(), dbEntityGuid);
+    }
+
     @Test(dependsOnMethods = "testCreate")
     public void testArrayOfEntityUpdate() throws Exception {
         AtlasEntity              tableEntity  = new AtlasEntity(tblEntity.getEntity());
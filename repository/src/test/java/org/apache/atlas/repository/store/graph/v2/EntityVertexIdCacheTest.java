@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class EntityVertexIdCacheTest {
+    private static final String TYPE_NAME      = "hive_db";
+    private static final String QUALIFIED_NAME = "qualifiedName";
+    private static final String PROPERTY_NAME  = "Referenceable.qualifiedName";
+
+    private AtlasGraph          graph;
+    private AtlasEntityType     entityType;
+    private AtlasAttribute      attribute;
+    private AtlasVertex         vertex;
+    private EntityVertexIdCache cache;
+
+    @BeforeMethod
+    public void setup() {
+        AtlasTypeRegistry typeRegistry = mock(AtlasTypeRegistry.class);
+
+        graph      = mock(AtlasGraph.class);
+        entityType = mock(AtlasEntityType.class);
+        attribute  = mock(AtlasAttribute.class);
+        vertex     = createVertex("1", "guid-1", "db1@cl1", "ACTIVE");
+        cache      = new EntityVertexIdCache(typeRegistry, true, 100);
+
+        when(attribute.getName()).thenReturn(QUALIFIED_NAME);
+        when(attribute.getVertexPropertyName()).thenReturn(PROPERTY_NAME);
+        when(entityType.getTypeName()).thenReturn(TYPE_NAME);
+        when(entityType.getTypeAndAllSubTypes()).thenReturn(Collections.singleton(TYPE_NAME));
+        when(entityType.getAllSuperTypes()).thenReturn(Collections.emptySet());
+        when(entityType.getUniqAttributes()).thenReturn(Collections.singletonMap(QUALIFIED_NAME, attribute));
+        when(typeRegistry.getEntityTypeByName(TYPE_NAME)).thenReturn(entityType);
+    }
+
+    @Test
+    public void testLookupByGuid() {
+        assertNull(cache.getVertexByGuid(graph, "guid-1"));
+
+        cache.putGuid("guid-1", vertex);
+
+        assertSame(cache.getVertexByGuid(graph, "guid-1"), vertex);
+
+        // vertex removed from the graph
+        when(graph.getVertex("1")).thenReturn(null);
+
+        assertNull(cache.getVertexByGuid(graph, "guid-1"));
+
+        when(graph.getVertex("1")).thenReturn(vertex);
+
+        assertNull(cache.getVertexByGuid(graph, "guid-1"));
+    }
+
+    @Test
+    public void testLookupByUniqueAttribute() {
+        cache.putUniqueAttribute(entityType, attribute, "db1@cl1", vertex);
+
+        assertSame(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db1@cl1"), vertex);
+        assertNull(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db2@cl1"));
+    }
+
+    @Test
+    public void testStaleEntriesAreNotReturned() {
+        cache.putUniqueAttribute(entityType, attribute, "db1@cl1", vertex);
+
+        // unique attribute updated by a change not seen by the cache
+        when(vertex.getProperty(PROPERTY_NAME, Object.class)).thenReturn("db1_renamed@cl1");
+
+        assertNull(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db1@cl1"));
+
+        // entry is evicted; it is not returned even after the value is restored
+        when(vertex.getProperty(PROPERTY_NAME, Object.class)).thenReturn("db1@cl1");
+
+        assertNull(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db1@cl1"));
+
+        cache.putUniqueAttribute(entityType, attribute, "db1@cl1", vertex);
+
+        when(vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn("DELETED");
+
+        assertNull(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db1@cl1"));
+    }
+
+    @Test
+    public void testEntriesAreRemovedOnDelete() throws Exception {
+        AtlasEntity entity = new AtlasEntity(TYPE_NAME);
+
+        entity.setGuid("guid-1");
+        entity.setAttribute(QUALIFIED_NAME, "db1@cl1");
+
+        cache.putGuid("guid-1", vertex);
+        cache.putUniqueAttribute(entityType, attribute, "db1@cl1", vertex);
+
+        cache.onEntitiesDeleted(Collections.singletonList(entity), false);
+
+        assertNull(cache.getVertexByUniqueAttribute(graph, entityType, attribute, "db1@cl1"));
+        assertSame(cache.getVertexByGuid(graph, "guid-1"), vertex); // soft-deleted entities are still found by guid
+
+        cache.onEntitiesPurged(Collections.singletonList(entity));
+
+        assertNull(cache.getVertexByGuid(graph, "guid-1"));
+    }
+
+    private AtlasVertex createVertex(String vertexId, String guid, String qualifiedName, String state) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getIdForDisplay()).thenReturn(vertexId);
+        when(ret.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(guid);
+        when(ret.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class)).thenReturn(TYPE_NAME);
+        when(ret.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(state);
+        when(ret.getProperty(PROPERTY_NAME, Object.class)).thenReturn(qualifiedName);
+        when(graph.getVertex(vertexId)).thenReturn(ret);
+
+        return ret;
+    }
+}
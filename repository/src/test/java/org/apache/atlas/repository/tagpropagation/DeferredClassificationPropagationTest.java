@@ -0,0 +1,337 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.tagpropagation;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.GraphTransactionInterceptor.PostTransactionHook;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.FullTextMapperV2;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.impexp.ImportService;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityChangeNotifier;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTaskFactory;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.tasks.TaskRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_ADD;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagationTask.CLASSIFICATION_PROPAGATION_DELETE;
+import static org.apache.atlas.repository.tagpropagation.ClassificationPropagationTest.getZipSource;
+import static org.apache.atlas.utils.TestLoadModelUtils.loadModelFromJson;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Classification propagation with atlas.tasks.enabled=true, using the lineage in tag-propagation-data.zip:
+ *
+ *                        [Process1] ----> [Employees1]
+ *                      /                              \
+ *    [hdfs_employees]                                   [Process3] ----> [EmployeesUnion]
+ *                      \                              /
+ *                        [Process2] ----> [Employees2]
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class DeferredClassificationPropagationTest {
+    private static final String       HDFS_PATH_EMPLOYEES   = "a3955120-ac17-426f-a4af-972ec8690e5f";
+    private static final List<String> LINEAGE_ENTITIES      = Arrays.asList("cdf0040e-739e-4590-a137-964d10e73573",  // Employees1
+                                                                            "0a3e66b6-472c-48b3-8453-abdd24f9494f",  // Employees2
+                                                                            "1ceac963-1a2b-476a-a269-10396187d406",  // EmployeesUnion
+                                                                            "26dae763-85b7-40af-8516-71056d91d2de",  // Process1
+                                                                            "c0201260-dbeb-45f4-930d-5129eab31dc9",  // Process2
+                                                                            "470a2d1e-b1fd-47de-8f2d-8dfd0a0275a7"); // Process3
+    private static final long         TASK_WAIT_TIMEOUT_MS  = 60 * 1000;
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private AtlasEntityStore entityStore;
+
+    @Inject
+    private ImportService importService;
+
+    @Inject
+    private TaskRegistry taskRegistry;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @Inject
+    private DeleteHandlerDelegate deleteDelegate;
+
+    @Inject
+    private AtlasRelationshipStore relationshipStore;
+
+    @Inject
+    private AtlasInstanceConverter instanceConverter;
+
+    @Inject
+    private FullTextMapperV2 fullTextMapper;
+
+    @Inject
+    private Configuration configuration;
+
+    private TaskManagement taskManagement;
+
+    // guids of entities notified of propagated classifications, after the propagation is committed
+    private final Set<String> addNotifiedGuids    = ConcurrentHashMap.newKeySet();
+    private final Set<String> deleteNotifiedGuids = ConcurrentHashMap.newKeySet();
+
+    @BeforeClass
+    public void setup() throws Exception {
+        RequestContext.clear();
+
+        ApplicationProperties.get().setProperty("atlas.tasks.enabled", true);
+
+        loadModelFromJson("0000-Area0/0010-base_model.json", typeDefStore, typeRegistry);
+        loadModelFromJson("1000-Hadoop/1020-fs_model.json", typeDefStore, typeRegistry);
+        loadModelFromJson("1000-Hadoop/1030-hive_model.json", typeDefStore, typeRegistry);
+
+        typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(),
+                                                      Arrays.asList(new AtlasClassificationDef("deferred_tag1"), new AtlasClassificationDef("deferred_tag2")),
+                                                      Collections.emptyList(), Collections.emptyList()));
+
+        runImportWithNoParameters(importService, getZipSource(ClassificationPropagationTest.IMPORT_FILE));
+
+        taskManagement = new TaskManagement(configuration, taskRegistry, Collections.singletonList(createTaskFactory()));
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        taskManagement.stop();
+
+        ApplicationProperties.get().setProperty("atlas.tasks.enabled", false);
+
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void addClassificationIsDeferred() throws Exception {
+        addClassification(HDFS_PATH_EMPLOYEES, "deferred_tag1");
+
+        List<AtlasTask> pendingTasks = taskRegistry.getTasks(AtlasTask.Status.PENDING);
+
+        assertEquals(pendingTasks.size(), 1);
+        assertEquals(pendingTasks.get(0).getType(), CLASSIFICATION_PROPAGATION_ADD);
+
+        for (String guid : LINEAGE_ENTITIES) {
+            assertFalse(hasClassification(guid, "deferred_tag1"), guid);
+        }
+
+        // pending tasks are picked up on start
+        taskManagement.start();
+
+        waitForTasks();
+
+        for (String guid : LINEAGE_ENTITIES) {
+            assertTrue(hasClassification(guid, "deferred_tag1"), guid);
+        }
+
+        assertTrue(addNotifiedGuids.containsAll(LINEAGE_ENTITIES), addNotifiedGuids.toString());
+    }
+
+    @Test(dependsOnMethods = "addClassificationIsDeferred")
+    public void deleteClassificationIsDeferred() throws Exception {
+        entityStore.deleteClassification(HDFS_PATH_EMPLOYEES, "deferred_tag1");
+
+        waitForTasks();
+
+        assertFalse(hasClassification(HDFS_PATH_EMPLOYEES, "deferred_tag1"));
+
+        for (String guid : LINEAGE_ENTITIES) {
+            assertFalse(hasClassification(guid, "deferred_tag1"), guid);
+        }
+
+        assertTrue(deleteNotifiedGuids.containsAll(LINEAGE_ENTITIES), deleteNotifiedGuids.toString());
+    }
+
+    @Test(dependsOnMethods = "deleteClassificationIsDeferred")
+    public void cancelPendingTask() throws Exception {
+        taskManagement.stop();
+
+        addClassification(HDFS_PATH_EMPLOYEES, "deferred_tag2");
+
+        AtlasTask task = taskRegistry.getTasks(AtlasTask.Status.PENDING).get(0);
+
+        assertEquals(taskManagement.cancelTask(task.getGuid()).getStatus(), AtlasTask.Status.CANCELLED);
+
+        // a worker retrying the task must not overwrite the cancel
+        task.setStatus(AtlasTask.Status.PENDING);
+
+        assertFalse(taskRegistry.updateStatus(task));
+        assertEquals(taskManagement.getTask(task.getGuid()).getStatus(), AtlasTask.Status.CANCELLED);
+
+        taskManagement.start();
+
+        waitForTasks();
+
+        for (String guid : LINEAGE_ENTITIES) {
+            assertFalse(hasClassification(guid, "deferred_tag2"), guid);
+        }
+
+        taskManagement.deleteTask(task.getGuid());
+
+        try {
+            taskManagement.getTask(task.getGuid());
+
+            fail("deleted task should not be found");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.TASK_NOT_FOUND);
+        }
+    }
+
+    @Test(dependsOnMethods = "cancelPendingTask")
+    public void deletePropagationTaskIsNotCancelled() throws Exception {
+        taskManagement.stop();
+
+        entityStore.deleteClassification(HDFS_PATH_EMPLOYEES, "deferred_tag2");
+
+        AtlasTask task = taskRegistry.getTasks(AtlasTask.Status.PENDING).get(0);
+
+        assertEquals(task.getType(), CLASSIFICATION_PROPAGATION_DELETE);
+
+        try {
+            taskManagement.cancelTask(task.getGuid());
+
+            fail("delete propagation task should not be cancelled");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.TASK_NOT_CANCELLABLE);
+        }
+
+        taskManagement.start();
+
+        waitForTasks();
+
+        assertFalse(hasClassification(HDFS_PATH_EMPLOYEES, "deferred_tag2"));
+        assertTrue(taskRegistry.getTasks(null).isEmpty());
+    }
+
+    /**
+     * Creates a task factory whose entity change notifications are recorded the way EntityNotificationSender sends
+     * them by default: in a post-transaction hook, only when the transaction commits.
+     */
+    private ClassificationPropagationTaskFactory createTaskFactory() throws AtlasBaseException {
+        EntityChangeListenerV2 listener = mock(EntityChangeListenerV2.class);
+
+        doAnswer(invocation -> recordOnCommit(invocation.getArguments()[0], addNotifiedGuids)).when(listener).onClassificationsAdded(anyList(), anyList());
+        doAnswer(invocation -> recordOnCommit(invocation.getArguments()[0], deleteNotifiedGuids)).when(listener).onClassificationsDeleted(anyList(), anyList());
+
+        AtlasEntityChangeNotifier notifier     = new AtlasEntityChangeNotifier(Collections.emptySet(), Collections.singleton(listener), instanceConverter, fullTextMapper, typeRegistry);
+        EntityGraphMapper         entityMapper = new EntityGraphMapper(deleteDelegate, typeRegistry, graph, relationshipStore, notifier, instanceConverter, fullTextMapper, taskRegistry);
+
+        return new ClassificationPropagationTaskFactory(graph, entityMapper);
+    }
+
+    private static Object recordOnCommit(Object entities, Set<String> notifiedGuids) {
+        List<String> guids = new ArrayList<>();
+
+        for (Object entity : (List<?>) entities) {
+            guids.add(((AtlasEntity) entity).getGuid());
+        }
+
+        new PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                if (isSuccess) {
+                    notifiedGuids.addAll(guids);
+                }
+            }
+        };
+
+        return null;
+    }
+
+    private void addClassification(String guid, String classificationName) throws AtlasBaseException {
+        AtlasClassification classification = new AtlasClassification(classificationName);
+
+        classification.setPropagate(true);
+        classification.setEntityGuid(guid);
+
+        entityStore.addClassifications(guid, Collections.singletonList(classification));
+    }
+
+    private boolean hasClassification(String guid, String classificationName) throws AtlasBaseException {
+        List<AtlasClassification> classifications = entityStore.getById(guid).getEntity().getClassifications();
+
+        if (classifications != null) {
+            for (AtlasClassification classification : classifications) {
+                if (classification.getTypeName().equals(classificationName)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void waitForTasks() throws InterruptedException {
+        long endTime = System.currentTimeMillis() + TASK_WAIT_TIMEOUT_MS;
+
+        while (!taskRegistry.getIncompleteTasks().isEmpty()) {
+            if (System.currentTimeMillis() > endTime) {
+                fail("tasks not completed in " + TASK_WAIT_TIMEOUT_MS + "ms");
+            }
+
+            Thread.sleep(100);
+        }
+    }
+}
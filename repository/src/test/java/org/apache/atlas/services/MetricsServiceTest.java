@@ -81,6 +81,9 @@ public class MetricsServiceTest {
     @Inject
     private AtlasMetricsUtil metricsUtil;
 
+    @Inject
+    private EntityCountTracker entityCountTracker;
+
     TestClock clock = new TestClock(Clock.systemUTC(), ZoneOffset.UTC);
 
     long msgOffset = 0;
@@ -173,6 +176,20 @@ public class MetricsServiceTest {
         assertEquals(deletedEntityMetricsActual, deletedEntityMetricsExpected);
     }
 
+    @Test
+    public void testGetMetricsFromTrackedCounts() {
+        entityCountTracker.reconcile();
+
+        assertTrue(entityCountTracker.isAvailable());
+
+        AtlasMetrics metrics = metricsService.getMetrics();
+
+        assertEquals(metrics.getNumericMetric(GENERAL, METRIC_ENTITY_COUNT).intValue(), 43);
+        assertEquals(metrics.getMetric(TAG, METRIC_ENTITIES_PER_TAG), tagMetricsExpected);
+        assertEquals(metrics.getMetric(ENTITY, METRIC_ENTITY_ACTIVE), activeEntityMetricsExpected);
+        assertEquals(metrics.getMetric(ENTITY, METRIC_ENTITY_DELETED), deletedEntityMetricsExpected);
+    }
+
     @Test
     public void testNotificationMetrics() {
         Instant now           = Clock.systemUTC().instant();
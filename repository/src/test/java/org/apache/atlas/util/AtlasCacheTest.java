@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.util;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class AtlasCacheTest {
+    @Test
+    public void testHitMissCounts() {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>builder("testHitMissCounts").maxSize(10).build();
+
+        cache.put("k1", "v1");
+
+        assertEquals(cache.get("k1"), "v1");
+        assertNull(cache.get("k2"));
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertTrue(AtlasCache.getCaches().contains(cache));
+    }
+
+    @Test
+    public void testSizeBoundedEviction() {
+        AtlasCache<Integer, Integer> cache = AtlasCache.<Integer, Integer>builder("testSizeBoundedEviction").maxSize(5).build();
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 5);
+        assertEquals(cache.getEvictionCount(), 20 - cache.size());
+    }
+
+    @Test
+    public void testWeightBoundedEviction() {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>builder("testWeightBoundedEviction").maxWeight(100, (k, v) -> v.length()).build();
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("k" + i, "0123456789012345678901234567890123456789"); // weight 40
+        }
+
+        assertTrue(cache.size() <= 2);
+        assertTrue(cache.getEvictionCount() >= 8);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>builder("testExpiry").expireAfterWrite(50, TimeUnit.MILLISECONDS).build();
+
+        cache.put("k1", "v1");
+
+        assertEquals(cache.get("k1"), "v1");
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("k1"));
+    }
+
+    @Test
+    public void testLoader() throws Exception {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>builder("testLoader").maxSize(10).build();
+
+        assertEquals(cache.get("k1", () -> "v1"), "v1");
+        assertEquals(cache.get("k1", () -> "v2"), "v1");
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertTrue(cache.getStats().containsKey("loadTimeSavedMs"));
+
+        try {
+            cache.get("k2", () -> { throw new IllegalStateException("load failed"); });
+
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException excp) {
+            // expected
+        }
+
+        try {
+            cache.get("k2", () -> { throw new Exception("load failed"); });
+
+            fail("expected ExecutionException");
+        } catch (ExecutionException excp) {
+            assertEquals(excp.getCause().getMessage(), "load failed");
+        }
+
+        assertNull(cache.get("k2"));
+    }
+}
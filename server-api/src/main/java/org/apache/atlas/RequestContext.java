@@ -25,6 +25,7 @@ import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
+import org.apache.atlas.utils.AtlasPerfMetricsAggregator;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,8 @@ public class RequestContext {
     private static final ThreadLocal<RequestContext> CURRENT_CONTEXT = new ThreadLocal<>();
     private static final Set<RequestContext>         ACTIVE_REQUESTS = new HashSet<>();
     private static final boolean                     isMetricsEnabled = METRICS.isDebugEnabled();
+    private static final boolean                     isMetricsAggregationEnabled = AtlasConfiguration.REQUEST_METRICS_AGGREGATION_ENABLED.getBoolean();
+    private static final AtlasPerfMetricsAggregator  METRICS_AGGREGATOR = new AtlasPerfMetricsAggregator(AtlasConfiguration.REQUEST_METRICS_AGGREGATION_WINDOW_SECONDS.getLong() * 1000);
 
     private final long                                   requestTime          = System.currentTimeMillis();
     private final Map<String, AtlasEntityHeader>         updatedEntities      = new HashMap<>();
@@ -54,9 +57,10 @@ public class RequestContext {
     private final Map<String, AtlasEntityWithExtInfo>    entityExtInfoCache   = new HashMap<>();
     private final Map<String, List<AtlasClassification>> addedPropagations    = new HashMap<>();
     private final Map<String, List<AtlasClassification>> removedPropagations  = new HashMap<>();
-    private final AtlasPerfMetrics                       metrics              = isMetricsEnabled ? new AtlasPerfMetrics() : null;
+    private final AtlasPerfMetrics                       metrics              = (isMetricsEnabled || isMetricsAggregationEnabled) ? new AtlasPerfMetrics() : null;
     private       List<EntityGuidPair>                   entityGuidInRequest  = null;
     private final Set<String>                            entitiesToSkipUpdate = new HashSet<>();
+    private final Map<String, String>                    uniqueAttributeGuids = new HashMap<>();
 
     private String       user;
     private Set<String>  userGroups;
@@ -114,9 +118,16 @@ public class RequestContext {
         this.addedPropagations.clear();
         this.removedPropagations.clear();
         this.entitiesToSkipUpdate.clear();
+        this.uniqueAttributeGuids.clear();
 
         if (metrics != null && !metrics.isEmpty()) {
-            METRICS.debug(metrics.toString());
+            if (isMetricsEnabled) {
+                METRICS.debug(metrics.toString());
+            }
+
+            if (isMetricsAggregationEnabled) {
+                METRICS_AGGREGATOR.add(metrics);
+            }
 
             metrics.clear();
         }
@@ -329,6 +340,20 @@ public class RequestContext {
         return entityCache.get(guid);
     }
 
+    public String getGuidByUniqueAttribute(String uniqueAttributeKey) {
+        return uniqueAttributeGuids.get(uniqueAttributeKey);
+    }
+
+    public void cacheGuidByUniqueAttribute(String uniqueAttributeKey, String guid) {
+        if (uniqueAttributeKey != null && guid != null) {
+            uniqueAttributeGuids.put(uniqueAttributeKey, guid);
+        }
+    }
+
+    public void removeGuidByUniqueAttribute(String uniqueAttributeKey) {
+        uniqueAttributeGuids.remove(uniqueAttributeKey);
+    }
+
     public long getRequestTime() {
         return requestTime;
     }
@@ -341,6 +366,13 @@ public class RequestContext {
         return deletedEntities.containsKey(guid);
     }
 
+    /**
+     * @return metrics recorded by requests over a rolling window, keyed by metric name
+     */
+    public static Map<String, Map<String, Object>> getAggregatedMetrics() {
+        return METRICS_AGGREGATOR.getStats();
+    }
+
     public MetricRecorder startMetricRecord(String name) { return metrics != null ? metrics.getMetricRecorder(name) : null; }
 
     public void endMetricRecord(MetricRecorder recorder) {
@@ -32,7 +32,11 @@ public interface ActiveStateChangeHandler {
         TYPEDEF_STORE_INITIALIZER(2),
         ATLAS_PATCH_SERVICE(3),
         DEFAULT_METADATA_SERVICE(4),
-        NOTIFICATION_HOOK_CONSUMER(5);
+        ENTITY_COUNT_TRACKER(5),
+        TASK_MANAGEMENT(6),
+        SUGGESTIONS_INDEX(7),
+        ENTITY_VERTEX_ID_CACHE(8),
+        NOTIFICATION_HOOK_CONSUMER(9);
 
 
         private final int order;
@@ -76,9 +76,10 @@ public class EntityNotificationListenerV2 implements EntityChangeListenerV2 {
     @Inject
     public EntityNotificationListenerV2(AtlasTypeRegistry typeRegistry,
                                         NotificationInterface notificationInterface,
-                                        Configuration configuration) {
+                                        Configuration configuration,
+                                        EntityNotificationOutbox outbox) {
         this.typeRegistry       = typeRegistry;
-        this.notificationSender = new EntityNotificationSender<>(notificationInterface, configuration);
+        this.notificationSender = new EntityNotificationSender<>(notificationInterface, configuration, outbox);
     }
 
     @Override
@@ -0,0 +1,567 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.util.AtlasMetricsUtil;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.atlas.notification.NotificationInterface.NotificationType.ENTITIES;
+
+/**
+ * Local, append-only outbox for entity notifications, so that sending notifications to ATLAS_ENTITIES topic doesn't
+ * add to the latency of entity mutations, and notifications are not lost when the messaging system is unavailable.
+ * <p>
+ * Notifications are serialized and appended to the current segment file of the outbox, in the caller's thread. A
+ * sender thread reads the outbox in order and sends the messages in batches; the position up to which messages are
+ * sent is recorded in a checkpoint file after each batch. Failed batches are retried, until sent, after
+ * retry-interval. Segments are rolled over after segment-size, and deleted once all their messages are sent.
+ * <p>
+ * Each line of a segment is one message: the time the message was added, a tab, and the message as serialized by
+ * AbstractNotification.createNotificationMessages(). Messages are delivered at least once: messages of a batch that
+ * was sent, but not yet checkpointed, are sent again after a restart.
+ * <p>
+ * Disabled by default - atlas.notification.outbox.enabled; when disabled, or when the service is not started,
+ * notifications are sent in the caller's thread.
+ */
+@Singleton
+@Component
+@Order(4)
+public class EntityNotificationOutbox implements Service {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityNotificationOutbox.class);
+
+    private static final String SEGMENT_FILE_PREFIX   = "entities-outbox-";
+    private static final String SEGMENT_FILE_SUFFIX   = ".log";
+    private static final String CHECKPOINT_FILE_NAME  = "entities-outbox.checkpoint";
+    private static final char   FIELD_SEPARATOR       = '\t';
+    private static final char   LINE_SEPARATOR        = '\n';
+    private static final long   MAX_WAIT_TIME_MS      = 1000;
+    private static final String ATLAS_DATA            = "atlas.data";
+    private static final String ATLAS_HOME            = "atlas.home";
+
+    private final NotificationInterface notificationInterface;
+    private final AtlasMetricsUtil      metricsUtil;
+    private final boolean               isEnabled;
+    private final File                  directory;
+    private final File                  checkpointFile;
+    private final int                   batchSize;
+    private final long                  segmentSizeBytes;
+    private final long                  retryIntervalMs;
+    private final Object                writeLock         = new Object();
+    private final Object                sendSignal        = new Object();
+    private final AtomicLong            addedCount        = new AtomicLong();
+    private final AtomicLong            sentCount         = new AtomicLong();
+    private volatile long               oldestPendingTime = 0;
+    private volatile boolean            isRunning         = false;
+    private volatile long               writeSegment;
+    private volatile long               writeOffset;
+    private FileChannel                 writeChannel;
+    private long                        readSegment;
+    private long                        readOffset;
+    private boolean                     isReadSegmentClosed;
+    private Thread                      sender;
+
+    @Inject
+    public EntityNotificationOutbox(NotificationInterface notificationInterface, AtlasMetricsUtil metricsUtil) {
+        this(notificationInterface, metricsUtil,
+             AtlasConfiguration.NOTIFICATION_OUTBOX_ENABLED.getBoolean(),
+             getOutboxDirectory(AtlasConfiguration.NOTIFICATION_OUTBOX_DIRECTORY.getString()),
+             AtlasConfiguration.NOTIFICATION_OUTBOX_BATCH_SIZE.getInt(),
+             AtlasConfiguration.NOTIFICATION_OUTBOX_SEGMENT_SIZE_MB.getLong() * 1024 * 1024,
+             AtlasConfiguration.NOTIFICATION_OUTBOX_RETRY_INTERVAL_MS.getLong());
+    }
+
+    @VisibleForTesting
+    EntityNotificationOutbox(NotificationInterface notificationInterface, AtlasMetricsUtil metricsUtil, boolean isEnabled,
+                             File directory, int batchSize, long segmentSizeBytes, long retryIntervalMs) {
+        this.notificationInterface = notificationInterface;
+        this.metricsUtil           = metricsUtil;
+        this.isEnabled             = isEnabled && notificationInterface instanceof AbstractNotification;
+        this.directory             = directory;
+        this.checkpointFile        = new File(directory, CHECKPOINT_FILE_NAME);
+        this.batchSize             = Math.max(batchSize, 1);
+        this.segmentSizeBytes      = Math.max(segmentSizeBytes, 1);
+        this.retryIntervalMs       = Math.max(retryIntervalMs, 1);
+
+        if (isEnabled && !this.isEnabled) {
+            LOG.warn("EntityNotificationOutbox: not supported with {}; notifications will be sent inline", notificationInterface.getClass().getName());
+        }
+
+        LOG.info("EntityNotificationOutbox: enabled={}, directory={}, batchSize={}, segmentSizeBytes={}, retryIntervalMs={}",
+                 this.isEnabled, directory, this.batchSize, this.segmentSizeBytes, this.retryIntervalMs);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            return;
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new AtlasException("failed to create notification outbox directory " + directory);
+        }
+
+        try {
+            TreeMap<Long, File> segments = getSegments();
+            long[]              position = readCheckpoint();
+
+            if (position == null) {
+                position = new long[] { segments.isEmpty() ? 0 : segments.firstKey(), 0 };
+            }
+
+            // segments before the checkpoint are fully sent
+            for (File segment : segments.headMap(position[0]).values()) {
+                Files.delete(segment.toPath());
+            }
+
+            readSegment  = position[0];
+            readOffset   = position[1];
+            writeSegment = Math.max(segments.isEmpty() ? 0 : segments.lastKey() + 1, readSegment); // never append to a segment written before restart
+            writeOffset  = 0;
+            writeChannel = openSegmentForWrite(writeSegment);
+
+            addedCount.set(countPendingMessages(segments));
+
+            if (addedCount.get() > 0) {
+                LOG.info("EntityNotificationOutbox: {} messages pending from earlier run", addedCount.get());
+            }
+        } catch (IOException e) {
+            throw new AtlasException("failed to open notification outbox in " + directory, e);
+        }
+
+        if (metricsUtil != null) {
+            metricsUtil.setOutboxGauges(this::getPendingCount, this::getLagMs);
+        }
+
+        isRunning = true;
+        sender    = new Thread(this::sendMessages, "atlas-notification-outbox");
+
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void stop() {
+        if (sender == null) {
+            return;
+        }
+
+        // messages not yet sent remain in the outbox, and will be sent after restart
+        isRunning = false;
+
+        synchronized (sendSignal) {
+            sendSignal.notifyAll();
+        }
+
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (writeLock) {
+            closeQuietly(writeChannel);
+
+            writeChannel = null;
+        }
+
+        sender = null;
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Adds the given notifications to the outbox; these will be sent to ATLAS_ENTITIES topic by the sender thread.
+     *
+     * @throws NotificationException if the notifications could not be added to the outbox
+     */
+    public <T> void add(List<T> notifications) throws NotificationException {
+        List<String> messages = new ArrayList<>(notifications.size());
+
+        for (T notification : notifications) {
+            AbstractNotification.createNotificationMessages(notification, messages);
+        }
+
+        String        addTime = Long.toString(System.currentTimeMillis());
+        StringBuilder sb      = new StringBuilder();
+
+        for (String message : messages) {
+            sb.append(addTime).append(FIELD_SEPARATOR).append(message).append(LINE_SEPARATOR);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        synchronized (writeLock) {
+            if (writeChannel == null) {
+                throw new NotificationException(new IOException("notification outbox is not open"));
+            }
+
+            try {
+                if (writeOffset >= segmentSizeBytes) {
+                    rollSegment();
+                }
+
+                long offset = writeOffset + buffer.remaining();
+
+                while (buffer.hasRemaining()) {
+                    writeChannel.write(buffer);
+                }
+
+                writeOffset = offset;
+            } catch (IOException e) {
+                throw new NotificationException(e);
+            }
+
+            addedCount.addAndGet(messages.size());
+        }
+
+        synchronized (sendSignal) {
+            sendSignal.notifyAll();
+        }
+    }
+
+    @VisibleForTesting
+    long getPendingCount() {
+        return addedCount.get() - sentCount.get();
+    }
+
+    @VisibleForTesting
+    long getLagMs() {
+        long oldestPendingTime = this.oldestPendingTime;
+
+        return oldestPendingTime > 0 ? System.currentTimeMillis() - oldestPendingTime : 0;
+    }
+
+    private void sendMessages() {
+        LOG.info("==> EntityNotificationOutbox.sendMessages()");
+
+        AbstractNotification notification = (AbstractNotification) notificationInterface;
+        List<String>         batch        = new ArrayList<>(batchSize);
+        long[]               addTimes     = new long[1];
+
+        while (isRunning) {
+            long batchEndOffset;
+
+            try {
+                batch.clear();
+
+                batchEndOffset = readBatch(batch, addTimes);
+            } catch (IOException e) {
+                LOG.error("failed to read notification outbox segment {}; will retry", getSegmentFile(readSegment), e);
+
+                waitForSignal(retryIntervalMs);
+
+                continue;
+            }
+
+            if (batch.isEmpty()) {
+                oldestPendingTime = 0;
+
+                if (isReadSegmentClosed) {
+                    moveToNextSegment();
+                } else {
+                    waitForSignal(MAX_WAIT_TIME_MS);
+                }
+
+                continue;
+            }
+
+            oldestPendingTime = addTimes[0];
+
+            long    startTime = System.currentTimeMillis();
+            boolean isFailed  = false;
+
+            try {
+                notification.sendSerialized(ENTITIES, batch);
+            } catch (Throwable t) {
+                LOG.warn("failed to send {} entity notifications; will retry after {} ms", batch.size(), retryIntervalMs, t);
+
+                isFailed = true;
+            }
+
+            if (metricsUtil != null) {
+                metricsUtil.onOutboxSendComplete(batch.size(), System.currentTimeMillis() - startTime, isFailed);
+            }
+
+            if (isFailed) {
+                waitForSignal(retryIntervalMs);
+            } else {
+                readOffset = batchEndOffset;
+
+                sentCount.addAndGet(batch.size());
+
+                writeCheckpoint();
+            }
+        }
+
+        LOG.info("<== EntityNotificationOutbox.sendMessages()");
+    }
+
+    /**
+     * Reads up to batch-size messages from the read position; only complete lines are read. A segment that has been
+     * rolled over is read up to its end; the segment being written is read up to the last complete write.
+     *
+     * @return position in the read segment after the messages read
+     */
+    private long readBatch(List<String> batch, long[] firstAddTime) throws IOException {
+        long currentWriteSegment;
+        long currentWriteOffset;
+
+        // segment and offset are updated together when the segment is rolled over
+        synchronized (writeLock) {
+            currentWriteSegment = writeSegment;
+            currentWriteOffset  = writeOffset;
+        }
+
+        File segmentFile = getSegmentFile(readSegment);
+
+        isReadSegmentClosed = readSegment < currentWriteSegment;
+
+        if (!segmentFile.exists()) {
+            return readOffset;
+        }
+
+        long ret   = readOffset;
+        long limit = isReadSegmentClosed ? segmentFile.length() : currentWriteOffset;
+
+        try (FileChannel channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.READ);
+             InputStream in      = new BufferedInputStream(Channels.newInputStream(channel.position(readOffset)), 64 * 1024)) {
+            ByteArrayOutputStream line   = new ByteArrayOutputStream();
+            long                  offset = readOffset;
+
+            while (offset < limit && batch.size() < batchSize) {
+                int b = in.read();
+
+                if (b == -1) {
+                    break;
+                }
+
+                offset++;
+
+                if (b != LINE_SEPARATOR) {
+                    line.write(b);
+
+                    continue;
+                }
+
+                String str      = new String(line.toByteArray(), StandardCharsets.UTF_8);
+                int    sepIndex = str.indexOf(FIELD_SEPARATOR);
+
+                line.reset();
+
+                ret = offset;
+
+                long addTime = sepIndex > 0 ? NumberUtils.toLong(str.substring(0, sepIndex), -1) : -1;
+
+                if (addTime < 0) {
+                    LOG.warn("ignoring invalid line in notification outbox segment {}: {}", segmentFile, str);
+
+                    continue;
+                }
+
+                if (batch.isEmpty()) {
+                    firstAddTime[0] = addTime;
+                }
+
+                batch.add(str.substring(sepIndex + 1));
+            }
+        }
+
+        if (batch.isEmpty() && ret != readOffset) { // only invalid lines were read
+            readOffset = ret;
+
+            writeCheckpoint();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Moves the read position to the next segment. Called once all complete messages of the current segment, which is
+     * no longer written to, have been read.
+     */
+    private void moveToNextSegment() {
+        File segmentFile = getSegmentFile(readSegment);
+
+        if (segmentFile.exists() && readOffset < segmentFile.length()) {
+            LOG.warn("ignoring incomplete message at the end of notification outbox segment {}", segmentFile);
+        }
+
+        readSegment++;
+        readOffset = 0;
+
+        writeCheckpoint();
+
+        try {
+            Files.deleteIfExists(segmentFile.toPath());
+        } catch (IOException e) {
+            LOG.warn("failed to delete notification outbox segment {}", segmentFile, e);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        writeChannel.force(false);
+        writeChannel.close();
+
+        writeChannel = openSegmentForWrite(writeSegment + 1);
+        writeSegment = writeSegment + 1;
+        writeOffset  = 0;
+    }
+
+    private FileChannel openSegmentForWrite(long segment) throws IOException {
+        return FileChannel.open(getSegmentFile(segment).toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void waitForSignal(long waitTimeMs) {
+        synchronized (sendSignal) {
+            try {
+                sendSignal.wait(waitTimeMs);
+            } catch (InterruptedException e) {
+                LOG.warn("EntityNotificationOutbox: interrupted; stopping sender");
+
+                isRunning = false;
+            }
+        }
+    }
+
+    private void writeCheckpoint() {
+        File tmpFile = new File(checkpointFile.getPath() + ".tmp");
+
+        try {
+            Files.write(tmpFile.toPath(), (readSegment + " " + readOffset).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("failed to update {}; notifications might be sent again after restart", checkpointFile, e);
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        if (!checkpointFile.exists()) {
+            return null;
+        }
+
+        String[] fields = StringUtils.split(new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).trim(), ' ');
+
+        if (fields == null || fields.length != 2) {
+            throw new IOException("invalid checkpoint in " + checkpointFile);
+        }
+
+        return new long[] { Long.parseLong(fields[0]), Long.parseLong(fields[1]) };
+    }
+
+    private long countPendingMessages(TreeMap<Long, File> segments) throws IOException {
+        long ret = 0;
+
+        for (File segmentFile : segments.tailMap(readSegment).values()) {
+            long offset = getSegmentNumber(segmentFile) == readSegment ? readOffset : 0;
+
+            try (FileChannel channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.READ);
+                 InputStream in      = new BufferedInputStream(Channels.newInputStream(channel.position(offset)), 64 * 1024)) {
+                for (int b = in.read(); b != -1; b = in.read()) {
+                    if (b == LINE_SEPARATOR) {
+                        ret++;
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private TreeMap<Long, File> getSegments() {
+        TreeMap<Long, File> ret   = new TreeMap<>();
+        File[]              files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX));
+
+        if (files != null) {
+            for (File file : files) {
+                ret.put(getSegmentNumber(file), file);
+            }
+        }
+
+        return ret;
+    }
+
+    private File getSegmentFile(long segment) {
+        return new File(directory, String.format("%s%020d%s", SEGMENT_FILE_PREFIX, segment, SEGMENT_FILE_SUFFIX));
+    }
+
+    private static long getSegmentNumber(File segmentFile) {
+        String name = segmentFile.getName();
+
+        return Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()));
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("failed to close notification outbox segment", e);
+            }
+        }
+    }
+
+    /**
+     * @return the configured directory; by default, notification-outbox under Atlas data directory - not under a
+     *         temporary directory, as contents of the outbox must survive a reboot
+     */
+    private static File getOutboxDirectory(String configuredDirectory) {
+        if (StringUtils.isNotEmpty(configuredDirectory)) {
+            return new File(configuredDirectory);
+        }
+
+        String dataDirectory = System.getProperty(ATLAS_DATA);
+
+        if (StringUtils.isEmpty(dataDirectory)) {
+            dataDirectory = new File(System.getProperty(ATLAS_HOME, "."), "data").getPath();
+        }
+
+        return new File(dataDirectory, "notification-outbox");
+    }
+}
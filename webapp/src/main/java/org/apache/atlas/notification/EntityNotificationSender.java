@@ -37,14 +37,22 @@ public class EntityNotificationSender<T> {
     private final NotificationSender<T> notificationSender;
 
     public EntityNotificationSender(NotificationInterface notificationInterface, Configuration configuration) {
-        this(notificationInterface, configuration != null ? configuration.getBoolean("atlas.notification.send.postcommit", NOTIFY_POST_COMMIT_DEFAULT) : NOTIFY_POST_COMMIT_DEFAULT);
+        this(notificationInterface, configuration, null);
+    }
+
+    public EntityNotificationSender(NotificationInterface notificationInterface, Configuration configuration, EntityNotificationOutbox outbox) {
+        this(notificationInterface, configuration != null ? configuration.getBoolean("atlas.notification.send.postcommit", NOTIFY_POST_COMMIT_DEFAULT) : NOTIFY_POST_COMMIT_DEFAULT, outbox);
     }
 
     public EntityNotificationSender(NotificationInterface notificationInterface, boolean sendPostCommit) {
+        this(notificationInterface, sendPostCommit, null);
+    }
+
+    public EntityNotificationSender(NotificationInterface notificationInterface, boolean sendPostCommit, EntityNotificationOutbox outbox) {
         if (sendPostCommit) {
             LOG.info("EntityNotificationSender: notifications will be sent after transaction commit");
 
-            this.notificationSender = new PostCommitNotificationSender(notificationInterface);
+            this.notificationSender = new PostCommitNotificationSender(notificationInterface, outbox);
         } else {
             LOG.info("EntityNotificationSender: notifications will be sent inline (i.e. not waiting for transaction to commit)");
 
@@ -76,10 +84,12 @@ public class EntityNotificationSender<T> {
 
     private class PostCommitNotificationSender<T> implements NotificationSender<T> {
         private final NotificationInterface                   notificationInterface;
+        private final EntityNotificationOutbox                outbox;
         private final ThreadLocal<PostCommitNotificationHook> postCommitNotificationHooks = new ThreadLocal<>();
 
-        public PostCommitNotificationSender(NotificationInterface notificationInterface) {
+        public PostCommitNotificationSender(NotificationInterface notificationInterface, EntityNotificationOutbox outbox) {
             this.notificationInterface = notificationInterface;
+            this.outbox                = outbox;
         }
 
         @Override
@@ -114,6 +124,16 @@ public class EntityNotificationSender<T> {
 
                 if (CollectionUtils.isNotEmpty(notifications)) {
                     if (isSuccess) {
+                        if (outbox != null && outbox.isRunning()) {
+                            try {
+                                outbox.add(notifications);
+
+                                return;
+                            } catch (NotificationException excp) {
+                                LOG.warn("failed to add entity notifications to outbox; sending them inline", excp);
+                            }
+                        }
+
                         try {
                             notificationInterface.send(ENTITIES, notifications);
                         } catch (NotificationException excp) {
@@ -0,0 +1,321 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.notification.NotificationHookConsumer.PreparedHookMessage;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.apache.atlas.model.instance.AtlasObjectId.KEY_GUID;
+
+/**
+ * Consecutive hook messages from a partition, merged into a single AtlasEntitiesWithExtInfo so that they can be
+ * written to the store in one transaction.
+ *
+ * A message is added only when it doesn't update an entity already in the batch. Referred entities that are present
+ * in more than one message with identical attributes (like the hive_db referred to by hive_table messages) are
+ * stored once; references to the duplicate are redirected to the entity already in the batch. These redirections
+ * are undone by restoreReferences(), so that the messages can be replayed individually when the batch fails.
+ */
+class HookMessageBatch {
+    private static final String ATTRIBUTE_QUALIFIED_NAME = "qualifiedName";
+
+    private final int                       maxMessages;
+    private final long                      maxBytes;
+    private final int                       maxEntities;
+    private final long                      lingerMs;
+    private final List<PreparedHookMessage> messages            = new ArrayList<>();
+    private final AtlasEntitiesWithExtInfo  entities            = new AtlasEntitiesWithExtInfo(new ArrayList<>());
+    private final Set<String>               entityKeys          = new HashSet<>();
+    private final Map<String, AtlasEntity>  referredEntityByKey = new HashMap<>();
+    private final Map<String, Integer>      guidOwners          = new HashMap<>();
+    private final List<Object[]>            redirectedRefs      = new ArrayList<>(); // { AtlasObjectId or Map, original guid }
+    private       TopicPartition            partition;
+    private       String                    user;
+    private       boolean                   isPartialUpdate;
+    private       long                      bytes;
+    private       long                      firstMessageTime;
+
+    HookMessageBatch(int maxMessages, long maxBytes, int maxEntities, long lingerMs) {
+        this.maxMessages = maxMessages;
+        this.maxBytes    = maxBytes;
+        this.maxEntities = maxEntities;
+        this.lingerMs    = lingerMs;
+    }
+
+    /**
+     * Adds the message to the batch.
+     * @param message         prepared message
+     * @param msgEntities     entities to be written for the message; null for messages with nothing to write
+     * @param isPartialUpdate true if the entities are to be partially updated
+     * @return false if the message can't be added to the batch
+     */
+    boolean add(PreparedHookMessage message, AtlasEntitiesWithExtInfo msgEntities, boolean isPartialUpdate) {
+        final int msgIndex    = messages.size();
+        final int msgEntCount = getEntityCount(msgEntities);
+        final int msgBytes    = Math.max(message.kafkaMsg.getSerializedSize(), 0);
+
+        if (!messages.isEmpty()) {
+            if (msgIndex >= maxMessages || (bytes + msgBytes) > maxBytes || (entities.getEntities().size() + msgEntCount) > maxEntities) {
+                return false;
+            }
+
+            if (!Objects.equals(partition, message.kafkaMsg.getTopicPartition())) {
+                return false;
+            }
+        }
+
+        if (msgEntities != null) {
+            Map<String, String> redirects = new HashMap<>();
+
+            if (!entities.getEntities().isEmpty() && (this.isPartialUpdate != isPartialUpdate || !StringUtils.equals(user, message.kafkaMsg.getMessage().getUser()))) {
+                return false;
+            }
+
+            if (!isMergeable(msgEntities, redirects)) {
+                return false;
+            }
+
+            if (entities.getEntities().isEmpty()) {
+                this.isPartialUpdate = isPartialUpdate;
+                this.user            = message.kafkaMsg.getMessage().getUser();
+            }
+
+            merge(msgIndex, msgEntities, redirects);
+        }
+
+        if (messages.isEmpty()) {
+            this.partition        = message.kafkaMsg.getTopicPartition();
+            this.firstMessageTime = System.currentTimeMillis();
+        }
+
+        messages.add(message);
+
+        bytes += msgBytes;
+
+        return true;
+    }
+
+    boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    boolean isFull() {
+        return messages.size() >= maxMessages || bytes >= maxBytes || entities.getEntities().size() >= maxEntities;
+    }
+
+    boolean isLingerExpired() {
+        return !messages.isEmpty() && getLingerRemainingMs() <= 0;
+    }
+
+    long getLingerRemainingMs() {
+        return messages.isEmpty() ? lingerMs : (firstMessageTime + lingerMs - System.currentTimeMillis());
+    }
+
+    List<PreparedHookMessage> getMessages() {
+        return messages;
+    }
+
+    AtlasEntitiesWithExtInfo getEntities() {
+        return entities;
+    }
+
+    boolean isPartialUpdate() {
+        return isPartialUpdate;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return index, in getMessages(), of the message that contained the entity with given guid; -1 if not found
+     */
+    int getOwnerIndex(String guid) {
+        Integer ret = guid != null ? guidOwners.get(guid) : null;
+
+        return ret != null ? ret : -1;
+    }
+
+    /**
+     * Undo redirection of references done while merging messages, so that messages can be processed individually.
+     */
+    void restoreReferences() {
+        for (Object[] redirectedRef : redirectedRefs) {
+            Object ref  = redirectedRef[0];
+            String guid = (String) redirectedRef[1];
+
+            if (ref instanceof AtlasObjectId) {
+                ((AtlasObjectId) ref).setGuid(guid);
+            } else {
+                ((Map) ref).put(KEY_GUID, guid);
+            }
+        }
+
+        redirectedRefs.clear();
+    }
+
+    void clear() {
+        messages.clear();
+        entities.setEntities(new ArrayList<>());
+        entities.setReferredEntities(null);
+        entityKeys.clear();
+        referredEntityByKey.clear();
+        guidOwners.clear();
+        redirectedRefs.clear();
+
+        partition        = null;
+        user             = null;
+        isPartialUpdate  = false;
+        bytes            = 0;
+        firstMessageTime = 0;
+    }
+
+    private boolean isMergeable(AtlasEntitiesWithExtInfo msgEntities, Map<String, String> redirects) {
+        Set<String> msgKeys = new HashSet<>();
+
+        if (msgEntities.getEntities() != null) {
+            for (AtlasEntity entity : msgEntities.getEntities()) {
+                String key = getEntityKey(entity);
+
+                if (entityKeys.contains(key) || referredEntityByKey.containsKey(key) || guidOwners.containsKey(entity.getGuid()) || !msgKeys.add(key)) {
+                    return false;
+                }
+            }
+        }
+
+        if (MapUtils.isNotEmpty(msgEntities.getReferredEntities())) {
+            for (AtlasEntity referredEntity : msgEntities.getReferredEntities().values()) {
+                String      key      = getEntityKey(referredEntity);
+                AtlasEntity existing = referredEntityByKey.get(key);
+
+                if (entityKeys.contains(key) || msgKeys.contains(key)) {
+                    return false;
+                } else if (existing != null) {
+                    if (!isSameDefinition(existing, referredEntity)) {
+                        return false;
+                    }
+
+                    redirects.put(referredEntity.getGuid(), existing.getGuid());
+                } else if (guidOwners.containsKey(referredEntity.getGuid())) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void merge(int msgIndex, AtlasEntitiesWithExtInfo msgEntities, Map<String, String> redirects) {
+        if (msgEntities.getEntities() != null) {
+            for (AtlasEntity entity : msgEntities.getEntities()) {
+                redirectReferences(entity, redirects);
+
+                entities.addEntity(entity);
+                entityKeys.add(getEntityKey(entity));
+                guidOwners.put(entity.getGuid(), msgIndex);
+            }
+        }
+
+        if (MapUtils.isNotEmpty(msgEntities.getReferredEntities())) {
+            for (AtlasEntity referredEntity : msgEntities.getReferredEntities().values()) {
+                if (redirects.containsKey(referredEntity.getGuid())) {
+                    continue;
+                }
+
+                redirectReferences(referredEntity, redirects);
+
+                entities.addReferredEntity(referredEntity);
+                referredEntityByKey.put(getEntityKey(referredEntity), referredEntity);
+                guidOwners.put(referredEntity.getGuid(), msgIndex);
+            }
+        }
+    }
+
+    private void redirectReferences(AtlasEntity entity, Map<String, String> redirects) {
+        if (!redirects.isEmpty()) {
+            if (entity.getAttributes() != null) {
+                redirectReferences(entity.getAttributes().values(), redirects);
+            }
+
+            if (entity.getRelationshipAttributes() != null) {
+                redirectReferences(entity.getRelationshipAttributes().values(), redirects);
+            }
+        }
+    }
+
+    private void redirectReferences(Collection<?> values, Map<String, String> redirects) {
+        for (Object value : values) {
+            if (value instanceof AtlasObjectId) {
+                AtlasObjectId objId  = (AtlasObjectId) value;
+                String        target = redirects.get(objId.getGuid());
+
+                if (target != null) {
+                    redirectedRefs.add(new Object[] { objId, objId.getGuid() });
+
+                    objId.setGuid(target);
+                }
+            } else if (value instanceof Map) {
+                Map    objId  = (Map) value;
+                Object guid   = objId.get(KEY_GUID);
+                String target = guid != null ? redirects.get(guid.toString()) : null;
+
+                if (target != null) {
+                    redirectedRefs.add(new Object[] { objId, guid.toString() });
+
+                    objId.put(KEY_GUID, target);
+                }
+            } else if (value instanceof Collection) {
+                redirectReferences((Collection<?>) value, redirects);
+            }
+        }
+    }
+
+    private static boolean isSameDefinition(AtlasEntity entity1, AtlasEntity entity2) {
+        return StringUtils.equals(entity1.getTypeName(), entity2.getTypeName()) &&
+               Objects.equals(entity1.getAttributes(), entity2.getAttributes()) &&
+               MapUtils.isEmpty(entity1.getRelationshipAttributes()) && MapUtils.isEmpty(entity2.getRelationshipAttributes());
+    }
+
+    private static String getEntityKey(AtlasEntity entity) {
+        Object qualifiedName = entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME);
+
+        return qualifiedName != null ? (entity.getTypeName() + ":" + qualifiedName) : entity.getGuid();
+    }
+
+    private static int getEntityCount(AtlasEntitiesWithExtInfo entities) {
+        return entities == null || entities.getEntities() == null ? 0 : entities.getEntities().size();
+    }
+}
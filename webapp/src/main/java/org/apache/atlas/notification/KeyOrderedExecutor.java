@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs tasks on a worker pool while preserving submission order among tasks that share a key.
+ *
+ * Tasks with disjoint keys run concurrently; a task submitted with null keys acts as a barrier - it waits for all
+ * earlier tasks and all later tasks wait for it. For each topic-partition the offset safe to commit is the lowest offset still
+ * in flight (or one past the highest submitted offset, when nothing is in flight).
+ *
+ * submit(), awaitCapacity() and getOffsetsToCommit() must be called from a single (dispatching) thread.
+ */
+class KeyOrderedExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(KeyOrderedExecutor.class);
+
+    private final ExecutorService                                  workers;
+    private final int                                              maxInFlight;
+    private final Map<String, CompletableFuture<Void>>             lastTaskForKey   = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<Void>>                     inFlightTasks    = ConcurrentHashMap.newKeySet();
+    private final Map<TopicPartition, ConcurrentSkipListSet<Long>> inFlightOffsets  = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long>                        highestSubmitted = new HashMap<>();
+    private final Map<TopicPartition, Long>                        lastCommitted    = new HashMap<>();
+    private       CompletableFuture<Void>                          lastBarrier      = CompletableFuture.completedFuture(null);
+
+    KeyOrderedExecutor(ExecutorService workers, int maxInFlight) {
+        this.workers     = workers;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    void submit(TopicPartition partition, long offset, Collection<String> keys, Runnable task) {
+        final List<CompletableFuture<Void>> predecessors = new ArrayList<>();
+        final boolean                       isBarrier    = keys == null;
+
+        if (isBarrier) {
+            predecessors.addAll(inFlightTasks);
+        } else {
+            predecessors.add(lastBarrier);
+
+            for (String key : keys) {
+                CompletableFuture<Void> predecessor = lastTaskForKey.get(key);
+
+                if (predecessor != null) {
+                    predecessors.add(predecessor);
+                }
+            }
+        }
+
+        inFlightOffsets.computeIfAbsent(partition, p -> new ConcurrentSkipListSet<>()).add(offset);
+        highestSubmitted.merge(partition, offset, Math::max);
+
+        final CompletableFuture<Void> future = CompletableFuture.allOf(predecessors.toArray(new CompletableFuture[0]))
+                                                                .handle((r, t) -> null)
+                                                                .thenRunAsync(() -> runTask(task, partition, offset), workers);
+
+        inFlightTasks.add(future);
+
+        if (isBarrier) {
+            lastBarrier = future;
+        } else {
+            for (String key : keys) {
+                lastTaskForKey.put(key, future);
+            }
+        }
+
+        future.whenComplete((r, t) -> {
+            if (t != null) { // task could not be scheduled, for example when workers were shutdown
+                inFlightOffsets.get(partition).remove(offset);
+            }
+
+            inFlightTasks.remove(future);
+
+            if (!isBarrier) {
+                for (String key : keys) {
+                    lastTaskForKey.remove(key, future);
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks the offset as processed without running a task, for a message that need not be applied.
+     */
+    void skip(TopicPartition partition, long offset) {
+        highestSubmitted.merge(partition, offset, Math::max);
+    }
+
+    /**
+     * Blocks the dispatching thread until the number of in-flight tasks drops below the configured limit.
+     */
+    void awaitCapacity() throws InterruptedException {
+        while (inFlightTasks.size() >= maxInFlight) {
+            waitForAnyTask(100);
+        }
+    }
+
+    /**
+     * Waits for all in-flight tasks to complete, up to the given timeout.
+     * @return true if all tasks completed
+     */
+    boolean awaitCompletion(long timeoutMs) throws InterruptedException {
+        long waitUntil = System.currentTimeMillis() + timeoutMs;
+
+        while (!inFlightTasks.isEmpty()) {
+            long remaining = waitUntil - System.currentTimeMillis();
+
+            if (remaining <= 0) {
+                return false;
+            }
+
+            waitForAnyTask(remaining);
+        }
+
+        return true;
+    }
+
+    int getInFlightCount() {
+        return inFlightTasks.size();
+    }
+
+    /**
+     * @return offsets that can be committed for each partition, since the last call; a partition is included only
+     *         when its commit watermark moved forward
+     */
+    Map<TopicPartition, Long> getOffsetsToCommit() {
+        Map<TopicPartition, Long> ret = new HashMap<>();
+
+        for (Map.Entry<TopicPartition, Long> entry : highestSubmitted.entrySet()) {
+            TopicPartition              partition = entry.getKey();
+            ConcurrentSkipListSet<Long> inFlight  = inFlightOffsets.get(partition);
+            Long                        lowest    = inFlight != null ? inFlight.ceiling(Long.MIN_VALUE) : null;
+            long                        watermark = lowest != null ? lowest : (entry.getValue() + 1);
+            Long                        committed = lastCommitted.get(partition);
+
+            if (committed == null || watermark > committed) {
+                ret.put(partition, watermark);
+            }
+        }
+
+        return ret;
+    }
+
+    void onCommit(TopicPartition partition, long offset) {
+        lastCommitted.put(partition, offset);
+    }
+
+    private void runTask(Runnable task, TopicPartition partition, long offset) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            LOG.error("failed to process message: partition={}, offset={}", partition, offset, t);
+        } finally {
+            inFlightOffsets.get(partition).remove(offset);
+        }
+    }
+
+    private void waitForAnyTask(long timeoutMs) throws InterruptedException {
+        CompletableFuture<?>[] tasks = inFlightTasks.toArray(new CompletableFuture[0]);
+
+        if (tasks.length > 0) {
+            try {
+                CompletableFuture.anyOf(tasks).get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException excp) {
+                // ignore; caller rechecks the state
+            }
+        }
+    }
+}
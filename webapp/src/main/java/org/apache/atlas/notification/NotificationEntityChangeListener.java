@@ -60,12 +60,13 @@ public class NotificationEntityChangeListener implements EntityChangeListener {
      *
      * @param notificationInterface the notification framework interface
      * @param typeRegistry the Atlas type system
+     * @param outbox the outbox used to send notifications asynchronously
      */
     @Inject
-    public NotificationEntityChangeListener(NotificationInterface notificationInterface, AtlasTypeRegistry typeRegistry, Configuration configuration) {
+    public NotificationEntityChangeListener(NotificationInterface notificationInterface, AtlasTypeRegistry typeRegistry, Configuration configuration, EntityNotificationOutbox outbox) {
         this.typeRegistry       = typeRegistry;
         this.configuration      = configuration;
-        this.notificationSender = new EntityNotificationSender<>(notificationInterface, configuration);
+        this.notificationSender = new EntityNotificationSender<>(notificationInterface, configuration, outbox);
 
     }
 
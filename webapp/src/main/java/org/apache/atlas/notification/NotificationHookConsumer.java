@@ -31,7 +31,9 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.instance.EntityMutations;
 import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.HookNotificationType;
 import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
@@ -40,9 +42,9 @@ import org.apache.atlas.notification.NotificationInterface.NotificationType;
 import org.apache.atlas.notification.preprocessor.EntityPreprocessor;
 import org.apache.atlas.notification.preprocessor.PreprocessorContext;
 import org.apache.atlas.notification.preprocessor.PreprocessorContext.PreprocessAction;
+import org.apache.atlas.util.AtlasCache;
 import org.apache.atlas.util.AtlasMetricsCounter;
 import org.apache.atlas.utils.AtlasJson;
-import org.apache.atlas.utils.LruCache;
 import org.apache.atlas.util.AtlasMetricsUtil;
 import org.apache.atlas.util.AtlasMetricsUtil.NotificationStat;
 import org.apache.atlas.v1.model.instance.Referenceable;
@@ -51,6 +53,7 @@ import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteReq
 import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
 import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityUpdateRequest;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
@@ -67,6 +70,7 @@ import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.DependsOn;
@@ -84,6 +88,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -133,6 +138,13 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_MAX_RETRY_INTERVAL       = "atlas.notification.consumer.max.retry.interval";
     public static final String CONSUMER_COMMIT_BATCH_SIZE        = "atlas.notification.consumer.commit.batch.size";
     public static final String CONSUMER_DISABLED                 = "atlas.notification.consumer.disabled";
+    public static final String CONSUMER_PARALLEL_ENABLED         = "atlas.notification.hook.consumer.parallel.enabled";
+    public static final String CONSUMER_PARALLEL_WORKERS         = "atlas.notification.hook.consumer.parallel.workers";
+    public static final String CONSUMER_PARALLEL_MAX_INFLIGHT    = "atlas.notification.hook.consumer.parallel.max.inflight";
+    public static final String CONSUMER_BATCH_ENABLED            = "atlas.notification.hook.consumer.batch.enabled";
+    public static final String CONSUMER_BATCH_MAX_MESSAGES       = "atlas.notification.hook.consumer.batch.max.messages";
+    public static final String CONSUMER_BATCH_MAX_BYTES          = "atlas.notification.hook.consumer.batch.max.bytes";
+    public static final String CONSUMER_BATCH_LINGER_MS          = "atlas.notification.hook.consumer.batch.linger.ms";
 
 
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633                  = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633";
@@ -152,7 +164,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_AUTHORIZE_USING_MESSAGE_USER                         = "atlas.notification.authorize.using.message.user";
     public static final String CONSUMER_AUTHORIZE_AUTHN_CACHE_TTL_SECONDS                    = "atlas.notification.authorize.authn.cache.ttl.seconds";
 
-    public static final int SERVER_READY_WAIT_TIME_MS = 1000;
+    public static final int SERVER_READY_WAIT_TIME_MS             = 1000;
+    public static final int PARALLEL_WORKERS_SHUTDOWN_WAIT_TIME_MS = 30 * 1000;
 
     private final AtlasEntityStore              atlasEntityStore;
     private final ServiceState                  serviceState;
@@ -169,12 +182,19 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final boolean                       updateHiveProcessNameWithQualifiedName;
     private final int                           largeMessageProcessingTimeThresholdMs;
     private final boolean                       consumerDisabled;
+    private final boolean                       parallelEnabled;
+    private final int                           parallelWorkers;
+    private final int                           parallelMaxInFlight;
+    private final boolean                       batchEnabled;
+    private final int                           batchMaxMessages;
+    private final long                          batchMaxBytes;
+    private final long                          batchLingerMs;
     private final List<Pattern>                 hiveTablesToIgnore = new ArrayList<>();
     private final List<Pattern>                 hiveTablesToPrune  = new ArrayList<>();
     private final List<String>                  hiveDummyDatabasesToIgnore;
     private final List<String>                  hiveDummyTablesToIgnore;
     private final List<String>                  hiveTablePrefixesToIgnore;
-    private final Map<String, PreprocessAction> hiveTablesCache;
+    private final AtlasCache<String, PreprocessAction> hiveTablesCache;
     private final boolean                       hiveTypesRemoveOwnedRefAttrs;
     private final boolean                       rdbmsTypesRemoveOwnedRefAttrs;
     private final boolean                       preprocessEnabled;
@@ -216,6 +236,13 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         skipHiveColumnLineageHive20633InputsThreshold = applicationProperties.getInt(CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD, 15); // skip if avg # of inputs is > 15
         updateHiveProcessNameWithQualifiedName        = applicationProperties.getBoolean(CONSUMER_PREPROCESS_HIVE_PROCESS_UPD_NAME_WITH_QUALIFIED_NAME, true);
         consumerDisabled                              = applicationProperties.getBoolean(CONSUMER_DISABLED, false);
+        parallelEnabled                               = applicationProperties.getBoolean(CONSUMER_PARALLEL_ENABLED, false);
+        parallelWorkers                               = applicationProperties.getInt(CONSUMER_PARALLEL_WORKERS, 4);
+        parallelMaxInFlight                           = applicationProperties.getInt(CONSUMER_PARALLEL_MAX_INFLIGHT, parallelWorkers * 25);
+        batchEnabled                                  = applicationProperties.getBoolean(CONSUMER_BATCH_ENABLED, false) && !parallelEnabled;
+        batchMaxMessages                              = applicationProperties.getInt(CONSUMER_BATCH_MAX_MESSAGES, 100);
+        batchMaxBytes                                 = applicationProperties.getLong(CONSUMER_BATCH_MAX_BYTES, 4 * 1024 * 1024);
+        batchLingerMs                                 = applicationProperties.getLong(CONSUMER_BATCH_LINGER_MS, 500);
         largeMessageProcessingTimeThresholdMs         = applicationProperties.getInt("atlas.notification.consumer.large.message.processing.time.threshold.ms", 60 * 1000);  //  60 sec by default
         createShellEntityForNonExistingReference      = AtlasConfiguration.NOTIFICATION_CREATE_SHELL_ENTITY_FOR_NON_EXISTING_REF.getBoolean();
         authorizeUsingMessageUser                     = applicationProperties.getBoolean(CONSUMER_AUTHORIZE_USING_MESSAGE_USER, false);
@@ -254,9 +281,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
 
         if (!hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty()) {
-            hiveTablesCache = new LruCache<>(applicationProperties.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000), 0);
+            hiveTablesCache = AtlasCache.<String, PreprocessAction>builder("hookConsumerHiveTables").maxSize(applicationProperties.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000)).build();
         } else {
-            hiveTablesCache = Collections.emptyMap();
+            hiveTablesCache = null;
         }
 
         boolean hiveDbIgnoreDummyEnabled         = applicationProperties.getBoolean(CONSUMER_PREPROCESS_HIVE_DB_IGNORE_DUMMY_ENABLED, true);
@@ -309,6 +336,24 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         LOG.info("{}={}", CONSUMER_PREPROCESS_RDBMS_TYPES_REMOVE_OWNEDREF_ATTRS, rdbmsTypesRemoveOwnedRefAttrs);
         LOG.info("{}={}", CONSUMER_COMMIT_BATCH_SIZE, commitBatchSize);
         LOG.info("{}={}", CONSUMER_DISABLED, consumerDisabled);
+        LOG.info("{}={}", CONSUMER_PARALLEL_ENABLED, parallelEnabled);
+
+        if (parallelEnabled) {
+            LOG.info("{}={}", CONSUMER_PARALLEL_WORKERS, parallelWorkers);
+            LOG.info("{}={}", CONSUMER_PARALLEL_MAX_INFLIGHT, parallelMaxInFlight);
+
+            if (applicationProperties.getBoolean(CONSUMER_BATCH_ENABLED, false)) {
+                LOG.warn("{} is ignored, as {} is true", CONSUMER_BATCH_ENABLED, CONSUMER_PARALLEL_ENABLED);
+            }
+        }
+
+        LOG.info("{}={}", CONSUMER_BATCH_ENABLED, batchEnabled);
+
+        if (batchEnabled) {
+            LOG.info("{}={}", CONSUMER_BATCH_MAX_MESSAGES, batchMaxMessages);
+            LOG.info("{}={}", CONSUMER_BATCH_MAX_BYTES, batchMaxBytes);
+            LOG.info("{}={}", CONSUMER_BATCH_LINGER_MS, batchLingerMs);
+        }
     }
 
     @Override
@@ -514,6 +559,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         private final AtomicBoolean                          shouldRun      = new AtomicBoolean(false);
         private final List<String>                           failedMessages = new ArrayList<>();
         private final AdaptiveWaiter                         adaptiveWaiter = new AdaptiveWaiter(minWaitDuration, maxWaitDuration, minWaitDuration);
+        private       ExecutorService                        workers;         // used only in parallel mode
+        private       KeyOrderedExecutor                     orderedExecutor; // used only in parallel mode
+        private final HookMessageBatch                       batch;           // used only in batch mode
 
         @VisibleForTesting
         final FailedCommitOffsetRecorder failedCommitOffsetRecorder;
@@ -522,6 +570,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             super("atlas-hook-consumer-thread", false);
 
             this.consumer = consumer;
+            this.batch    = batchEnabled ? new HookMessageBatch(batchMaxMessages, batchMaxBytes, commitBatchSize > 0 ? commitBatchSize : Integer.MAX_VALUE, batchLingerMs) : null;
             failedCommitOffsetRecorder = new FailedCommitOffsetRecorder();
         }
 
@@ -535,13 +584,24 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 return;
             }
 
+            if (parallelEnabled) {
+                workers         = Executors.newFixedThreadPool(parallelWorkers, new ThreadFactoryBuilder().setNameFormat(THREADNAME_PREFIX + " worker-%d").build());
+                orderedExecutor = new KeyOrderedExecutor(workers, parallelMaxInFlight);
+            }
+
             try {
                 while (shouldRun.get()) {
                     try {
-                        List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
+                        List<AtlasKafkaMessage<HookNotification>> messages = (batch != null && !batch.isEmpty()) ? consumer.receive(Math.max(1, batch.getLingerRemainingMs())) : consumer.receive();
 
-                        for (AtlasKafkaMessage<HookNotification> msg : messages) {
-                            handleMessage(msg);
+                        if (orderedExecutor != null) {
+                            dispatchMessages(messages);
+                        } else if (batch != null) {
+                            batchMessages(messages);
+                        } else {
+                            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                                handleMessage(msg);
+                            }
                         }
                     } catch (IllegalStateException ex) {
                         adaptiveWaiter.pause(ex);
@@ -556,6 +616,16 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     }
                 }
             } finally {
+                if (orderedExecutor != null) {
+                    stopWorkers();
+                }
+
+                if (batch != null && !batch.isEmpty()) {
+                    LOG.info("{} messages in the current batch were not processed; these will be processed after restart", batch.getMessages().size());
+
+                    batch.clear();
+                }
+
                 if (consumer != null) {
                     LOG.info("closing NotificationConsumer");
 
@@ -568,59 +638,476 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
         @VisibleForTesting
         void handleMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) throws AtlasServiceException, AtlasException {
-            AtlasPerfTracer  perf           = null;
-            HookNotification message        = kafkaMsg.getMessage();
-            String           messageUser    = message.getUser();
-            long             startTime      = System.currentTimeMillis();
-            NotificationStat stats          = new NotificationStat();
-            AuditLog         auditLog       = null;
+            long startTime = System.currentTimeMillis();
 
-            if (authorizeUsingMessageUser) {
-                setCurrentUser(messageUser);
+            if (failedCommitOffsetRecorder.isMessageReplayed(kafkaMsg.getTopicPartition(), kafkaMsg.getOffset())) {
+                try {
+                    commit(kafkaMsg);
+                } finally {
+                    NotificationStat stats = new NotificationStat();
+
+                    stats.timeTakenMs = System.currentTimeMillis() - startTime;
+
+                    metricsUtil.onNotificationProcessingComplete(kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getOffset(), stats);
+                }
+
+                return;
             }
 
-            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
-                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, message.getType().name());
+            PreparedHookMessage preparedMsg = prepareMessage(kafkaMsg, startTime);
+
+            if (applyMessage(preparedMsg)) {
+                commit(preparedMsg.kafkaMsg);
+            }
+        }
+
+        /**
+         * Parallel mode: messages are preprocessed in this (poll) thread and then applied by the worker pool.
+         * Messages that touch the same entity (see getMessageKeys()) are applied in offset order; offsets are
+         * committed only up to the lowest offset still in flight in each partition.
+         *
+         * As in the sequential mode, a message that fails after max retries is recorded as dropped before the
+         * commit moves past it, and a message whose commit failed is skipped when it is redelivered.
+         */
+        private void dispatchMessages(List<AtlasKafkaMessage<HookNotification>> messages) throws InterruptedException {
+            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                orderedExecutor.awaitCapacity();
+
+                if (failedCommitOffsetRecorder.isMessageReplayed(msg.getTopicPartition(), msg.getOffset())) {
+                    orderedExecutor.skip(msg.getTopicPartition(), msg.getOffset());
+
+                    continue;
+                }
+
+                final PreparedHookMessage preparedMsg = prepareMessage(msg, System.currentTimeMillis());
+                final Set<String>         keys        = preparedMsg.isEmpty ? Collections.emptySet() : getMessageKeys(preparedMsg.kafkaMsg.getMessage());
+
+                orderedExecutor.submit(msg.getTopicPartition(), msg.getOffset(), keys, () -> applyMessageInWorker(preparedMsg));
             }
 
+            commitCompletedOffsets();
+        }
+
+        // the offset becomes committable once this returns; hence the message is added to failed messages even when applyMessage() throws
+        private void applyMessageInWorker(PreparedHookMessage preparedMsg) {
+            boolean isFailed = true;
+
             try {
-                if(failedCommitOffsetRecorder.isMessageReplayed(kafkaMsg.getOffset())) {
-                    commit(kafkaMsg);
-                    return;
+                applyMessage(preparedMsg); // failure after max retries is recorded by applyMessage()
+
+                isFailed = false;
+            } finally {
+                if (isFailed) {
+                    addFailedMessage(AbstractNotification.getMessageJson(preparedMsg.kafkaMsg.getMessage()));
                 }
+            }
+        }
+
+        private void commitCompletedOffsets() {
+            for (Map.Entry<TopicPartition, Long> entry : orderedExecutor.getOffsetsToCommit().entrySet()) {
+                boolean commitSuccessStatus = false;
 
-                // covert V1 messages to V2 to enable preProcess
                 try {
-                    switch (message.getType()) {
-                        case ENTITY_CREATE: {
-                            final EntityCreateRequest      createRequest = (EntityCreateRequest) message;
-                            final AtlasEntitiesWithExtInfo entities      = instanceConverter.toAtlasEntities(createRequest.getEntities());
-                            final EntityCreateRequestV2    v2Request     = new EntityCreateRequestV2(message.getUser(), entities);
-
-                            kafkaMsg = new AtlasKafkaMessage<>(v2Request, kafkaMsg.getOffset(), kafkaMsg.getTopic(), kafkaMsg.getPartition());
-                            message  = kafkaMsg.getMessage();
-                        }
-                        break;
+                    recordFailedMessages();
+
+                    consumer.commit(entry.getKey(), entry.getValue());
+
+                    orderedExecutor.onCommit(entry.getKey(), entry.getValue());
+
+                    commitSuccessStatus = true;
+                } catch (Exception excp) {
+                    LOG.warn("failed to commit offset {} for partition {}. Will be retried", entry.getValue(), entry.getKey(), excp);
+                } finally {
+                    // same as in the sequential mode: the last message covered by the commit is not applied again if redelivered
+                    failedCommitOffsetRecorder.recordIfFailed(commitSuccessStatus, entry.getKey(), entry.getValue() - 1);
+                }
+            }
+        }
+
+        private void stopWorkers() {
+            LOG.info("==> HookConsumer stopWorkers(inFlight={})", orderedExecutor.getInFlightCount());
+
+            try {
+                if (!orderedExecutor.awaitCompletion(PARALLEL_WORKERS_SHUTDOWN_WAIT_TIME_MS)) {
+                    LOG.warn("Timed out waiting for {} in-flight messages to complete. These will be replayed on restart", orderedExecutor.getInFlightCount());
+                }
+
+                commitCompletedOffsets();
+            } catch (InterruptedException excp) {
+                LOG.warn("Interrupted while waiting for in-flight messages to complete");
+            } finally {
+                workers.shutdownNow();
+
+                workers         = null;
+                orderedExecutor = null;
+            }
+
+            LOG.info("<== HookConsumer stopWorkers()");
+        }
+
+        /**
+         * Batch mode: consecutive messages that create/update different entities are merged and written to the
+         * store in one transaction. The batch is flushed when it reaches the configured number of messages, bytes
+         * or entities, when linger time expires, or when a message that can't be batched is received.
+         */
+        private void batchMessages(List<AtlasKafkaMessage<HookNotification>> messages) throws AtlasServiceException, AtlasException {
+            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                if (failedCommitOffsetRecorder.isMessageReplayed(msg.getTopicPartition(), msg.getOffset())) {
+                    flushBatch();
+
+                    handleMessage(msg);
+
+                    continue;
+                }
+
+                PreparedHookMessage      preparedMsg     = prepareMessage(msg, System.currentTimeMillis());
+                AtlasEntitiesWithExtInfo entities        = preparedMsg.isEmpty ? null : getBatchEntities(preparedMsg);
+                boolean                  isPartialUpdate = preparedMsg.kafkaMsg.getMessage().getType() == HookNotificationType.ENTITY_PARTIAL_UPDATE;
+
+                if (!preparedMsg.isEmpty && entities == null) { // message can't be batched
+                    flushBatch();
+
+                    if (applyMessage(preparedMsg)) {
+                        commit(preparedMsg.kafkaMsg);
+                    }
+
+                    continue;
+                }
+
+                if (!batch.add(preparedMsg, entities, isPartialUpdate)) {
+                    flushBatch();
+
+                    batch.add(preparedMsg, entities, isPartialUpdate);
+                }
+
+                if (batch.isFull()) {
+                    flushBatch();
+                }
+            }
+
+            if (batch.isLingerExpired()) {
+                flushBatch();
+            }
+        }
+
+        /**
+         * @return entities to be written for the message, if the message can be batched; null otherwise
+         */
+        private AtlasEntitiesWithExtInfo getBatchEntities(PreparedHookMessage preparedMsg) {
+            final AtlasEntitiesWithExtInfo ret;
+            final HookNotification         message = preparedMsg.kafkaMsg.getMessage();
+
+            if (preparedMsg.context != null && CollectionUtils.isNotEmpty(preparedMsg.context.getPostUpdateEntities())) {
+                return null;
+            }
+
+            switch (message.getType()) {
+                case ENTITY_CREATE_V2:
+                    ret = ((EntityCreateRequestV2) message).getEntities();
+                    break;
+
+                case ENTITY_FULL_UPDATE_V2:
+                    ret = ((EntityUpdateRequestV2) message).getEntities();
+                    break;
+
+                case ENTITY_PARTIAL_UPDATE: {
+                    final EntityPartialUpdateRequest partialUpdateRequest = (EntityPartialUpdateRequest) message;
+                    final AtlasEntityType            entityType           = typeRegistry.getEntityTypeByName(partialUpdateRequest.getTypeName());
+                    AtlasEntitiesWithExtInfo         entities             = null;
 
-                        case ENTITY_FULL_UPDATE: {
-                            final EntityUpdateRequest      updateRequest = (EntityUpdateRequest) message;
-                            final AtlasEntitiesWithExtInfo entities      = instanceConverter.toAtlasEntities(updateRequest.getEntities());
-                            final EntityUpdateRequestV2    v2Request     = new EntityUpdateRequestV2(messageUser, entities);
+                    if (entityType != null) {
+                        try {
+                            entities = instanceConverter.toAtlasEntity(partialUpdateRequest.getEntity());
 
-                            kafkaMsg = new AtlasKafkaMessage<>(v2Request, kafkaMsg.getOffset(), kafkaMsg.getTopic(), kafkaMsg.getPartition());
-                            message  = kafkaMsg.getMessage();
+                            String guid = getGuidForPartialUpdate(partialUpdateRequest, entityType);
+
+                            entities.getEntities().get(0).setGuid(guid);
+
+                            preparedMsg.partialUpdateGuid = guid;
+                        } catch (Exception excp) {
+                            LOG.debug("partial-update message at offset {} will not be batched", preparedMsg.kafkaMsg.getOffset(), excp);
+
+                            entities = null;
+                        } finally {
+                            // end the transaction opened by the lookup; otherwise the batch would be written in it, with reads made before other messages were applied
+                            AtlasGraphProvider.getGraphInstance().rollback();
+
+                            RequestContext.clear();
                         }
-                        break;
                     }
-                } catch (AtlasBaseException excp) {
-                    LOG.error("handleMessage(): failed to convert V1 message to V2", message.getType().name());
+
+                    ret = entities;
                 }
+                break;
 
-                PreprocessorContext context = preProcessNotificationMessage(kafkaMsg);
+                default:
+                    ret = null;
+                    break;
+            }
 
-                if (isEmptyMessage(kafkaMsg)) {
-                    commit(kafkaMsg);
-                    return;
+            if (ret == null || ret.getEntities() == null || (commitBatchSize > 0 && ret.getEntities().size() > commitBatchSize)) {
+                return null;
+            }
+
+            return ret;
+        }
+
+        /**
+         * Guids of partial-update entities are resolved when messages are added to the batch, in a transaction that is
+         * rolled back. Resolves them again in the transaction the batch is written in - the graph transaction is bound
+         * to this thread - and fails the batch if an entity was deleted or replaced in the meantime.
+         */
+        private void verifyPartialUpdateGuids(List<PreparedHookMessage> messages) throws AtlasBaseException {
+            for (PreparedHookMessage message : messages) {
+                if (message.partialUpdateGuid == null) {
+                    continue;
+                }
+
+                EntityPartialUpdateRequest partialUpdateRequest = (EntityPartialUpdateRequest) message.kafkaMsg.getMessage();
+                AtlasEntityType            entityType           = typeRegistry.getEntityTypeByName(partialUpdateRequest.getTypeName());
+                String                     guid                 = getGuidForPartialUpdate(partialUpdateRequest, entityType);
+
+                if (!message.partialUpdateGuid.equals(guid)) {
+                    throw new AtlasBaseException("entity " + partialUpdateRequest.getTypeName() + "." + partialUpdateRequest.getAttribute() + "=" + partialUpdateRequest.getAttributeValue() + " changed after message at offset " + message.kafkaMsg.getOffset() + " was added to the batch");
+                }
+            }
+        }
+
+        private String getGuidForPartialUpdate(EntityPartialUpdateRequest partialUpdateRequest, AtlasEntityType entityType) throws AtlasBaseException {
+            return AtlasGraphUtilsV2.getGuidByUniqueAttributes(entityType, Collections.singletonMap(partialUpdateRequest.getAttribute(), (Object) partialUpdateRequest.getAttributeValue()));
+        }
+
+        private void flushBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<PreparedHookMessage> messages  = batch.getMessages();
+            PreparedHookMessage       lastMsg   = messages.get(messages.size() - 1);
+            boolean                   isApplied = false;
+
+            if (messages.size() > 1 && CollectionUtils.isNotEmpty(batch.getEntities().getEntities())) {
+                isApplied = applyBatch();
+            }
+
+            if (isApplied) {
+                commit(lastMsg.kafkaMsg);
+            } else { // replay the messages individually
+                batch.restoreReferences();
+
+                for (PreparedHookMessage message : messages) {
+                    if (applyMessage(message)) {
+                        commit(message.kafkaMsg);
+                    }
+                }
+            }
+
+            batch.clear();
+        }
+
+        private boolean applyBatch() {
+            List<PreparedHookMessage> messages  = batch.getMessages();
+            NotificationStat[]        stats     = new NotificationStat[messages.size()];
+            AtlasPerfTracer           perf      = null;
+            long                      startTime = System.currentTimeMillis();
+            boolean                   ret       = false;
+
+            if (authorizeUsingMessageUser) {
+                setCurrentUser(batch.getUser());
+            }
+
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "applyBatch(size=" + messages.size() + ")");
+            }
+
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new NotificationStat();
+            }
+
+            try {
+                RequestContext requestContext = RequestContext.get();
+
+                requestContext.setAttemptCount(1);
+                requestContext.setMaxAttempts(1);
+                requestContext.setUser(batch.getUser(), null);
+                requestContext.setInNotificationProcessing(true);
+                requestContext.setCreateShellEntityForNonExistingReference(createShellEntityForNonExistingReference);
+
+                verifyPartialUpdateGuids(messages);
+
+                EntityMutationResponse response = atlasEntityStore.createOrUpdate(new AtlasEntityStream(batch.getEntities()), batch.isPartialUpdate());
+
+                recordBatchStats(response, stats);
+
+                ret = true;
+            } catch (Throwable excp) {
+                LOG.warn("failed to process batch of {} messages (offsets {}-{}). Messages will be processed individually", messages.size(), messages.get(0).kafkaMsg.getOffset(), messages.get(messages.size() - 1).kafkaMsg.getOffset(), excp);
+
+                AtlasGraphProvider.getGraphInstance().rollback(); // in case the batch failed before the store started its transaction
+            } finally {
+                RequestContext.clear();
+
+                AtlasPerfTracer.log(perf);
+            }
+
+            long timeTakenMs = System.currentTimeMillis() - startTime;
+
+            metricsUtil.onNotificationBatchComplete(messages.size(), timeTakenMs, !ret);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("applyBatch(messages={}, entities={}, bytes={}): success={}, timeTakenMs={}", messages.size(), batch.getEntities().getEntities().size(), batch.getBytes(), ret, timeTakenMs);
+            }
+
+            if (ret) {
+                long endTime = System.currentTimeMillis();
+
+                for (int i = 0; i < messages.size(); i++) {
+                    AtlasKafkaMessage<HookNotification> kafkaMsg = messages.get(i).kafkaMsg;
+
+                    stats[i].timeTakenMs = endTime - messages.get(i).startTime;
+
+                    metricsUtil.onNotificationProcessingComplete(kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getOffset(), stats[i]);
+
+                    AuditLog auditLog = getAuditLog(kafkaMsg.getMessage());
+
+                    if (auditLog != null) {
+                        auditLog.setHttpStatus(SC_OK);
+                        auditLog.setTimeTaken(stats[i].timeTakenMs);
+
+                        AuditFilter.audit(auditLog);
+                    }
+                }
+
+                logStatsIfDue();
+            }
+
+            return ret;
+        }
+
+        // attribute entity creates/updates in the batch response to the messages that contained the entities
+        private void recordBatchStats(EntityMutationResponse response, NotificationStat[] stats) {
+            Map<String, String> assignedToLocalGuid = new HashMap<>();
+
+            if (MapUtils.isNotEmpty(response.getGuidAssignments())) {
+                for (Map.Entry<String, String> entry : response.getGuidAssignments().entrySet()) {
+                    assignedToLocalGuid.put(entry.getValue(), entry.getKey());
+                }
+            }
+
+            for (EntityMutations.EntityOperation op : EntityMutations.EntityOperation.values()) {
+                List<AtlasEntityHeader> headers = response.getEntitiesByOperation(op);
+
+                if (headers == null) {
+                    continue;
+                }
+
+                for (AtlasEntityHeader header : headers) {
+                    String           guid  = assignedToLocalGuid.getOrDefault(header.getGuid(), header.getGuid());
+                    int              owner = batch.getOwnerIndex(guid);
+                    NotificationStat stat  = stats[owner != -1 ? owner : (stats.length - 1)];
+
+                    switch (op) {
+                        case CREATE:
+                            stat.entityCreates++;
+                            break;
+
+                        case UPDATE:
+                        case PARTIAL_UPDATE:
+                            stat.entityUpdates++;
+                            break;
+
+                        case DELETE:
+                            stat.entityDeletes++;
+                            break;
+                    }
+                }
+            }
+        }
+
+        private AuditLog getAuditLog(HookNotification message) {
+            final AuditLog ret;
+
+            switch (message.getType()) {
+                case ENTITY_CREATE_V2:
+                    ret = new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClientV2.API_V2.CREATE_ENTITY.getMethod(), AtlasClientV2.API_V2.CREATE_ENTITY.getNormalizedPath());
+                    break;
+
+                case ENTITY_FULL_UPDATE_V2:
+                    ret = new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClientV2.API_V2.UPDATE_ENTITY.getMethod(), AtlasClientV2.API_V2.UPDATE_ENTITY.getNormalizedPath());
+                    break;
+
+                case ENTITY_PARTIAL_UPDATE:
+                    ret = new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClientV2.API_V2.UPDATE_ENTITY_BY_ATTRIBUTE.getMethod(), String.format(AtlasClientV2.API_V2.UPDATE_ENTITY_BY_ATTRIBUTE.getNormalizedPath(), ((EntityPartialUpdateRequest) message).getTypeName()));
+                    break;
+
+                default:
+                    ret = null;
+                    break;
+            }
+
+            return ret;
+        }
+
+        /**
+         * Converts V1 messages to V2 and runs the configured preprocessing; does not update the store.
+         */
+        private PreparedHookMessage prepareMessage(AtlasKafkaMessage<HookNotification> kafkaMsg, long startTime) {
+            HookNotification message = kafkaMsg.getMessage();
+
+            // covert V1 messages to V2 to enable preProcess
+            try {
+                switch (message.getType()) {
+                    case ENTITY_CREATE: {
+                        final EntityCreateRequest      createRequest = (EntityCreateRequest) message;
+                        final AtlasEntitiesWithExtInfo entities      = instanceConverter.toAtlasEntities(createRequest.getEntities());
+                        final EntityCreateRequestV2    v2Request     = new EntityCreateRequestV2(message.getUser(), entities);
+
+                        kafkaMsg = new AtlasKafkaMessage<>(v2Request, kafkaMsg.getOffset(), kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getSerializedSize());
+                    }
+                    break;
+
+                    case ENTITY_FULL_UPDATE: {
+                        final EntityUpdateRequest      updateRequest = (EntityUpdateRequest) message;
+                        final AtlasEntitiesWithExtInfo entities      = instanceConverter.toAtlasEntities(updateRequest.getEntities());
+                        final EntityUpdateRequestV2    v2Request     = new EntityUpdateRequestV2(message.getUser(), entities);
+
+                        kafkaMsg = new AtlasKafkaMessage<>(v2Request, kafkaMsg.getOffset(), kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getSerializedSize());
+                    }
+                    break;
+                }
+            } catch (AtlasBaseException excp) {
+                LOG.error("handleMessage(): failed to convert V1 message to V2", message.getType().name());
+            }
+
+            PreprocessorContext context = preProcessNotificationMessage(kafkaMsg);
+
+            return new PreparedHookMessage(kafkaMsg, context, isEmptyMessage(kafkaMsg), startTime);
+        }
+
+        /**
+         * Applies a prepared message to the store, retrying on failure.
+         * @return true if the message offset can be committed; false if the message failed after max retries
+         */
+        private boolean applyMessage(PreparedHookMessage preparedMsg) {
+            AtlasKafkaMessage<HookNotification> kafkaMsg    = preparedMsg.kafkaMsg;
+            PreprocessorContext                 context     = preparedMsg.context;
+            AtlasPerfTracer                     perf        = null;
+            HookNotification                    message     = kafkaMsg.getMessage();
+            String                              messageUser = message.getUser();
+            NotificationStat                    stats       = new NotificationStat();
+            AuditLog                            auditLog    = null;
+
+            if (authorizeUsingMessageUser) {
+                setCurrentUser(messageUser);
+            }
+
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, message.getType().name());
+            }
+
+            try {
+                if (preparedMsg.isEmpty) {
+                    return true;
                 }
 
                 // Used for intermediate conversions during create and update
@@ -794,12 +1281,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                             stats.isFailedMsg = true;
 
-                            failedMessages.add(strMessage);
+                            addFailedMessage(strMessage);
 
-                            if (failedMessages.size() >= failedMsgCacheSize) {
-                                recordFailedMessages();
-                            }
-                            return;
+                            return false;
                         } else {
                             LOG.warn("Error handling message", e);
 
@@ -816,11 +1300,11 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     }
                 }
 
-                commit(kafkaMsg);
+                return true;
             } finally {
                 AtlasPerfTracer.log(perf);
 
-                stats.timeTakenMs = System.currentTimeMillis() - startTime;
+                stats.timeTakenMs = System.currentTimeMillis() - preparedMsg.startTime;
 
                 metricsUtil.onNotificationProcessingComplete(kafkaMsg.getTopic(), kafkaMsg.getPartition(), kafkaMsg.getOffset(), stats);
 
@@ -838,13 +1322,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     AuditFilter.audit(auditLog);
                 }
 
-                Instant now = Instant.now();
-
-                if (now.isAfter(nextStatsLogTime)) {
-                    LOG.info("STATS: {}", AtlasJson.toJson(metricsUtil.getStats()));
-
-                    nextStatsLogTime = AtlasMetricsCounter.getNextHourStartTime(now);
-                }
+                logStatsIfDue();
             }
         }
 
@@ -892,25 +1370,37 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             }
         }
 
-        private void recordFailedMessages() {
-            //logging failed messages
-            for (String message : failedMessages) {
-                FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
+        private void addFailedMessage(String strMessage) {
+            synchronized (failedMessages) {
+                failedMessages.add(strMessage);
+
+                if (failedMessages.size() >= failedMsgCacheSize) {
+                    recordFailedMessages();
+                }
             }
+        }
+
+        private void recordFailedMessages() {
+            synchronized (failedMessages) {
+                //logging failed messages
+                for (String message : failedMessages) {
+                    FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
+                }
 
-            failedMessages.clear();
+                failedMessages.clear();
+            }
         }
 
         private void commit(AtlasKafkaMessage<HookNotification> kafkaMessage) {
-            boolean commitSucceessStatus = false;
+            boolean commitSuccessStatus = false;
             try {
                 recordFailedMessages();
 
                 consumer.commit(kafkaMessage.getTopicPartition(), kafkaMessage.getOffset() + 1);
 
-                commitSucceessStatus = true;
+                commitSuccessStatus = true;
             } finally {
-                failedCommitOffsetRecorder.recordIfFailed(commitSucceessStatus, kafkaMessage.getOffset());
+                failedCommitOffsetRecorder.recordIfFailed(commitSuccessStatus, kafkaMessage.getTopicPartition(), kafkaMessage.getOffset());
             }
         }
 
@@ -962,6 +1452,245 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    private synchronized void logStatsIfDue() {
+        Instant now = Instant.now();
+
+        if (now.isAfter(nextStatsLogTime)) {
+            LOG.info("STATS: {}", AtlasJson.toJson(metricsUtil.getStats()));
+
+            nextStatsLogTime = AtlasMetricsCounter.getNextHourStartTime(now);
+        }
+    }
+
+    /**
+     * Returns the keys that identify the entities touched by the given message. An entity is identified by values of its
+     * unique attributes, each qualified by the type that defines the attribute - so that a reference through a supertype,
+     * like DataSet, gets the same key as the entity. References by guid are resolved to keys of entities in the message.
+     * Messages sharing a key must be applied in order.
+     * @return keys of the entities; null if the entities could not be identified, for example an existing entity referred
+     *         by guid, in which case the message must be applied after all earlier messages and before all later ones
+     */
+    @VisibleForTesting
+    Set<String> getMessageKeys(HookNotification message) {
+        final MessageKeys keys = new MessageKeys(typeRegistry);
+        final boolean     isIdentified;
+
+        switch (message.getType()) {
+            case ENTITY_CREATE_V2:
+            case ENTITY_FULL_UPDATE_V2: {
+                AtlasEntitiesWithExtInfo entities         = message instanceof EntityCreateRequestV2 ? ((EntityCreateRequestV2) message).getEntities() : ((EntityUpdateRequestV2) message).getEntities();
+                Collection<AtlasEntity>  referredEntities = entities != null && entities.getReferredEntities() != null ? entities.getReferredEntities().values() : null;
+
+                isIdentified = entities != null && keys.addEntities(entities.getEntities()) && keys.addEntities(referredEntities) &&
+                               keys.addReferences(entities.getEntities()) && keys.addReferences(referredEntities);
+            }
+            break;
+
+            case ENTITY_PARTIAL_UPDATE_V2: {
+                EntityPartialUpdateRequestV2 request          = (EntityPartialUpdateRequestV2) message;
+                AtlasEntityWithExtInfo       entity           = request.getEntity();
+                Collection<AtlasEntity>      referredEntities = entity != null && entity.getReferredEntities() != null ? entity.getReferredEntities().values() : null;
+
+                isIdentified = keys.addObjectId(request.getEntityId()) && keys.addEntities(referredEntities) &&
+                               (entity == null || entity.getEntity() == null || keys.addReferences(entity.getEntity())) && keys.addReferences(referredEntities);
+            }
+            break;
+
+            case ENTITY_DELETE_V2: {
+                List<AtlasObjectId> objectIds = ((EntityDeleteRequestV2) message).getEntities();
+                boolean             allFound  = objectIds != null;
+
+                if (objectIds != null) {
+                    for (AtlasObjectId objectId : objectIds) {
+                        allFound = keys.addObjectId(objectId) && allFound;
+                    }
+                }
+
+                isIdentified = allFound;
+            }
+            break;
+
+            case ENTITY_PARTIAL_UPDATE: {
+                EntityPartialUpdateRequest request = (EntityPartialUpdateRequest) message;
+
+                isIdentified = keys.addUniqueAttribute(request.getTypeName(), request.getAttribute(), request.getAttributeValue());
+            }
+            break;
+
+            case ENTITY_DELETE: {
+                EntityDeleteRequest request = (EntityDeleteRequest) message;
+
+                isIdentified = keys.addUniqueAttribute(request.getTypeName(), request.getAttribute(), request.getAttributeValue());
+            }
+            break;
+
+            default:
+                isIdentified = false;
+                break;
+        }
+
+        return isIdentified && !keys.getKeys().isEmpty() ? keys.getKeys() : null;
+    }
+
+    private static class MessageKeys {
+        private final AtlasTypeRegistry        typeRegistry;
+        private final Set<String>              keys     = new HashSet<>();
+        private final Map<String, Set<String>> guidKeys = new HashMap<>(); // keys of entities in the message, by guid
+
+        MessageKeys(AtlasTypeRegistry typeRegistry) {
+            this.typeRegistry = typeRegistry;
+        }
+
+        Set<String> getKeys() {
+            return keys;
+        }
+
+        // entities must be added before references to them are resolved
+        boolean addEntities(Collection<AtlasEntity> entities) {
+            if (entities != null) {
+                for (AtlasEntity entity : entities) {
+                    if (!addEntity(entity)) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        boolean addReferences(Collection<AtlasEntity> entities) {
+            boolean ret = true;
+
+            if (entities != null) {
+                for (AtlasEntity entity : entities) {
+                    ret = addReferences(entity) && ret;
+                }
+            }
+
+            return ret;
+        }
+
+        boolean addReferences(AtlasEntity entity) {
+            boolean ret = true;
+
+            if (entity.getAttributes() != null) {
+                for (Object attrValue : entity.getAttributes().values()) {
+                    ret = addReference(attrValue) && ret;
+                }
+            }
+
+            if (entity.getRelationshipAttributes() != null) {
+                for (Object attrValue : entity.getRelationshipAttributes().values()) {
+                    ret = addReference(attrValue) && ret;
+                }
+            }
+
+            return ret;
+        }
+
+        boolean addObjectId(AtlasObjectId objectId) {
+            if (objectId == null) {
+                return false;
+            }
+
+            if (MapUtils.isNotEmpty(objectId.getUniqueAttributes())) {
+                AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objectId.getTypeName());
+
+                if (entityType == null) {
+                    return false;
+                }
+
+                for (Map.Entry<String, Object> entry : objectId.getUniqueAttributes().entrySet()) {
+                    if (!addUniqueAttribute(entityType, entry.getKey(), entry.getValue())) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+            // unique attributes of an existing entity referred by guid are not known here
+            Set<String> entityKeys = objectId.getGuid() != null ? guidKeys.get(objectId.getGuid()) : null;
+
+            if (entityKeys == null) {
+                return false;
+            }
+
+            keys.addAll(entityKeys);
+
+            return true;
+        }
+
+        boolean addUniqueAttribute(String typeName, String attrName, Object attrValue) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+            return entityType != null && addUniqueAttribute(entityType, attrName, attrValue);
+        }
+
+        private boolean addUniqueAttribute(AtlasEntityType entityType, String attrName, Object attrValue) {
+            AtlasAttribute attribute = entityType.getUniqAttributes().get(attrName);
+
+            if (attribute == null || attrValue == null) {
+                return false;
+            }
+
+            keys.add(getKey(attribute, attrValue));
+
+            return true;
+        }
+
+        private boolean addEntity(AtlasEntity entity) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+            Set<String>     entityKeys = new HashSet<>();
+
+            if (entityType != null) {
+                for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                    Object attrValue = entity.getAttribute(attribute.getName());
+
+                    if (attrValue != null) {
+                        entityKeys.add(getKey(attribute, attrValue));
+                    }
+                }
+            }
+
+            if (entityKeys.isEmpty()) {
+                return false;
+            }
+
+            keys.addAll(entityKeys);
+
+            if (StringUtils.isNotEmpty(entity.getGuid())) {
+                guidKeys.put(entity.getGuid(), entityKeys);
+            }
+
+            return true;
+        }
+
+        private boolean addReference(Object attrValue) {
+            boolean ret = true;
+
+            if (attrValue instanceof AtlasObjectId) {
+                ret = addObjectId((AtlasObjectId) attrValue);
+            } else if (attrValue instanceof Map) {
+                Map objId = (Map) attrValue;
+
+                if (objId.containsKey(KEY_GUID) || objId.containsKey(KEY_UNIQUE_ATTRIBUTES)) {
+                    ret = addObjectId(new AtlasObjectId(objId));
+                }
+            } else if (attrValue instanceof Collection) {
+                for (Object element : (Collection) attrValue) {
+                    ret = addReference(element) && ret;
+                }
+            }
+
+            return ret;
+        }
+
+        private static String getKey(AtlasAttribute attribute, Object attrValue) {
+            return attribute.getQualifiedName() + "=" + attrValue;
+        }
+    }
+
     private PreprocessorContext preProcessNotificationMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) {
         PreprocessorContext context = null;
 
@@ -1314,23 +2043,44 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         return ret;
     }
 
+    static class PreparedHookMessage {
+        final AtlasKafkaMessage<HookNotification> kafkaMsg;
+        final PreprocessorContext                 context;
+        final boolean                             isEmpty;
+        final long                                startTime;
+        String                                    partialUpdateGuid; // guid of the entity to update, for partial-update messages in a batch
+
+        PreparedHookMessage(AtlasKafkaMessage<HookNotification> kafkaMsg, PreprocessorContext context, boolean isEmpty, long startTime) {
+            this.kafkaMsg  = kafkaMsg;
+            this.context   = context;
+            this.isEmpty   = isEmpty;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * Records, for each partition, the offset of the last message whose commit failed; such message is not applied
+     * again when it is redelivered.
+     */
     static class FailedCommitOffsetRecorder {
-        private Long currentOffset;
+        private final Map<TopicPartition, Long> failedOffsets = new HashMap<>();
 
-        public void recordIfFailed(boolean commitStatus, long offset) {
-            if(commitStatus) {
-                currentOffset = null;
+        public void recordIfFailed(boolean commitStatus, TopicPartition partition, long offset) {
+            if (commitStatus) {
+                failedOffsets.remove(partition);
             } else {
-                currentOffset = offset;
+                failedOffsets.put(partition, offset);
             }
         }
 
-        public boolean isMessageReplayed(long offset) {
-            return currentOffset != null && currentOffset == offset;
+        public boolean isMessageReplayed(TopicPartition partition, long offset) {
+            Long failedOffset = failedOffsets.get(partition);
+
+            return failedOffset != null && failedOffset == offset;
         }
 
-        public Long getCurrentOffset() {
-            return currentOffset;
+        public boolean isEmpty() {
+            return failedOffsets.isEmpty();
         }
     }
 }
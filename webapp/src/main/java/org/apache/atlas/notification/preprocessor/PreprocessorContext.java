@@ -25,6 +25,7 @@ import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.notification.HookNotification;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.atlas.util.AtlasCache;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -50,28 +51,28 @@ public class PreprocessorContext {
 
     public enum PreprocessAction { NONE, IGNORE, PRUNE }
 
-    private final AtlasKafkaMessage<HookNotification> kafkaMessage;
-    private final AtlasTypeRegistry                   typeRegistry;
-    private final AtlasEntitiesWithExtInfo            entitiesWithExtInfo;
-    private final List<Pattern>                       hiveTablesToIgnore;
-    private final List<Pattern>                       hiveTablesToPrune;
-    private final Map<String, PreprocessAction>       hiveTablesCache;
-    private final List<String>                        hiveDummyDatabasesToIgnore;
-    private final List<String>                        hiveDummyTablesToIgnore;
-    private final List<String>                        hiveTablePrefixesToIgnore;
-    private final boolean                             updateHiveProcessNameWithQualifiedName;
-    private final boolean                             hiveTypesRemoveOwnedRefAttrs;
-    private final boolean                             rdbmsTypesRemoveOwnedRefAttrs;
-    private final boolean                             isHivePreProcessEnabled;
-    private final Set<String>                         ignoredEntities        = new HashSet<>();
-    private final Set<String>                         prunedEntities         = new HashSet<>();
-    private final Set<String>                         referredEntitiesToMove = new HashSet<>();
-    private final Set<String>                         createdEntities        = new HashSet<>();
-    private final Set<String>                         deletedEntities        = new HashSet<>();
-    private final Map<String, String>                 guidAssignments        = new HashMap<>();
-    private       List<AtlasEntity>                   postUpdateEntities     = null;
-
-    public PreprocessorContext(AtlasKafkaMessage<HookNotification> kafkaMessage, AtlasTypeRegistry typeRegistry, List<Pattern> hiveTablesToIgnore, List<Pattern> hiveTablesToPrune, Map<String, PreprocessAction> hiveTablesCache, List<String> hiveDummyDatabasesToIgnore, List<String> hiveDummyTablesToIgnore, List<String> hiveTablePrefixesToIgnore, boolean hiveTypesRemoveOwnedRefAttrs, boolean rdbmsTypesRemoveOwnedRefAttrs, boolean updateHiveProcessNameWithQualifiedName) {
+    private final AtlasKafkaMessage<HookNotification>  kafkaMessage;
+    private final AtlasTypeRegistry                    typeRegistry;
+    private final AtlasEntitiesWithExtInfo             entitiesWithExtInfo;
+    private final List<Pattern>                        hiveTablesToIgnore;
+    private final List<Pattern>                        hiveTablesToPrune;
+    private final AtlasCache<String, PreprocessAction> hiveTablesCache;
+    private final List<String>                         hiveDummyDatabasesToIgnore;
+    private final List<String>                         hiveDummyTablesToIgnore;
+    private final List<String>                         hiveTablePrefixesToIgnore;
+    private final boolean                              updateHiveProcessNameWithQualifiedName;
+    private final boolean                              hiveTypesRemoveOwnedRefAttrs;
+    private final boolean                              rdbmsTypesRemoveOwnedRefAttrs;
+    private final boolean                              isHivePreProcessEnabled;
+    private final Set<String>                          ignoredEntities        = new HashSet<>();
+    private final Set<String>                          prunedEntities         = new HashSet<>();
+    private final Set<String>                          referredEntitiesToMove = new HashSet<>();
+    private final Set<String>                          createdEntities        = new HashSet<>();
+    private final Set<String>                          deletedEntities        = new HashSet<>();
+    private final Map<String, String>                  guidAssignments        = new HashMap<>();
+    private       List<AtlasEntity>                    postUpdateEntities     = null;
+
+    public PreprocessorContext(AtlasKafkaMessage<HookNotification> kafkaMessage, AtlasTypeRegistry typeRegistry, List<Pattern> hiveTablesToIgnore, List<Pattern> hiveTablesToPrune, AtlasCache<String, PreprocessAction> hiveTablesCache, List<String> hiveDummyDatabasesToIgnore, List<String> hiveDummyTablesToIgnore, List<String> hiveTablePrefixesToIgnore, boolean hiveTypesRemoveOwnedRefAttrs, boolean rdbmsTypesRemoveOwnedRefAttrs, boolean updateHiveProcessNameWithQualifiedName) {
         this.kafkaMessage                           = kafkaMessage;
         this.typeRegistry                           = typeRegistry;
         this.hiveTablesToIgnore                     = hiveTablesToIgnore;
@@ -21,6 +21,7 @@ package org.apache.atlas.web.resources;
 import com.sun.jersey.multipart.FormDataParam;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.authorize.AtlasAdminAccessRequest;
@@ -364,6 +365,30 @@ public class AdminResource {
         return metrics;
     }
 
+    /**
+     * Metrics of internal operations, aggregated over requests processed in a rolling window. Aggregation is enabled
+     * by atlas.metrics.request.aggregation.enabled=true; otherwise the result is empty.
+     *
+     * @return count and time taken (total/avg/min/max/percentiles, in milliseconds) keyed by operation name,
+     *         in descending order of total time taken
+     */
+    @GET
+    @Path("metrics/requests")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Map<String, Object>> getRequestMetrics() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.getRequestMetrics()");
+        }
+
+        Map<String, Map<String, Object>> ret = RequestContext.getAggregatedMetrics();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.getRequestMetrics()");
+        }
+
+        return ret;
+    }
+
     private void releaseExportImportLock() {
         importExportOperationLock.unlock();
     }
@@ -382,7 +407,7 @@ public class AdminResource {
 
         ZipSink exportSink = null;
         try {
-            exportSink = new ZipSink(httpServletResponse.getOutputStream());
+            exportSink = new ZipSink(httpServletResponse.getOutputStream(), AtlasConfiguration.EXPORT_WRITER_QUEUE_SIZE.getInt());
             AtlasExportResult result = exportService.run(exportSink, request, AtlasAuthorizationUtils.getCurrentUserName(),
                                                          Servlets.getHostName(httpServletRequest),
                                                          AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
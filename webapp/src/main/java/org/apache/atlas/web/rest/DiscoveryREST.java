@@ -178,6 +178,7 @@ public class DiscoveryREST {
      * @param classification limit the result to only entities tagged with the given classification or or its sub-types
      * @param limit          limit the result set to only include the specified number of entries
      * @param offset         start offset of the result set (useful for pagination)
+     * @param continuationToken continuationToken from the previous page of results; offset is ignored when specified
      * @return Search results
      * @throws AtlasBaseException
      * @HTTP 200 On successful FullText lookup with some results, might return an empty list if execution succeeded
@@ -193,7 +194,8 @@ public class DiscoveryREST {
                                               @QueryParam("sortOrder")              SortOrder sortOrder,
                                               @QueryParam("excludeDeletedEntities") boolean excludeDeletedEntities,
                                               @QueryParam("limit")                  int     limit,
-                                              @QueryParam("offset")                 int     offset) throws AtlasBaseException {
+                                              @QueryParam("offset")                 int     offset,
+                                              @QueryParam("continuationToken")      String  continuationToken) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         Servlets.validateQueryParamLength("classification", classification);
         Servlets.validateQueryParamLength("sortBy", sortByAttribute);
@@ -218,6 +220,7 @@ public class DiscoveryREST {
             searchParameters.setOffset(offset);
             searchParameters.setSortBy(sortByAttribute);
             searchParameters.setSortOrder(sortOrder);
+            searchParameters.setContinuationToken(continuationToken);
 
             return discoveryService.searchWithParameters(searchParameters);
         } finally {
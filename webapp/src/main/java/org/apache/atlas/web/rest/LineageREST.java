@@ -25,6 +25,7 @@ import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.lineage.AtlasLineageInfo;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.atlas.model.lineage.LineageOnDemandConstraints;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -66,6 +67,8 @@ public class LineageREST {
     private final AtlasLineageService atlasLineageService;
     private static final String DEFAULT_DIRECTION = "BOTH";
     private static final String DEFAULT_DEPTH     = "3";
+    private static final String DEFAULT_LIMIT     = "-1";
+    private static final String DEFAULT_OFFSET    = "0";
 
     @Context
     private HttpServletRequest httpServletRequest;
@@ -81,7 +84,12 @@ public class LineageREST {
      * @param guid - unique entity id
      * @param direction - input, output or both
      * @param depth - number of hops for lineage
-     * @return AtlasLineageInfo
+     * @param inputRelationsLimit - max input relations to expand for each entity; default is atlas.lineage.default.relations.limit (0: no limit)
+     * @param outputRelationsLimit - max output relations to expand for each entity; default is atlas.lineage.default.relations.limit (0: no limit)
+     * @param inputRelationsOffset - number of input relations of the given entity to skip, to fetch the next slice of its relations
+     * @param outputRelationsOffset - number of output relations of the given entity to skip, to fetch the next slice of its relations
+     * @param maxNodeCount - max entities in the lineage; capped at atlas.lineage.max.node.count (0: no limit)
+     * @return AtlasLineageInfo; relationsOnDemand lists entities having more relations than returned
      * @throws AtlasBaseException
      * @HTTP 200 If Lineage exists for the given entity
      * @HTTP 400 Bad query parameters
@@ -91,7 +99,12 @@ public class LineageREST {
     @Path("/{guid}")
     public AtlasLineageInfo getLineageGraph(@PathParam("guid") String guid,
                                             @QueryParam("direction") @DefaultValue(DEFAULT_DIRECTION)  LineageDirection direction,
-                                            @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth) throws AtlasBaseException {
+                                            @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth,
+                                            @QueryParam("inputRelationsLimit") @DefaultValue(DEFAULT_LIMIT) int inputRelationsLimit,
+                                            @QueryParam("outputRelationsLimit") @DefaultValue(DEFAULT_LIMIT) int outputRelationsLimit,
+                                            @QueryParam("inputRelationsOffset") @DefaultValue(DEFAULT_OFFSET) int inputRelationsOffset,
+                                            @QueryParam("outputRelationsOffset") @DefaultValue(DEFAULT_OFFSET) int outputRelationsOffset,
+                                            @QueryParam("maxNodeCount") @DefaultValue(DEFAULT_LIMIT) int maxNodeCount) throws AtlasBaseException {
         Servlets.validateQueryParamLength("guid", guid);
 
         AtlasPerfTracer perf = null;
@@ -102,7 +115,9 @@ public class LineageREST {
                                                                "," + depth + ")");
             }
 
-            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth);
+            LineageOnDemandConstraints constraints = new LineageOnDemandConstraints(inputRelationsLimit, outputRelationsLimit, inputRelationsOffset, outputRelationsOffset, maxNodeCount);
+
+            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth, constraints);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -120,6 +135,11 @@ public class LineageREST {
      * @param typeName - typeName of entity
      * @param direction - input, output or both
      * @param depth - number of hops for lineage
+     * @param inputRelationsLimit - max input relations to expand for each entity; default is atlas.lineage.default.relations.limit (0: no limit)
+     * @param outputRelationsLimit - max output relations to expand for each entity; default is atlas.lineage.default.relations.limit (0: no limit)
+     * @param inputRelationsOffset - number of input relations of the given entity to skip, to fetch the next slice of its relations
+     * @param outputRelationsOffset - number of output relations of the given entity to skip, to fetch the next slice of its relations
+     * @param maxNodeCount - max entities in the lineage; capped at atlas.lineage.max.node.count (0: no limit)
      * @return AtlasLineageInfo
      * @throws AtlasBaseException
      * @HTTP 200 If Lineage exists for the given entity
@@ -131,7 +151,13 @@ public class LineageREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasLineageInfo getLineageByUniqueAttribute(@PathParam("typeName") String typeName, @QueryParam("direction") @DefaultValue(DEFAULT_DIRECTION) LineageDirection direction,
-                                                        @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth, @Context HttpServletRequest servletRequest) throws AtlasBaseException {
+                                                        @QueryParam("depth") @DefaultValue(DEFAULT_DEPTH) int depth,
+                                                        @QueryParam("inputRelationsLimit") @DefaultValue(DEFAULT_LIMIT) int inputRelationsLimit,
+                                                        @QueryParam("outputRelationsLimit") @DefaultValue(DEFAULT_LIMIT) int outputRelationsLimit,
+                                                        @QueryParam("inputRelationsOffset") @DefaultValue(DEFAULT_OFFSET) int inputRelationsOffset,
+                                                        @QueryParam("outputRelationsOffset") @DefaultValue(DEFAULT_OFFSET) int outputRelationsOffset,
+                                                        @QueryParam("maxNodeCount") @DefaultValue(DEFAULT_LIMIT) int maxNodeCount,
+                                                        @Context HttpServletRequest servletRequest) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         AtlasPerfTracer perf = null;
 
@@ -145,7 +171,9 @@ public class LineageREST {
                         "," + depth + ")");
             }
 
-            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth);
+            LineageOnDemandConstraints constraints = new LineageOnDemandConstraints(inputRelationsLimit, outputRelationsLimit, inputRelationsOffset, outputRelationsOffset, maxNodeCount);
+
+            return atlasLineageService.getAtlasLineageInfo(guid, direction, depth, constraints);
         } finally {
             AtlasPerfTracer.log(perf);
         }
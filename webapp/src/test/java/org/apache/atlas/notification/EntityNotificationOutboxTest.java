@@ -0,0 +1,283 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class EntityNotificationOutboxTest {
+    private static final long WAIT_TIME_MS = 10000;
+
+    private File directory;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("entities-outbox").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void messagesAreSentInOrderAfterFailures() throws Exception {
+        TestNotification         notification = new TestNotification(2);
+        EntityNotificationOutbox outbox       = createOutbox(notification, 1024 * 1024);
+
+        outbox.start();
+
+        for (int i = 0; i < 10; i++) {
+            outbox.add(Collections.singletonList("msg-" + i));
+        }
+
+        waitForMessages(notification, 10);
+
+        outbox.stop();
+
+        assertMessages(notification.sent, 0, 10);
+        assertTrue(notification.failedCount.get() >= 2);
+        assertEquals(outbox.getPendingCount(), 0);
+    }
+
+    @Test
+    public void sentMessagesAreNotResentAfterRestart() throws Exception {
+        TestNotification         notification = new TestNotification(0);
+        EntityNotificationOutbox outbox       = createOutbox(notification, 1024 * 1024);
+
+        outbox.start();
+        outbox.add(messages(0, 3));
+
+        waitForMessages(notification, 3);
+
+        outbox.stop();
+
+        TestNotification         notification2 = new TestNotification(0);
+        EntityNotificationOutbox outbox2       = createOutbox(notification2, 1024 * 1024);
+
+        outbox2.start();
+        outbox2.add(messages(3, 5));
+
+        waitForMessages(notification2, 2);
+
+        outbox2.stop();
+
+        assertMessages(notification2.sent, 3, 5);
+    }
+
+    @Test
+    public void pendingMessagesAreSentAfterRestart() throws Exception {
+        TestNotification         notification = new TestNotification(Integer.MAX_VALUE);
+        EntityNotificationOutbox outbox       = createOutbox(notification, 1024 * 1024);
+
+        outbox.start();
+        outbox.add(messages(0, 3));
+        outbox.stop();
+
+        assertTrue(notification.sent.isEmpty());
+
+        TestNotification         notification2 = new TestNotification(0);
+        EntityNotificationOutbox outbox2       = createOutbox(notification2, 1024 * 1024);
+
+        outbox2.start();
+
+        assertEquals(outbox2.getPendingCount(), 3);
+
+        outbox2.add(messages(3, 4));
+
+        waitForMessages(notification2, 4);
+
+        outbox2.stop();
+
+        assertMessages(notification2.sent, 0, 4);
+    }
+
+    @Test
+    public void sentSegmentsAreDeleted() throws Exception {
+        TestNotification         notification = new TestNotification(0);
+        EntityNotificationOutbox outbox       = createOutbox(notification, 256);
+
+        outbox.start();
+
+        for (int i = 0; i < 20; i++) {
+            outbox.add(Collections.singletonList("msg-" + i));
+        }
+
+        waitForMessages(notification, 20);
+
+        outbox.stop();
+
+        assertMessages(notification.sent, 0, 20);
+
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+
+        assertEquals(segments.length, 1);
+        assertFalse(outbox.isRunning());
+    }
+
+    @Test
+    public void messagesAreNotLostWhenSegmentsRollDuringRead() throws Exception {
+        int                      threadCount       = 4;
+        int                      messagesPerThread = 250;
+        TestNotification         notification      = new TestNotification(0);
+        EntityNotificationOutbox outbox            = createOutbox(notification, 1); // roll over on every add
+
+        outbox.start();
+
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIdx = t;
+
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < messagesPerThread; i++) {
+                        outbox.add(Collections.singletonList("msg-" + threadIdx + "-" + i));
+                    }
+                } catch (NotificationException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        waitForMessages(notification, threadCount * messagesPerThread);
+
+        outbox.stop();
+
+        assertEquals(notification.sent.size(), threadCount * messagesPerThread);
+
+        for (int t = 0; t < threadCount; t++) {
+            int prevIdx = -1;
+
+            // messages added by a thread are sent in the order they were added
+            for (int i = 0; i < messagesPerThread; i++) {
+                int idx = indexOf(notification.sent, "\"msg-" + t + "-" + i + "\"");
+
+                assertTrue(idx > prevIdx, "msg-" + t + "-" + i);
+
+                prevIdx = idx;
+            }
+        }
+
+        assertEquals(outbox.getPendingCount(), 0);
+    }
+
+    private EntityNotificationOutbox createOutbox(NotificationInterface notification, long segmentSizeBytes) {
+        return new EntityNotificationOutbox(notification, null, true, directory, 4, segmentSizeBytes, 10);
+    }
+
+    private static List<String> messages(int from, int to) {
+        List<String> ret = new ArrayList<>();
+
+        for (int i = from; i < to; i++) {
+            ret.add("msg-" + i);
+        }
+
+        return ret;
+    }
+
+    private static void assertMessages(List<String> sent, int from, int to) {
+        assertEquals(sent.size(), to - from);
+
+        for (int i = from; i < to; i++) {
+            assertTrue(sent.get(i - from).contains("\"msg-" + i + "\""), sent.get(i - from));
+        }
+    }
+
+    private static int indexOf(List<String> sent, String message) {
+        synchronized (sent) {
+            for (int i = 0; i < sent.size(); i++) {
+                if (sent.get(i).contains(message)) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private static void waitForMessages(TestNotification notification, int count) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + WAIT_TIME_MS;
+
+        while (notification.sent.size() < count && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class TestNotification extends AbstractNotification {
+        private final List<String>  sent        = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failedCount = new AtomicInteger();
+        private final int           failCount;
+
+        TestNotification(int failCount) {
+            this.failCount = failCount;
+        }
+
+        @Override
+        protected void sendInternal(NotificationType type, List<String> messages) throws NotificationException {
+            if (failedCount.get() < failCount) {
+                failedCount.incrementAndGet();
+
+                throw new NotificationException(new Exception("send failed"));
+            }
+
+            sent.addAll(messages);
+        }
+
+        @Override
+        protected void sendBinaryInternal(NotificationType type, List<byte[]> messages) throws NotificationException {
+            List<String> strMessages = new ArrayList<>(messages.size());
+
+            for (byte[] message : messages) {
+                strMessages.add(AtlasNotificationBinaryMessage.getMessageJson(message));
+            }
+
+            sendInternal(type, strMessages);
+        }
+
+        @Override
+        public <T> List<NotificationConsumer<T>> createConsumers(NotificationType notificationType, int numConsumers) {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
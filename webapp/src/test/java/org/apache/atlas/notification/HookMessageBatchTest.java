@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.kafka.KafkaNotification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.notification.NotificationHookConsumer.PreparedHookMessage;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageBatchTest {
+    private static final String USER = "hive";
+
+    @Test
+    public void testReferredEntityIsMergedAndRestored() {
+        HookMessageBatch         batch     = new HookMessageBatch(10, 1024 * 1024, 100, 1000);
+        AtlasEntitiesWithExtInfo entities1 = createTableEntities("db1", "tbl1");
+        AtlasEntitiesWithExtInfo entities2 = createTableEntities("db1", "tbl2");
+        AtlasEntity              db2       = entities2.getReferredEntities().values().iterator().next();
+        AtlasObjectId            db2Ref    = (AtlasObjectId) entities2.getEntities().get(0).getAttribute("db");
+
+        assertTrue(batch.add(createMessage(0, entities1), entities1, false));
+        assertTrue(batch.add(createMessage(1, entities2), entities2, false));
+
+        assertEquals(batch.getEntities().getEntities().size(), 2);
+        assertEquals(batch.getEntities().getReferredEntities().size(), 1);
+        assertFalse(db2.getGuid().equals(db2Ref.getGuid())); // reference redirected to db entity from message 1
+
+        batch.restoreReferences();
+
+        assertEquals(db2Ref.getGuid(), db2.getGuid());
+    }
+
+    @Test
+    public void testSameEntityIsNotBatched() {
+        HookMessageBatch         batch     = new HookMessageBatch(10, 1024 * 1024, 100, 1000);
+        AtlasEntitiesWithExtInfo entities1 = createTableEntities("db1", "tbl1");
+        AtlasEntitiesWithExtInfo entities2 = createTableEntities("db1", "tbl1");
+
+        assertTrue(batch.add(createMessage(0, entities1), entities1, false));
+        assertFalse(batch.add(createMessage(1, entities2), entities2, false));
+        assertEquals(batch.getMessages().size(), 1);
+    }
+
+    @Test
+    public void testDifferentReferredDefinitionIsNotBatched() {
+        HookMessageBatch         batch     = new HookMessageBatch(10, 1024 * 1024, 100, 1000);
+        AtlasEntitiesWithExtInfo entities1 = createTableEntities("db1", "tbl1");
+        AtlasEntitiesWithExtInfo entities2 = createTableEntities("db1", "tbl2");
+
+        entities2.getReferredEntities().values().iterator().next().setAttribute("owner", "admin");
+
+        assertTrue(batch.add(createMessage(0, entities1), entities1, false));
+        assertFalse(batch.add(createMessage(1, entities2), entities2, false));
+    }
+
+    @Test
+    public void testBatchLimits() {
+        HookMessageBatch batch = new HookMessageBatch(2, 1024 * 1024, 100, 1000);
+
+        for (int i = 0; i < 2; i++) {
+            AtlasEntitiesWithExtInfo entities = createTableEntities("db" + i, "tbl");
+
+            assertTrue(batch.add(createMessage(i, entities), entities, false));
+        }
+
+        AtlasEntitiesWithExtInfo entities = createTableEntities("db3", "tbl");
+
+        assertTrue(batch.isFull());
+        assertFalse(batch.add(createMessage(3, entities), entities, false));
+
+        batch.clear();
+
+        assertTrue(batch.isEmpty());
+        assertTrue(batch.add(createMessage(3, entities), entities, false));
+    }
+
+    @Test
+    public void testPartialAndFullUpdatesAreNotMixed() {
+        HookMessageBatch         batch     = new HookMessageBatch(10, 1024 * 1024, 100, 1000);
+        AtlasEntitiesWithExtInfo entities1 = createTableEntities("db1", "tbl1");
+        AtlasEntitiesWithExtInfo entities2 = createTableEntities("db2", "tbl2");
+
+        assertTrue(batch.add(createMessage(0, entities1), entities1, false));
+        assertFalse(batch.add(createMessage(1, entities2), entities2, true));
+    }
+
+    private static PreparedHookMessage createMessage(long offset, AtlasEntitiesWithExtInfo entities) {
+        HookNotification                    message  = new EntityCreateRequestV2(USER, entities);
+        AtlasKafkaMessage<HookNotification> kafkaMsg = new AtlasKafkaMessage<>(message, offset, KafkaNotification.ATLAS_HOOK_TOPIC, 0, 100);
+
+        return new PreparedHookMessage(kafkaMsg, null, false, System.currentTimeMillis());
+    }
+
+    private static AtlasEntitiesWithExtInfo createTableEntities(String dbName, String tableName) {
+        AtlasEntity db    = new AtlasEntity("hive_db");
+        AtlasEntity table = new AtlasEntity("hive_table");
+
+        db.setAttribute("qualifiedName", dbName + "@cl1");
+        db.setAttribute("name", dbName);
+
+        table.setAttribute("qualifiedName", dbName + "." + tableName + "@cl1");
+        table.setAttribute("name", tableName);
+        table.setAttribute("db", new AtlasObjectId(db.getGuid(), db.getTypeName(), Collections.singletonMap("qualifiedName", db.getAttribute("qualifiedName"))));
+
+        AtlasEntitiesWithExtInfo ret = new AtlasEntitiesWithExtInfo(new ArrayList<>(Collections.singletonList(table)));
+
+        ret.addReferredEntity(db);
+
+        return ret;
+    }
+}
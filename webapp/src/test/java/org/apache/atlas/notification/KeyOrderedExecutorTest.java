@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.kafka.common.TopicPartition;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class KeyOrderedExecutorTest {
+    private static final TopicPartition PARTITION = new TopicPartition("ATLAS_HOOK", 0);
+
+    private ExecutorService workers;
+
+    @BeforeMethod
+    public void setup() {
+        workers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void tasksWithSameKeyRunInOrder() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(workers, 100);
+        List<Integer>      order    = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 50; i++) {
+            final int idx = i;
+
+            executor.submit(PARTITION, i, Collections.singleton("db.tbl@cl1"), () -> order.add(idx));
+        }
+
+        assertTrue(executor.awaitCompletion(10000));
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(order.get(i).intValue(), i);
+        }
+    }
+
+    @Test
+    public void tasksWithDisjointKeysRunConcurrently() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(workers, 100);
+        CountDownLatch     latch    = new CountDownLatch(2);
+
+        // each task waits for the other: completes only if both run at the same time
+        Runnable task = () -> {
+            latch.countDown();
+
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                // ignore
+            }
+        };
+
+        executor.submit(PARTITION, 0, Collections.singleton("db1.tbl@cl1"), task);
+        executor.submit(PARTITION, 1, Collections.singleton("db2.tbl@cl1"), task);
+
+        assertTrue(executor.awaitCompletion(10000));
+        assertEquals(latch.getCount(), 0);
+    }
+
+    @Test
+    public void barrierWaitsForEarlierTasks() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(workers, 100);
+        List<String>       order    = Collections.synchronizedList(new ArrayList<>());
+
+        executor.submit(PARTITION, 0, Collections.singleton("a"), () -> sleepAndAdd(order, "a", 200));
+        executor.submit(PARTITION, 1, null, () -> order.add("barrier"));
+        executor.submit(PARTITION, 2, Collections.singleton("b"), () -> order.add("b"));
+
+        assertTrue(executor.awaitCompletion(10000));
+        assertEquals(order, Arrays.asList("a", "barrier", "b"));
+    }
+
+    @Test
+    public void commitOffsetStopsAtLowestInFlight() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(workers, 100);
+        CountDownLatch     release  = new CountDownLatch(1);
+
+        executor.submit(PARTITION, 10, Collections.singleton("slow"), () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                // ignore
+            }
+        });
+        executor.submit(PARTITION, 11, Collections.singleton("fast"), () -> { });
+
+        assertFalse(executor.awaitCompletion(200));
+
+        Map<TopicPartition, Long> offsets = executor.getOffsetsToCommit();
+
+        assertEquals(offsets.get(PARTITION).longValue(), 10L);
+
+        executor.onCommit(PARTITION, 10L);
+
+        assertTrue(executor.getOffsetsToCommit().isEmpty());
+
+        release.countDown();
+
+        assertTrue(executor.awaitCompletion(10000));
+        assertEquals(executor.getOffsetsToCommit().get(PARTITION).longValue(), 12L);
+    }
+
+    @Test
+    public void skippedOffsetIsCommittedAfterEarlierTasks() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(workers, 100);
+        CountDownLatch     release  = new CountDownLatch(1);
+
+        executor.submit(PARTITION, 20, Collections.singleton("slow"), () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                // ignore
+            }
+        });
+        executor.skip(PARTITION, 21);
+
+        assertEquals(executor.getInFlightCount(), 1);
+        assertEquals(executor.getOffsetsToCommit().get(PARTITION).longValue(), 20L);
+
+        release.countDown();
+
+        assertTrue(executor.awaitCompletion(10000));
+        assertEquals(executor.getOffsetsToCommit().get(PARTITION).longValue(), 22L);
+    }
+
+    private static void sleepAndAdd(List<String> order, String value, long sleepMs) {
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException excp) {
+            // ignore
+        }
+
+        order.add(value);
+    }
+}
@@ -143,7 +143,7 @@ public class NotificationHookConsumerKafkaTest {
             assertTrue(true, "ExceptionThrowing consumer throws an excepion.");
         }
 
-        assertTrue(failedCommitOffsetRecorder.getCurrentOffset() > -1);
+        assertFalse(failedCommitOffsetRecorder.isEmpty());
 
         consumer.disableCommitExpcetion();
 
@@ -151,7 +151,7 @@ public class NotificationHookConsumerKafkaTest {
         consumeOneMessage(consumer, hookConsumer);
         consumeOneMessage(consumer, hookConsumer);
 
-        assertNull(failedCommitOffsetRecorder.getCurrentOffset());
+        assertTrue(failedCommitOffsetRecorder.isEmpty());
 
         reset(atlasEntityStore);
     }